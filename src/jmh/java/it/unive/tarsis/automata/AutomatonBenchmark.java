@@ -0,0 +1,207 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.automata.algorithms.RegexExtractor;
+import it.unive.tarsis.benchmarks.RandomAutomata;
+import it.unive.tarsis.regex.RegularExpression;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the core operations of {@link Automaton}, on seeded random
+ * automata of configurable size, density and label length. This class lives
+ * in the package of {@link Automaton} to reach {@link Automaton#determinize()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutomatonBenchmark {
+
+	/**
+	 * The number of states of the random automata
+	 */
+	@Param({ "8", "16", "32" })
+	public int size;
+
+	/**
+	 * The number of transitions leaving each state
+	 */
+	@Param({ "2", "3" })
+	public int density;
+
+	/**
+	 * The length of the label of each transition
+	 */
+	@Param({ "1", "3" })
+	public int labelLength;
+
+	/**
+	 * The seed of the random automata
+	 */
+	@Param({ "42" })
+	public long seed;
+
+	private Automaton a;
+	private Automaton b;
+	private Automaton minimalA;
+	private Automaton minimalB;
+	private Automaton sameAsA;
+	private Automaton union;
+	private Automaton language;
+	private Automaton minimalLanguage;
+	private Automaton toReplace;
+	private Automaton replacement;
+
+	/**
+	 * Builds the inputs of the benchmarks.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		// if enabled, run the calibration of the thresholds outside of
+		// measurements
+		AlgorithmSelector.getBrzozowskiThreshold();
+
+		RandomAutomata random = new RandomAutomata(seed);
+		a = random.automaton(size, density, labelLength);
+		b = random.automaton(size, density, labelLength);
+		minimalA = a.minimize();
+		minimalB = b.minimize();
+		// the same language of a, built differently
+		sameAsA = minimalA.concat(Automaton.mkEmptyString());
+		union = minimalA.union(minimalB);
+		language = random.language(size, 4 * labelLength);
+		minimalLanguage = language.minimize();
+		toReplace = Automaton.mkAutomaton(random.string(labelLength));
+		replacement = Automaton.mkAutomaton("x");
+	}
+
+	/**
+	 * Minimizes a non-minimal automaton.
+	 *
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public Automaton minimize() {
+		return a.minimize();
+	}
+
+	/**
+	 * Determinizes a non-deterministic automaton.
+	 *
+	 * @return the deterministic automaton
+	 */
+	@Benchmark
+	public Automaton determinize() {
+		return a.determinize();
+	}
+
+	/**
+	 * Computes the union of two minimal automata.
+	 *
+	 * @return the union
+	 */
+	@Benchmark
+	public Automaton union() {
+		return minimalA.union(minimalB);
+	}
+
+	/**
+	 * Computes the concatenation of two minimal automata.
+	 *
+	 * @return the concatenation
+	 */
+	@Benchmark
+	public Automaton concat() {
+		return minimalA.concat(minimalB);
+	}
+
+	/**
+	 * Computes the intersection of two minimal automata.
+	 *
+	 * @return the intersection
+	 */
+	@Benchmark
+	public Automaton intersection() {
+		return minimalA.intersection(minimalB);
+	}
+
+	/**
+	 * Checks a containment that holds, and thus cannot be refuted early.
+	 *
+	 * @return {@code true}
+	 */
+	@Benchmark
+	public boolean isContained() {
+		return minimalA.isContained(union);
+	}
+
+	/**
+	 * Checks the equality of two automata recognizing the same language.
+	 *
+	 * @return {@code true}
+	 */
+	@Benchmark
+	public boolean equalLanguages() {
+		return minimalA.equals(sameAsA);
+	}
+
+	/**
+	 * Widens a minimal automaton.
+	 *
+	 * @return the widened automaton
+	 */
+	@Benchmark
+	public Automaton widening() {
+		return union.widening(3);
+	}
+
+	/**
+	 * Splits the labels of a minimal automaton into single characters.
+	 *
+	 * @return the exploded automaton
+	 */
+	@Benchmark
+	public Automaton explode() {
+		return minimalA.explode();
+	}
+
+	/**
+	 * Replaces a random string in a finite language, with as many strings as
+	 * the states of the random automata (replacement visits all paths, thus
+	 * it does not terminate on the cyclic ones).
+	 *
+	 * @return the replaced automaton
+	 */
+	@Benchmark
+	public Automaton replace() {
+		return language.replace(toReplace, replacement);
+	}
+
+	/**
+	 * Extracts the minimal regular expression of a finite language (the
+	 * extraction from random cyclic automata takes seconds even on the
+	 * smallest ones).
+	 *
+	 * @return the regular expression
+	 */
+	@Benchmark
+	public RegularExpression getMinimalRegex() {
+		return RegexExtractor.getMinimalRegex(minimalLanguage);
+	}
+}
@@ -0,0 +1,194 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.regex.TopAtom;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Families of automata parametrized by a size, whose members grow regularly
+ * with it and stress different parts of the operations of {@link Automaton}.
+ * Members of the random families are driven by a seeded random generator, so
+ * that all runs work on the same inputs. No member is known to be minimal, so
+ * that minimization is always executed on them.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public enum AutomatonFamily {
+
+	/**
+	 * Single strings of {@code size} characters, recognized by chains of
+	 * {@code size + 1} states
+	 */
+	CHAIN {
+		@Override
+		public Automaton build(int size, long seed) {
+			Random random = new Random(seed);
+			State[] states = states(size + 1);
+			Set<Transition> delta = new HashSet<>();
+			for (int i = 0; i < size; i++)
+				delta.add(new Transition(states[i], states[i + 1], character(random)));
+			return new Automaton(delta, set(states));
+		}
+	},
+
+	/**
+	 * Random deterministic automata with {@code size} states, each with a
+	 * transition for each character of the alphabet
+	 */
+	COMPLETE_DFA {
+		@Override
+		public Automaton build(int size, long seed) {
+			Random random = new Random(seed);
+			State[] states = new State[size];
+			for (int i = 0; i < size; i++)
+				states[i] = new State("q" + i, i == 0, i == size - 1 || random.nextBoolean());
+			Set<Transition> delta = new HashSet<>();
+			for (State state : states)
+				for (int c = 0; c < ALPHABET.length(); c++)
+					delta.add(new Transition(state, states[random.nextInt(size)],
+							new Atom(String.valueOf(ALPHABET.charAt(c)))));
+			return new Automaton(delta, set(states));
+		}
+	},
+
+	/**
+	 * The strings whose {@code size}-th character from the end is an
+	 * {@code a}, recognized by non-deterministic automata with
+	 * {@code size + 1} states whose minimal deterministic automata have
+	 * {@code 2^size} states
+	 */
+	NTH_FROM_LAST {
+		@Override
+		public Automaton build(int size, long seed) {
+			State[] states = states(size + 1);
+			Set<Transition> delta = new HashSet<>();
+			delta.add(new Transition(states[0], states[0], A));
+			delta.add(new Transition(states[0], states[0], B));
+			delta.add(new Transition(states[0], states[1], A));
+			for (int i = 1; i < size; i++) {
+				delta.add(new Transition(states[i], states[i + 1], A));
+				delta.add(new Transition(states[i], states[i + 1], B));
+			}
+			return new Automaton(delta, set(states));
+		}
+	},
+
+	/**
+	 * The languages of {@code size} nested stars, where the i-th star
+	 * repeats the (i-1)-th one followed by a random character, and is
+	 * followed by another one (otherwise, nested stars soon collapse into the
+	 * star of the alphabet)
+	 */
+	NESTED_STARS {
+		@Override
+		public Automaton build(int size, long seed) {
+			Random random = new Random(seed);
+			RegularExpression regex = character(random);
+			for (int i = 0; i < size; i++)
+				regex = new Comp(new Star(new Comp(regex, character(random))), character(random));
+			Automaton automaton = regex.toAutomaton();
+			// a copy that is not known to be minimal
+			return new Automaton(automaton.getDelta(), automaton.getStates());
+		}
+	},
+
+	/**
+	 * The unions of {@code size} random strings of 4 to 8 characters,
+	 * recognized by non-deterministic automata whose paths only share the
+	 * initial and the final state
+	 */
+	LITERAL_UNION {
+		@Override
+		public Automaton build(int size, long seed) {
+			Random random = new Random(seed);
+			State initial = new State("q0", true, false);
+			State last = new State("q1", false, true);
+			Set<State> states = new HashSet<>();
+			states.add(initial);
+			states.add(last);
+			Set<Transition> delta = new HashSet<>();
+			for (int i = 0; i < size; i++) {
+				int length = 4 + random.nextInt(5);
+				State from = initial;
+				for (int j = 0; j < length; j++) {
+					State to = j == length - 1 ? last : new State("q" + states.size(), false, false);
+					states.add(to);
+					delta.add(new Transition(from, to, character(random)));
+					from = to;
+				}
+			}
+			return new Automaton(delta, states);
+		}
+	},
+
+	/**
+	 * Chains of {@code size + 1} states where every other transition reads
+	 * any character, and every fourth state has a self loop reading any
+	 * character
+	 */
+	TOP_HEAVY {
+		@Override
+		public Automaton build(int size, long seed) {
+			Random random = new Random(seed);
+			State[] states = states(size + 1);
+			Set<Transition> delta = new HashSet<>();
+			for (int i = 0; i < size; i++) {
+				delta.add(new Transition(states[i], states[i + 1], i % 2 == 0 ? TopAtom.INSTANCE : character(random)));
+				if (i % 4 == 0)
+					delta.add(new Transition(states[i], states[i], TopAtom.INSTANCE));
+			}
+			return new Automaton(delta, set(states));
+		}
+	};
+
+	/**
+	 * The characters used in labels
+	 */
+	private static final String ALPHABET = "ab";
+
+	private static final Atom A = new Atom("a");
+
+	private static final Atom B = new Atom("b");
+
+	/**
+	 * Yields the member of this family with the given size.
+	 *
+	 * @param size the size of the member
+	 * @param seed the seed of the random choices, ignored by the families
+	 *                 that make none
+	 *
+	 * @return the automaton
+	 */
+	public abstract Automaton build(int size, long seed);
+
+	/**
+	 * Yields the given number of states, where the first one is initial and
+	 * the last one is final.
+	 */
+	private static State[] states(int count) {
+		State[] states = new State[count];
+		for (int i = 0; i < count; i++)
+			states[i] = new State("q" + i, i == 0, i == count - 1);
+		return states;
+	}
+
+	private static Set<State> set(State[] states) {
+		Set<State> result = new HashSet<>();
+		for (State state : states)
+			result.add(state);
+		return result;
+	}
+
+	private static Atom character(Random random) {
+		return new Atom(String.valueOf(ALPHABET.charAt(random.nextInt(ALPHABET.length()))));
+	}
+}
@@ -0,0 +1,186 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.benchmarks.FixpointSolver.Operation;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of whole analyses, where {@link FixpointSolver} computes the
+ * fixpoint of seeded random {@link FixpointProgram}s of increasing size. The
+ * time of each analysis is the score of the benchmark, while {@link Metrics}
+ * reports, as secondary results, the iterations needed to converge, the size
+ * of the automata at loop heads, the operations that exceeded their budget
+ * and the time spent in each {@link Operation}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixpointBenchmark {
+
+	/**
+	 * The number of top-level statements of the random programs
+	 */
+	@Param({ "8", "16", "32" })
+	public int statements;
+
+	/**
+	 * The number of variables of the random programs
+	 */
+	@Param({ "3" })
+	public int variables;
+
+	/**
+	 * The name of the {@link TarsisConfig} of the analysis
+	 */
+	@Param({ "fast", "balanced", "precise" })
+	public String profile;
+
+	/**
+	 * The seed of the random programs
+	 */
+	@Param({ "7" })
+	public long seed;
+
+	private FixpointProgram program;
+	private TarsisConfig config;
+
+	/**
+	 * The secondary results of the benchmark, describing the last analysis
+	 * of each iteration, apart from times that are averaged over all the
+	 * analyses of the iteration.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Metrics {
+
+		/**
+		 * The program points taken from the worklist
+		 */
+		public long iterations;
+
+		/**
+		 * The states of the automata of all variables at loop heads
+		 */
+		public long loopHeadStates;
+
+		/**
+		 * The operations that exceeded {@link FixpointSolver#BUDGET}
+		 */
+		public long fallbacks;
+
+		/**
+		 * The microseconds spent in {@link Operation#LUB}
+		 */
+		public double lubMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#WIDEN}
+		 */
+		public double widenMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#LESS_OR_EQUAL}
+		 */
+		public double lessOrEqualMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#CONCAT}
+		 */
+		public double concatMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#REPLACE}
+		 */
+		public double replaceMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#SUBSTRING}
+		 */
+		public double substringMicros;
+
+		/**
+		 * The microseconds spent in {@link Operation#GUARD}
+		 */
+		public double guardMicros;
+
+		private final long[] nanos = new long[Operation.values().length];
+		private long analyses;
+
+		/**
+		 * Clears the metrics at the beginning of each iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void clear() {
+			iterations = loopHeadStates = fallbacks = 0;
+			for (int i = 0; i < nanos.length; i++)
+				nanos[i] = 0;
+			analyses = 0;
+		}
+
+		private void record(FixpointSolver solver) {
+			iterations = solver.getIterations();
+			loopHeadStates = solver.getLoopHeadStates();
+			fallbacks = solver.getFallbacks();
+
+			analyses++;
+			for (Operation operation : Operation.values())
+				nanos[operation.ordinal()] += solver.getNanos(operation);
+			lubMicros = micros(Operation.LUB);
+			widenMicros = micros(Operation.WIDEN);
+			lessOrEqualMicros = micros(Operation.LESS_OR_EQUAL);
+			concatMicros = micros(Operation.CONCAT);
+			replaceMicros = micros(Operation.REPLACE);
+			substringMicros = micros(Operation.SUBSTRING);
+			guardMicros = micros(Operation.GUARD);
+		}
+
+		private double micros(Operation operation) {
+			return nanos[operation.ordinal()] / 1000.0 / analyses;
+		}
+	}
+
+	/**
+	 * Builds the program to analyze.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		program = FixpointProgram.generate(seed, statements, variables);
+		config = TarsisConfig.byName(profile);
+	}
+
+	/**
+	 * Analyzes the program.
+	 *
+	 * @param metrics the secondary results of the benchmark
+	 *
+	 * @return the solver, holding the fixpoint
+	 */
+	@Benchmark
+	public FixpointSolver analyze(Metrics metrics) {
+		FixpointSolver solver = new FixpointSolver(program, config).solve();
+		metrics.record(solver);
+		return solver;
+	}
+}
@@ -0,0 +1,458 @@
+package it.unive.tarsis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A program of a small language of string variables, represented by its
+ * control flow graph, for benchmarking whole analyses through
+ * {@link FixpointSolver}. Nodes are program points, numbered from the entry
+ * one that is {@code 0}, and edges are labeled by the statement, or by the
+ * guard, that is executed when traversing them. Programs are generated at
+ * random from a seed: they start by assigning a literal to each variable,
+ * and then contain assignments, appends, replacements, substrings, branches
+ * and loops guarded by {@code contains} and {@code startsWith}, whose bodies
+ * always append something to a variable, and that can always be exited.<br>
+ * <br>
+ * Instances of this class are immutable.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class FixpointProgram {
+
+	/**
+	 * The characters used in literals, few enough to make guards succeed
+	 */
+	private static final String ALPHABET = "abcd";
+
+	/**
+	 * The maximum nesting of branches and loops
+	 */
+	private static final int MAX_DEPTH = 2;
+
+	/**
+	 * The statements and the guards labeling edges.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Kind {
+		/**
+		 * No operation, used to join control flows
+		 */
+		SKIP,
+
+		/**
+		 * {@code variable = literal}
+		 */
+		ASSIGN,
+
+		/**
+		 * {@code variable = variable + literal}
+		 */
+		APPEND,
+
+		/**
+		 * {@code variable = variable + operand}
+		 */
+		APPEND_VARIABLE,
+
+		/**
+		 * {@code variable = variable.replace(literal, replacement)}
+		 */
+		REPLACE,
+
+		/**
+		 * {@code variable = variable.substring(start, end)}
+		 */
+		SUBSTRING,
+
+		/**
+		 * {@code assume variable.contains(literal)}
+		 */
+		ASSUME_CONTAINS,
+
+		/**
+		 * {@code assume !variable.contains(literal)}
+		 */
+		ASSUME_NOT_CONTAINS,
+
+		/**
+		 * {@code assume variable.startsWith(literal)}
+		 */
+		ASSUME_STARTS_WITH,
+
+		/**
+		 * {@code assume !variable.startsWith(literal)}
+		 */
+		ASSUME_NOT_STARTS_WITH
+	}
+
+	/**
+	 * An edge of the control flow graph. Fields that are not used by the kind
+	 * of the edge are {@code -1} or {@code null}.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static final class Edge {
+		private final int source;
+		private final int target;
+		private final Kind kind;
+		private final int variable;
+		private final int operand;
+		private final String literal;
+		private final String replacement;
+		private final int start;
+		private final int end;
+
+		private Edge(int source, int target, Kind kind, int variable, int operand, String literal,
+				String replacement, int start, int end) {
+			this.source = source;
+			this.target = target;
+			this.kind = kind;
+			this.variable = variable;
+			this.operand = operand;
+			this.literal = literal;
+			this.replacement = replacement;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Yields the program point where this edge starts.
+		 *
+		 * @return the source node
+		 */
+		public int getSource() {
+			return source;
+		}
+
+		/**
+		 * Yields the program point where this edge ends.
+		 *
+		 * @return the target node
+		 */
+		public int getTarget() {
+			return target;
+		}
+
+		/**
+		 * Yields the kind of this edge.
+		 *
+		 * @return the kind
+		 */
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * Yields the variable that is assigned or tested.
+		 *
+		 * @return the index of the variable
+		 */
+		public int getVariable() {
+			return variable;
+		}
+
+		/**
+		 * Yields the variable appended by {@link Kind#APPEND_VARIABLE}.
+		 *
+		 * @return the index of the variable
+		 */
+		public int getOperand() {
+			return operand;
+		}
+
+		/**
+		 * Yields the literal that is assigned, appended, replaced or tested.
+		 *
+		 * @return the literal
+		 */
+		public String getLiteral() {
+			return literal;
+		}
+
+		/**
+		 * Yields the replacement of {@link Kind#REPLACE}.
+		 *
+		 * @return the replacement
+		 */
+		public String getReplacement() {
+			return replacement;
+		}
+
+		/**
+		 * Yields the start index of {@link Kind#SUBSTRING}.
+		 *
+		 * @return the start index
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * Yields the end index of {@link Kind#SUBSTRING}.
+		 *
+		 * @return the end index
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		@Override
+		public String toString() {
+			String x = "x" + variable;
+			switch (kind) {
+			case ASSIGN:
+				return x + " = \"" + literal + "\"";
+			case APPEND:
+				return x + " += \"" + literal + "\"";
+			case APPEND_VARIABLE:
+				return x + " += x" + operand;
+			case REPLACE:
+				return x + " = " + x + ".replace(\"" + literal + "\", \"" + replacement + "\")";
+			case SUBSTRING:
+				return x + " = " + x + ".substring(" + start + ", " + end + ")";
+			case ASSUME_CONTAINS:
+				return "assume " + x + ".contains(\"" + literal + "\")";
+			case ASSUME_NOT_CONTAINS:
+				return "assume !" + x + ".contains(\"" + literal + "\")";
+			case ASSUME_STARTS_WITH:
+				return "assume " + x + ".startsWith(\"" + literal + "\")";
+			case ASSUME_NOT_STARTS_WITH:
+				return "assume !" + x + ".startsWith(\"" + literal + "\")";
+			case SKIP:
+			default:
+				return "skip";
+			}
+		}
+	}
+
+	private final int variables;
+	private final int nodes;
+	private final List<Edge> edges;
+	private final List<List<Edge>> successors;
+	private final boolean[] loopHeads;
+
+	private FixpointProgram(int variables, int nodes, List<Edge> edges, List<Integer> loopHeads) {
+		this.variables = variables;
+		this.nodes = nodes;
+		this.edges = Collections.unmodifiableList(edges);
+		List<List<Edge>> successors = new ArrayList<>(nodes);
+		for (int i = 0; i < nodes; i++)
+			successors.add(new ArrayList<>());
+		for (Edge edge : edges)
+			successors.get(edge.source).add(edge);
+		this.successors = successors;
+		this.loopHeads = new boolean[nodes];
+		for (int head : loopHeads)
+			this.loopHeads[head] = true;
+	}
+
+	/**
+	 * Yields a random program.
+	 *
+	 * @param seed       the seed of the random generator
+	 * @param statements the number of top-level statements, where each branch
+	 *                       and loop counts as one
+	 * @param variables  the number of variables
+	 *
+	 * @return the program
+	 */
+	public static FixpointProgram generate(long seed, int statements, int variables) {
+		return new Generator(new Random(seed), variables).generate(statements);
+	}
+
+	/**
+	 * Yields the number of variables of this program.
+	 *
+	 * @return the number of variables
+	 */
+	public int getVariables() {
+		return variables;
+	}
+
+	/**
+	 * Yields the number of program points of this program.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Yields all the edges of this program.
+	 *
+	 * @return the edges
+	 */
+	public List<Edge> getEdges() {
+		return edges;
+	}
+
+	/**
+	 * Yields the edges leaving the given program point.
+	 *
+	 * @param node the program point
+	 *
+	 * @return the edges
+	 */
+	public List<Edge> getSuccessors(int node) {
+		return successors.get(node);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given program point is the head
+	 * of a loop, where widening is applied.
+	 *
+	 * @param node the program point
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isLoopHead(int node) {
+		return loopHeads[node];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Edge edge : edges)
+			builder.append(edge.source).append(" -> ").append(edge.target).append(": ").append(edge).append("\n");
+		return builder.toString();
+	}
+
+	/**
+	 * The generator of random programs, that builds the control flow graph of
+	 * a structured program while visiting it.
+	 */
+	private static final class Generator {
+		private final Random random;
+		private final int variables;
+		private final List<Edge> edges = new ArrayList<>();
+		private final List<Integer> loopHeads = new ArrayList<>();
+		private int nodes = 1;
+
+		private Generator(Random random, int variables) {
+			this.random = random;
+			this.variables = variables;
+		}
+
+		private FixpointProgram generate(int statements) {
+			int node = 0;
+			for (int v = 0; v < variables; v++)
+				node = statement(node, Kind.ASSIGN, v);
+			block(node, statements, 0);
+			return new FixpointProgram(variables, nodes, edges, loopHeads);
+		}
+
+		private int block(int entry, int statements, int depth) {
+			int node = entry;
+			for (int i = 0; i < statements; i++)
+				node = statement(node, depth);
+			return node;
+		}
+
+		private int statement(int entry, int depth) {
+			switch (random.nextInt(depth < MAX_DEPTH ? 8 : 6)) {
+			case 0:
+				return statement(entry, Kind.ASSIGN, variable());
+			case 1:
+			case 2:
+				return statement(entry, Kind.APPEND, variable());
+			case 3:
+				return statement(entry, Kind.APPEND_VARIABLE, variable());
+			case 4:
+				return statement(entry, Kind.REPLACE, variable());
+			case 5:
+				return statement(entry, Kind.SUBSTRING, variable());
+			case 6:
+				return branch(entry, depth);
+			default:
+				return loop(entry, depth);
+			}
+		}
+
+		private int statement(int entry, Kind kind, int variable) {
+			int exit = nodes++;
+			switch (kind) {
+			case ASSIGN:
+			case APPEND:
+				edge(entry, exit, kind, variable, -1, string(1 + random.nextInt(3)), null, -1, -1);
+				break;
+			case APPEND_VARIABLE:
+				edge(entry, exit, kind, variable, variable(), null, null, -1, -1);
+				break;
+			case REPLACE:
+				edge(entry, exit, kind, variable, -1, string(1), string(1 + random.nextInt(2)), -1, -1);
+				break;
+			case SUBSTRING:
+				int start = random.nextInt(2);
+				edge(entry, exit, kind, variable, -1, null, null, start, start + 1 + random.nextInt(3));
+				break;
+			default:
+				throw new IllegalArgumentException("Not a statement: " + kind);
+			}
+			return exit;
+		}
+
+		private int branch(int entry, int depth) {
+			Kind[] guard = guard();
+			int variable = variable();
+			String literal = string(1 + random.nextInt(2));
+
+			int then = nodes++, otherwise = nodes++;
+			edge(entry, then, guard[0], variable, -1, literal, null, -1, -1);
+			edge(entry, otherwise, guard[1], variable, -1, literal, null, -1, -1);
+			int thenExit = block(then, 1 + random.nextInt(2), depth + 1);
+			int otherwiseExit = block(otherwise, 1 + random.nextInt(2), depth + 1);
+
+			int join = nodes++;
+			edge(thenExit, join, Kind.SKIP, -1, -1, null, null, -1, -1);
+			edge(otherwiseExit, join, Kind.SKIP, -1, -1, null, null, -1, -1);
+			return join;
+		}
+
+		private int loop(int entry, int depth) {
+			Kind[] guard = guard();
+			int variable = variable();
+			String literal = string(1 + random.nextInt(2));
+
+			int head = nodes++, body = nodes++, exit = nodes++;
+			loopHeads.add(head);
+			edge(entry, head, Kind.SKIP, -1, -1, null, null, -1, -1);
+			// exits are not guarded, as the code following loops would be
+			// unreachable whenever the negation of their guard cannot hold
+			edge(head, body, guard[random.nextInt(2)], variable, -1, literal, null, -1, -1);
+			edge(head, exit, Kind.SKIP, -1, -1, null, null, -1, -1);
+			int bodyExit = statement(body, Kind.APPEND, variable());
+			bodyExit = block(bodyExit, random.nextInt(2), depth + 1);
+			edge(bodyExit, head, Kind.SKIP, -1, -1, null, null, -1, -1);
+			return exit;
+		}
+
+		private Kind[] guard() {
+			return random.nextBoolean() ? new Kind[] { Kind.ASSUME_CONTAINS, Kind.ASSUME_NOT_CONTAINS }
+					: new Kind[] { Kind.ASSUME_STARTS_WITH, Kind.ASSUME_NOT_STARTS_WITH };
+		}
+
+		private void edge(int source, int target, Kind kind, int variable, int operand, String literal,
+				String replacement, int start, int end) {
+			edges.add(new Edge(source, target, kind, variable, operand, literal, replacement, start, end));
+		}
+
+		private int variable() {
+			return random.nextInt(variables);
+		}
+
+		private String string(int length) {
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < length; i++)
+				builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			return builder.toString();
+		}
+	}
+}
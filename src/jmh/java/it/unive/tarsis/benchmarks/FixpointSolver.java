@@ -0,0 +1,313 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.benchmarks.FixpointProgram.Edge;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.IntQueue;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A worklist solver computing, for each program point of a
+ * {@link FixpointProgram}, the {@link AutomatonString} of each variable.
+ * Flows reaching a program point are joined through
+ * {@link AutomatonString#lub(AutomatonString)}, or through
+ * {@link AutomatonString#widen(AutomatonString)} at loop heads, unless
+ * {@link AutomatonString#lessOrEqual(AutomatonString)} proves them already
+ * included in the current value. Guards discard the flows where they surely
+ * do not hold, and do not refine the others. The solver records the number
+ * of iterations, that is of program points taken from the worklist, and the
+ * time spent in each {@link Operation}.<br>
+ * <br>
+ * A solver is meant to be used for a single analysis.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class FixpointSolver {
+
+	/**
+	 * The operations whose time is recorded.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Operation {
+		/**
+		 * {@link AutomatonString#lub(AutomatonString)}
+		 */
+		LUB,
+
+		/**
+		 * {@link AutomatonString#widen(AutomatonString)}
+		 */
+		WIDEN,
+
+		/**
+		 * {@link AutomatonString#lessOrEqual(AutomatonString)}
+		 */
+		LESS_OR_EQUAL,
+
+		/**
+		 * {@link AutomatonString#concat(AutomatonString)}
+		 */
+		CONCAT,
+
+		/**
+		 * {@link AutomatonString#replace(AutomatonString, AutomatonString)}
+		 */
+		REPLACE,
+
+		/**
+		 * {@link AutomatonString#substring(int, int)}
+		 */
+		SUBSTRING,
+
+		/**
+		 * The checks of guards
+		 */
+		GUARD
+	}
+
+	/**
+	 * The budget of each operation: without it, predicates and substrings of
+	 * cyclic automata can spend minutes extracting their regular expressions
+	 */
+	public static final Budget BUDGET = Budget.UNLIMITED.withMaxStates(100_000).withMaxRegexSize(100_000);
+
+	private final FixpointProgram program;
+
+	/**
+	 * The configuration of the strings of the analysis
+	 */
+	private final TarsisConfig config;
+
+	/**
+	 * The value of each variable at each program point, {@code null} for the
+	 * program points that are not reached
+	 */
+	private final AutomatonString[][] states;
+
+	/**
+	 * The strings of the literals of the program
+	 */
+	private final Map<String, AutomatonString> literals = new HashMap<>();
+
+	private final long[] nanos = new long[Operation.values().length];
+	private final int[] counts = new int[Operation.values().length];
+	private int iterations;
+	private int fallbacks;
+	private long totalNanos;
+
+	/**
+	 * Builds the solver. The budget of the given configuration is replaced by
+	 * {@link #BUDGET}, whose exhaustion is counted by
+	 * {@link #getFallbacks()}.
+	 *
+	 * @param program the program to analyze
+	 * @param config  the configuration of the strings of the analysis
+	 */
+	public FixpointSolver(FixpointProgram program, TarsisConfig config) {
+		this.program = program;
+		this.config = config.withBudget(BUDGET.withListener((operation, cause) -> fallbacks++));
+		this.states = new AutomatonString[program.getNodes()][];
+	}
+
+	/**
+	 * Computes the fixpoint, starting from an entry program point where all
+	 * variables are unknown.
+	 *
+	 * @return this solver
+	 */
+	public FixpointSolver solve() {
+		long start = System.nanoTime();
+
+		AutomatonString[] entry = new AutomatonString[program.getVariables()];
+		for (int v = 0; v < entry.length; v++)
+			entry[v] = AutomatonString.mkTop().withConfig(config);
+		states[0] = entry;
+
+		IntQueue worklist = new IntQueue();
+		boolean[] queued = new boolean[program.getNodes()];
+		worklist.add(0);
+		queued[0] = true;
+		while (!worklist.isEmpty()) {
+			int node = worklist.poll();
+			queued[node] = false;
+			iterations++;
+
+			for (Edge edge : program.getSuccessors(node)) {
+				AutomatonString[] result = transfer(edge, states[node]);
+				if (result != null && join(edge.getTarget(), result) && !queued[edge.getTarget()]) {
+					worklist.add(edge.getTarget());
+					queued[edge.getTarget()] = true;
+				}
+			}
+		}
+
+		totalNanos = System.nanoTime() - start;
+		return this;
+	}
+
+	/**
+	 * Yields the values of the variables after traversing the given edge, or
+	 * {@code null} if the edge cannot be traversed.
+	 */
+	private AutomatonString[] transfer(Edge edge, AutomatonString[] state) {
+		AutomatonString[] result = state.clone();
+		int v = edge.getVariable();
+		switch (edge.getKind()) {
+		case ASSIGN:
+			result[v] = literal(edge.getLiteral());
+			return result;
+		case APPEND:
+			result[v] = timed(Operation.CONCAT, () -> state[v].concat(literal(edge.getLiteral())));
+			return result;
+		case APPEND_VARIABLE:
+			result[v] = timed(Operation.CONCAT, () -> state[v].concat(state[edge.getOperand()]));
+			return result;
+		case REPLACE:
+			result[v] = timed(Operation.REPLACE,
+					() -> state[v].replace(literal(edge.getLiteral()), literal(edge.getReplacement())));
+			return result;
+		case SUBSTRING:
+			result[v] = timed(Operation.SUBSTRING, () -> state[v].substring(edge.getStart(), edge.getEnd()));
+			return result;
+		case ASSUME_CONTAINS:
+			return guard(() -> state[v].mayContain(literal(edge.getLiteral()))) ? result : null;
+		case ASSUME_NOT_CONTAINS:
+			return guard(() -> !state[v].contains(literal(edge.getLiteral()))) ? result : null;
+		case ASSUME_STARTS_WITH:
+			return guard(() -> state[v].mayStartWith(literal(edge.getLiteral()))) ? result : null;
+		case ASSUME_NOT_STARTS_WITH:
+			return guard(() -> !state[v].startsWith(literal(edge.getLiteral()))) ? result : null;
+		case SKIP:
+		default:
+			return result;
+		}
+	}
+
+	/**
+	 * Joins the given values with the ones of the given program point,
+	 * yielding {@code true} if the latter changed.
+	 */
+	private boolean join(int node, AutomatonString[] state) {
+		AutomatonString[] current = states[node];
+		if (current == null) {
+			states[node] = state;
+			return true;
+		}
+
+		boolean changed = false;
+		for (int v = 0; v < state.length; v++) {
+			AutomatonString previous = current[v], next = state[v];
+			if (timed(Operation.LESS_OR_EQUAL, () -> next.lessOrEqual(previous)))
+				continue;
+
+			if (program.isLoopHead(node))
+				current[v] = timed(Operation.WIDEN, () -> previous.widen(next));
+			else
+				current[v] = timed(Operation.LUB, () -> previous.lub(next));
+			changed = true;
+		}
+		return changed;
+	}
+
+	private boolean guard(Supplier<Boolean> check) {
+		return timed(Operation.GUARD, check);
+	}
+
+	private <T> T timed(Operation operation, Supplier<T> body) {
+		long start = System.nanoTime();
+		try {
+			return body.get();
+		} finally {
+			nanos[operation.ordinal()] += System.nanoTime() - start;
+			counts[operation.ordinal()]++;
+		}
+	}
+
+	private AutomatonString literal(String literal) {
+		return literals.computeIfAbsent(literal, l -> new AutomatonString(l).withConfig(config));
+	}
+
+	/**
+	 * Yields the values of the variables at the given program point, or
+	 * {@code null} if it is not reached.
+	 *
+	 * @param node the program point
+	 *
+	 * @return the values of the variables
+	 */
+	public AutomatonString[] getState(int node) {
+		return states[node];
+	}
+
+	/**
+	 * Yields the number of program points taken from the worklist before
+	 * reaching the fixpoint.
+	 *
+	 * @return the number of iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Yields the number of operations that exceeded {@link #BUDGET}, and
+	 * whose result has thus been over-approximated.
+	 *
+	 * @return the number of fallbacks
+	 */
+	public int getFallbacks() {
+		return fallbacks;
+	}
+
+	/**
+	 * Yields the time spent to compute the fixpoint.
+	 *
+	 * @return the time, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Yields the time spent in the given operation.
+	 *
+	 * @param operation the operation
+	 *
+	 * @return the time, in nanoseconds
+	 */
+	public long getNanos(Operation operation) {
+		return nanos[operation.ordinal()];
+	}
+
+	/**
+	 * Yields the number of executions of the given operation.
+	 *
+	 * @param operation the operation
+	 *
+	 * @return the number of executions
+	 */
+	public int getCount(Operation operation) {
+		return counts[operation.ordinal()];
+	}
+
+	/**
+	 * Yields the number of states of the automata of all variables at the
+	 * heads of loops that are reached.
+	 *
+	 * @return the number of states
+	 */
+	public int getLoopHeadStates() {
+		int result = 0;
+		for (int node = 0; node < states.length; node++)
+			if (program.isLoopHead(node) && states[node] != null)
+				for (AutomatonString value : states[node])
+					result += value.size();
+		return result;
+	}
+}
@@ -0,0 +1,98 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A generator of random automata for benchmarks, driven by a seeded random
+ * generator so that all runs work on the same inputs. Automata are built as in
+ * the tests, by adding a fixed number of transitions with random labels to
+ * each state, and discarding the automata recognizing the empty language.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class RandomAutomata {
+
+	/**
+	 * The characters used in labels, few enough to make labels collide
+	 */
+	private static final String ALPHABET = "abcd";
+
+	private final Random random;
+
+	/**
+	 * Builds the generator.
+	 *
+	 * @param seed the seed of the random generator
+	 */
+	public RandomAutomata(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Yields a random string of characters of the alphabet.
+	 *
+	 * @param length the length of the string
+	 *
+	 * @return the string
+	 */
+	public String string(int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++)
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return builder.toString();
+	}
+
+	/**
+	 * Yields a random automaton recognizing a non-empty language, with a
+	 * single initial state.
+	 *
+	 * @param size        the number of states
+	 * @param density     the number of transitions leaving each state
+	 * @param labelLength the length of the label of each transition
+	 *
+	 * @return the automaton
+	 */
+	public Automaton automaton(int size, int density, int labelLength) {
+		Automaton result;
+		do {
+			State[] states = new State[size];
+			Set<State> set = new HashSet<>();
+			for (int i = 0; i < size; i++) {
+				states[i] = new State("q" + i, i == 0, random.nextInt(4) == 0);
+				set.add(states[i]);
+			}
+
+			Set<Transition> delta = new HashSet<>();
+			for (State s : states)
+				for (int i = 0; i < density; i++)
+					delta.add(new Transition(s, states[random.nextInt(size)], new Atom(string(labelLength))));
+
+			result = new Automaton(delta, set);
+		} while (result.isEmptyLanguageAccepted());
+
+		return result;
+	}
+
+	/**
+	 * Yields a random automaton recognizing a finite language, built as the
+	 * union of random strings.
+	 *
+	 * @param strings   the number of strings
+	 * @param maxLength the maximum length of each string
+	 *
+	 * @return the automaton
+	 */
+	public Automaton language(int strings, int maxLength) {
+		Automaton[] automata = new Automaton[strings];
+		for (int i = 0; i < strings; i++)
+			automata[i] = Automaton.mkAutomaton(string(1 + random.nextInt(maxLength)));
+		return Automaton.union(automata);
+	}
+}
@@ -0,0 +1,106 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.EmptySet;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.strings.ExtString;
+import java.util.Random;
+
+/**
+ * A generator of random regular expressions and extended strings for
+ * benchmarks, driven by a seeded random generator so that all runs work on the
+ * same inputs. Regular expressions are trees of controlled depth and width:
+ * each inner node is a concatenation or an alternation of {@code width}
+ * operands, possibly starred, and leaves are short atoms, with a few
+ * {@link TopAtom}s, empty strings and empty sets left for
+ * {@link RegularExpression#simplify()} to remove.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class RandomRegexes {
+
+	/**
+	 * The characters used in atoms, few enough to make atoms collide
+	 */
+	private static final String ALPHABET = "abcd";
+
+	private final Random random;
+
+	/**
+	 * Builds the generator.
+	 *
+	 * @param seed the seed of the random generator
+	 */
+	public RandomRegexes(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Yields a random regular expression.
+	 *
+	 * @param depth the number of levels of inner nodes
+	 * @param width the number of operands of each inner node
+	 *
+	 * @return the regular expression
+	 */
+	public RegularExpression regex(int depth, int width) {
+		if (depth == 0)
+			return leaf();
+
+		RegularExpression result = regex(depth - 1, width);
+		boolean alternation = random.nextBoolean();
+		for (int i = 1; i < width; i++) {
+			RegularExpression operand = regex(depth - 1, width);
+			result = alternation ? new Or(result, operand) : new Comp(result, operand);
+		}
+
+		return random.nextInt(4) == 0 ? new Star(result) : result;
+	}
+
+	private RegularExpression leaf() {
+		int kind = random.nextInt(16);
+		if (kind == 0)
+			return TopAtom.INSTANCE;
+		if (kind == 1)
+			return Atom.EPSILON;
+		if (kind == 2)
+			return EmptySet.INSTANCE;
+		return new Atom(string(1 + random.nextInt(3)));
+	}
+
+	/**
+	 * Yields a random extended string, where each character is unknown with
+	 * the given probability.
+	 *
+	 * @param length the length of the string
+	 * @param top    the probability of each character to be unknown
+	 *
+	 * @return the extended string
+	 */
+	public ExtString extString(int length, double top) {
+		ExtString result = ExtString.mkEmptyString();
+		for (int i = 0; i < length; i++)
+			result = result.concat(random.nextDouble() < top ? ExtString.mkTopString(1)
+					: ExtString.mkString(string(1)));
+		return result;
+	}
+
+	/**
+	 * Yields a random string of characters of the alphabet.
+	 *
+	 * @param length the length of the string
+	 *
+	 * @return the string
+	 */
+	public String string(int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++)
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return builder.toString();
+	}
+}
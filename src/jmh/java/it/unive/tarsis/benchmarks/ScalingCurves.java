@@ -0,0 +1,246 @@
+package it.unive.tarsis.benchmarks;
+
+import it.unive.tarsis.automata.AlgorithmSelector;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.RegexExtractor;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.BudgetExceededException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A harness measuring how the time of the operations of {@link Automaton}
+ * grows with the size of their inputs. For each {@link AutomatonFamily} and
+ * each {@link Operation}, the operation is timed on members of the family of
+ * doubling sizes, until either the maximum size is reached or the operation
+ * exceeds the timeout. The resulting curves are written in CSV format, with a
+ * row for each measurement.<br>
+ * <br>
+ * Each measurement repeats the operation until {@link #MIN_NANOS} have
+ * elapsed, and reports the average time of one execution. Since sizes start
+ * from 1, the smallest sizes also warm up the JIT compiler: they are meant to
+ * show where the growth begins, not to be precise. Timeouts are enforced
+ * through {@link Budget}s, and thus only interrupt operations where they
+ * consume states or regular expressions; operations that end after their
+ * timeout anyway are reported as timed out.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ScalingCurves {
+
+	/**
+	 * The operations whose growth is measured.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Operation {
+		/**
+		 * {@link Automaton#minimize()} of the member of the family
+		 */
+		MINIMIZE(in -> in.a::minimize),
+
+		/**
+		 * {@link Automaton#intersection(Automaton)} of two members of the
+		 * family of the same size
+		 */
+		INTERSECTION(in -> () -> in.a.intersection(in.b)),
+
+		/**
+		 * {@link Automaton#isContained(Automaton)} of the member of the family
+		 * in its union with another one, a containment that holds and thus
+		 * cannot be refuted early
+		 */
+		IS_CONTAINED(in -> {
+			Automaton union = in.a.union(in.b);
+			return () -> in.a.isContained(union);
+		}),
+
+		/**
+		 * {@link Automaton#widening(int)} of the minimal automaton of the
+		 * member of the family
+		 */
+		WIDENING(in -> {
+			Automaton minimal = in.a.minimize();
+			return () -> minimal.widening(3);
+		}),
+
+		/**
+		 * The extraction of all the paths of the minimal automaton of the
+		 * member of the family
+		 */
+		GET_ALL_PATHS(in -> {
+			Automaton minimal = in.a.minimize();
+			return () -> minimal.getPathExtractor().getAllPaths();
+		}),
+
+		/**
+		 * {@link RegexExtractor#getMinimalRegex(Automaton)} of the minimal
+		 * automaton of the member of the family
+		 */
+		GET_MINIMAL_REGEX(in -> {
+			Automaton minimal = in.a.minimize();
+			return () -> RegexExtractor.getMinimalRegex(minimal);
+		});
+
+		/**
+		 * Prepares the inputs of the operation, yielding the operation to
+		 * time
+		 */
+		private final Function<Inputs, Supplier<?>> preparation;
+
+		private Operation(Function<Inputs, Supplier<?>> preparation) {
+			this.preparation = preparation;
+		}
+	}
+
+	/**
+	 * The two members of a family, of the same size, that are given to an
+	 * operation.
+	 */
+	private static final class Inputs {
+		private final Automaton a;
+		private final Automaton b;
+
+		private Inputs(Automaton a, Automaton b) {
+			this.a = a;
+			this.b = b;
+		}
+	}
+
+	/**
+	 * The minimum time of each measurement
+	 */
+	public static final long MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * The default file where curves are written
+	 */
+	public static final String DEFAULT_OUTPUT = "build/reports/scaling/curves.csv";
+
+	/**
+	 * The default timeout of each operation, in milliseconds
+	 */
+	public static final long DEFAULT_TIMEOUT = 2000;
+
+	/**
+	 * The default maximum size of the members of the families
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private static final long SEED = 42;
+
+	private final Budget budget;
+	private final int maxSize;
+
+	/**
+	 * Builds the harness.
+	 *
+	 * @param timeout the timeout of each operation, in milliseconds
+	 * @param maxSize the maximum size of the members of the families
+	 */
+	public ScalingCurves(long timeout, int maxSize) {
+		this.budget = Budget.UNLIMITED.withTimeout(timeout, TimeUnit.MILLISECONDS);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Measures all curves, writing them to the given writer. Each row contains
+	 * the family, the operation, the size of the member of the family, its
+	 * states and transitions, the average time of one execution in
+	 * nanoseconds, the number of executions and either {@code ok} or
+	 * {@code timeout}. Building the members of the family and preparing the
+	 * inputs of the operation are also subject to the timeout, and are
+	 * reported as a timed out execution when they exceed it.
+	 *
+	 * @param out the writer
+	 */
+	public void measure(PrintWriter out) {
+		// if enabled, run the calibration of the thresholds outside of
+		// measurements
+		AlgorithmSelector.getBrzozowskiThreshold();
+
+		out.println("family,operation,size,states,transitions,nanos,runs,status");
+		for (AutomatonFamily family : AutomatonFamily.values())
+			for (Operation operation : Operation.values())
+				for (int size = 1; size <= maxSize; size *= 2) {
+					int n = size;
+					Inputs inputs = timed(() -> new Inputs(family.build(n, SEED), family.build(n, SEED + 1)));
+					String shape = inputs == null ? ","
+							: inputs.a.getStates().size() + "," + inputs.a.getDelta().size();
+					String row = inputs == null ? null : measure(operation, inputs);
+					out.println(family + "," + operation + "," + size + "," + shape + ","
+							+ (row == null ? ",0,timeout" : row + ",ok"));
+					out.flush();
+					if (row == null)
+						break;
+				}
+	}
+
+	/**
+	 * Yields the average time and the number of executions of the given
+	 * operation, separated by a comma, or {@code null} if it exceeds the
+	 * timeout.
+	 */
+	private String measure(Operation operation, Inputs inputs) {
+		Supplier<?> body = timed(() -> operation.preparation.apply(inputs));
+		if (body == null)
+			return null;
+
+		long elapsed = 0;
+		int runs = 0;
+		do {
+			long start = System.nanoTime();
+			if (timed(body) == null)
+				return null;
+			elapsed += System.nanoTime() - start;
+			runs++;
+		} while (elapsed < MIN_NANOS);
+		return elapsed / runs + "," + runs;
+	}
+
+	/**
+	 * Yields the result of the given computation, or {@code null} if it
+	 * exceeds the timeout.
+	 */
+	private <T> T timed(Supplier<T> computation) {
+		long start = System.nanoTime();
+		try {
+			T result = budget.run(computation);
+			return System.nanoTime() - start > budget.getTimeoutNanos() ? null : result;
+		} catch (BudgetExceededException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Measures all curves. Arguments are optional and positional: the file
+	 * where curves are written (default {@value #DEFAULT_OUTPUT}), the timeout
+	 * of each operation in milliseconds (default {@value #DEFAULT_TIMEOUT})
+	 * and the maximum size of the members of the families (default
+	 * {@value #DEFAULT_MAX_SIZE}).
+	 *
+	 * @param args the arguments
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path output = Paths.get(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+		long timeout = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_TIMEOUT;
+		int maxSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_SIZE;
+
+		if (output.toAbsolutePath().getParent() != null)
+			Files.createDirectories(output.toAbsolutePath().getParent());
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output))) {
+			new ScalingCurves(timeout, maxSize).measure(out);
+		}
+		System.out.println("Scaling curves written to " + output.toAbsolutePath());
+	}
+}
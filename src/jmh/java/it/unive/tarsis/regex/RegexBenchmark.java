@@ -0,0 +1,137 @@
+package it.unive.tarsis.regex;
+
+import it.unive.tarsis.benchmarks.RandomRegexes;
+import it.unive.tarsis.regex.RegularExpression.PartialSubstring;
+import it.unive.tarsis.strings.ExtString;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations of {@link RegularExpression}, on seeded random
+ * regular expressions of configurable depth and width. This class lives in the
+ * package of {@link RegularExpression} to reach
+ * {@link RegularExpression#substringAux(int, int)}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexBenchmark {
+
+	/**
+	 * The number of levels of inner nodes of the random regular expressions
+	 */
+	@Param({ "2", "3", "4" })
+	public int depth;
+
+	/**
+	 * The number of operands of each inner node
+	 */
+	@Param({ "2", "3" })
+	public int width;
+
+	/**
+	 * The seed of the random regular expressions
+	 */
+	@Param({ "42" })
+	public long seed;
+
+	private RegularExpression regex;
+	private RegularExpression copy;
+	private RegularExpression simplified;
+	private Star star;
+
+	/**
+	 * Builds the inputs of the benchmarks.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		regex = new RandomRegexes(seed).regex(depth, width);
+		// the same tree, made of different objects
+		copy = new RandomRegexes(seed).regex(depth, width);
+		simplified = regex.simplify();
+		// one level less, so that the star has the same depth of the others
+		star = new Star(new RandomRegexes(seed).regex(depth - 1, width).simplify());
+	}
+
+	/**
+	 * Simplifies a regular expression that has not been simplified.
+	 *
+	 * @return the simplified regular expression
+	 */
+	@Benchmark
+	public RegularExpression simplify() {
+		return regex.simplify();
+	}
+
+	/**
+	 * Computes the substrings between two indexes of a simplified regular
+	 * expression.
+	 *
+	 * @return the substrings
+	 */
+	@Benchmark
+	public Set<ExtString> substring() {
+		return simplified.substring(1, 4);
+	}
+
+	/**
+	 * Computes the partial substrings of a simplified regular expression,
+	 * without filtering the complete ones.
+	 *
+	 * @return the partial substrings
+	 */
+	@Benchmark
+	public Set<PartialSubstring> substringAux() {
+		return simplified.substringAux(1, 4);
+	}
+
+	/**
+	 * Computes the partial substrings of a star through its fixpoint.
+	 *
+	 * @return the partial substrings
+	 */
+	@Benchmark
+	public Set<PartialSubstring> starSubstringAux() {
+		return star.substringAux(0, 3);
+	}
+
+	/**
+	 * Hashes a regular expression, visiting the whole tree as hash codes are
+	 * not cached.
+	 *
+	 * @return the hash code
+	 */
+	@Benchmark
+	public int hashCodes() {
+		return regex.hashCode();
+	}
+
+	/**
+	 * Compares two equal regular expressions that do not share any node, and
+	 * thus cannot be told equal without visiting the whole trees.
+	 *
+	 * @return {@code true}
+	 */
+	@Benchmark
+	public boolean equalTrees() {
+		return regex.equals(copy);
+	}
+}
@@ -0,0 +1,95 @@
+package it.unive.tarsis.strings;
+
+import it.unive.tarsis.benchmarks.RandomRegexes;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations of {@link ExtString}, on seeded random
+ * extended strings of configurable length and ratio of unknown characters.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtStringBenchmark {
+
+	/**
+	 * The length of the random extended strings
+	 */
+	@Param({ "16", "256" })
+	public int length;
+
+	/**
+	 * The probability of each character to be unknown
+	 */
+	@Param({ "0.1", "0.5" })
+	public double top;
+
+	/**
+	 * The seed of the random extended strings
+	 */
+	@Param({ "42" })
+	public long seed;
+
+	private ExtString first;
+	private ExtString second;
+	private String needle;
+
+	/**
+	 * Builds the inputs of the benchmarks.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		RandomRegexes random = new RandomRegexes(seed);
+		first = random.extString(length, top);
+		second = random.extString(length, top);
+		needle = random.string(4);
+	}
+
+	/**
+	 * Concatenates two extended strings.
+	 *
+	 * @return the concatenation
+	 */
+	@Benchmark
+	public ExtString concat() {
+		return first.concat(second);
+	}
+
+	/**
+	 * Collapses the sequences of unknown characters of an extended string.
+	 *
+	 * @return the collapsed extended string
+	 */
+	@Benchmark
+	public ExtString collapseTopChars() {
+		return first.collapseTopChars();
+	}
+
+	/**
+	 * Searches a random string inside an extended string.
+	 *
+	 * @return {@code true} if the string is found
+	 */
+	@Benchmark
+	public boolean contains() {
+		return first.contains(needle);
+	}
+}
@@ -1,21 +1,62 @@
 package it.unive.tarsis;
 
-import static it.unive.tarsis.automata.algorithms.RegexExtractor.getMinimalBrzozowskiRegex;
-
+import it.unive.tarsis.automata.AlgorithmSelector;
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonStats;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
-import it.unive.tarsis.automata.algorithms.IndexFinder;
+import it.unive.tarsis.engine.AutomatonEngine;
+import it.unive.tarsis.engine.Engines;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Derivatives;
+import it.unive.tarsis.regex.EmptySet;
+import it.unive.tarsis.regex.Or;
 import it.unive.tarsis.regex.RegularExpression;
 import it.unive.tarsis.regex.TopAtom;
 import it.unive.tarsis.strings.ExtString;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.BudgetExceededException;
+import it.unive.tarsis.util.TarsisConfig;
+import it.unive.tarsis.util.TarsisConfig.Minimization;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
- * A string modeled through the Tarsis abstract domain.
+ * A string modeled through the Tarsis abstract domain. Operations on the
+ * underlying automaton are carried out by an {@link AutomatonEngine}: unless
+ * one is explicitly provided, {@link Engines#getDefault()} is used, and the
+ * results of each operation use the same engine of their receiver. The same
+ * holds for the {@link TarsisConfig} tuning the operations, that is
+ * {@link TarsisConfig#current()} unless one is explicitly provided, and that
+ * is installed on the current thread while operations run.<br>
+ * <br>
+ * The automata resulting from operations have at most
+ * {@link TarsisConfig#getStateCap()} states: larger ones are soundly
+ * over-approximated by widening and, if needed, by collapsing their deepest
+ * portions into a single state. Moreover, strings keep exactly only their
+ * first {@link TarsisConfig#getLengthBound()} characters, abstracting the
+ * rest with the top string: this bounds the size of the automata of strings
+ * that grow without limit, such as the ones built by appending in a loop.<br>
+ * <br>
+ * Operations are interrupted when they exceed one of the {@link Budget}s that
+ * are active on the current thread, or the per-operation budget of the
+ * configuration: in that case, they return a sound over-approximation of
+ * their result (the top string, {@code false} for must operations and
+ * {@code true} for may operations).
  * 
  * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
@@ -45,20 +86,78 @@ public class AutomatonString {
 
 	/**
 	 * Maximum widening threshold, or default threshold if there is no
-	 * difference in the size of the two automata.
+	 * difference in the size of the two automata, of the
+	 * {@link TarsisConfig#BALANCED} configuration. The one actually used is
+	 * {@link TarsisConfig#getWideningCap()}.
 	 */
 	public static final int WIDENING_CAP = 5;
 
 	/**
-	 * The automaton representing the string
+	 * The automaton representing the string, that might not be minimal if
+	 * minimization is deferred. This is {@code null} until {@link #rope} is
+	 * materialized, thus always use {@link #materialized()} to access it.
+	 */
+	private volatile Automaton automaton;
+
+	/**
+	 * The two strings whose concatenation is represented by this one, until
+	 * it is materialized into {@link #automaton}, or {@code null}
+	 */
+	private volatile AutomatonString[] rope;
+
+	/**
+	 * The number of states of the leaves of {@link #rope}, or {@code 0} if
+	 * this string is not a rope
+	 */
+	private final long ropeStates;
+
+	/**
+	 * The automaton representing the string, minimized if minimization is
+	 * deferred. This is lazily computed, thus always use {@link #normalized()}
+	 * to access it.
+	 */
+	private volatile Automaton normalized;
+
+	/**
+	 * The minimization of {@link #automaton} scheduled on the executor of the
+	 * configuration, if minimization is {@link Minimization#BACKGROUND}
+	 */
+	private final FutureTask<Automaton> minimization;
+
+	/**
+	 * The engine used to operate on the automaton
 	 */
-	private final Automaton automaton;
+	private final AutomatonEngine engine;
+
+	/**
+	 * The configuration tuning the operations
+	 */
+	private final TarsisConfig config;
 
 	/**
 	 * The regular expression corresponding to this string. This is lazily
 	 * computed, thus always use {@link #getRegex()} to access it.
 	 */
-	private RegularExpression regex;
+	private volatile RegularExpression regex;
+
+	/**
+	 * The maximum number of states of automata whose regular expression is
+	 * computed to answer predicates on literals
+	 */
+	private static final int REGEX_FAST_PATH_STATES = 32;
+
+	/**
+	 * The budget for computing regular expressions to answer predicates on
+	 * literals: small automata can still have huge regular expressions, whose
+	 * computation takes longer than the automata algorithms
+	 */
+	private static final Budget REGEX_FAST_PATH_BUDGET = Budget.UNLIMITED.withMaxRegexSize(1 << 16);
+
+	/**
+	 * Whether the regular expression equivalent to the automaton exceeded
+	 * {@link #REGEX_FAST_PATH_BUDGET}
+	 */
+	private volatile boolean expensiveRegex;
 
 	/**
 	 * Builds a new automaton string recognizing the top string.
@@ -84,10 +183,14 @@ public class AutomatonString {
 	public AutomatonString(String... lits) {
 		Automaton a = Automaton.mkEmptyLanguage();
 
+		this.engine = Engines.getDefault();
+		this.config = TarsisConfig.current();
 		for (String s : lits)
-			a = a.union(Automaton.mkAutomaton(s));
+			a = engine.union(a, Automaton.mkAutomaton(s));
 
-		this.automaton = a;
+		this.automaton = bound(a, engine, config);
+		this.ropeStates = 0;
+		this.minimization = schedule(this.automaton, engine, config);
 	}
 
 	/**
@@ -96,7 +199,134 @@ public class AutomatonString {
 	 * @param automaton the automaton
 	 */
 	public AutomatonString(Automaton automaton) {
-		this.automaton = automaton;
+		this(automaton, Engines.getDefault());
+	}
+
+	/**
+	 * Creates a new automaton string with the given automaton, that will be
+	 * manipulated through the given engine.
+	 * 
+	 * @param automaton the automaton
+	 * @param engine    the engine
+	 */
+	public AutomatonString(Automaton automaton, AutomatonEngine engine) {
+		this(automaton, engine, TarsisConfig.current());
+	}
+
+	/**
+	 * Creates a new automaton string with the given automaton, that will be
+	 * manipulated through the given engine, tuned by the given configuration.
+	 * 
+	 * @param automaton the automaton
+	 * @param engine    the engine
+	 * @param config    the configuration
+	 */
+	public AutomatonString(Automaton automaton, AutomatonEngine engine, TarsisConfig config) {
+		this.automaton = bound(automaton, engine, config);
+		this.ropeStates = 0;
+		this.engine = engine;
+		this.config = config;
+		this.minimization = schedule(this.automaton, engine, config);
+	}
+
+	/**
+	 * Creates a new automaton string representing the concatenation of the
+	 * given ones, that is materialized only when needed.
+	 */
+	private AutomatonString(AutomatonString first, AutomatonString second, AutomatonEngine engine,
+			TarsisConfig config) {
+		this.rope = new AutomatonString[] { first, second };
+		this.ropeStates = first.leafStates() + second.leafStates();
+		this.engine = engine;
+		this.config = config;
+		this.minimization = null;
+	}
+
+	private long leafStates() {
+		return rope != null ? ropeStates : available().getStates().size();
+	}
+
+	/**
+	 * Yields the automaton representing this string, concatenating the
+	 * leaves of {@link #rope} through a single n-ary concatenation if this
+	 * string has not been materialized yet.
+	 */
+	private Automaton materialized() {
+		if (rope == null)
+			return automaton;
+
+		synchronized (this) {
+			if (rope != null) {
+				Automaton[] automata = leaves().stream().map(AutomatonString::available).toArray(Automaton[]::new);
+				automaton = config.run(() -> cap(engine.concat(automata)));
+				rope = null;
+			}
+			return automaton;
+		}
+	}
+
+	/**
+	 * Yields the leaves of the rope rooted in this string, in order, where
+	 * strings that have already been materialized are leaves. If this string
+	 * is not a rope, it is its only leaf.
+	 */
+	private List<AutomatonString> leaves() {
+		List<AutomatonString> leaves = new ArrayList<>();
+		Deque<AutomatonString> stack = new ArrayDeque<>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			AutomatonString current = stack.pop();
+			AutomatonString[] children = current.rope;
+			if (children == null)
+				leaves.add(current);
+			else {
+				stack.push(children[1]);
+				stack.push(children[0]);
+			}
+		}
+		return leaves;
+	}
+
+	/**
+	 * Yields the only string recognized by this one, or {@code null} if this
+	 * string is a rope or if it does not recognize exactly one string.
+	 */
+	private String literal() {
+		if (rope != null)
+			return null;
+
+		Automaton a = available();
+		AutomatonStats stats = a.getStats();
+		if (stats.isCyclic() || stats.getTopTransitions() > 0 || stats.getPaths() != 1)
+			return null;
+		return a.getLanguage().iterator().next();
+	}
+
+	/**
+	 * Abstracts the characters of the strings recognized by the given
+	 * automaton that exceed the length bound of the given configuration.
+	 */
+	private static Automaton bound(Automaton automaton, AutomatonEngine engine, TarsisConfig config) {
+		int k = config.getLengthBound();
+		if (k == Integer.MAX_VALUE)
+			return automaton;
+
+		Automaton bounded = engine.boundLength(automaton, k);
+		return bounded == automaton ? automaton : engine.minimize(bounded);
+	}
+
+	private static FutureTask<Automaton> schedule(Automaton automaton, AutomatonEngine engine,
+			TarsisConfig config) {
+		if (config.getMinimization() != Minimization.BACKGROUND || automaton.isKnownMinimal())
+			return null;
+
+		Budget budget = config.getBudget();
+		FutureTask<Automaton> task = new FutureTask<>(() -> config.run(() -> budget == Budget.UNLIMITED
+				? engine.minimize(automaton)
+				: budget.run(() -> engine.minimize(automaton))));
+		// if the executor discards the task, it will be run on demand
+		config.getExecutor().execute(task);
+		return task;
 	}
 
 	/**
@@ -106,35 +336,222 @@ public class AutomatonString {
 	 * @return the size of this string
 	 */
 	public int size() {
-		return automaton.getStates().size();
+		return normalized().getStates().size();
+	}
+
+	/**
+	 * Yields the automaton underlying this string in normal form. When
+	 * minimization is deferred (see {@link Minimization#isDeferred()}), the
+	 * results of lattice operations and concatenations are not minimized, and
+	 * this is where minimization happens (or where background minimization is
+	 * awaited), at most once per string. Otherwise, this is the automaton
+	 * underlying this string. If background minimization exceeded its budget,
+	 * this is the unminimized automaton.
+	 */
+	private Automaton normalized() {
+		Automaton result = normalized;
+		if (result == null) {
+			if (minimization != null)
+				try {
+					result = await();
+				} catch (BudgetExceededException e) {
+					// the failure is final: stick to the unminimized
+					// automaton instead of raising it on every access
+					result = materialized();
+				}
+			else if (config.getMinimization().isDeferred())
+				result = config.run(() -> engine.minimize(materialized()));
+			else
+				result = materialized();
+			normalized = result;
+		}
+		return result;
+	}
+
+	private Automaton await() {
+		return join(minimization, () -> config.run(() -> engine.minimize(materialized())));
+	}
+
+	/**
+	 * Runs the given task on this thread if it has not been started yet, and
+	 * waits for its result. Exceptions raised by the task are rethrown, while
+	 * {@code onInterrupt} computes the result if the thread is interrupted
+	 * while waiting.
+	 */
+	private static <T> T join(FutureTask<T> task, Supplier<T> onInterrupt) {
+		// if the task has already been started, this has no effect
+		task.run();
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return onInterrupt.get();
+		}
+	}
+
+	/**
+	 * Yields the best available form of the automaton underlying this string,
+	 * without waiting for minimizations: this is the normalized automaton, if
+	 * it has already been computed, and the unminimized one otherwise.
+	 */
+	private Automaton available() {
+		Automaton result = normalized;
+		if (result != null)
+			return result;
+
+		if (minimization != null && minimization.isDone())
+			return normalized();
+
+		return materialized();
+	}
+
+	private boolean simplifies() {
+		return config.getMinimization() == Minimization.ALWAYS || config.getMinimization() == Minimization.STANDARD;
 	}
 
 	/**
 	 * Yields the regular expression that is equivalent to the automaton
 	 * underlying this string. The regular expression is computed the first time
-	 * that this method is invoked.
+	 * that this method is invoked. If an active {@link Budget} is exceeded while
+	 * computing it, the top regular expression is returned (but not cached).
 	 * 
 	 * @return the regular expression
 	 */
 	public RegularExpression getRegex() {
-		if (regex == null)
-			this.regex = getMinimalBrzozowskiRegex(automaton);
-		return regex;
+		return guarded("getRegex", this::computeRegex, () -> TopAtom.INSTANCE);
+	}
+
+	private RegularExpression computeRegex() {
+		RegularExpression result = regex;
+		if (result == null)
+			// racing threads might compute the same regex more than once,
+			// but they will all publish equivalent values
+			regex = result = engine.toRegex(normalized());
+		return result;
 	}
 
 	/**
-	 * Yields the automaton underlying this string.
+	 * Yields the automaton underlying this string. If minimization is
+	 * deferred (see {@link Minimization#isDeferred()}), this is minimized the
+	 * first time it is requested, or awaited if it is being minimized in
+	 * background.
 	 * 
 	 * @return the automaton
 	 */
 	public Automaton getAutomaton() {
-		return automaton;
+		return normalized();
+	}
+
+	/**
+	 * Yields the engine used to operate on the automaton underlying this
+	 * string.
+	 * 
+	 * @return the engine
+	 */
+	public AutomatonEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Yields an automaton string with the same automaton of this one, that
+	 * uses the given engine.
+	 * 
+	 * @param engine the engine
+	 * 
+	 * @return the new automaton string
+	 */
+	public AutomatonString withEngine(AutomatonEngine engine) {
+		return engine == this.engine ? this : new AutomatonString(materialized(), engine, config);
+	}
+
+	/**
+	 * Yields the configuration tuning the operations on this string.
+	 * 
+	 * @return the configuration
+	 */
+	public TarsisConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Yields an automaton string with the same automaton of this one, tuned
+	 * by the given configuration.
+	 * 
+	 * @param config the configuration
+	 * 
+	 * @return the new automaton string
+	 */
+	public AutomatonString withConfig(TarsisConfig config) {
+		return config == this.config ? this : new AutomatonString(materialized(), engine, config);
+	}
+
+	private AutomatonString wrap(Automaton a) {
+		return new AutomatonString(cap(a), engine, config);
+	}
+
+	/**
+	 * Soundly coarsens the given automaton if it has more states than the
+	 * state cap of the configuration. The automaton is first minimized, then
+	 * widened with decreasing thresholds, starting from the widening cap, and
+	 * finally truncated, until it fits.
+	 */
+	private Automaton cap(Automaton a) {
+		int cap = config.getStateCap();
+		if (a.getStates().size() <= cap)
+			return a;
+
+		Automaton result = engine.minimize(a);
+		for (int n = config.getWideningCap(); n > 0 && result.getStates().size() > cap; n--)
+			result = engine.minimize(engine.widening(result, n));
+
+		if (result.getStates().size() > cap)
+			// the minimal automaton is deterministic, and so is the
+			// truncated one: minimization cannot make it grow
+			result = engine.minimize(engine.truncate(result, cap));
+
+		return result;
+	}
+
+	private AutomatonString top() {
+		return wrap(Automaton.mkTopAutomaton());
+	}
+
+	/**
+	 * Runs the given operation with the configuration of this string
+	 * installed and its budget active, returning the value produced by
+	 * {@code fallback} if the operation exceeds one of the active
+	 * {@link Budget}s. The listener of the exceeded budget, if any, is notified
+	 * before returning. The fallback must yield a sound over-approximation of
+	 * the result of the operation.
+	 */
+	private <T> T guarded(String operation, Supplier<T> body, Supplier<T> fallback) {
+		TarsisConfig.Installation installation = config.install();
+		try {
+			Budget budget = config.getBudget();
+			return budget == Budget.UNLIMITED ? body.get() : budget.run(body);
+		} catch (BudgetExceededException e) {
+			Budget.Listener listener = e.getBudget().getListener();
+			if (listener != null)
+				listener.exceeded(operation, e);
+			return fallback.get();
+		} finally {
+			installation.close();
+		}
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		// deferred minimizations are charged to the active budgets
+		Automaton automaton = guarded("hashCode", this::normalized, this::materialized);
 		result = prime * result + ((automaton == null) ? 0 : automaton.hashCode());
 		return result;
 	}
@@ -148,10 +565,12 @@ public class AutomatonString {
 		if (getClass() != obj.getClass())
 			return false;
 		AutomatonString other = (AutomatonString) obj;
+		Automaton automaton = guarded("equals", this::normalized, this::materialized);
+		Automaton otherAutomaton = other.guarded("equals", other::normalized, other::materialized);
 		if (automaton == null) {
-			if (other.automaton != null)
+			if (otherAutomaton != null)
 				return false;
-		} else if (!automaton.equals(other.automaton))
+		} else if (!guarded("equals", () -> automaton.equals(otherAutomaton), () -> false))
 			return false;
 		return true;
 	}
@@ -164,30 +583,56 @@ public class AutomatonString {
 	/**
 	 * Yields {@code true} iff {@code this} &le; {@code other}, that is, if the
 	 * partial order relation hold for {@code this} and {@code other}. This
-	 * boils down to the automata inclusion check.
+	 * boils down to the automata inclusion check, that is refuted in advance
+	 * through {@link Derivatives} if the regular expressions of both (small)
+	 * strings have already been computed. If an active {@link Budget} is
+	 * exceeded, {@code false} is returned.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return {@code true} iff {@code this} is in relation with {@code other}
 	 */
 	public boolean lessOrEqual(AutomatonString other) {
-		return automaton.isContained(other.automaton);
+		return guarded("lessOrEqual",
+				() -> !refutesInclusion(other) && engine.isContained(normalized(), other.normalized()), () -> false);
+	}
+
+	/**
+	 * Yields {@code true} if the strings recognized by this string are
+	 * surely not all recognized by {@code other}, deciding it on the
+	 * derivatives of the regular expressions of the two strings. Since
+	 * regular expressions treat the top string as any string, while automata
+	 * treat it as a symbol of its own, derivatives can only refute the
+	 * inclusion checked on automata. Regular expressions are not computed for
+	 * this purpose: {@code false} is returned if they are not available, or if
+	 * the strings are not small.
+	 */
+	private boolean refutesInclusion(AutomatonString other) {
+		RegularExpression r = regex;
+		RegularExpression s = other.regex;
+		if (r == null || s == null || available().getStates().size() > REGEX_FAST_PATH_STATES
+				|| other.available().getStates().size() > REGEX_FAST_PATH_STATES)
+			return false;
+		return !new Derivatives().isIncluded(r, s);
 	}
 
 	/**
 	 * Performs the least upper bound between this string and the given one,
-	 * simplifying (i.e., determinizing and minimizing) the result.
+	 * simplifying (i.e., determinizing and minimizing) the result if the
+	 * minimization policy of the configuration is {@link Minimization#ALWAYS}
+	 * or {@link Minimization#STANDARD}.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return the least upper bound
 	 */
 	public AutomatonString lub(AutomatonString other) {
-		return lub(other, true);
+		return lub(other, simplifies());
 	}
 
 	/**
-	 * Performs the least upper bound between this string and the given one.
+	 * Performs the least upper bound between this string and the given one. If
+	 * an active {@link Budget} is exceeded, the top string is returned.
 	 * 
 	 * @param other    the other string
 	 * @param simplify if true, the result will be simplified (i.e.,
@@ -196,28 +641,34 @@ public class AutomatonString {
 	 * @return the least upper bound
 	 */
 	public AutomatonString lub(AutomatonString other, boolean simplify) {
-		Automaton union = automaton.union(other.automaton);
+		return guarded("lub", () -> {
+			Automaton union = engine.union(available(), other.available());
 
-		if (simplify)
-			union = union.minimize();
+			if (simplify)
+				union = engine.minimize(union);
 
-		return new AutomatonString(union);
+			return wrap(union);
+		}, this::top);
 	}
 
 	/**
 	 * Performs the greatest lower bound between this string and the given one,
-	 * simplifying (i.e., determinizing and minimizing) the result.
+	 * simplifying (i.e., determinizing and minimizing) the result if the
+	 * minimization policy of the configuration is {@link Minimization#ALWAYS}
+	 * or {@link Minimization#STANDARD}.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return the greatest lower bound
 	 */
 	public AutomatonString glb(AutomatonString other) {
-		return glb(other, true);
+		return glb(other, simplifies());
 	}
 
 	/**
 	 * Performs the greatest lower bound between this string and the given one.
+	 * If an active {@link Budget} is exceeded, this string is returned, as it
+	 * over-approximates the greatest lower bound.
 	 * 
 	 * @param other    the other string
 	 * @param simplify if true, the result will be simplified (i.e.,
@@ -226,34 +677,38 @@ public class AutomatonString {
 	 * @return the greatest lower bound
 	 */
 	public AutomatonString glb(AutomatonString other, boolean simplify) {
-		Automaton union = automaton.intersection(other.automaton);
+		return guarded("glb", () -> {
+			Automaton intersection = engine.intersection(available(), other.available());
 
-		if (simplify)
-			union = union.minimize();
+			if (simplify)
+				intersection = engine.minimize(intersection);
 
-		return new AutomatonString(union);
+			return wrap(intersection);
+		}, () -> this);
 	}
 
 	/**
-	 * Performs the widening between this string and the given one, simplifying
-	 * (i.e., determinizing and minimizing) the result, and by automatically
-	 * determining the threshold parameter. Such parameter will be the
-	 * difference in size between the two underlying automata, capped at
-	 * {@link #WIDENING_CAP}. If the two automata have the same size, the
-	 * threshold will be set to {@link #WIDENING_CAP}.
+	 * Performs the widening between this string and the given one, by
+	 * automatically determining the threshold parameter. Such parameter will be
+	 * the difference in size between the two underlying automata, capped at
+	 * {@link TarsisConfig#getWideningCap()}. If the two automata have the same
+	 * size, the threshold will be set to that cap. The result is simplified
+	 * (i.e., determinized and minimized) only if the minimization policy of the
+	 * configuration is {@link Minimization#ALWAYS}.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return the widened string
 	 */
 	public AutomatonString widen(AutomatonString other) {
-		return widen(other, getSizeDiffCapped(other), false);
+		return widen(other, getSizeDiffCapped(other), config.getMinimization() == Minimization.ALWAYS);
 	}
 
 	/**
 	 * Performs the widening between this string and the given one, simplifying
-	 * (i.e., determinizing and minimizing) the result, and with the given
-	 * widening threshold.
+	 * (i.e., determinizing and minimizing) the result if the minimization
+	 * policy of the configuration is {@link Minimization#ALWAYS} or
+	 * {@link Minimization#STANDARD}, and with the given widening threshold.
 	 * 
 	 * @param other             the other string
 	 * @param wideningThreshold the threshold parameter of the widening
@@ -262,15 +717,15 @@ public class AutomatonString {
 	 * @return the widened string
 	 */
 	public AutomatonString widen(AutomatonString other, int wideningThreshold) {
-		return widen(other, wideningThreshold, true);
+		return widen(other, wideningThreshold, simplifies());
 	}
 
 	/**
 	 * Performs the widening between this string and the given one, by
 	 * automatically determining the threshold parameter. Such parameter will be
 	 * the difference in size between the two underlying automata, capped at
-	 * {@link #WIDENING_CAP}. If the two automata have the same size, the
-	 * threshold will be set to {@link #WIDENING_CAP}.
+	 * {@link TarsisConfig#getWideningCap()}. If the two automata have the same
+	 * size, the threshold will be set to that cap.
 	 * 
 	 * @param other    the other string
 	 * @param simplify if true, the result will be simplified (i.e.,
@@ -283,18 +738,20 @@ public class AutomatonString {
 	}
 
 	private int getSizeDiffCapped(AutomatonString other) {
+		int cap = config.getWideningCap();
 		int size = size();
 		int otherSize = other.size();
 		if (size > otherSize)
-			return Math.min(size - otherSize, WIDENING_CAP);
+			return Math.min(size - otherSize, cap);
 		else if (size < otherSize)
-			return Math.min(otherSize - size, WIDENING_CAP);
+			return Math.min(otherSize - size, cap);
 		else
-			return WIDENING_CAP;
+			return cap;
 	}
 
 	/**
-	 * Performs the widening between this string and the given one.
+	 * Performs the widening between this string and the given one. If an
+	 * active {@link Budget} is exceeded, the top string is returned.
 	 * 
 	 * @param other             the other string
 	 * @param wideningThreshold the threshold parameter of the widening
@@ -305,12 +762,17 @@ public class AutomatonString {
 	 * @return the widened string
 	 */
 	public AutomatonString widen(AutomatonString other, int wideningThreshold, boolean simplify) {
-		Automaton widened = automaton.union(other.automaton).widening(wideningThreshold);
+		return guarded("widen", () -> {
+			// widening is sensitive to the structure of the automaton, and
+			// thus it is always applied to the minimal one
+			Automaton union = engine.minimize(engine.union(available(), other.available()));
+			Automaton widened = engine.widening(union, wideningThreshold);
 
-		if (simplify)
-			widened = widened.minimize();
+			if (simplify)
+				widened = engine.minimize(widened);
 
-		return new AutomatonString(widened);
+			return wrap(widened);
+		}, this::top);
 	}
 
 	/**
@@ -424,30 +886,69 @@ public class AutomatonString {
 	 * modeled by this automaton string. If there is at least a cycle in the
 	 * underlying automaton, or if such automaton accepts the top string at
 	 * least on one transition, then the upper endpoint of the returned interval
-	 * will be infinite.
+	 * will be infinite. If an active {@link Budget} is exceeded, {@code [0, ∞]}
+	 * is returned.
 	 * 
 	 * @return the length, as an interval
 	 */
 	public Interval length() {
-		return new Interval(getRegex().minLength(), getRegex().maxLength(),
-				automaton.hasCycle() || automaton.acceptsTopEventually());
+		if (rope != null)
+			return ropeLength();
+
+		return guarded("length", () -> {
+			RegularExpression regex = computeRegex();
+			return new Interval(regex.minLength(), regex.maxLength(),
+					engine.hasCycle(normalized()) || engine.acceptsTopEventually(normalized()));
+		}, () -> new Interval(0, Integer.MAX_VALUE, true));
 	}
 
 	/**
-	 * Joins this string with the given one.
+	 * Yields the length of this rope, adding up the lengths of its leaves.
+	 */
+	private Interval ropeLength() {
+		long lower = 0, upper = 0;
+		boolean topIsInfinity = false;
+		for (AutomatonString leaf : leaves()) {
+			Interval length = leaf.length();
+			lower += length.getLower();
+			upper += length.getUpper();
+			topIsInfinity |= length.topIsInfinity();
+		}
+		return new Interval((int) Math.min(lower, Integer.MAX_VALUE), (int) Math.min(upper, Integer.MAX_VALUE),
+				topIsInfinity);
+	}
+
+	/**
+	 * Joins this string with the given one. The concatenation is lazy: the
+	 * result is a rope of the two strings, and the automata of all the leaves
+	 * of the rope are concatenated at once when an operation first needs the
+	 * automaton of the result. Concatenations are instead eager if the
+	 * leaves of the rope have more than {@link TarsisConfig#getStateCap()}
+	 * states, or if the configuration has a
+	 * {@link TarsisConfig#getLengthBound()}. If an active {@link Budget} is
+	 * exceeded while concatenating, the top string is returned.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return the joined string
 	 */
 	public AutomatonString concat(AutomatonString other) {
-		return new AutomatonString(automaton.concat(other.automaton));
+		return guarded("concat", () -> {
+			if (config.getLengthBound() != Integer.MAX_VALUE)
+				return wrap(engine.concat(available(), other.available()));
+
+			AutomatonString result = new AutomatonString(this, other, engine, config);
+			if (result.ropeStates > config.getStateCap())
+				result.materialized();
+			return result;
+		}, this::top);
 	}
 
 	/**
 	 * Yields an automaton string modeling all possible substrings of this
 	 * automaton string, starting at {@code start} (inclusive) and ending at
-	 * {@code end} (exclusive).
+	 * {@code end} (exclusive). If an active {@link Budget} is exceeded, the top
+	 * string is returned.
 	 * 
 	 * @param start the start index of the substring
 	 * @param end   the end index of the substring
@@ -455,17 +956,17 @@ public class AutomatonString {
 	 * @return an automaton string modeling all possible substrings
 	 */
 	public AutomatonString substring(int start, int end) {
-		Automaton[] array = allSubstrings(start, end)
-				.parallelStream()
-				.map(s -> Automaton.mkAutomaton(s))
-				.toArray(Automaton[]::new);
-		Automaton result = Automaton.union(array);
-		result = result.minimize();
-		return new AutomatonString(result);
+		return guarded("substring", () -> {
+			Automaton[] array = config.stream(allSubstrings(start, end))
+					.map(s -> Automaton.mkAutomaton(s))
+					.toArray(Automaton[]::new);
+			Automaton result = engine.union(array);
+			return wrap(simplifies() ? engine.minimize(result) : result);
+		}, this::top);
 	}
 
 	private Collection<ExtString> allSubstrings(int start, int end) {
-		return getRegex().substring(start, end);
+		return computeRegex().substring(start, end);
 	}
 
 	/**
@@ -474,8 +975,9 @@ public class AutomatonString {
 	 * then this string is returned. If the automaton underlying this string has
 	 * a cycle, or if the the automaton underlying {@code toReplace} has either
 	 * a cycle or a transition accepting the top string, then this method
-	 * returns an automaton string recognizing the top string. Otherwise, the
-	 * replaced automaton string is returned.
+	 * returns an automaton string recognizing the top string, as it happens if
+	 * an active {@link Budget} is exceeded. Otherwise, the replaced automaton
+	 * string is returned.
 	 * 
 	 * @param toReplace the string to replace
 	 * @param str       the string to use as replacement
@@ -483,27 +985,34 @@ public class AutomatonString {
 	 * @return the replaced string
 	 */
 	public AutomatonString replace(AutomatonString toReplace, AutomatonString str) {
-		if (!contains(toReplace))
-			return this;
+		return guarded("replace", () -> {
+			if (!contains(toReplace))
+				return this;
 
-		if (automaton.hasCycle() || toReplace.automaton.hasCycle() || toReplace.automaton.acceptsTopEventually())
-			return new AutomatonString();
+			if (engine.hasCycle(normalized()) || engine.hasCycle(toReplace.normalized())
+					|| engine.acceptsTopEventually(toReplace.normalized()))
+				return top();
 
-		return new AutomatonString(automaton.replace(toReplace.automaton.explode(), str.automaton));
+			return wrap(engine.replace(normalized(), engine.explode(toReplace.normalized()), str.normalized()));
+		}, this::top);
 	}
 
 	/**
 	 * Yields {@code true} if this string is equal to the given one. Being equal
 	 * means that the two underlying automata are equal, that is, that the
 	 * automaton underlying this string is contained into the automaton
-	 * underlying the other string, and vice versa.
+	 * underlying the other string, and vice versa. As in
+	 * {@link #lessOrEqual(AutomatonString)}, the two inclusions might be
+	 * refuted in advance through {@link Derivatives}. If an active
+	 * {@link Budget} is exceeded, {@code false} is returned.
 	 * 
 	 * @param other the other string
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isEqualTo(AutomatonString other) {
-		return automaton.equals(other.automaton);
+		return guarded("isEqualTo", () -> !refutesInclusion(other) && !other.refutesInclusion(this)
+				&& engine.isEquivalent(normalized(), other.normalized()), () -> false);
 	}
 
 	/**
@@ -518,7 +1027,8 @@ public class AutomatonString {
 	 * concrete string {@code s} modeled by this automaton string and a concrete
 	 * string {@code ss} modeled by {@code string} such that
 	 * {@code s.indexOf(ss) == i} (and {@code s.indexOf(ss) == j},
-	 * respectively).
+	 * respectively). If an active {@link Budget} is exceeded,
+	 * {@code [-1,infinity]} is returned.
 	 * 
 	 * @param string the other string
 	 * 
@@ -526,15 +1036,18 @@ public class AutomatonString {
 	 *             {@code string} into this string
 	 */
 	public Interval indexOf(AutomatonString string) {
-		if (!contains(string))
-			return new Interval(-1, -1, false);
-
-		if (automaton.hasCycle() || string.automaton.hasCycle() || string.automaton.acceptsTopEventually())
-			return new Interval(-1, Integer.MAX_VALUE, true);
-
-		Pair<Integer, Integer> interval = IndexFinder.findIndexesOf(automaton, string.automaton);
-		boolean inf = interval.getRight() == null;
-		return new Interval(interval.getLeft(), inf ? Integer.MAX_VALUE : interval.getRight(), inf);
+		return guarded("indexOf", () -> {
+			if (!contains(string))
+				return new Interval(-1, -1, false);
+
+			if (engine.hasCycle(normalized()) || engine.hasCycle(string.normalized())
+					|| engine.acceptsTopEventually(string.normalized()))
+				return new Interval(-1, Integer.MAX_VALUE, true);
+
+			Pair<Integer, Integer> interval = engine.findIndexesOf(normalized(), string.normalized());
+			boolean inf = interval.getRight() == null;
+			return new Interval(interval.getLeft(), inf ? Integer.MAX_VALUE : interval.getRight(), inf);
+		}, () -> new Interval(-1, Integer.MAX_VALUE, true));
 	}
 
 	// ------------------------------------------------------------------------------------------------------------
@@ -562,8 +1075,12 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean contains(AutomatonString other) {
-		return mustOperation(other, String::contains,
-				(a1, a2) -> other.automaton.explode().mustBeContained(automaton));
+		Boolean fast = regexAnswer(Query.Kind.CONTAINS, other);
+		if (fast != null)
+			return fast;
+
+		return mustOperation("contains", other, String::contains,
+				(a1, a2) -> engine.mustBeContained(engine.explode(other.normalized()), normalized()));
 	}
 
 	/**
@@ -587,7 +1104,13 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean startsWith(AutomatonString other) {
-		return mustOperation(other, String::startsWith, AutomatonString::automatonStartsWith);
+		Boolean prefix = ropeStartsWith(other);
+		if (prefix == null)
+			prefix = regexAnswer(Query.Kind.STARTS_WITH, other);
+		if (prefix != null)
+			return prefix;
+
+		return mustOperation("startsWith", other, String::startsWith, AutomatonString::automatonStartsWith);
 	}
 
 	/**
@@ -609,47 +1132,92 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean endsWith(AutomatonString other) {
-		return mustOperation(other, String::endsWith, (a1, a2) -> {
-			AutomatonString thisReversed = new AutomatonString(a1.automaton.reverse());
-			AutomatonString otherReversed = new AutomatonString(a2.automaton.reverse());
+		Boolean fast = regexAnswer(Query.Kind.ENDS_WITH, other);
+		if (fast != null)
+			return fast;
+
+		return mustOperation("endsWith", other, String::endsWith, (a1, a2) -> {
+			AutomatonString thisReversed = wrap(engine.reverse(a1.normalized()));
+			AutomatonString otherReversed = wrap(engine.reverse(a2.normalized()));
 			return thisReversed.automatonStartsWith(otherReversed);
 		});
 	}
 
 	private boolean automatonStartsWith(AutomatonString other) {
-		if (!automaton.hasCycle())
-			return automaton.mustLanguageCheck(other.automaton, String::startsWith);
+		Automaton a = normalized();
+		if (!engine.hasCycle(a))
+			return engine.mustLanguageCheck(a, other.normalized(), String::startsWith);
 
-		Automaton explode = other.automaton.explode();
+		Automaton explode = engine.explode(other.normalized());
 		if (explode.hasOnlyOnePath()) {
 			Automaton C = explode.extractLongestString();
-			Automaton B = substring(0, explode.maxLengthString()).automaton;
-			B = B.minimize();
+			Automaton B = substring(0, engine.maxLength(explode)).materialized();
+			B = engine.minimize(B);
 
-			if (B.equals(C))
+			if (engine.isEquivalent(B, C))
 				return true;
 		}
 
 		return false;
 	}
 
-	private boolean mustOperation(AutomatonString other, BiPredicate<String, String> languageComparer,
+	/**
+	 * Decides whether this rope starts with the given string, if that string
+	 * is a literal, using only the literal leaves at the beginning of the
+	 * rope: all strings recognized by this one start with the concatenation
+	 * of such leaves. Yields {@code null} if the answer depends on other
+	 * leaves, or if this string is not a rope.
+	 */
+	private Boolean ropeStartsWith(AutomatonString other) {
+		if (rope == null)
+			return null;
+
+		String literal = other.literal();
+		if (literal == null)
+			return null;
+
+		StringBuilder prefix = new StringBuilder();
+		for (AutomatonString leaf : leaves()) {
+			String piece = leaf.literal();
+			if (piece == null) {
+				// the rest of the rope is unknown
+				String known = prefix.toString();
+				return known.length() >= literal.length() || !literal.startsWith(known)
+						? known.startsWith(literal)
+						: null;
+			}
+			prefix.append(piece);
+		}
+
+		// this rope recognizes exactly one string
+		return prefix.toString().startsWith(literal);
+	}
+
+	private boolean mustOperation(String operation, AutomatonString other,
+			BiPredicate<String, String> languageComparer,
 			BiPredicate<AutomatonString, AutomatonString> automataComparer) {
-		if (other.automaton.hasCycle())
+		// if the budget is exceeded, we cannot be sure of anything
+		return guarded(operation, () -> mustOperationAux(other, languageComparer, automataComparer), () -> false);
+	}
+
+	private boolean mustOperationAux(AutomatonString other, BiPredicate<String, String> languageComparer,
+			BiPredicate<AutomatonString, AutomatonString> automataComparer) {
+		if (engine.hasCycle(other.normalized()))
 			// either this does not have a cycle
 			// or they both have a cycle but we cannot enforce
 			// that those are iterated the same number of times
 			return false;
 
-		if (other.automaton.getLanguage().isEmpty())
+		if (other.normalized().languageSize() == 0)
 			// the empty string is always contained
 			return true;
 
-		if (other.automaton.acceptsTopEventually())
+		if (engine.acceptsTopEventually(other.normalized()))
 			return false;
 
-		if (!automaton.hasCycle() && !automaton.acceptsTopEventually())
-			return automaton.mustLanguageCheck(other.automaton, languageComparer);
+		Automaton a = normalized();
+		if (!engine.hasCycle(a) && !engine.acceptsTopEventually(a))
+			return engine.mustLanguageCheck(a, other.normalized(), languageComparer);
 
 		return automataComparer.test(this, other);
 	}
@@ -677,9 +1245,13 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean mayBeEqualTo(AutomatonString other) {
+		Boolean fast = regexAnswer(Query.Kind.MAY_BE_EQUAL_TO, other);
+		if (fast != null)
+			return fast;
+
 		boolean top = false;
 		// TODO fix this with handling the top element
-		return mayOperation(other, top, String::equals, a -> a);
+		return mayOperation("mayBeEqualTo", other, top, String::equals, a -> a);
 	}
 
 	/**
@@ -701,15 +1273,20 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean mayEndWith(AutomatonString other) {
-		boolean top = false;
-		outer: for (State f : automaton.getFinalStates())
-			for (Transition t : automaton.getOutgoingTransitionsFrom(f))
-				if (t.getInput() == TopAtom.INSTANCE) {
-					top = true;
-					break outer;
-				}
+		Boolean fast = regexAnswer(Query.Kind.MAY_END_WITH, other);
+		if (fast != null)
+			return fast;
+
+		return mayOperation("mayEndWith", other, endsWithTop(), String::endsWith, engine::suffix);
+	}
 
-		return mayOperation(other, top, String::endsWith, Automaton::suffix);
+	private boolean endsWithTop() {
+		Automaton a = normalized();
+		for (State f : a.getFinalStates())
+			for (Transition t : a.getOutgoingTransitionsFrom(f))
+				if (t.getInput() == TopAtom.INSTANCE)
+					return true;
+		return false;
 	}
 
 	/**
@@ -732,7 +1309,12 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean mayContain(AutomatonString other) {
-		return mayOperation(other, automaton.acceptsTopEventually(), String::contains, Automaton::factors);
+		Boolean fast = regexAnswer(Query.Kind.MAY_CONTAIN, other);
+		if (fast != null)
+			return fast;
+
+		return mayOperation("mayContain", other, engine.acceptsTopEventually(normalized()), String::contains,
+				engine::factors);
 	}
 
 	/**
@@ -755,27 +1337,334 @@ public class AutomatonString {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean mayStartWith(AutomatonString other) {
-		boolean top = false;
-		for (Transition t : automaton.getOutgoingTransitionsFrom(automaton.getInitialState()))
-			if (t.getInput() == TopAtom.INSTANCE) {
-				top = true;
-				break;
-			}
+		Boolean prefix = ropeStartsWith(other);
+		if (prefix == null)
+			prefix = regexAnswer(Query.Kind.MAY_START_WITH, other);
+		if (prefix != null)
+			return prefix;
 
-		return mayOperation(other, top, String::startsWith, Automaton::prefix);
+		return mayOperation("mayStartWith", other, startsWithTop(), String::startsWith, engine::prefix);
 	}
 
-	private boolean mayOperation(AutomatonString other, boolean okWithTop,
+	private boolean startsWithTop() {
+		Automaton a = normalized();
+		for (Transition t : a.getOutgoingTransitionsFrom(a.getInitialState()))
+			if (t.getInput() == TopAtom.INSTANCE)
+				return true;
+		return false;
+	}
+
+	private boolean mayOperation(String operation, AutomatonString other, boolean okWithTop,
 			BiPredicate<String, String> languageComparer, Function<Automaton, Automaton> automataTransformer) {
-		if (!automaton.hasCycle() && !other.automaton.hasCycle() && !automaton.acceptsTopEventually()
-				&& !other.automaton.acceptsTopEventually())
-			return automaton.mayLanguageCheck(other.automaton, languageComparer);
+		// if the budget is exceeded, anything might happen
+		return guarded(operation, () -> mayOperationAux(other, okWithTop, languageComparer,
+				() -> automataTransformer.apply(engine.explode(normalized()))), () -> true);
+	}
+
+	/**
+	 * Decides a may predicate, where {@code transformed} yields the exploded
+	 * automaton of this string, transformed according to the predicate.
+	 */
+	private boolean mayOperationAux(AutomatonString other, boolean okWithTop,
+			BiPredicate<String, String> languageComparer, Supplier<Automaton> transformed) {
+		Automaton a = normalized();
+		Automaton b = other.normalized();
+		if (!engine.hasCycle(a) && !engine.hasCycle(b) && !engine.acceptsTopEventually(a)
+				&& !engine.acceptsTopEventually(b)) {
+			// enumerating all pairs of strings is cheaper than searching the
+			// product automaton only on small languages
+			long paths = engine.countPaths(a);
+			long otherPaths = engine.countPaths(b);
+			if (otherPaths == 0 || paths <= AlgorithmSelector.getEnumerationThreshold() / otherPaths)
+				return engine.mayLanguageCheck(a, b, languageComparer);
+		}
 
 		if (okWithTop)
 			return true;
 
-		Automaton transformed = automataTransformer.apply(automaton.explode());
-		Automaton otherExploded = other.automaton.explode();
-		return !otherExploded.intersection(transformed).isEmptyLanguageAccepted();
+		Automaton otherExploded = engine.explode(b);
+		return !engine.isEmpty(engine.intersection(otherExploded, transformed.get()));
+	}
+
+	/**
+	 * Answers the given predicate from the regular expression of this string,
+	 * if {@code other} is a literal and the regular expression is either
+	 * already computed or cheap to compute (that is, if the automaton has at
+	 * most {@value #REGEX_FAST_PATH_STATES} states, and its regular expression
+	 * fits {@link #REGEX_FAST_PATH_BUDGET}). The regular expression
+	 * is conclusive if it denotes a finite set of literals, if the literals
+	 * at the boundaries of its top-level concatenation decide the predicate,
+	 * or if its minimum or maximum length rule out the literal (must
+	 * predicates are refuted through lengths only on finite languages). Yields
+	 * {@code null} when the regular expression is not conclusive.
+	 */
+	private Boolean regexAnswer(Query.Kind kind, AutomatonString other) {
+		String literal = other.literal();
+		if (literal == null)
+			return null;
+
+		return guarded("regexAnswer", () -> {
+			RegularExpression r = regex;
+			if (r == null && !expensiveRegex && normalized().getStates().size() <= REGEX_FAST_PATH_STATES)
+				try {
+					r = REGEX_FAST_PATH_BUDGET.run(this::computeRegex);
+				} catch (BudgetExceededException e) {
+					if (e.getBudget() != REGEX_FAST_PATH_BUDGET)
+						throw e;
+					expensiveRegex = true;
+				}
+			if (r == null || r instanceof EmptySet)
+				return null;
+
+			Set<String> literals = new HashSet<>();
+			if (literals(r, literals))
+				return literalsAnswer(kind, literals, literal);
+
+			List<RegularExpression> spine = new ArrayList<>();
+			spine(r, spine);
+			Boolean answer = spineAnswer(kind, spine, literal);
+			if (answer != null)
+				return answer;
+
+			if (kind == Query.Kind.MAY_BE_EQUAL_TO) {
+				// membership is decided on the derivatives, where top matches
+				// any string: this agrees with automata only without top
+				if (!new Derivatives().matches(r, literal))
+					return false;
+				return engine.acceptsTopEventually(normalized()) ? null : true;
+			}
+
+			// lengths can only refute
+			int length = literal.length();
+			switch (kind) {
+			case MAY_CONTAIN:
+			case MAY_START_WITH:
+			case MAY_END_WITH:
+				return length > r.maxLength() ? false : null;
+			default:
+				// on infinite languages, must predicates are computed on
+				// the automaton structure, regardless of the lengths
+				return r.maxLength() != Integer.MAX_VALUE && length > r.minLength() ? false : null;
+			}
+		}, () -> null);
+	}
+
+	/**
+	 * Collects the strings denoted by the given regular expression, yielding
+	 * {@code false} if it does not denote a small finite set of literals.
+	 */
+	private static boolean literals(RegularExpression r, Set<String> literals) {
+		if (r instanceof Or)
+			return literals(r.asOr().getFirst(), literals) && literals(r.asOr().getSecond(), literals);
+		if (!(r instanceof Atom) || r instanceof TopAtom)
+			return false;
+		literals.add(r.toString());
+		return literals.size() <= REGEX_FAST_PATH_STATES;
+	}
+
+	private static Boolean literalsAnswer(Query.Kind kind, Set<String> literals, String literal) {
+		switch (kind) {
+		case MAY_CONTAIN:
+			return literals.stream().anyMatch(s -> s.contains(literal));
+		case MAY_START_WITH:
+			return literals.stream().anyMatch(s -> s.startsWith(literal));
+		case MAY_END_WITH:
+			return literals.stream().anyMatch(s -> s.endsWith(literal));
+		case MAY_BE_EQUAL_TO:
+			return literals.contains(literal);
+		case CONTAINS:
+			return literals.stream().allMatch(s -> s.contains(literal));
+		case STARTS_WITH:
+			return literals.stream().allMatch(s -> s.startsWith(literal));
+		case ENDS_WITH:
+		default:
+			return literals.stream().allMatch(s -> s.endsWith(literal));
+		}
+	}
+
+	/**
+	 * Flattens the top-level concatenation of the given regular expression.
+	 */
+	private static void spine(RegularExpression r, List<RegularExpression> spine) {
+		if (r instanceof Comp) {
+			spine(r.asComp().getFirst(), spine);
+			spine(r.asComp().getSecond(), spine);
+		} else
+			spine.add(r);
+	}
+
+	/**
+	 * Answers the given predicate from the literals of the given top-level
+	 * concatenation, that occur in every string it denotes, or yields
+	 * {@code null} if they are not enough.
+	 */
+	private static Boolean spineAnswer(Query.Kind kind, List<RegularExpression> spine, String literal) {
+		switch (kind) {
+		case CONTAINS:
+		case MAY_CONTAIN:
+			for (RegularExpression r : spine)
+				if (r instanceof Atom && !(r instanceof TopAtom) && r.asAtom().contains(literal))
+					return true;
+			return null;
+		case STARTS_WITH:
+		case MAY_START_WITH:
+			return boundaryAnswer(spine, literal, false);
+		case ENDS_WITH:
+		case MAY_END_WITH:
+			return boundaryAnswer(spine, literal, true);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Decides whether every (and thus some) string denoted by the given
+	 * concatenation starts (or ends, if {@code reverse} is {@code true}) with
+	 * the given literal, from the literals at its beginning (or end), or
+	 * yields {@code null} if they are not enough.
+	 */
+	private static Boolean boundaryAnswer(List<RegularExpression> spine, String literal, boolean reverse) {
+		StringBuilder known = new StringBuilder();
+		for (int i = 0; i < spine.size(); i++) {
+			RegularExpression r = spine.get(reverse ? spine.size() - 1 - i : i);
+			if (!(r instanceof Atom) || r instanceof TopAtom)
+				break;
+			if (reverse)
+				known.insert(0, r.toString());
+			else
+				known.append(r.toString());
+		}
+
+		String bound = known.toString();
+		if (bound.length() >= literal.length())
+			return reverse ? bound.endsWith(literal) : bound.startsWith(literal);
+		if (reverse ? !literal.endsWith(bound) : !literal.startsWith(bound))
+			return false;
+		return null;
+	}
+
+	/**
+	 * Evaluates the given queries on this string, returning their results in
+	 * the same order. This is equivalent to invoking the method corresponding
+	 * to each query, but the automata derived from this string that are needed
+	 * by may predicates (its exploded automaton and its factors, prefix and
+	 * suffix automata) are computed only once, and the queries are then
+	 * evaluated concurrently on the executor of the configuration (see
+	 * {@link TarsisConfig#getExecutor()}). Queries that the executor does not
+	 * run in time are evaluated on the current thread, that waits for the
+	 * other ones.
+	 * 
+	 * @param queries the queries
+	 * 
+	 * @return the results of the queries
+	 */
+	public boolean[] evaluate(List<Query> queries) {
+		return evaluate(queries, config.getExecutor());
+	}
+
+	/**
+	 * Evaluates the given queries on this string, as
+	 * {@link #evaluate(List)} does, using the given executor.
+	 * 
+	 * @param queries  the queries
+	 * @param executor the executor evaluating the queries
+	 * 
+	 * @return the results of the queries
+	 */
+	public boolean[] evaluate(List<Query> queries, Executor executor) {
+		// if the budget is exceeded, queries are evaluated one by one
+		Prepared prepared = guarded("evaluate", () -> new Prepared(queries), () -> null);
+
+		List<FutureTask<Boolean>> tasks = new ArrayList<>(queries.size());
+		for (Query query : queries) {
+			FutureTask<Boolean> task = new FutureTask<>(
+					() -> prepared == null ? evaluate(query) : prepared.evaluate(query));
+			tasks.add(task);
+			executor.execute(task);
+		}
+
+		boolean[] results = new boolean[queries.size()];
+		for (int i = 0; i < results.length; i++) {
+			Query query = queries.get(i);
+			results[i] = join(tasks.get(i), () -> evaluate(query));
+		}
+		return results;
+	}
+
+	private boolean evaluate(Query query) {
+		AutomatonString argument = query.getArgument();
+		switch (query.getKind()) {
+		case MAY_CONTAIN:
+			return mayContain(argument);
+		case MAY_START_WITH:
+			return mayStartWith(argument);
+		case MAY_END_WITH:
+			return mayEndWith(argument);
+		case MAY_BE_EQUAL_TO:
+			return mayBeEqualTo(argument);
+		case CONTAINS:
+			return contains(argument);
+		case STARTS_WITH:
+			return startsWith(argument);
+		case ENDS_WITH:
+		default:
+			return endsWith(argument);
+		}
+	}
+
+	/**
+	 * The automata derived from this string that are shared by a batch of
+	 * queries.
+	 */
+	private final class Prepared {
+		private final boolean containsTop;
+		private final boolean startsWithTop;
+		private final boolean endsWithTop;
+		private final Automaton exploded;
+		private final Automaton factors;
+		private final Automaton prefix;
+		private final Automaton suffix;
+
+		private Prepared(List<Query> queries) {
+			Set<Query.Kind> kinds = EnumSet.noneOf(Query.Kind.class);
+			for (Query query : queries)
+				kinds.add(query.getKind());
+
+			Automaton a = normalized();
+			containsTop = kinds.contains(Query.Kind.MAY_CONTAIN) && engine.acceptsTopEventually(a);
+			startsWithTop = kinds.contains(Query.Kind.MAY_START_WITH) && startsWithTop();
+			endsWithTop = kinds.contains(Query.Kind.MAY_END_WITH) && endsWithTop();
+			exploded = engine.explode(a);
+			factors = kinds.contains(Query.Kind.MAY_CONTAIN) ? engine.factors(exploded) : null;
+			prefix = kinds.contains(Query.Kind.MAY_START_WITH) ? engine.prefix(exploded) : null;
+			suffix = kinds.contains(Query.Kind.MAY_END_WITH) ? engine.suffix(exploded) : null;
+		}
+
+		private boolean evaluate(Query query) {
+			AutomatonString argument = query.getArgument();
+			Boolean fast = regexAnswer(query.getKind(), argument);
+			if (fast != null)
+				return fast;
+
+			switch (query.getKind()) {
+			case MAY_CONTAIN:
+				return may("mayContain", argument, containsTop, String::contains, factors);
+			case MAY_START_WITH:
+				return may("mayStartWith", argument, startsWithTop, String::startsWith, prefix);
+			case MAY_END_WITH:
+				return may("mayEndWith", argument, endsWithTop, String::endsWith, suffix);
+			case MAY_BE_EQUAL_TO:
+				return may("mayBeEqualTo", argument, false, String::equals, exploded);
+			default:
+				// must predicates do not share any work
+				return AutomatonString.this.evaluate(query);
+			}
+		}
+
+		private boolean may(String operation, AutomatonString argument, boolean okWithTop,
+				BiPredicate<String, String> languageComparer, Automaton transformed) {
+			return guarded(operation, () -> mayOperationAux(argument, okWithTop, languageComparer, () -> transformed),
+					() -> true);
+		}
 	}
 }
@@ -0,0 +1,329 @@
+package it.unive.tarsis;
+
+import it.unive.tarsis.automata.AlgorithmSelector;
+import it.unive.tarsis.automata.AutomatonStats;
+
+/**
+ * An estimator of the work needed by the operations of
+ * {@link AutomatonString}, computed from the {@link AutomatonStats} of the
+ * involved automata without running the operations. Estimates are worst-case
+ * upper bounds, expressed in abstract work units that roughly correspond to
+ * the number of states created (by subset constructions) or to the number of
+ * paths visited (by language enumerations), and saturate at
+ * {@link Long#MAX_VALUE}. They are meant to be compared with each other, or
+ * with the limits of a {@link it.unive.tarsis.util.Budget}, by clients that
+ * want to proactively choose approximations for operations that are likely to
+ * blow up. Strings do not consult estimates on their own: being worst-case
+ * bounds, they would trigger approximations also on operations that complete
+ * quickly, and the {@link it.unive.tarsis.util.Budget}s already interrupt the
+ * ones that actually blow up.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class CostEstimator {
+
+	/**
+	 * The operations whose cost can be estimated.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Operation {
+		/**
+		 * {@link AutomatonString#lub(AutomatonString)}
+		 */
+		LUB,
+
+		/**
+		 * {@link AutomatonString#glb(AutomatonString)}
+		 */
+		GLB,
+
+		/**
+		 * {@link AutomatonString#widen(AutomatonString)}
+		 */
+		WIDEN,
+
+		/**
+		 * {@link AutomatonString#concat(AutomatonString)}
+		 */
+		CONCAT,
+
+		/**
+		 * {@link AutomatonString#lessOrEqual(AutomatonString)}
+		 */
+		LESS_OR_EQUAL,
+
+		/**
+		 * {@link AutomatonString#isEqualTo(AutomatonString)}
+		 */
+		IS_EQUAL,
+
+		/**
+		 * {@link AutomatonString#length()}, whose argument is ignored
+		 */
+		LENGTH,
+
+		/**
+		 * {@link AutomatonString#substring(int, int)}, whose argument is ignored
+		 */
+		SUBSTRING,
+
+		/**
+		 * {@link AutomatonString#replace(AutomatonString, AutomatonString)},
+		 * where the argument is the string to replace
+		 */
+		REPLACE,
+
+		/**
+		 * {@link AutomatonString#indexOf(AutomatonString)}
+		 */
+		INDEX_OF,
+
+		/**
+		 * {@link AutomatonString#contains(AutomatonString)},
+		 * {@link AutomatonString#startsWith(AutomatonString)} and
+		 * {@link AutomatonString#endsWith(AutomatonString)}
+		 */
+		MUST_PREDICATE,
+
+		/**
+		 * {@link AutomatonString#mayContain(AutomatonString)},
+		 * {@link AutomatonString#mayStartWith(AutomatonString)},
+		 * {@link AutomatonString#mayEndWith(AutomatonString)} and
+		 * {@link AutomatonString#mayBeEqualTo(AutomatonString)}
+		 */
+		MAY_PREDICATE
+	}
+
+	private CostEstimator() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Estimates the work needed by the given operation, invoked on
+	 * {@code receiver} with {@code argument} as (first) parameter.
+	 *
+	 * @param operation the operation
+	 * @param receiver  the receiver of the operation
+	 * @param argument  the argument of the operation, ignored by operations
+	 *                      that do not need one
+	 *
+	 * @return the estimated work
+	 */
+	public static long estimate(Operation operation, AutomatonString receiver, AutomatonString argument) {
+		AutomatonStats r = receiver.getAutomaton().getStats();
+		AutomatonStats a = argument == null ? null : argument.getAutomaton().getStats();
+
+		switch (operation) {
+		case LUB:
+			return add(union(r, a), minimization(unionSize(r, a), true));
+		case GLB:
+			return add(intersection(r, a), minimization(unionSize(r, a), true));
+		case WIDEN:
+			long size = unionSize(r, a);
+			long widening = mul(size, pow(Math.max(r.getMaxOutDegree(), a.getMaxOutDegree()),
+					receiver.getConfig().getWideningCap()));
+			return add(add(union(r, a), widening), minimization(size, true));
+		case CONCAT:
+			return minimization(r.getStates() + a.getStates(), false);
+		case LESS_OR_EQUAL:
+			return containment(r, a);
+		case IS_EQUAL:
+			if (!r.isCyclic() && !a.isCyclic())
+				return add(languageEnumeration(r), languageEnumeration(a));
+			return add(add(minimization(r), minimization(a)), add(containment(r, a), containment(a, r)));
+		case LENGTH:
+			return regexExtraction(r);
+		case SUBSTRING:
+			return add(regexExtraction(r), mul(languageEnumeration(r), r.getStates()));
+		case REPLACE:
+		case INDEX_OF:
+			return add(mustPredicate(r, a), mul(pathExtraction(r), pathExtraction(a)));
+		case MUST_PREDICATE:
+			return mustPredicate(r, a);
+		case MAY_PREDICATE:
+		default:
+			if (isFinite(r) && isFinite(a))
+				return mul(languageEnumeration(r), languageEnumeration(a));
+			return intersection(r, a);
+		}
+	}
+
+	/**
+	 * Yields an upper bound on the number of states created by the subset
+	 * construction of the automaton with the given statistics.
+	 *
+	 * @param s the statistics of the automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long subsetConstruction(AutomatonStats s) {
+		return dfaSize(s.getStates(), s.isDeterministic());
+	}
+
+	/**
+	 * Yields an upper bound on the work needed to minimize the automaton with
+	 * the given statistics.
+	 *
+	 * @param s the statistics of the automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long minimization(AutomatonStats s) {
+		return minimization(s.getStates(), s.isDeterministic());
+	}
+
+	/**
+	 * Yields an upper bound on the work needed to intersect the automata with
+	 * the given statistics, choosing between the product construction and De
+	 * Morgan's laws as {@link it.unive.tarsis.automata.Automaton#intersection}
+	 * does.
+	 *
+	 * @param a the statistics of the first automaton
+	 * @param b the statistics of the second automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long intersection(AutomatonStats a, AutomatonStats b) {
+		boolean deterministic = a.isDeterministic() && b.isDeterministic();
+		long size = mul(a.getStates(), b.getStates());
+		if (size <= Integer.MAX_VALUE) {
+			if (deterministic && size <= AlgorithmSelector.getDeMorganThreshold())
+				return deMorgan(a.getStates(), b.getStates());
+			// the subset construction of the product has at most one state
+			// for each pair of states of the subset constructions of the
+			// operands
+			long dfa = deterministic ? size : mul(subsetConstruction(a), subsetConstruction(b));
+			return add(size, minimization(dfa, true));
+		}
+
+		// non-deterministic operands are minimized first
+		long minimizations = add(a.isDeterministic() ? 0 : minimization(a),
+				b.isDeterministic() ? 0 : minimization(b));
+		long first = subsetConstruction(a), second = subsetConstruction(b);
+		long pairs = mul(first, second);
+		if (pairs <= Integer.MAX_VALUE)
+			return add(minimizations, add(pairs, minimization(pairs, true)));
+		return add(minimizations, deMorgan(first, second));
+	}
+
+	/**
+	 * Yields the number of strings that are enumerated when extracting the
+	 * language of the automaton with the given statistics. This is
+	 * {@link Long#MAX_VALUE} if the automaton is cyclic.
+	 *
+	 * @param s the statistics of the automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long languageEnumeration(AutomatonStats s) {
+		return s.getPaths();
+	}
+
+	/**
+	 * Yields an upper bound on the number of paths that are visited when
+	 * extracting all paths of the automaton with the given statistics, where
+	 * each transition is traversed at most twice per path.
+	 *
+	 * @param s the statistics of the automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long pathExtraction(AutomatonStats s) {
+		return s.isCyclic() ? pow(s.getMaxOutDegree(), 2 * s.getTransitions()) : s.getPaths();
+	}
+
+	/**
+	 * Yields an upper bound on the number of regular expression nodes created
+	 * when extracting a regular expression from the automaton with the given
+	 * statistics.
+	 *
+	 * @param s the statistics of the automaton
+	 *
+	 * @return the upper bound
+	 */
+	public static long regexExtraction(AutomatonStats s) {
+		// state elimination on a single initial state
+		long n = s.getStates() + 1;
+		return mul(mul(n, n), mul(n, 2));
+	}
+
+	private static boolean isFinite(AutomatonStats s) {
+		return !s.isCyclic() && s.getTopTransitions() == 0;
+	}
+
+	private static long mustPredicate(AutomatonStats r, AutomatonStats a) {
+		if (a.isCyclic())
+			return 0;
+		if (isFinite(r) && isFinite(a))
+			return mul(languageEnumeration(r), languageEnumeration(a));
+		return add(pathExtraction(r), minimization(r));
+	}
+
+	/**
+	 * Yields an upper bound on the work needed to intersect two deterministic
+	 * automata with the given number of states as {@code !(!a u !b)}, where
+	 * the subset construction of the union of the complete complements has at
+	 * most one state for each pair of their states.
+	 */
+	private static long deMorgan(long a, long b) {
+		long ca = add(a, 1), cb = add(b, 1);
+		long complements = add(minimization(ca, true), minimization(cb, true));
+		long union = add(mul(ca, cb), 1);
+		return add(add(complements, add(union, minimization(union, true))), minimization(union, true));
+	}
+
+	private static long containment(AutomatonStats a, AutomatonStats b) {
+		long cb = add(dfaSize(b.getStates(), b.isDeterministic()), 1);
+		long complement = minimization(cb, true);
+		long ca = add(dfaSize(a.getStates(), a.isDeterministic()), 1);
+		long intersection = add(minimization(ca, true), minimization(add(mul(ca, cb), 1), true));
+		return add(complement, intersection);
+	}
+
+	private static long union(AutomatonStats a, AutomatonStats b) {
+		return minimization(a.getStates() + b.getStates() + 1, false);
+	}
+
+	private static long unionSize(AutomatonStats a, AutomatonStats b) {
+		// the product of the complete deterministic automata
+		return mul(add(dfaSize(a.getStates(), a.isDeterministic()), 1),
+				add(dfaSize(b.getStates(), b.isDeterministic()), 1));
+	}
+
+	private static long dfaSize(long states, boolean deterministic) {
+		return deterministic ? states : pow(2, states);
+	}
+
+	private static long minimization(long states, boolean deterministic) {
+		// deterministic automata are minimized through Hopcroft's algorithm,
+		// while the other ones first go through a subset construction
+		long dfa = dfaSize(states, deterministic);
+		long hopcroft = mul(dfa, 64 - Long.numberOfLeadingZeros(dfa));
+		return deterministic ? hopcroft : add(dfa, hopcroft);
+	}
+
+	private static long add(long a, long b) {
+		long r = a + b;
+		return r < 0 ? Long.MAX_VALUE : r;
+	}
+
+	private static long mul(long a, long b) {
+		if (a == 0 || b == 0)
+			return 0;
+		return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+	}
+
+	private static long pow(long base, long exp) {
+		if (base <= 1 || exp == 0)
+			return exp == 0 ? 1 : base;
+		if (base == 2)
+			return exp >= 62 ? Long.MAX_VALUE : 1L << exp;
+		long result = 1;
+		for (long i = 0; i < exp && result != Long.MAX_VALUE; i++)
+			result = mul(result, base);
+		return result;
+	}
+}
@@ -0,0 +1,196 @@
+package it.unive.tarsis;
+
+import java.util.Objects;
+
+/**
+ * A predicate on an {@link AutomatonString}, whose argument is another
+ * {@link AutomatonString}. Queries are evaluated in batches through
+ * {@link AutomatonString#evaluate(java.util.List)}, that shares the work
+ * needed by all queries on the same string.<br>
+ * <br>
+ * Instances of this class are immutable.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class Query {
+
+	/**
+	 * The predicates that can be queried.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Kind {
+		/**
+		 * {@link AutomatonString#mayContain(AutomatonString)}
+		 */
+		MAY_CONTAIN,
+
+		/**
+		 * {@link AutomatonString#mayStartWith(AutomatonString)}
+		 */
+		MAY_START_WITH,
+
+		/**
+		 * {@link AutomatonString#mayEndWith(AutomatonString)}
+		 */
+		MAY_END_WITH,
+
+		/**
+		 * {@link AutomatonString#mayBeEqualTo(AutomatonString)}
+		 */
+		MAY_BE_EQUAL_TO,
+
+		/**
+		 * {@link AutomatonString#contains(AutomatonString)}
+		 */
+		CONTAINS,
+
+		/**
+		 * {@link AutomatonString#startsWith(AutomatonString)}
+		 */
+		STARTS_WITH,
+
+		/**
+		 * {@link AutomatonString#endsWith(AutomatonString)}
+		 */
+		ENDS_WITH
+	}
+
+	/**
+	 * The predicate
+	 */
+	private final Kind kind;
+
+	/**
+	 * The argument of the predicate
+	 */
+	private final AutomatonString argument;
+
+	/**
+	 * Builds a query.
+	 *
+	 * @param kind     the predicate
+	 * @param argument the argument of the predicate
+	 */
+	public Query(Kind kind, AutomatonString argument) {
+		this.kind = Objects.requireNonNull(kind);
+		this.argument = Objects.requireNonNull(argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#MAY_CONTAIN} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query mayContain(AutomatonString argument) {
+		return new Query(Kind.MAY_CONTAIN, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#MAY_START_WITH} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query mayStartWith(AutomatonString argument) {
+		return new Query(Kind.MAY_START_WITH, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#MAY_END_WITH} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query mayEndWith(AutomatonString argument) {
+		return new Query(Kind.MAY_END_WITH, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#MAY_BE_EQUAL_TO} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query mayBeEqualTo(AutomatonString argument) {
+		return new Query(Kind.MAY_BE_EQUAL_TO, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#CONTAINS} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query contains(AutomatonString argument) {
+		return new Query(Kind.CONTAINS, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#STARTS_WITH} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query startsWith(AutomatonString argument) {
+		return new Query(Kind.STARTS_WITH, argument);
+	}
+
+	/**
+	 * Builds a {@link Kind#ENDS_WITH} query.
+	 *
+	 * @param argument the argument of the predicate
+	 *
+	 * @return the query
+	 */
+	public static Query endsWith(AutomatonString argument) {
+		return new Query(Kind.ENDS_WITH, argument);
+	}
+
+	/**
+	 * Yields the predicate of this query.
+	 *
+	 * @return the predicate
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Yields the argument of the predicate of this query.
+	 *
+	 * @return the argument
+	 */
+	public AutomatonString getArgument() {
+		return argument;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(kind, argument);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Query))
+			return false;
+		Query other = (Query) obj;
+		return kind == other.kind && argument.equals(other.argument);
+	}
+
+	@Override
+	public String toString() {
+		return kind + "(" + argument + ")";
+	}
+}
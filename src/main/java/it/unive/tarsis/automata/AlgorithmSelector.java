@@ -0,0 +1,248 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.automata.algorithms.HopcroftMinimizer;
+import it.unive.tarsis.automata.algorithms.ProductConstruction;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.BudgetExceededException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * The thresholds used by {@link Automaton} to choose among alternative
+ * algorithms for the same operation, based on the shape of the operands:
+ * <ul>
+ * <li>minimization of non-deterministic automata uses Brzozowski's algorithm
+ * up to {@link #getBrzozowskiThreshold()} states, and subset construction
+ * followed by Hopcroft's algorithm above it (deterministic automata are always
+ * minimized through Hopcroft's algorithm);</li>
+ * <li>intersection of deterministic automata uses the De Morgan construction
+ * {@code !(!a u !b)} while the product of the sizes of the operands is at most
+ * {@link #getDeMorganThreshold()}, and the product construction above it
+ * (non-deterministic automata always use the product construction);</li>
+ * <li>may-checks between finite languages enumerate the pairs of strings while
+ * their number is at most {@link #getEnumerationThreshold()}, and search the
+ * product automaton above it.</li>
+ * </ul>
+ * Default thresholds are used unless the {@value #CALIBRATE_PROPERTY} system
+ * property is set to {@code true}: in that case, thresholds are calibrated
+ * once per JVM, the first time they are needed, through a small
+ * micro-benchmark that runs on a dedicated thread and takes a few tens of
+ * milliseconds. On the inputs they are selected for, all alternatives
+ * recognize the same languages: thresholds only affect performance.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AlgorithmSelector {
+
+	/**
+	 * The system property that enables calibration, disabled by default
+	 */
+	public static final String CALIBRATE_PROPERTY = "tarsis.calibrate";
+
+	/**
+	 * The default threshold for Brzozowski's minimization
+	 */
+	public static final int DEFAULT_BRZOZOWSKI_THRESHOLD = 8;
+
+	/**
+	 * The default threshold for De Morgan's intersection
+	 */
+	public static final int DEFAULT_DE_MORGAN_THRESHOLD = 0;
+
+	/**
+	 * The default threshold for language enumeration
+	 */
+	public static final int DEFAULT_ENUMERATION_THRESHOLD = 64;
+
+	/**
+	 * The thresholds used while calibration is running, or if it is disabled
+	 */
+	private static final int[] DEFAULTS = new int[] { DEFAULT_BRZOZOWSKI_THRESHOLD, DEFAULT_DE_MORGAN_THRESHOLD,
+			DEFAULT_ENUMERATION_THRESHOLD };
+
+	/**
+	 * The calibrated thresholds, {@code null} until calibration ends
+	 */
+	private static volatile int[] thresholds;
+
+	/**
+	 * Whether or not calibration has been started
+	 */
+	private static final AtomicBoolean CALIBRATION_STARTED = new AtomicBoolean();
+
+	private AlgorithmSelector() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the maximum number of states of a non-deterministic automaton
+	 * that is minimized through Brzozowski's algorithm.
+	 *
+	 * @return the threshold
+	 */
+	public static int getBrzozowskiThreshold() {
+		return get()[0];
+	}
+
+	/**
+	 * Yields the maximum product of the number of states of two deterministic
+	 * automata that are intersected through De Morgan's laws.
+	 *
+	 * @return the threshold
+	 */
+	public static int getDeMorganThreshold() {
+		return get()[1];
+	}
+
+	/**
+	 * Yields the maximum number of pairs of strings that are enumerated when
+	 * checking a predicate on two finite languages.
+	 *
+	 * @return the threshold
+	 */
+	public static int getEnumerationThreshold() {
+		return get()[2];
+	}
+
+	/**
+	 * Sets the thresholds, overriding the calibrated ones.
+	 *
+	 * @param brzozowski  the threshold for Brzozowski's minimization
+	 * @param deMorgan    the threshold for De Morgan's intersection
+	 * @param enumeration the threshold for language enumeration
+	 */
+	public static void setThresholds(int brzozowski, int deMorgan, int enumeration) {
+		CALIBRATION_STARTED.set(true);
+		thresholds = new int[] { brzozowski, deMorgan, enumeration };
+	}
+
+	private static int[] get() {
+		int[] result = thresholds;
+		if (result != null)
+			return result;
+
+		if (!CALIBRATION_STARTED.compareAndSet(false, true))
+			// calibration is running (possibly on this very thread, as it
+			// uses the dispatching operations): use defaults meanwhile
+			return DEFAULTS;
+
+		if (!Boolean.parseBoolean(System.getProperty(CALIBRATE_PROPERTY, "false"))) {
+			thresholds = DEFAULTS;
+			return DEFAULTS;
+		}
+
+		// calibration runs on its own thread, so that it is not charged to
+		// the budgets of the current one
+		int[][] holder = new int[1][];
+		Thread calibration = new Thread(() -> holder[0] = calibrate(), "tarsis-calibration");
+		calibration.setDaemon(true);
+		calibration.start();
+		try {
+			calibration.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		result = holder[0] == null ? DEFAULTS : holder[0];
+		thresholds = result;
+		return result;
+	}
+
+	private static int[] calibrate() {
+		Random random = new Random(42);
+
+		// warm up the code paths that are measured
+		for (int i = 0; i < 20; i++) {
+			Automaton a = randomNFA(random, 6);
+			a.brzozowski();
+			HopcroftMinimizer.minimize(a.determinize());
+		}
+
+		int brzozowski = 0;
+		for (int size = 4; size <= 32; size *= 2) {
+			Automaton a = randomNFA(random, size);
+			long brz = time(a::brzozowski);
+			long hop = time(() -> HopcroftMinimizer.minimize(a.determinize()));
+			if (brz > hop)
+				break;
+			brzozowski = size;
+		}
+
+		int deMorgan = 0;
+		for (int size = 2; size <= 16; size *= 2) {
+			Automaton a = HopcroftMinimizer.minimize(randomNFA(random, size).determinize());
+			Automaton b = HopcroftMinimizer.minimize(randomNFA(random, size).determinize());
+			long dm = time(() -> a.deMorganIntersection(b));
+			long prod = time(() -> ProductConstruction.intersection(a, b).minimize());
+			if (dm > prod)
+				break;
+			deMorgan = a.getStates().size() * b.getStates().size();
+		}
+
+		int enumeration = 0;
+		for (int strings = 2; strings <= 64; strings *= 2) {
+			Automaton a = randomLanguage(random, strings);
+			Automaton b = randomLanguage(random, strings);
+			long enumerate = time(() -> a.mayLanguageCheck(b, String::contains));
+			long product = time(() -> b.explode().intersection(a.explode().factors()).isEmptyLanguageAccepted());
+			if (enumerate > product)
+				break;
+			enumeration = strings * strings;
+		}
+
+		return new int[] { brzozowski, deMorgan, enumeration };
+	}
+
+	/**
+	 * Yields the best of three executions of the given operation, in
+	 * nanoseconds. Executions that create too many states are stopped, and
+	 * considered infinitely slow.
+	 */
+	private static long time(Supplier<?> operation) {
+		Budget budget = Budget.UNLIMITED.withMaxStates(100_000);
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long start = System.nanoTime();
+			try {
+				budget.run(operation);
+			} catch (BudgetExceededException e) {
+				return Long.MAX_VALUE;
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	private static Automaton randomNFA(Random random, int size) {
+		State[] states = new State[size];
+		Set<State> set = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			states[i] = new State("q" + i, i == 0, random.nextInt(3) == 0);
+			set.add(states[i]);
+		}
+
+		Set<Transition> delta = new HashSet<>();
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < 3; j++)
+				delta.add(new Transition(states[i], states[random.nextInt(size)],
+						new Atom(String.valueOf((char) ('a' + random.nextInt(2))))));
+
+		return new Automaton(delta, set);
+	}
+
+	private static Automaton randomLanguage(Random random, int strings) {
+		Automaton result = Automaton.mkEmptyLanguage();
+		for (int i = 0; i < strings; i++) {
+			StringBuilder builder = new StringBuilder();
+			for (int j = 0; j < 6; j++)
+				builder.append((char) ('a' + random.nextInt(3)));
+			result = result.union(Automaton.mkAutomaton(builder.toString()));
+		}
+		return result;
+	}
+}
@@ -1,32 +1,56 @@
 package it.unive.tarsis.automata;
 
+import it.unive.tarsis.automata.algorithms.ContainmentRefuter;
+import it.unive.tarsis.automata.algorithms.HopcroftMinimizer;
 import it.unive.tarsis.automata.algorithms.PathExtractor;
+import it.unive.tarsis.automata.algorithms.ProductConstruction;
 import it.unive.tarsis.automata.algorithms.RegexExtractor;
 import it.unive.tarsis.automata.algorithms.StringReplacer;
 import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
 import it.unive.tarsis.regex.RegularExpression;
 import it.unive.tarsis.regex.TopAtom;
 import it.unive.tarsis.strings.ExtChar;
 import it.unive.tarsis.strings.ExtString;
 import it.unive.tarsis.strings.TopExtChar;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntIntHashMap;
+import it.unive.tarsis.util.IntQueue;
+import it.unive.tarsis.util.IntStack;
+import it.unive.tarsis.util.OperationCounters;
+import it.unive.tarsis.util.OperationCounters.Counter;
+import it.unive.tarsis.util.TarsisConfig;
+import it.unive.tarsis.util.TarsisConfig.Minimization;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Deque;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.Vector;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * An automaton, represented as a set of states and a set of transitions.
  * Transitions recognize regular expression of type {@link RegularExpression}.
+ * <br>
+ * <br>
+ * Automata are immutable, and can thus be freely shared between threads: all
+ * operations yield new automata, leaving their receiver and parameters
+ * untouched. Use an {@link AutomatonBuilder} to incrementally create or modify
+ * automata.
  * 
  * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
@@ -45,7 +69,7 @@ public class Automaton {
 		State initialState = new State("q0", true, false);
 		newStates.add(initialState);
 
-		return new Automaton(newGamma, newStates);
+		return new Automaton(newGamma, newStates).markMinimal();
 	}
 
 	/**
@@ -59,7 +83,7 @@ public class Automaton {
 		State q0 = new State("q0", true, true);
 		newStates.add(q0);
 
-		return new Automaton(newDelta, newStates);
+		return new Automaton(newDelta, newStates).markMinimal();
 	}
 
 	/**
@@ -78,7 +102,7 @@ public class Automaton {
 		Set<Transition> delta = new HashSet<>();
 		delta.add(new Transition(q0, q1, TopAtom.INSTANCE));
 
-		return new Automaton(delta, states);
+		return new Automaton(delta, states).markMinimal();
 	}
 
 	/**
@@ -99,7 +123,9 @@ public class Automaton {
 		Set<Transition> delta = new HashSet<>();
 		delta.add(new Transition(q0, q1, new Atom(s)));
 
-		return new Automaton(delta, states);
+		Automaton result = new Automaton(delta, states);
+		// the empty string labels an epsilon transition
+		return s.isEmpty() ? result : result.markMinimal();
 	}
 
 	/**
@@ -138,17 +164,17 @@ public class Automaton {
 	/**
 	 * The set of transitions
 	 */
-	private Set<Transition> delta;
+	private final Set<Transition> delta;
 
 	/**
 	 * The set of states
 	 */
-	private Set<State> states;
+	private final Set<State> states;
 
 	/**
 	 * Outgoing adjacency list
 	 */
-	private Map<State, Set<Transition>> adjacencyListOutgoing;
+	private final Map<State, Set<Transition>> adjacencyListOutgoing;
 
 	/**
 	 * The path extractor that is tied to this automaton
@@ -156,28 +182,108 @@ public class Automaton {
 	private final PathExtractor pathExtractor;
 
 	/**
-	 * Builds a new automaton.
+	 * The dense numbering of the states of this automaton. This is lazily
+	 * computed, thus always use {@link #getIndex()} to access it.
+	 */
+	private volatile AutomatonIndex index;
+
+	/**
+	 * The statistics of this automaton. This is lazily computed, thus always
+	 * use {@link #getStats()} to access it.
+	 */
+	private volatile AutomatonStats stats;
+
+	/**
+	 * The language recognized by this automaton, if it has been computed and
+	 * it is small enough to be cached. Always use {@link #getLanguage()} to
+	 * access it.
+	 */
+	private volatile Set<String> language;
+
+	/**
+	 * Whether or not this automaton is known to be minimal, in which case
+	 * {@link #minimize()} returns it unchanged
+	 */
+	private volatile boolean minimal;
+
+	/**
+	 * The matcher of this automaton. This is lazily computed, thus always use
+	 * {@link #compile()} to access it.
+	 */
+	private volatile AutomatonMatcher matcher;
+
+	/**
+	 * The matcher used to enumerate the language of this automaton, where top
+	 * transitions read a single character. This is lazily computed, thus
+	 * always use {@link #languageMatcher()} to access it.
+	 */
+	private volatile AutomatonMatcher languageMatcher;
+
+	/**
+	 * Builds a new automaton. The given sets are copied, thus later
+	 * modifications to them will not affect the automaton.
 	 * 
 	 * @param delta  the set of transitions
 	 * @param states the set of states
 	 */
 	public Automaton(Set<Transition> delta, Set<State> states) {
-		this.delta = delta;
-		this.states = states;
+		this.delta = Collections.unmodifiableSet(new HashSet<>(delta));
+		this.states = Collections.unmodifiableSet(new HashSet<>(states));
 		pathExtractor = new PathExtractor(this);
-		recomputeOutgoingAdjacencyList();
+
+		Map<State, Set<Transition>> adjacency = new HashMap<>();
+		for (Transition t : this.delta)
+			adjacency.computeIfAbsent(t.getFrom(), s -> new HashSet<>()).add(t);
+		for (Map.Entry<State, Set<Transition>> entry : adjacency.entrySet())
+			entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+		adjacencyListOutgoing = Collections.unmodifiableMap(adjacency);
 	}
 
 	/**
-	 * Recomputes the outgoing adjacency list of this automaton. The list is not
-	 * automatically updated by most of the update operations for delaying the
-	 * computation at the end of the processing.
+	 * Yields the dense numbering of the states of this automaton, that graph
+	 * algorithms can use to work on primitive collections. The numbering is
+	 * computed the first time that this method is invoked.
+	 * 
+	 * @return the index of this automaton
 	 */
-	public void recomputeOutgoingAdjacencyList() {
-		adjacencyListOutgoing = new HashMap<>();
+	public AutomatonIndex getIndex() {
+		AutomatonIndex result = index;
+		if (result == null)
+			// racing threads might compute the index more than once, but
+			// they will all publish equivalent values
+			index = result = new AutomatonIndex(this);
+		return result;
+	}
 
-		for (Transition t : delta)
-			adjacencyListOutgoing.computeIfAbsent(t.getFrom(), s -> new HashSet<>()).add(t);
+	/**
+	 * Yields the structural statistics of this automaton. The statistics are
+	 * computed the first time that this method is invoked.
+	 * 
+	 * @return the statistics of this automaton
+	 */
+	public AutomatonStats getStats() {
+		AutomatonStats result = stats;
+		if (result == null)
+			// racing threads might compute the statistics more than once,
+			// but they will all publish equivalent values
+			stats = result = new AutomatonStats(this);
+		return result;
+	}
+
+	/**
+	 * Yields the matcher of this automaton, that tests whether concrete
+	 * strings are recognized by it. The matcher is built the first time that
+	 * this method is invoked.
+	 * 
+	 * @return the matcher of this automaton
+	 */
+	public AutomatonMatcher compile() {
+		AutomatonMatcher result = matcher;
+		if (result == null)
+			// racing threads might compile the automaton more than once, but
+			// they will all publish equivalent values
+			matcher = result = new AutomatonMatcher(this);
+		return result;
 	}
 
 	/**
@@ -231,7 +337,16 @@ public class Automaton {
 	}
 
 	/**
-	 * Yields the set of transitions contained in this automaton.
+	 * Yields {@code true} if and only if this automaton is deterministic and
+	 * has a single initial state.
+	 */
+	private boolean isDfa() {
+		return getInitialStates().size() == 1 && isDeterministic();
+	}
+
+	/**
+	 * Yields the set of transitions contained in this automaton. The returned
+	 * set cannot be modified.
 	 * 
 	 * @return the set of transitions
 	 */
@@ -242,8 +357,8 @@ public class Automaton {
 	/**
 	 * Yields true if and only if the two given states are mutually reachable,
 	 * that is, if there exist a path going from {@code s1} to {@code s2} and
-	 * one going from {@code s2} to {@code s1}. Paths are searched through the
-	 * Dijkstra algorithm.
+	 * one going from {@code s2} to {@code s1}. Paths are searched through a
+	 * breadth-first visit.
 	 * 
 	 * @param s1 the first state
 	 * @param s2 the second state
@@ -252,18 +367,43 @@ public class Automaton {
 	 *             mutually reachable
 	 */
 	public boolean areMutuallyReachable(State s1, State s2) {
-		return !pathExtractor.minimumDijkstra(s1, s2).isEmpty() && !pathExtractor.minimumDijkstra(s2, s1).isEmpty();
+		AutomatonIndex idx = getIndex();
+		int i1 = idx.indexOf(s1), i2 = idx.indexOf(s2);
+		if (i1 < 0 || i2 < 0)
+			return false;
+
+		return reachableFrom(idx, i1).get(i2) && reachableFrom(idx, i2).get(i1);
+	}
+
+	/**
+	 * Yields the numbers of the states that are reachable from the given one,
+	 * through a breadth-first visit. The source state is always part of the
+	 * result.
+	 */
+	private static DenseBitSet reachableFrom(AutomatonIndex idx, int source) {
+		DenseBitSet reached = new DenseBitSet(idx.size());
+		IntQueue ws = new IntQueue();
+		reached.set(source);
+		ws.add(source);
+
+		while (!ws.isEmpty())
+			for (int next : idx.getSuccessors(ws.poll()))
+				if (reached.set(next))
+					ws.add(next);
+
+		return reached;
 	}
 
 	/**
-	 * Yields the set of all outgoing transitions from the given state.
+	 * Yields the set of all outgoing transitions from the given state. The
+	 * returned set cannot be modified.
 	 * 
 	 * @param s the state
 	 * 
 	 * @return the set of outgoing transitions
 	 */
 	public Set<Transition> getOutgoingTransitionsFrom(State s) {
-		return adjacencyListOutgoing.computeIfAbsent(s, ss -> new HashSet<>());
+		return adjacencyListOutgoing.getOrDefault(s, Collections.emptySet());
 	}
 
 	/**
@@ -274,7 +414,8 @@ public class Automaton {
 	 * @return the set of ingoing transitions
 	 */
 	public Set<Transition> getIngoingTransitionsFrom(State s) {
-		List<Transition> collect = delta.parallelStream().filter(t -> t.getTo().equals(s)).collect(Collectors.toList());
+		List<Transition> collect = TarsisConfig.current().stream(delta).filter(t -> t.getTo().equals(s))
+				.collect(Collectors.toList());
 
 		Set<Transition> result = new HashSet<>();
 		for (Transition t : collect)
@@ -303,32 +444,45 @@ public class Automaton {
 	}
 
 	/**
-	 * Removes all unreachable states from this automaton.
+	 * Yields the set of states that are reachable from the initial state of
+	 * this automaton, including the initial state itself.
+	 * 
+	 * @return the set of reachable states
 	 */
-	public void removeUnreachableStates() {
-
+	public Set<State> getReachableStates() {
 		Set<State> reachableStates = new HashSet<>();
-		Set<State> newStates = new HashSet<>();
-		Set<State> temp = new HashSet<>();
 
-		reachableStates.add(getInitialState());
-		newStates.add(getInitialState());
+		State initial = getInitialState();
+		if (initial == null)
+			return reachableStates;
 
-		do {
+		AutomatonIndex idx = getIndex();
+		DenseBitSet reached = reachableFrom(idx, idx.indexOf(initial));
+		for (int i = reached.nextSetBit(0); i >= 0; i = reached.nextSetBit(i + 1))
+			reachableStates.add(idx.getState(i));
 
-			for (State s : newStates) {
-				for (Transition t : getOutgoingTransitionsFrom(s))
-					temp.add(t.getTo());
-			}
+		return reachableStates;
+	}
 
-			temp.removeAll(reachableStates);
-			newStates.clear();
-			newStates.addAll(temp);
-			reachableStates.addAll(newStates);
-		} while (!newStates.isEmpty());
+	/**
+	 * Yields a new automaton obtained by removing all unreachable states from
+	 * this automaton. If all states are reachable, {@code this} is returned.
+	 * <br>
+	 * <br>
+	 * This automaton is never modified by this method.
+	 * 
+	 * @return the automaton without unreachable states
+	 */
+	public Automaton removeUnreachableStates() {
+		Set<State> reachableStates = getReachableStates();
+		if (reachableStates.size() == states.size())
+			return this;
 
-		states.removeIf(s -> !reachableStates.contains(s));
-		delta.removeIf(t -> !reachableStates.contains(t.getFrom()) || !reachableStates.contains(t.getTo()));
+		Set<State> newStates = new HashSet<>(states);
+		Set<Transition> newDelta = new HashSet<>(delta);
+		newStates.removeIf(s -> !reachableStates.contains(s));
+		newDelta.removeIf(t -> !reachableStates.contains(t.getFrom()) || !reachableStates.contains(t.getTo()));
+		return new Automaton(newDelta, newStates);
 	}
 
 	/**
@@ -349,11 +503,6 @@ public class Automaton {
 		return result;
 	}
 
-	private void moveVertex(State vertex, Set<State> sourceSet, Set<State> destinationSet) {
-		sourceSet.remove(vertex);
-		destinationSet.add(vertex);
-	}
-
 	/**
 	 * Yields the set of final states of this automaton.
 	 * 
@@ -399,7 +548,8 @@ public class Automaton {
 	}
 
 	/**
-	 * Yields the set of states of this automaton.
+	 * Yields the set of states of this automaton. The returned set cannot be
+	 * modified.
 	 * 
 	 * @return the set of states
 	 */
@@ -435,28 +585,14 @@ public class Automaton {
 	}
 
 	/**
-	 * Deep-copies this automaton to a new one.
+	 * Copies this automaton to a new one. Since automata are immutable, the
+	 * copy shares its (unmodifiable) states and transitions with this
+	 * automaton.
 	 * 
 	 * @return the copied automaton.
 	 */
 	public Automaton copy() {
-		Set<State> newStates = new HashSet<>();
-		Set<Transition> newDelta = new HashSet<>();
-		HashMap<String, State> nameToStates = new HashMap<String, State>();
-
-		for (State s : states) {
-			State newState = new State(s.getState(), s.isInitialState(), s.isFinalState());
-			newStates.add(newState);
-			nameToStates.put(newState.getState(), newState);
-		}
-
-		for (Transition t : delta)
-			newDelta.add(new Transition(nameToStates.get(t.getFrom().getState()),
-					nameToStates.get(t.getTo().getState()), t.getInput()));
-
-		Automaton result = new Automaton(newDelta, newStates);
-		result.adjacencyListOutgoing = new HashMap<>(adjacencyListOutgoing);
-		return result;
+		return new Automaton(delta, states);
 	}
 
 	/**
@@ -464,15 +600,80 @@ public class Automaton {
 	 * strings recognized by this automaton. In this context, a regular
 	 * expression representing the top string is treated as a one-character
 	 * string containing only the top character stored in
-	 * {@link TopAtom#STRING}.
+	 * {@link TopAtom#STRING}. Languages with at most
+	 * {@link TarsisConfig#getLanguageCacheSize()} strings are cached, and
+	 * returned by later invocations. The returned set cannot be modified.
 	 * 
 	 * @return the language recognized by this automaton
 	 */
 	public Set<String> getLanguage() {
-		return extractStrings(new HashSet<String>(), "", this.getInitialState(), null);
+		Set<String> result = language;
+		if (result != null)
+			return result;
+
+		result = Collections.unmodifiableSet(extractStrings(new HashSet<String>(), "", this.getInitialState(), null));
+		if (result.size() <= TarsisConfig.current().getLanguageCacheSize())
+			language = result;
+		return result;
+	}
+
+	/**
+	 * Yields a lazy stream of the strings recognized by this automaton, in
+	 * length-lexicographic order, that is infinite if this automaton
+	 * recognizes infinitely many strings. As in {@link #getLanguage()}, a
+	 * regular expression representing the top string is treated as a
+	 * one-character string containing only the top character stored in
+	 * {@link TopAtom#STRING}. Differently from {@link #getLanguage()}, strings
+	 * are produced one at a time, so that callers can stop as soon as they
+	 * have seen enough of them (e.g., through {@link Stream#limit(long)}).
+	 * 
+	 * @return the stream of the recognized strings
+	 */
+	public Stream<String> enumerateLanguage() {
+		return enumerateLanguage(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Yields a lazy stream of the strings recognized by this automaton whose
+	 * length is at most {@code maxLength}, in length-lexicographic order (see
+	 * {@link #enumerateLanguage()}).
+	 * 
+	 * @param maxLength the maximum length of the strings
+	 * 
+	 * @return the stream of the recognized strings
+	 */
+	public Stream<String> enumerateLanguage(int maxLength) {
+		LanguageEnumerator enumerator = new LanguageEnumerator(languageMatcher(), maxLength);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(enumerator,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Yields the number of strings recognized by this automaton, that is the
+	 * size of {@link #getLanguage()}, without enumerating them. The result
+	 * saturates at {@link Long#MAX_VALUE}, that also stands for infinitely
+	 * many strings.
+	 * 
+	 * @return the number of recognized strings
+	 */
+	public long languageSize() {
+		Set<String> cached = language;
+		if (cached != null)
+			return cached.size();
+		return LanguageEnumerator.size(languageMatcher());
+	}
+
+	private AutomatonMatcher languageMatcher() {
+		AutomatonMatcher result = languageMatcher;
+		if (result == null)
+			// racing threads might build the matcher more than once, but
+			// they will all publish equivalent values
+			languageMatcher = result = new AutomatonMatcher(this, true);
+		return result;
 	}
 
 	private Set<String> extractStrings(Set<String> set, String partialString, State currentState, Transition prevT) {
+		Budget.checkpoint();
 		if (prevT != null) {
 			partialString += prevT.getInput();
 			if (currentState.isFinalState())
@@ -572,7 +773,9 @@ public class Automaton {
 	}
 
 	/**
-	 * Computes the union between this automaton and the given one.
+	 * Computes the union between this automaton and the given one. The result
+	 * is minimal, unless minimization is deferred by the current
+	 * {@link TarsisConfig} (see {@link Minimization#isDeferred()}).
 	 * 
 	 * @param other the other automata
 	 * 
@@ -615,7 +818,7 @@ public class Automaton {
 		newGamma.add(new Transition(newInitialState, initialA1, Atom.EPSILON));
 		newGamma.add(new Transition(newInitialState, initialA2, Atom.EPSILON));
 
-		return new Automaton(newGamma, newStates).minimize();
+		return new Automaton(newGamma, newStates).normalize();
 	}
 
 	/**
@@ -635,13 +838,43 @@ public class Automaton {
 	}
 
 	/**
-	 * Computes the intersection between this automaton and the given one.
+	 * Computes the intersection between this automaton and the given one,
+	 * either through the product construction or, if both automata are
+	 * deterministic, through De Morgan's laws, depending on the size of the two
+	 * automata (see {@link AlgorithmSelector}). If the product of their sizes
+	 * does not fit an int, non-deterministic automata are minimized first, and
+	 * De Morgan's laws are used if it still does not fit.
 	 * 
 	 * @param other the other automata
 	 * 
 	 * @return the intersection
 	 */
 	public Automaton intersection(Automaton other) {
+		long size = (long) getIndex().size() * other.getIndex().size();
+		if (size <= Integer.MAX_VALUE) {
+			if (size <= AlgorithmSelector.getDeMorganThreshold() && isDfa() && other.isDfa())
+				return deMorganIntersection(other);
+			return ProductConstruction.intersection(this, other).minimize();
+		}
+
+		// the product construction numbers pairs of states through ints, and
+		// complements are only sound on deterministic automata
+		Automaton first = isDfa() ? this : minimize();
+		Automaton second = other.isDfa() ? other : other.minimize();
+		if ((long) first.getIndex().size() * second.getIndex().size() <= Integer.MAX_VALUE)
+			return ProductConstruction.intersection(first, second).minimize();
+		return first.deMorganIntersection(second);
+	}
+
+	/**
+	 * Computes the intersection between this automaton and the given one as
+	 * the complement of the union of their complements.
+	 * 
+	 * @param other the other automata
+	 * 
+	 * @return the intersection
+	 */
+	Automaton deMorganIntersection(Automaton other) {
 		// !(!(first) u !(second))
 		Set<RegularExpression> commonAlphabet = alphabetUnion(other);
 		Automaton notFirst = complement(commonAlphabet);
@@ -665,12 +898,20 @@ public class Automaton {
 	 * Yields {@code true} if and only if {@code this} is contained into
 	 * {@code other}, that is, if the language recognized by the intersection
 	 * between {@code this} and the complement of {@code other} is empty.
+	 * Before building the complement, some words of {@code this} are sampled
+	 * and matched against {@code other}, according to
+	 * {@link TarsisConfig#getRefutationSamples()}: if one of them is not
+	 * accepted, {@code false} is returned right away.
 	 * 
 	 * @param other the other automaton
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isContained(Automaton other) {
+		int samples = TarsisConfig.current().getRefutationSamples();
+		if (samples > 0 && ContainmentRefuter.refutes(this, other, samples))
+			return false;
+
 		return intersection(other.complement(alphabetUnion(other))).isEmptyLanguageAccepted();
 	}
 
@@ -686,19 +927,16 @@ public class Automaton {
 		if (other instanceof Automaton) {
 			Automaton o = (Automaton) other;
 			if (!hasCycle() && !o.hasCycle())
-				return getLanguage().equals(o.getLanguage());
+				return sameFiniteLanguage(this, o);
 
-			Automaton a = copy();
-			Automaton b = o.copy();
-
-			a = a.minimize();
-			b = b.minimize();
+			Automaton a = minimize();
+			Automaton b = o.minimize();
 
 			if (a.hasCycle() && !b.hasCycle() || !a.hasCycle() && b.hasCycle())
 				return false;
 
 			if (!a.hasCycle() && !b.hasCycle())
-				return a.getLanguage().equals(b.getLanguage());
+				return sameFiniteLanguage(a, b);
 
 			if (!a.isContained(b))
 				return false;
@@ -712,6 +950,23 @@ public class Automaton {
 		return false;
 	}
 
+	/**
+	 * Yields {@code true} if and only if the given loop-free automata recognize
+	 * the same strings. Since enumerations are sorted, they are compared
+	 * string by string, stopping at the first difference.
+	 */
+	private static boolean sameFiniteLanguage(Automaton a, Automaton b) {
+		if (a.languageSize() != b.languageSize())
+			return false;
+
+		Iterator<String> first = a.enumerateLanguage().iterator();
+		Iterator<String> second = b.enumerateLanguage().iterator();
+		while (first.hasNext())
+			if (!first.next().equals(second.next()))
+				return false;
+		return true;
+	}
+
 	@Override
 	public int hashCode() {
 		return states.size() + delta.size();
@@ -776,44 +1031,44 @@ public class Automaton {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean hasCycle() {
-		Set<State> whiteSet = new HashSet<>();
-		Set<State> graySet = new HashSet<>();
-		Set<State> blackSet = new HashSet<>();
-
-		for (State vertex : states)
-			whiteSet.add(vertex);
-
-		while (whiteSet.size() > 0) {
-			State current = whiteSet.iterator().next();
-			if (cycleSearchWithDfs(current, whiteSet, graySet, blackSet))
-				return true;
-		}
-
-		return false;
-	}
-
-	private boolean cycleSearchWithDfs(State current, Set<State> whiteSet, Set<State> graySet, Set<State> blackSet) {
-		// move current to gray set from white set and then explore it.
-		moveVertex(current, whiteSet, graySet);
-
-		for (Transition t : getOutgoingTransitionsFrom(current)) {
-			State neighbor = t.getTo();
-
-			// if in black set means already explored so continue.
-			if (blackSet.contains(neighbor))
+		AutomatonIndex idx = getIndex();
+		int n = idx.size();
+		// white states are in neither set, gray states are only in the
+		// first one, black states are in both
+		DenseBitSet visited = new DenseBitSet(n);
+		DenseBitSet explored = new DenseBitSet(n);
+		IntStack nodes = new IntStack();
+		IntStack cursors = new IntStack();
+
+		for (int root = 0; root < n; root++) {
+			if (visited.get(root))
 				continue;
 
-			// if in gray set then cycle found.
-			if (graySet.contains(neighbor))
-				return true;
+			visited.set(root);
+			nodes.push(root);
+			cursors.push(0);
+			while (!nodes.isEmpty()) {
+				int[] successors = idx.getSuccessors(nodes.peek());
+				int cursor = cursors.peek();
+				if (cursor == successors.length) {
+					// done exploring: the state becomes black
+					explored.set(nodes.pop());
+					cursors.pop();
+					continue;
+				}
 
-			if (cycleSearchWithDfs(neighbor, whiteSet, graySet, blackSet))
-				return true;
+				cursors.setPeek(cursor + 1);
+				int neighbor = successors[cursor];
+				if (!visited.get(neighbor)) {
+					visited.set(neighbor);
+					nodes.push(neighbor);
+					cursors.push(0);
+				} else if (!explored.get(neighbor))
+					// gray neighbor: cycle found
+					return true;
+			}
 		}
 
-		// move vertex from gray set to black set when done exploring.
-		moveVertex(current, graySet, blackSet);
-
 		return false;
 	}
 
@@ -826,75 +1081,23 @@ public class Automaton {
 	 */
 	public Set<State> getNextStates(State node) {
 		Set<State> neighbors = new HashSet<>();
-		for (Transition edge : adjacencyListOutgoing.get(node))
+		for (Transition edge : getOutgoingTransitionsFrom(node))
 			neighbors.add(edge.getTo());
 
 		return neighbors;
 	}
 
-	/**
-	 * Adds a new state to this automaton.
-	 * 
-	 * @param s the state to add
-	 */
-	public void addState(State s) {
-		states.add(s);
-	}
-
-	/**
-	 * Builds a new transition going from {@code from} to {@code to} and
-	 * recognizing {@code input} and adds it to the set of transitions of this
-	 * automaton, <b>without recomputing the outgoing adjacency list</b>.
-	 * 
-	 * @param from  the source node
-	 * @param to    the destination node
-	 * @param input the input to be recognized by the transition
-	 */
-	public void addTransition(State from, State to, RegularExpression input) {
-		addTransition(new Transition(from, to, input));
-	}
-
-	/**
-	 * Adds the given transition to the set of transitions of this automaton,
-	 * <b>without recomputing the outgoing adjacency list</b>.
-	 * 
-	 * @param t the transition to add
-	 */
-	public void addTransition(Transition t) {
-		delta.add(t);
-	}
-
-	/**
-	 * Removes every transition in the given set from the ones of this
-	 * automaton, <b>without recomputing the outgoing adjacency list</b>.
-	 * 
-	 * @param ts the set of transitions to remove
-	 */
-	public void removeTransitions(Set<Transition> ts) {
-		delta.removeAll(ts);
-	}
-
-	/**
-	 * Removes every state in the given set from the ones of this automaton,
-	 * <b>without recomputing the outgoing adjacency list</b>.
-	 * 
-	 * @param ts the set of states to remove
-	 */
-	public void removeStates(Set<State> ts) {
-		states.removeAll(ts);
-	}
-
 	/**
 	 * Yields {@code true} if and only if there is at least one transition in
-	 * this automaton that recognizes a top string.
+	 * this automaton, leaving a reachable state, that recognizes a top string.
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean acceptsTopEventually() {
-		removeUnreachableStates();
-		for (Transition t : delta)
-			if (t.getInput() instanceof TopAtom)
-				return true;
+		for (State s : getReachableStates())
+			for (Transition t : getOutgoingTransitionsFrom(s))
+				if (t.getInput() instanceof TopAtom)
+					return true;
 
 		return false;
 	}
@@ -933,112 +1136,105 @@ public class Automaton {
 		return true;
 	}
 
-	private Set<State> epsilonClosure(State s) {
-		Set<State> paths = new HashSet<>();
-		Set<State> previous = new HashSet<>();
-		Set<State> partial;
-		paths.add(s);
-
-		while (!paths.equals(previous)) {
-			previous = new HashSet<>(paths);
-			partial = new HashSet<>();
-
-			for (State reached : paths)
-				for (Transition t : getOutgoingTransitionsFrom(reached))
-					if (t.isEpsilonTransition())
-						partial.add(t.getTo());
+	/**
+	 * Yields the numbers of the states that are reachable from the given ones
+	 * through epsilon transitions only, including the given ones.
+	 */
+	private static DenseBitSet epsilonClosure(AutomatonIndex idx, DenseBitSet set) {
+		DenseBitSet closure = new DenseBitSet(set);
+		IntStack ws = new IntStack();
+		for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1))
+			ws.push(i);
 
-			paths.addAll(partial);
+		while (!ws.isEmpty()) {
+			int reached = ws.pop();
+			Transition[] outgoing = idx.getOutgoing(reached);
+			int[] targets = idx.getTargets(reached);
+			for (int i = 0; i < outgoing.length; i++)
+				if (outgoing[i].isEpsilonTransition() && closure.set(targets[i]))
+					ws.push(targets[i]);
 		}
 
-		return paths;
-	}
-
-	private Set<State> epsilonClosure(Set<State> set) {
-		Set<State> solution = new HashSet<>();
-
-		for (State s : set)
-			solution.addAll(epsilonClosure(s));
-
-		return solution;
-	}
-
-	private Set<State> nextStatesNFA(Set<State> set, RegularExpression sym) {
-		Set<State> solution = new HashSet<>();
-
-		for (State s : set)
-			for (Transition t : getOutgoingTransitionsFrom(s))
-				if (t.getInput().equals(sym))
-					solution.add(t.getTo());
-
-		return solution;
-	}
-
-	private static boolean containsInitialState(Set<State> states) {
-		for (State s : states)
-			if (s.isInitialState())
-				return true;
-
-		return false;
-	}
-
-	private static boolean containsFinalState(Set<State> states) {
-		for (State s : states)
-			if (s.isFinalState())
-				return true;
-
-		return false;
+		return closure;
 	}
 
 	/**
 	 * Yields a deterministic automaton equivalent to this one. It this
-	 * automaton is already deterministic, it is immediately returned instead.
-	 * <br>
+	 * automaton is already deterministic and has a single initial state, it is
+	 * immediately returned instead. Sets of states are represented through bit
+	 * sets over the numbering of {@link #getIndex()}, and symbols through their
+	 * numbers in the same index.<br>
 	 * <br>
 	 * This automaton is never modified by this method.
 	 * 
 	 * @return a deterministic automaton equivalent to this one.
 	 */
-	private Automaton determinize() {
-		if (isDeterministic())
+	Automaton determinize() {
+		if (getInitialStates().size() == 1 && isDeterministic())
 			return this;
 
+		AutomatonIndex idx = getIndex();
+		DenseBitSet finals = idx.getFinals();
 		Set<State> newStates = new HashSet<>();
 		Set<Transition> newDelta = new HashSet<>();
 
-		Map<Set<State>, Boolean> marked = new HashMap<>();
-		Map<Set<State>, State> statesName = new HashMap<>();
-		Deque<Set<State>> unmarked = new LinkedList<>();
-		Set<State> temp;
-		int num = 0;
+		Map<DenseBitSet, State> statesName = new HashMap<>();
+		List<DenseBitSet> subsets = new ArrayList<>();
+		IntQueue unmarked = new IntQueue();
 
-		temp = epsilonClosure(getInitialStates());
-		statesName.put(temp, new State("q" + String.valueOf(num++), true, containsFinalState(temp)));
+		// the destinations of the transitions leaving a subset, grouped by
+		// symbol: slots maps the number of each symbol to its position in
+		// moves, and symbols maps each position back to the symbol
+		IntIntHashMap slots = new IntIntHashMap(16, -1);
+		List<DenseBitSet> moves = new ArrayList<>();
+		int[] symbols = new int[idx.getSymbolCount()];
 
-		newStates.add(statesName.get(temp));
-		marked.put(temp, false);
-		unmarked.add(temp);
+		DenseBitSet temp = epsilonClosure(idx, idx.getInitials());
+		Budget.chargeStates(1);
+		OperationCounters.count(Counter.SUBSET_STATES, 1);
+		statesName.put(temp, new State("q0", true, temp.intersects(finals)));
+		subsets.add(temp);
+		unmarked.add(0);
 
 		while (!unmarked.isEmpty()) {
-			Set<State> T = unmarked.getFirst();
-			newStates.add(statesName.get(T));
-			unmarked.removeFirst();
-			marked.put(T, true);
-
-			for (RegularExpression alphabet : readableSymbolsFromStates(T)) {
-				temp = epsilonClosure(nextStatesNFA(T, alphabet));
-
-				if (!statesName.containsKey(temp))
-					statesName.put(temp, new State("q" + String.valueOf(num++), false, containsFinalState(temp)));
-
-				newStates.add(statesName.get(temp));
+			DenseBitSet T = subsets.get(unmarked.poll());
+			State source = statesName.get(T);
+			newStates.add(source);
+
+			slots.clear();
+			moves.clear();
+			for (int i = T.nextSetBit(0); i >= 0; i = T.nextSetBit(i + 1)) {
+				Transition[] outgoing = idx.getOutgoing(i);
+				int[] targets = idx.getTargets(i);
+				int[] labels = idx.getLabels(i);
+				for (int j = 0; j < outgoing.length; j++)
+					if (!outgoing[j].getInput().isEmpty()) {
+						int slot = slots.get(labels[j]);
+						if (slot == -1) {
+							slot = moves.size();
+							slots.put(labels[j], slot);
+							symbols[slot] = labels[j];
+							moves.add(new DenseBitSet(idx.size()));
+						}
+						moves.get(slot).set(targets[j]);
+					}
+			}
 
-				if (!marked.containsKey(temp)) {
-					marked.put(temp, false);
-					unmarked.addLast(temp);
+			for (int slot = 0; slot < moves.size(); slot++) {
+				temp = epsilonClosure(idx, moves.get(slot));
+
+				State dest = statesName.get(temp);
+				if (dest == null) {
+					Budget.chargeStates(1);
+					OperationCounters.count(Counter.SUBSET_STATES, 1);
+					dest = new State("q" + subsets.size(), false, temp.intersects(finals));
+					statesName.put(temp, dest);
+					unmarked.add(subsets.size());
+					subsets.add(temp);
 				}
 
-				newDelta.add(new Transition(statesName.get(T), statesName.get(temp), alphabet));
+				newStates.add(dest);
+				newDelta.add(new Transition(source, dest, idx.getSymbol(symbols[slot])));
 			}
 		}
 
@@ -1059,16 +1255,10 @@ public class Automaton {
 		newStates.add(newInitialState);
 
 		for (State s : getStates()) {
-			State newState = new State(s.getState(), false, false);
-			if (s.isFinalState() && s.isInitialState()) {
-				newState.setFinalState(true);
-				newDelta.add(new Transition(newInitialState, newState, Atom.EPSILON));
-			} else if (s.isFinalState()) {
-				newState.setFinalState(false);
+			// initial states become final ones
+			State newState = new State(s.getState(), false, s.isInitialState());
+			if (s.isFinalState())
 				newDelta.add(new Transition(newInitialState, newState, Atom.EPSILON));
-			} else if (s.isInitialState()) {
-				newState.setFinalState(true);
-			}
 
 			mapping.put(s, newState);
 			newStates.add(newState);
@@ -1084,29 +1274,90 @@ public class Automaton {
 	}
 
 	/**
-	 * Yields a minimal automaton equivalent to this one through Brzozowski's
-	 * minimization algorithm. <br>
+	 * Yields a minimal automaton equivalent to this one. Deterministic
+	 * automata are minimized through Hopcroft's algorithm, while
+	 * non-deterministic ones are minimized either through Brzozowski's
+	 * algorithm or through the subset construction followed by Hopcroft's
+	 * algorithm, depending on their size (see {@link AlgorithmSelector}). In
+	 * all cases, states are named canonically, so that the result does not
+	 * depend on the chosen algorithm. If this automaton is known to be minimal
+	 * (see {@link #isKnownMinimal()}), it is immediately returned instead.<br>
 	 * <br>
 	 * This automaton is never modified.
 	 * 
 	 * @return a minimal automaton equivalent to this one
 	 */
 	public Automaton minimize() {
+		if (minimal)
+			return this;
+
+		OperationCounters.count(Counter.MINIMIZATIONS, 1);
+		Automaton result;
+		if (getInitialStates().size() == 1 && isDeterministic())
+			result = HopcroftMinimizer.minimize(removeUnreachableStates());
+		else if (states.size() <= AlgorithmSelector.getBrzozowskiThreshold())
+			// the result is already minimal: Hopcroft's algorithm just
+			// renames its states
+			result = HopcroftMinimizer.minimize(brzozowski());
+		else
+			result = HopcroftMinimizer.minimize(determinize());
+
+		return result.markMinimal();
+	}
+
+	/**
+	 * Yields {@code true} if and only if this automaton is known to be
+	 * minimal, that is, if it has been produced by {@link #minimize()} (or by
+	 * an operation ending with it), or if it is one of the trivial automata
+	 * built by the {@code mk*} factories. Invoking {@link #minimize()} on such
+	 * automata has no cost. An automaton that is not known to be minimal
+	 * might still be minimal.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isKnownMinimal() {
+		return minimal;
+	}
+
+	private Automaton markMinimal() {
+		minimal = true;
+		return this;
+	}
+
+	/**
+	 * Yields this automaton minimized, unless minimization is deferred (see
+	 * {@link Minimization#isDeferred()}) by the current {@link TarsisConfig}
+	 * and this automaton has at most
+	 * {@link TarsisConfig#getDeferralThreshold()} states.
+	 */
+	private Automaton normalize() {
+		TarsisConfig config = TarsisConfig.current();
+		if (config.getMinimization().isDeferred() && states.size() <= config.getDeferralThreshold())
+			return this;
+		return minimize();
+	}
+
+	/**
+	 * Yields a minimal automaton equivalent to this one through Brzozowski's
+	 * minimization algorithm.
+	 * 
+	 * @return a minimal automaton equivalent to this one
+	 */
+	Automaton brzozowski() {
 		Automaton a = this;
 		if (!isDeterministic())
 			a = determinize();
 
-		a = a.reverse().determinize();
-		a.removeUnreachableStates();
-		a = a.reverse().determinize();
-		a.removeUnreachableStates();
-		a.recomputeOutgoingAdjacencyList();
+		a = a.reverse().determinize().removeUnreachableStates();
+		a = a.reverse().determinize().removeUnreachableStates();
 
 		return a;
 	}
 
 	/**
-	 * Computes the concatenation between this automaton and the given one.
+	 * Computes the concatenation between this automaton and the given one. The
+	 * result is minimal, unless minimization is deferred by the current
+	 * {@link TarsisConfig} (see {@link Minimization#isDeferred()}).
 	 * 
 	 * @param other the other automata
 	 * 
@@ -1154,11 +1405,15 @@ public class Automaton {
 			for (State s : secondInitialStates)
 				newDelta.add(new Transition(mappingFirst.get(f), mappingSecond.get(s), Atom.EPSILON));
 
-		return new Automaton(newDelta, newStates).minimize();
+		return new Automaton(newDelta, newStates).normalize();
 	}
 
 	/**
-	 * Computes the concatenation between the given automata.
+	 * Computes the concatenation between the given automata. The states of
+	 * all automata are renamed at once, and the result is minimized only at
+	 * the end (unless minimization is deferred by the current
+	 * {@link TarsisConfig}), so that this is cheaper than concatenating the
+	 * automata pairwise.
 	 * 
 	 * @param automata the automata to concatenate
 	 * 
@@ -1168,11 +1423,41 @@ public class Automaton {
 		if (automata.length == 0)
 			return mkEmptyLanguage();
 
-		Automaton result = automata[0];
-		for (int i = 1; i < automata.length; i++)
-			result = result.concat(automata[i]);
+		if (automata.length == 1)
+			return automata[0].normalize();
+
+		Set<Transition> newDelta = new HashSet<>();
+		Set<State> newStates = new HashSet<>();
+		Set<State> previousFinalStates = Collections.emptySet();
+		int c = 0;
+
+		for (int i = 0; i < automata.length; i++) {
+			Map<State, State> mapping = new HashMap<>();
+			Set<State> finalStates = new HashSet<>();
+			for (State s : automata[i].getStates()) {
+				// only the first automaton has initial states, and only the
+				// last one has final states
+				State renamed = new State("q" + c++, i == 0 && s.isInitialState(),
+						i == automata.length - 1 && s.isFinalState());
+				mapping.put(s, renamed);
+				newStates.add(renamed);
+				if (s.isFinalState())
+					finalStates.add(renamed);
+			}
+
+			for (Transition t : automata[i].getDelta())
+				newDelta.add(new Transition(mapping.get(t.getFrom()), mapping.get(t.getTo()), t.getInput()));
 
-		return result.minimize();
+			// link the final states of the previous automaton to the initial
+			// states of this one
+			for (State s : automata[i].getInitialStates())
+				for (State f : previousFinalStates)
+					newDelta.add(new Transition(f, mapping.get(s), Atom.EPSILON));
+
+			previousFinalStates = finalStates;
+		}
+
+		return new Automaton(newDelta, newStates).normalize();
 	}
 
 	/**
@@ -1185,7 +1470,7 @@ public class Automaton {
 	 * @return the exploded automaton
 	 */
 	public Automaton explode() {
-		Automaton exploded = new Automaton(new HashSet<>(), new HashSet<>());
+		AutomatonBuilder exploded = new AutomatonBuilder();
 		AtomicLong counter = new AtomicLong();
 		Map<State, State> mapping = new HashMap<>();
 
@@ -1215,7 +1500,7 @@ public class Automaton {
 			}
 		}
 
-		return exploded.minimize();
+		return exploded.build().minimize();
 	}
 
 	private Set<Vector<State>> findMergableStatesInPath(List<State> v) {
@@ -1282,7 +1567,7 @@ public class Automaton {
 		if (collected.isEmpty())
 			return this;
 
-		Automaton collapsed = copy();
+		AutomatonBuilder collapsed = new AutomatonBuilder(this);
 		Set<Transition> edgesToRemove = new HashSet<>();
 		Set<State> statesToRemove = new HashSet<>();
 		for (Vector<State> v : collected) {
@@ -1300,10 +1585,10 @@ public class Automaton {
 					statesToRemove.add(to);
 				}
 
-			Transition in = collapsed.getIngoingTransitionsFrom(v.firstElement()).iterator().next();
+			Transition in = getIngoingTransitionsFrom(v.firstElement()).iterator().next();
 			edgesToRemove.add(in);
 			accumulated = ((Atom) in.getInput()).toString() + accumulated;
-			Transition out = collapsed.getOutgoingTransitionsFrom(v.lastElement()).iterator().next();
+			Transition out = getOutgoingTransitionsFrom(v.lastElement()).iterator().next();
 			edgesToRemove.add(out);
 			accumulated += ((Atom) out.getInput()).toString();
 
@@ -1312,8 +1597,7 @@ public class Automaton {
 
 		collapsed.removeTransitions(edgesToRemove);
 		collapsed.removeStates(statesToRemove);
-		collapsed.recomputeOutgoingAdjacencyList();
-		return collapsed.minimize();
+		return collapsed.build().minimize();
 	}
 
 	/**
@@ -1322,15 +1606,15 @@ public class Automaton {
 	 * @return the star automaton
 	 */
 	public Automaton star() {
-		Automaton result = copy();
+		AutomatonBuilder result = new AutomatonBuilder(this);
 
-		for (State f : result.getFinalStates())
-			for (State i : result.getInitialStates()) {
-				i.setFinalState(true);
-				result.getDelta().add(new Transition(f, i, Atom.EPSILON));
+		for (State f : getFinalStates())
+			for (State i : getInitialStates()) {
+				result.setFinalState(i, true);
+				result.addTransition(f, i, Atom.EPSILON);
 			}
 
-		return result.minimize();
+		return result.build().minimize();
 	}
 
 	/**
@@ -1365,6 +1649,218 @@ public class Automaton {
 		return result;
 	}
 
+	/**
+	 * Yields an automaton with at most {@code maxStates} states (and at least
+	 * one) recognizing a superset of the language of this one. The states that
+	 * are closest to the initial ones (in breadth-first order, a whole layer
+	 * at a time) are kept, while the transitions leading to the other ones are
+	 * redirected to a single final state, that loops on all the symbols of
+	 * this automaton, so that the paths reaching it can continue with any
+	 * suffix (including the ones that would go back to the kept states). If
+	 * this automaton is deterministic, so is the result.<br>
+	 * <br>
+	 * {@code this} is never modified by this method.
+	 * 
+	 * @param maxStates the maximum number of states
+	 * 
+	 * @return the truncated automaton
+	 */
+	public Automaton truncate(int maxStates) {
+		if (states.size() <= maxStates)
+			return this;
+
+		AutomatonIndex idx = getIndex();
+		int size = idx.size();
+		int[] depth = new int[size];
+		Arrays.fill(depth, -1);
+		IntQueue queue = new IntQueue();
+		DenseBitSet initials = idx.getInitials();
+		for (int i = initials.nextSetBit(0); i >= 0; i = initials.nextSetBit(i + 1)) {
+			depth[i] = 0;
+			queue.add(i);
+		}
+
+		// one state is needed to model the dropped suffixes
+		int room = maxStates - 1, kept = 0, maxDepth = -1;
+		while (!queue.isEmpty()) {
+			int i = queue.poll();
+			if (depth[i] > maxDepth) {
+				// a new layer starts: keep the previous one only if it fit
+				if (kept > room)
+					break;
+				maxDepth = depth[i];
+			}
+			kept++;
+			for (int succ : idx.getSuccessors(i))
+				if (depth[succ] < 0) {
+					depth[succ] = depth[i] + 1;
+					queue.add(succ);
+				}
+		}
+		if (kept > room)
+			maxDepth--;
+
+		State[] mapping = new State[size];
+		Set<State> newStates = new HashSet<>();
+		for (int i = 0; i < size; i++)
+			if (depth[i] >= 0 && depth[i] <= maxDepth) {
+				mapping[i] = new State("q" + i, idx.isInitial(i), idx.isFinal(i));
+				newStates.add(mapping[i]);
+			}
+
+		// if not even the initial states fit, the sink is the initial state
+		State sink = new State("q" + size, maxDepth < 0, true);
+		Set<Transition> newDelta = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			if (mapping[i] == null)
+				continue;
+			Transition[] outgoing = idx.getOutgoing(i);
+			int[] targets = idx.getTargets(i);
+			for (int j = 0; j < outgoing.length; j++)
+				if (mapping[targets[j]] != null)
+					newDelta.add(new Transition(mapping[i], mapping[targets[j]], outgoing[j].getInput()));
+				else
+					newDelta.add(new Transition(mapping[i], sink, outgoing[j].getInput()));
+		}
+
+		newStates.add(sink);
+		for (RegularExpression symbol : getAlphabet())
+			newDelta.add(new Transition(sink, sink, symbol));
+
+		return new Automaton(newDelta, newStates);
+	}
+
+	/**
+	 * Yields an automaton that keeps exactly only the first {@code k}
+	 * characters of the strings recognized by this one, abstracting the rest
+	 * of each string with {@link TopAtom}: paths longer than {@code k}
+	 * characters are cut after their {@code k}-th character, and continue
+	 * with a single transition recognizing the top string (or end right after
+	 * the last one they already have, if they are cut right after it).
+	 * Characters read by transitions recognizing the top string are not
+	 * counted. The result has at most {@code 2 * (k + 1) * n + 2} states,
+	 * where {@code n} is the number of states of this automaton, and it is not
+	 * minimized. If no path
+	 * is longer than {@code k} characters, {@code this} is returned.<br>
+	 * <br>
+	 * {@code this} is never modified by this method.
+	 * 
+	 * @param k the number of characters to keep
+	 * 
+	 * @return the bounded automaton
+	 */
+	public Automaton boundLength(int k) {
+		AutomatonIndex idx = getIndex();
+		if (!exceedsLength(idx, k))
+			return this;
+
+		// state (q, n, top), where n characters have been read and top tells
+		// if the last transition recognized the top string, is encoded as
+		// (q * width + n) * 2 + top
+		long width = (long) k + 1;
+		Map<Long, State> mapping = new HashMap<>();
+		List<Long> order = new ArrayList<>();
+		DenseBitSet initials = idx.getInitials();
+		for (int i = initials.nextSetBit(0); i >= 0; i = initials.nextSetBit(i + 1))
+			bounded(idx, k, i * width * 2, true, mapping, order);
+
+		// the shared suffix of the strings that are cut
+		long size = idx.size() * width * 2;
+		State cut = new State("q" + size, false, false);
+		State rest = new State("q" + (size + 1), false, true);
+		Set<Transition> newDelta = new HashSet<>();
+		newDelta.add(new Transition(cut, rest, TopAtom.INSTANCE));
+
+		for (int pos = 0; pos < order.size(); pos++) {
+			long code = order.get(pos);
+			int q = (int) (code / 2 / width), n = (int) (code / 2 % width);
+			boolean top = code % 2 == 1;
+			State source = mapping.get(code);
+			Transition[] outgoing = idx.getOutgoing(q);
+			int[] targets = idx.getTargets(q);
+			for (int j = 0; j < outgoing.length; j++) {
+				RegularExpression input = outgoing[j].getInput();
+				int read = input instanceof TopAtom ? 0 : input.maxLength();
+				if (read <= k - n) {
+					boolean next = input instanceof TopAtom || top && outgoing[j].isEpsilonTransition();
+					long dest = (targets[j] * width + n + read) * 2 + (next ? 1 : 0);
+					newDelta.add(new Transition(source, bounded(idx, k, dest, false, mapping, order), input));
+				} else if (top)
+					// the cut suffix is absorbed by the top string that has
+					// just been read, as source is final
+					continue;
+				else if (input instanceof Atom && n < k)
+					newDelta.add(new Transition(source, cut, new Atom(input.toString().substring(0, k - n))));
+				else
+					newDelta.add(new Transition(source, rest, TopAtom.INSTANCE));
+			}
+		}
+
+		Set<State> newStates = new HashSet<>(mapping.values());
+		newStates.add(cut);
+		newStates.add(rest);
+		return new Automaton(newDelta, newStates);
+	}
+
+	/**
+	 * Yields {@code true} if some path of the automaton with the given index
+	 * reads more than {@code k} characters, not counting the ones read by
+	 * transitions recognizing the top string.
+	 */
+	private static boolean exceedsLength(AutomatonIndex idx, int k) {
+		// longest[q] is the length of the longest known path reaching q:
+		// lengths only grow, and never above k, so this terminates
+		int[] longest = new int[idx.size()];
+		Arrays.fill(longest, -1);
+		IntQueue queue = new IntQueue();
+		DenseBitSet initials = idx.getInitials();
+		for (int i = initials.nextSetBit(0); i >= 0; i = initials.nextSetBit(i + 1)) {
+			longest[i] = 0;
+			queue.add(i);
+		}
+
+		while (!queue.isEmpty()) {
+			int q = queue.poll();
+			Transition[] outgoing = idx.getOutgoing(q);
+			int[] targets = idx.getTargets(q);
+			for (int j = 0; j < outgoing.length; j++) {
+				RegularExpression input = outgoing[j].getInput();
+				int read = input instanceof TopAtom ? 0 : input.maxLength();
+				if (read > k - longest[q])
+					return true;
+				if (longest[q] + read > longest[targets[j]]) {
+					longest[targets[j]] = longest[q] + read;
+					queue.add(targets[j]);
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static State bounded(AutomatonIndex idx, int k, long code, boolean initial, Map<Long, State> mapping,
+			List<Long> order) {
+		State state = mapping.get(code);
+		if (state != null)
+			return state;
+
+		long width = (long) k + 1;
+		int q = (int) (code / 2 / width), n = (int) (code / 2 % width);
+		boolean accepting = idx.isFinal(q);
+		if (code % 2 == 1)
+			// states right after a top string also accept the strings that
+			// are cut from them
+			for (Transition t : idx.getOutgoing(q))
+				if (!(t.getInput() instanceof TopAtom) && t.getInput().maxLength() > k - n)
+					accepting = true;
+
+		Budget.chargeStates(1);
+		state = new State("q" + code, initial, accepting);
+		mapping.put(code, state);
+		order.add(code);
+		return state;
+	}
+
 	/**
 	 * Performs the parametrized widening operation on {@code a} on this
 	 * automaton.<br>
@@ -1376,60 +1872,110 @@ public class Automaton {
 	 * @return the widened automaton
 	 */
 	public Automaton widening(int n) {
-		Map<State, Set<RegularExpression>> languages = new HashMap<>();
-		Set<Set<State>> powerStates = new HashSet<>();
-
-		for (State s : getStates())
-			languages.put(s, getNextSymbols(s, n));
-
-		for (State s1 : getStates())
-			for (State s2 : getStates())
-				if (languages.get(s1).equals(languages.get(s2))) {
-					boolean found = false;
-					for (Set<State> singlePowerState : powerStates)
-						if (singlePowerState.contains(s1) || singlePowerState.contains(s2)) {
-							singlePowerState.add(s1);
-							singlePowerState.add(s2);
-							found = true;
-							break;
-						}
+		AutomatonIndex idx = getIndex();
+		int size = idx.size();
+
+		// states recognizing the same languages of length at most n are
+		// merged together: classOf maps each state to its partition
+		int[] classOf = new int[size];
+		int partitions;
+		if (isRefinable(idx))
+			partitions = refinePartitions(idx, n, classOf);
+		else {
+			Map<Set<RegularExpression>, Integer> languages = new HashMap<>();
+			for (int i = 0; i < size; i++) {
+				Set<RegularExpression> language = getNextSymbols(idx.getState(i), n);
+				Integer partition = languages.get(language);
+				if (partition == null)
+					languages.put(language, partition = languages.size());
+				classOf[i] = partition;
+			}
+			partitions = languages.size();
+		}
 
-					if (!found) {
-						Set<State> newPowerState = new HashSet<>();
-						newPowerState.add(s1);
-						newPowerState.add(s2);
-						powerStates.add(newPowerState);
-					}
-				}
+		boolean[] initial = new boolean[partitions];
+		boolean[] accepting = new boolean[partitions];
+		for (int i = 0; i < size; i++) {
+			initial[classOf[i]] |= idx.isInitial(i);
+			accepting[classOf[i]] |= idx.isFinal(i);
+		}
 
 		Set<State> newStates = new HashSet<>();
-		Map<Set<State>, State> mapping = new HashMap<>();
-
-		int i = 0;
-
-		for (Set<State> ps : powerStates) {
-			State ns = new State("q" + i++, containsInitialState(ps), containsFinalState(ps));
-			newStates.add(ns);
-			mapping.put(ps, ns);
+		State[] mapping = new State[partitions];
+		for (int i = 0; i < partitions; i++) {
+			mapping[i] = new State("q" + i, initial[i], accepting[i]);
+			newStates.add(mapping[i]);
 		}
 
 		Set<Transition> newDelta = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			Transition[] outgoing = idx.getOutgoing(i);
+			int[] targets = idx.getTargets(i);
+			for (int j = 0; j < outgoing.length; j++)
+				newDelta.add(new Transition(mapping[classOf[i]], mapping[classOf[targets[j]]], outgoing[j].getInput()));
+		}
 
-		Set<State> fromPartition = null;
-		Set<State> toPartition = null;
+		return new Automaton(newDelta, newStates);
+	}
 
-		for (Transition t : getDelta()) {
-			for (Set<State> ps : powerStates) {
-				if (ps.contains(t.getFrom()))
-					fromPartition = ps;
-				if (ps.contains(t.getTo()))
-					toPartition = ps;
+	/**
+	 * Yields {@code true} if the partitions of the widening can be computed
+	 * through {@link #refinePartitions(AutomatonIndex, int, int[])}, that is,
+	 * if this automaton is deterministic and none of its symbols is a
+	 * {@link Comp} (that could be mistaken for a sequence of symbols).
+	 */
+	private boolean isRefinable(AutomatonIndex idx) {
+		for (int i = 0; i < idx.getSymbolCount(); i++)
+			if (idx.getSymbol(i) instanceof Comp)
+				return false;
+		return isDeterministic();
+	}
+
+	/**
+	 * Partitions the states of a deterministic automaton as the widening does
+	 * through {@link #getNextSymbols(State, int)}, storing the partition of
+	 * each state into {@code classOf} and yielding the number of partitions.
+	 * Instead of enumerating the sequences of at most {@code n} symbols
+	 * leaving each state, whose number is exponential in {@code n}, this runs
+	 * {@code n} rounds of partition refinement: since each symbol leads to a
+	 * single state, two states have the same sequences of at most {@code k}
+	 * symbols if and only if they have the same symbols, and these lead to
+	 * states with the same sequences of at most {@code k - 1} symbols.
+	 */
+	private static int refinePartitions(AutomatonIndex idx, int n, int[] classOf) {
+		int size = idx.size();
+		// no sequence has length 0
+		int partitions = size == 0 ? 0 : 1;
+		for (int k = 0; k < n; k++) {
+			Map<List<Long>, Integer> signatures = new HashMap<>();
+			int[] refined = new int[size];
+			for (int i = 0; i < size; i++) {
+				int[] labels = idx.getLabels(i);
+				int[] targets = idx.getTargets(i);
+				long[] pairs = new long[labels.length];
+				for (int j = 0; j < labels.length; j++)
+					pairs[j] = ((long) labels[j] << 32) | classOf[targets[j]];
+				Arrays.sort(pairs);
+
+				List<Long> signature = new ArrayList<>(pairs.length);
+				for (int j = 0; j < pairs.length; j++)
+					if (j == 0 || pairs[j] != pairs[j - 1])
+						signature.add(pairs[j]);
+
+				Integer partition = signatures.get(signature);
+				if (partition == null)
+					signatures.put(signature, partition = signatures.size());
+				refined[i] = partition;
 			}
 
-			newDelta.add(new Transition(mapping.get(fromPartition), mapping.get(toPartition), t.getInput()));
+			System.arraycopy(refined, 0, classOf, 0, size);
+			if (signatures.size() == partitions)
+				// refinement only splits partitions: this one is stable
+				break;
+			partitions = signatures.size();
 		}
 
-		return new Automaton(newDelta, newStates);
+		return partitions;
 	}
 
 	/**
@@ -1454,9 +2000,9 @@ public class Automaton {
 	 */
 	public Automaton replace(Automaton toReplace, Automaton str) {
 		Collection<Automaton> automata = new ArrayList<>();
-		boolean isSingleString = toReplace.getLanguage().size() == 1;
-		for (String s : toReplace.getLanguage())
-			automata.add(new StringReplacer(this).replace(s, str, isSingleString).collapse());
+		boolean isSingleString = toReplace.languageSize() == 1;
+		toReplace.enumerateLanguage()
+				.forEach(s -> automata.add(new StringReplacer(this).replace(s, str, isSingleString).collapse()));
 
 		if (automata.size() == 1)
 			return automata.iterator().next();
@@ -1478,10 +2024,32 @@ public class Automaton {
 	 * @return {@code true} if that condition hold
 	 */
 	public boolean mayLanguageCheck(Automaton other, BiPredicate<String, String> predicate) {
-		for (String a : getLanguage())
-			for (String b : other.getLanguage())
-				if (predicate.test(a, b))
+		return findPair(other, predicate, true);
+	}
+
+	/**
+	 * Yields {@code true} if and only if there is a pair of strings composed
+	 * by a string of the language of this automaton and a string of the
+	 * language of {@code other} whose comparison through {@code predicate}
+	 * yields {@code expected}. Languages are enumerated lazily, stopping as
+	 * soon as such a pair is found, and the strings of {@code other} are
+	 * enumerated only once.
+	 */
+	private boolean findPair(Automaton other, BiPredicate<String, String> predicate, boolean expected) {
+		List<String> seen = new ArrayList<>();
+		Iterator<String> others = other.enumerateLanguage().iterator();
+		for (Iterator<String> strings = enumerateLanguage().iterator(); strings.hasNext();) {
+			String a = strings.next();
+			for (String b : seen)
+				if (predicate.test(a, b) == expected)
 					return true;
+			while (others.hasNext()) {
+				String b = others.next();
+				seen.add(b);
+				if (predicate.test(a, b) == expected)
+					return true;
+			}
+		}
 		return false;
 	}
 
@@ -1492,12 +2060,12 @@ public class Automaton {
 	 * @return the prefix automaton
 	 */
 	public Automaton prefix() {
-		Automaton result = copy();
+		AutomatonBuilder result = new AutomatonBuilder(this);
 
-		for (State s : result.getStates())
-			s.setFinalState(true);
+		for (State s : getStates())
+			result.setFinalState(s, true);
 
-		return result.minimize();
+		return result.build().minimize();
 	}
 
 	/**
@@ -1507,12 +2075,12 @@ public class Automaton {
 	 * @return the suffix automaton
 	 */
 	public Automaton suffix() {
-		Automaton result = copy();
+		AutomatonBuilder result = new AutomatonBuilder(this);
 
-		for (State s : result.getStates())
-			s.setInitialState(true);
+		for (State s : getStates())
+			result.setInitialState(s, true);
 
-		return result.minimize();
+		return result.build().minimize();
 	}
 
 	/**
@@ -1540,7 +2108,7 @@ public class Automaton {
 			Automaton C = extractLongestString();
 			String longest = C.getLanguage().iterator().next();
 
-			List<List<State>> paths = other.getPathExtractor().getAllPaths().parallelStream()
+			List<List<State>> paths = TarsisConfig.current().stream(other.getPathExtractor().getAllPaths())
 					.filter(p -> p.stream().distinct().collect(Collectors.toList()).equals(p))
 					.collect(Collectors.toList());
 
@@ -1557,11 +2125,7 @@ public class Automaton {
 				}
 
 			Automaton withNoScc = new Automaton(delta, states);
-			for (String a : withNoScc.getLanguage())
-				if (!a.contains(longest))
-					return false;
-
-			return true;
+			return withNoScc.enumerateLanguage().allMatch(a -> a.contains(longest));
 
 		}
 
@@ -1582,11 +2146,7 @@ public class Automaton {
 	 * @return {@code true} if that condition hold
 	 */
 	public boolean mustLanguageCheck(Automaton other, BiPredicate<String, String> predicate) {
-		for (String a : getLanguage())
-			for (String b : other.getLanguage())
-				if (!predicate.test(a, b))
-					return false;
-		return true;
+		return !findPair(other, predicate, false);
 	}
 
 	/**
@@ -1630,14 +2190,14 @@ public class Automaton {
 		if (getInitialStates().size() < 2)
 			return this;
 
-		Automaton a = copy();
+		AutomatonBuilder a = new AutomatonBuilder(this);
 		State newInit = new State("qInit", true, false);
 		a.addState(newInit);
 		for (State i : getInitialStates()) {
-			i.setInitialState(false);
-			a.addTransition(i, i, Atom.EPSILON);
+			a.setInitialState(i, false);
+			a.addTransition(newInit, i, Atom.EPSILON);
 		}
 
-		return a;
+		return a.build();
 	}
 }
@@ -0,0 +1,220 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.regex.RegularExpression;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mutable builder for {@link Automaton}s. Since automata are immutable, this
+ * is the only way of incrementally adding or removing states and transitions,
+ * or of changing the initial or final status of a state. Builders are not
+ * thread-safe, while the automata they build are.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class AutomatonBuilder {
+
+	/**
+	 * The states added so far, indexed by name
+	 */
+	private final Map<String, State> states;
+
+	/**
+	 * The transitions added so far
+	 */
+	private final Set<Transition> delta;
+
+	/**
+	 * Builds an empty builder.
+	 */
+	public AutomatonBuilder() {
+		states = new HashMap<>();
+		delta = new HashSet<>();
+	}
+
+	/**
+	 * Builds a builder initially containing all states and transitions of the
+	 * given automaton. The automaton is never modified by this builder.
+	 *
+	 * @param a the automaton
+	 */
+	public AutomatonBuilder(Automaton a) {
+		this();
+		for (State s : a.getStates())
+			states.put(s.getState(), s);
+		delta.addAll(a.getDelta());
+	}
+
+	/**
+	 * Yields the states added to this builder so far.
+	 *
+	 * @return the set of states
+	 */
+	public Set<State> getStates() {
+		return new HashSet<>(states.values());
+	}
+
+	/**
+	 * Yields the transitions added to this builder so far.
+	 *
+	 * @return the set of transitions
+	 */
+	public Set<Transition> getDelta() {
+		return new HashSet<>(delta);
+	}
+
+	/**
+	 * Adds a new state to this builder. If a state with the same name is
+	 * already present, it is replaced.
+	 *
+	 * @param s the state to add
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder addState(State s) {
+		states.put(s.getState(), s);
+		return this;
+	}
+
+	/**
+	 * Builds a new transition going from {@code from} to {@code to} and
+	 * recognizing {@code input} and adds it to this builder.
+	 *
+	 * @param from  the source node
+	 * @param to    the destination node
+	 * @param input the input to be recognized by the transition
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder addTransition(State from, State to, RegularExpression input) {
+		return addTransition(new Transition(from, to, input));
+	}
+
+	/**
+	 * Adds the given transition to this builder.
+	 *
+	 * @param t the transition to add
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder addTransition(Transition t) {
+		delta.add(t);
+		return this;
+	}
+
+	/**
+	 * Removes every transition in the given set from this builder.
+	 *
+	 * @param ts the set of transitions to remove
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder removeTransitions(Set<Transition> ts) {
+		delta.removeAll(ts);
+		return this;
+	}
+
+	/**
+	 * Removes every state in the given set from this builder. Transitions are
+	 * left untouched.
+	 *
+	 * @param ss the set of states to remove
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder removeStates(Set<State> ss) {
+		for (State s : ss)
+			states.remove(s.getState());
+		return this;
+	}
+
+	/**
+	 * Marks the given state as initial or not initial, according to the given
+	 * boolean. Transitions touching the state will refer to the updated state
+	 * once this builder is built.
+	 *
+	 * @param s         the state to update
+	 * @param isInitial whether or not the state has to be initial
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder setInitialState(State s, boolean isInitial) {
+		State current = states.getOrDefault(s.getState(), s);
+		states.put(s.getState(), new State(s.getState(), isInitial, current.isFinalState()));
+		return this;
+	}
+
+	/**
+	 * Marks the given state as final or not final, according to the given
+	 * boolean. Transitions touching the state will refer to the updated state
+	 * once this builder is built.
+	 *
+	 * @param s       the state to update
+	 * @param isFinal whether or not the state has to be final
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder setFinalState(State s, boolean isFinal) {
+		State current = states.getOrDefault(s.getState(), s);
+		states.put(s.getState(), new State(s.getState(), current.isInitialState(), isFinal));
+		return this;
+	}
+
+	/**
+	 * Removes all states that are not reachable from an initial state, together
+	 * with the transitions touching them.
+	 *
+	 * @return this builder
+	 */
+	public AutomatonBuilder removeUnreachableStates() {
+		Map<State, Set<Transition>> outgoing = new HashMap<>();
+		for (Transition t : delta)
+			outgoing.computeIfAbsent(t.getFrom(), s -> new HashSet<>()).add(t);
+
+		Set<State> reachable = new HashSet<>();
+		Set<State> frontier = new HashSet<>();
+		for (State s : states.values())
+			if (s.isInitialState())
+				frontier.add(s);
+
+		while (!frontier.isEmpty()) {
+			reachable.addAll(frontier);
+			Set<State> next = new HashSet<>();
+			for (State s : frontier)
+				for (Transition t : outgoing.getOrDefault(s, new HashSet<>()))
+					if (!reachable.contains(t.getTo()))
+						next.add(t.getTo());
+			frontier = next;
+		}
+
+		states.values().removeIf(s -> !reachable.contains(s));
+		delta.removeIf(t -> !reachable.contains(t.getFrom()) || !reachable.contains(t.getTo()));
+		return this;
+	}
+
+	/**
+	 * Builds the automaton containing the states and transitions added to this
+	 * builder. Endpoints of transitions are replaced with the states of this
+	 * builder having the same name, so that transitions always agree with the
+	 * initial and final status of the states. The builder can be further
+	 * modified after this call without affecting the returned automaton.
+	 *
+	 * @return the automaton
+	 */
+	public Automaton build() {
+		Set<Transition> newDelta = new HashSet<>();
+		for (Transition t : delta) {
+			State from = states.getOrDefault(t.getFrom().getState(), t.getFrom());
+			State to = states.getOrDefault(t.getTo().getState(), t.getTo());
+			if (from == t.getFrom() && to == t.getTo())
+				newDelta.add(t);
+			else
+				newDelta.add(new Transition(from, to, t.getInput()));
+		}
+
+		return new Automaton(newDelta, new HashSet<>(states.values()));
+	}
+}
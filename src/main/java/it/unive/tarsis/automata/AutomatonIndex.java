@@ -0,0 +1,275 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntHashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A dense numbering of the states of an {@link Automaton}, mapping each state
+ * to an integer in {@code [0, size())}, together with the adjacency lists
+ * expressed through such numbers. Graph algorithms can work on the indexes
+ * through the primitive collections of {@link it.unive.tarsis.util}, instead
+ * of relying on hash-based collections of states. Instances are immutable,
+ * and are computed once per automaton through {@link Automaton#getIndex()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AutomatonIndex {
+
+	/**
+	 * The states, indexed by number
+	 */
+	private final State[] states;
+
+	/**
+	 * The number of each state
+	 */
+	private final Map<State, Integer> numbers;
+
+	/**
+	 * The outgoing transitions of each state
+	 */
+	private final Transition[][] outgoing;
+
+	/**
+	 * The destination of each outgoing transition, parallel to
+	 * {@link #outgoing}
+	 */
+	private final int[][] targets;
+
+	/**
+	 * The number of the symbol of each outgoing transition, parallel to
+	 * {@link #outgoing}
+	 */
+	private final int[][] labels;
+
+	/**
+	 * The distinct symbols of the transitions, indexed by number
+	 */
+	private final RegularExpression[] symbols;
+
+	/**
+	 * The distinct successors of each state
+	 */
+	private final int[][] successors;
+
+	/**
+	 * The initial states
+	 */
+	private final DenseBitSet initials;
+
+	/**
+	 * The final states
+	 */
+	private final DenseBitSet finals;
+
+	/**
+	 * Builds the index of the given automaton.
+	 *
+	 * @param a the automaton
+	 */
+	AutomatonIndex(Automaton a) {
+		// endpoints of transitions are indexed even if they are not part of
+		// the states of the automaton, as all algorithms follow transitions
+		Set<State> all = new LinkedHashSet<>(a.getStates());
+		for (Transition t : a.getDelta()) {
+			all.add(t.getFrom());
+			all.add(t.getTo());
+		}
+
+		int n = all.size();
+		states = all.toArray(new State[n]);
+		numbers = new HashMap<>(n * 2);
+		initials = new DenseBitSet(n);
+		finals = new DenseBitSet(n);
+		for (int i = 0; i < n; i++) {
+			numbers.put(states[i], i);
+			if (states[i].isInitialState())
+				initials.set(i);
+			if (states[i].isFinalState())
+				finals.set(i);
+		}
+
+		outgoing = new Transition[n][];
+		targets = new int[n][];
+		labels = new int[n][];
+		successors = new int[n][];
+		Map<RegularExpression, Integer> symbolNumbers = new HashMap<>();
+		List<RegularExpression> symbolList = new ArrayList<>();
+		IntHashSet distinct = new IntHashSet();
+		for (int i = 0; i < n; i++) {
+			Set<Transition> out = a.getOutgoingTransitionsFrom(states[i]);
+			outgoing[i] = out.toArray(new Transition[out.size()]);
+			targets[i] = new int[outgoing[i].length];
+			labels[i] = new int[outgoing[i].length];
+			distinct.clear();
+			for (int j = 0; j < outgoing[i].length; j++) {
+				targets[i][j] = numbers.get(outgoing[i][j].getTo());
+				distinct.add(targets[i][j]);
+				Integer symbol = symbolNumbers.get(outgoing[i][j].getInput());
+				if (symbol == null) {
+					symbol = symbolList.size();
+					symbolNumbers.put(outgoing[i][j].getInput(), symbol);
+					symbolList.add(outgoing[i][j].getInput());
+				}
+				labels[i][j] = symbol;
+			}
+			successors[i] = distinct.toArray();
+		}
+		symbols = symbolList.toArray(new RegularExpression[symbolList.size()]);
+	}
+
+	/**
+	 * Yields the number of indexed states.
+	 *
+	 * @return the number of states
+	 */
+	public int size() {
+		return states.length;
+	}
+
+	/**
+	 * Yields the state with the given number.
+	 *
+	 * @param i the number
+	 *
+	 * @return the state
+	 */
+	public State getState(int i) {
+		return states[i];
+	}
+
+	/**
+	 * Yields the number of the given state, or {@code -1} if the state is not
+	 * part of the indexed automaton.
+	 *
+	 * @param s the state
+	 *
+	 * @return the number of the state
+	 */
+	public int indexOf(State s) {
+		Integer i = numbers.get(s);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Yields the outgoing transitions of the state with the given number. The
+	 * returned array must not be modified.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return the outgoing transitions
+	 */
+	public Transition[] getOutgoing(int i) {
+		return outgoing[i];
+	}
+
+	/**
+	 * Yields the numbers of the destinations of the outgoing transitions of
+	 * the state with the given number, in the same order of
+	 * {@link #getOutgoing(int)}. The returned array must not be modified.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return the destinations of the outgoing transitions
+	 */
+	public int[] getTargets(int i) {
+		return targets[i];
+	}
+
+	/**
+	 * Yields the numbers of the symbols of the outgoing transitions of the
+	 * state with the given number, in the same order of
+	 * {@link #getOutgoing(int)}. Equal symbols have the same number. The
+	 * returned array must not be modified.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return the symbols of the outgoing transitions
+	 */
+	public int[] getLabels(int i) {
+		return labels[i];
+	}
+
+	/**
+	 * Yields the number of distinct symbols of the transitions of the indexed
+	 * automaton.
+	 *
+	 * @return the number of symbols
+	 */
+	public int getSymbolCount() {
+		return symbols.length;
+	}
+
+	/**
+	 * Yields the symbol with the given number.
+	 *
+	 * @param symbol the number of the symbol
+	 *
+	 * @return the symbol
+	 */
+	public RegularExpression getSymbol(int symbol) {
+		return symbols[symbol];
+	}
+
+	/**
+	 * Yields the distinct numbers of the successors of the state with the
+	 * given number. The returned array must not be modified.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return the successors
+	 */
+	public int[] getSuccessors(int i) {
+		return successors[i];
+	}
+
+	/**
+	 * Yields {@code true} if and only if the state with the given number is
+	 * initial.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isInitial(int i) {
+		return initials.get(i);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the state with the given number is
+	 * final.
+	 *
+	 * @param i the number of the state
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isFinal(int i) {
+		return finals.get(i);
+	}
+
+	/**
+	 * Yields a new bit set containing the numbers of the initial states.
+	 *
+	 * @return the initial states
+	 */
+	public DenseBitSet getInitials() {
+		return new DenseBitSet(initials);
+	}
+
+	/**
+	 * Yields a new bit set containing the numbers of the final states.
+	 *
+	 * @return the final states
+	 */
+	public DenseBitSet getFinals() {
+		return new DenseBitSet(finals);
+	}
+}
@@ -0,0 +1,424 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntList;
+import it.unive.tarsis.util.IntQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A matcher testing whether concrete strings are recognized by an
+ * {@link Automaton}, built through {@link Automaton#compile()}. Differently
+ * from the symbolic operations of {@link Automaton}, the matcher works on
+ * characters: each transition recognizes the characters of its atom in
+ * sequence, and transitions labeled with {@link TopAtom} recognize any
+ * string.<br>
+ * <br>
+ * The matcher is a deterministic automaton over classes of characters, where
+ * each character that appears in the atoms of the original automaton has its
+ * own class, and all other characters share a single class. Its transition
+ * function is stored in an {@code int} table indexed by state and class, so
+ * that matching does not allocate. Instances of this class are immutable.
+ * Matchers that are used on many strings can be further specialized through
+ * {@link #specialize()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AutomatonMatcher implements StringMatcher {
+
+	/**
+	 * The characters that have their own class, sorted, where the class of
+	 * {@code symbols[i]} is {@code i}
+	 */
+	private final char[] symbols;
+
+	/**
+	 * The class of each ASCII character
+	 */
+	private final int[] asciiClasses;
+
+	/**
+	 * The number of classes, where the last one contains all characters that
+	 * are not in {@link #symbols}
+	 */
+	private final int classes;
+
+	/**
+	 * The transition function, where the state reached from {@code q} reading
+	 * a character of class {@code c} is {@code table[q * classes + c]}, and
+	 * {@code -1} stands for the (implicit) sink state
+	 */
+	private final int[] table;
+
+	/**
+	 * The accepting states
+	 */
+	private final DenseBitSet accepting;
+
+	/**
+	 * The states from which an accepting state can be reached
+	 */
+	private final DenseBitSet live;
+
+	/**
+	 * The number of states
+	 */
+	private final int states;
+
+	/**
+	 * The specialized version of this matcher. This is lazily computed, thus
+	 * always use {@link #specialize()} to access it.
+	 */
+	private volatile StringMatcher specialized;
+
+	/**
+	 * Builds the matcher of the given automaton, through a subset
+	 * construction over classes of characters. Each created state is charged
+	 * to the current {@link Budget}.
+	 *
+	 * @param automaton the automaton
+	 */
+	AutomatonMatcher(Automaton automaton) {
+		this(automaton, false);
+	}
+
+	/**
+	 * Builds the matcher of the given automaton, through a subset
+	 * construction over classes of characters. Each created state is charged
+	 * to the current {@link Budget}. If {@code topAsCharacter} is
+	 * {@code true}, transitions labeled with {@link TopAtom} are instead
+	 * treated as reading the single character of {@link TopAtom#STRING}, as in
+	 * {@link Automaton#getLanguage()}.
+	 *
+	 * @param automaton      the automaton
+	 * @param topAsCharacter whether or not top transitions read a single
+	 *                           character
+	 */
+	AutomatonMatcher(Automaton automaton, boolean topAsCharacter) {
+		AutomatonIndex idx = automaton.getIndex();
+		symbols = symbols(idx, topAsCharacter);
+		classes = symbols.length + 1;
+		asciiClasses = new int[128];
+		for (int c = 0; c < 128; c++)
+			asciiClasses[c] = lookup((char) c);
+
+		Nfa nfa = new Nfa(idx, topAsCharacter);
+		Map<DenseBitSet, Integer> ids = new HashMap<>();
+		List<DenseBitSet> sets = new ArrayList<>();
+		IntQueue queue = new IntQueue();
+		DenseBitSet start = new DenseBitSet(nfa.size());
+		for (int q = idx.getInitials().nextSetBit(0); q >= 0; q = idx.getInitials().nextSetBit(q + 1))
+			start.set(q);
+		nfa.close(start);
+		ids.put(start, 0);
+		sets.add(start);
+		queue.add(0);
+		Budget.chargeStates(1);
+
+		int[] transitions = new int[classes * 16];
+		while (!queue.isEmpty()) {
+			int id = queue.poll();
+			DenseBitSet set = sets.get(id);
+			for (int c = 0; c < classes; c++) {
+				DenseBitSet next = nfa.move(set, c);
+				int target = -1;
+				if (!next.isEmpty()) {
+					Integer existing = ids.get(next);
+					if (existing == null) {
+						existing = sets.size();
+						ids.put(next, existing);
+						sets.add(next);
+						queue.add(existing);
+						Budget.chargeStates(1);
+					}
+					target = existing;
+				}
+
+				if (transitions.length <= id * classes + c)
+					transitions = Arrays.copyOf(transitions, transitions.length * 2);
+				transitions[id * classes + c] = target;
+			}
+		}
+
+		states = sets.size();
+		table = Arrays.copyOf(transitions, states * classes);
+		accepting = new DenseBitSet(states);
+		for (int i = 0; i < states; i++)
+			if (sets.get(i).intersects(nfa.finals))
+				accepting.set(i);
+		live = coreachable();
+	}
+
+	private static char[] symbols(AutomatonIndex idx, boolean topAsCharacter) {
+		TreeSet<Character> chars = new TreeSet<>();
+		for (int i = 0; i < idx.size(); i++)
+			for (Transition t : idx.getOutgoing(i))
+				if (topAsCharacter || !(t.getInput() instanceof TopAtom))
+					for (char c : t.getInput().toString().toCharArray())
+						chars.add(c);
+
+		char[] result = new char[chars.size()];
+		int i = 0;
+		for (char c : chars)
+			result[i++] = c;
+		return result;
+	}
+
+	private int lookup(char c) {
+		int i = Arrays.binarySearch(symbols, c);
+		return i >= 0 ? i : symbols.length;
+	}
+
+	private DenseBitSet coreachable() {
+		IntList[] predecessors = new IntList[states];
+		for (int i = 0; i < states; i++)
+			predecessors[i] = new IntList(4);
+		for (int i = 0; i < table.length; i++)
+			if (table[i] >= 0)
+				predecessors[table[i]].add(i / classes);
+
+		DenseBitSet result = new DenseBitSet(accepting);
+		IntQueue queue = new IntQueue();
+		for (int i = accepting.nextSetBit(0); i >= 0; i = accepting.nextSetBit(i + 1))
+			queue.add(i);
+		while (!queue.isEmpty()) {
+			IntList preds = predecessors[queue.poll()];
+			for (int k = 0; k < preds.size(); k++)
+				if (result.set(preds.get(k)))
+					queue.add(preds.get(k));
+		}
+		return result;
+	}
+
+	/**
+	 * Yields the class of the given character.
+	 *
+	 * @param c the character
+	 *
+	 * @return the class of {@code c}
+	 */
+	int classOf(char c) {
+		return c < 128 ? asciiClasses[c] : lookup(c);
+	}
+
+	/**
+	 * Yields the state reached from the initial one by reading {@code str},
+	 * or {@code -1} if the sink state is reached.
+	 */
+	private int run(CharSequence str) {
+		int q = 0;
+		for (int i = 0; i < str.length() && q >= 0; i++)
+			q = table[q * classes + classOf(str.charAt(i))];
+		return q;
+	}
+
+	@Override
+	public boolean accepts(CharSequence str) {
+		int q = run(str);
+		return q >= 0 && accepting.get(q);
+	}
+
+	@Override
+	public boolean acceptsPrefix(CharSequence str) {
+		int q = run(str);
+		return q >= 0 && live.get(q);
+	}
+
+	/**
+	 * Yields a matcher equivalent to this one, implemented by a class that is
+	 * generated at runtime, where the transition function is compiled into
+	 * the code of the matching methods. This pays off for matchers that are
+	 * used on many strings, as generating the class is far more expensive
+	 * than matching a single string. If this matcher is too large to be
+	 * specialized, it is returned unchanged. The specialized matcher is
+	 * generated the first time that this method is invoked.
+	 *
+	 * @return the specialized matcher
+	 */
+	public StringMatcher specialize() {
+		StringMatcher result = specialized;
+		if (result == null) {
+			// racing threads might generate more than one class, but they
+			// will all publish equivalent matchers
+			result = MatcherGenerator.generate(this);
+			specialized = result = result == null ? this : result;
+		}
+		return result;
+	}
+
+	/**
+	 * Yields the number of states of this matcher, excluding the sink state.
+	 *
+	 * @return the number of states
+	 */
+	public int getStates() {
+		return states;
+	}
+
+	/**
+	 * Yields the character whose class is {@code c}, that must not be the
+	 * class of the characters that do not appear in the automaton.
+	 *
+	 * @param c the class
+	 *
+	 * @return the character
+	 */
+	char getSymbol(int c) {
+		return symbols[c];
+	}
+
+	/**
+	 * Yields the number of classes of characters of this matcher.
+	 *
+	 * @return the number of classes
+	 */
+	int getClasses() {
+		return classes;
+	}
+
+	/**
+	 * Yields the state reached from {@code state} reading a character of
+	 * class {@code c}, or {@code -1} for the sink state.
+	 *
+	 * @param state the source state
+	 * @param c     the class
+	 *
+	 * @return the target state
+	 */
+	int next(int state, int c) {
+		return table[state * classes + c];
+	}
+
+	/**
+	 * Yields whether or not the given state is accepting.
+	 *
+	 * @param state the state
+	 *
+	 * @return {@code true} if {@code state} is accepting
+	 */
+	boolean isAccepting(int state) {
+		return accepting.get(state);
+	}
+
+	/**
+	 * Yields whether or not an accepting state can be reached from the given
+	 * state.
+	 *
+	 * @param state the state
+	 *
+	 * @return {@code true} if {@code state} is live
+	 */
+	boolean isLive(int state) {
+		return live.get(state);
+	}
+
+	/**
+	 * A non-deterministic automaton over classes of characters with epsilon
+	 * transitions, where each atom is split into a chain of transitions
+	 * reading one character each, and each top transition goes through a
+	 * state that loops on all classes.
+	 */
+	private final class Nfa {
+		private final int[][] moves;
+		private final int[][] epsilons;
+		private final DenseBitSet loops;
+		private final DenseBitSet finals;
+
+		private Nfa(AutomatonIndex idx, boolean topAsCharacter) {
+			int n = idx.size();
+			List<IntList> eps = new ArrayList<>(n);
+			List<IntList> mv = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				eps.add(new IntList(2));
+				mv.add(new IntList(4));
+			}
+			loops = new DenseBitSet(n);
+
+			for (int i = 0; i < n; i++) {
+				Transition[] outgoing = idx.getOutgoing(i);
+				int[] targets = idx.getTargets(i);
+				for (int j = 0; j < outgoing.length; j++) {
+					if (outgoing[j].isEpsilonTransition())
+						eps.get(i).add(targets[j]);
+					else if (!topAsCharacter && outgoing[j].getInput() instanceof TopAtom) {
+						int loop = newState(eps, mv, true);
+						eps.get(i).add(loop);
+						eps.get(loop).add(targets[j]);
+					} else {
+						String s = outgoing[j].getInput().toString();
+						int q = i;
+						for (int k = 0; k < s.length(); k++) {
+							int next = k == s.length() - 1 ? targets[j] : newState(eps, mv, false);
+							mv.get(q).add(lookup(s.charAt(k)));
+							mv.get(q).add(next);
+							q = next;
+						}
+					}
+				}
+			}
+
+			epsilons = new int[eps.size()][];
+			moves = new int[mv.size()][];
+			for (int i = 0; i < eps.size(); i++) {
+				epsilons[i] = eps.get(i).toArray();
+				moves[i] = mv.get(i).toArray();
+			}
+
+			finals = new DenseBitSet(size());
+			for (int i = idx.getFinals().nextSetBit(0); i >= 0; i = idx.getFinals().nextSetBit(i + 1))
+				finals.set(i);
+		}
+
+		private int newState(List<IntList> eps, List<IntList> mv, boolean loop) {
+			eps.add(new IntList(2));
+			mv.add(new IntList(2));
+			if (loop)
+				loops.set(eps.size() - 1);
+			return eps.size() - 1;
+		}
+
+		private int size() {
+			return moves.length;
+		}
+
+		/**
+		 * Adds to {@code set} the states reachable through epsilon
+		 * transitions.
+		 */
+		private void close(DenseBitSet set) {
+			IntQueue queue = new IntQueue();
+			for (int q = set.nextSetBit(0); q >= 0; q = set.nextSetBit(q + 1))
+				queue.add(q);
+			while (!queue.isEmpty())
+				for (int next : epsilons[queue.poll()])
+					if (set.set(next))
+						queue.add(next);
+		}
+
+		/**
+		 * Yields the epsilon closure of the states reached from {@code set}
+		 * reading a character of class {@code c}.
+		 */
+		private DenseBitSet move(DenseBitSet set, int c) {
+			DenseBitSet result = new DenseBitSet(size());
+			for (int q = set.nextSetBit(0); q >= 0; q = set.nextSetBit(q + 1)) {
+				if (loops.get(q))
+					result.set(q);
+				int[] mv = moves[q];
+				// moves are stored as (class, target) pairs
+				for (int k = 0; k < mv.length; k += 2)
+					if (mv[k] == c)
+						result.set(mv[k + 1]);
+			}
+			close(result);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.automata.algorithms.SCCs;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.util.IntStack;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Structural statistics of an {@link Automaton}, that can be used to predict
+ * the cost of operations before invoking them (see
+ * {@link it.unive.tarsis.CostEstimator}). All statistics are computed at once,
+ * in time linear in the size of the automaton, the first time that
+ * {@link Automaton#getStats()} is invoked, and are then cached. Instances are
+ * immutable.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AutomatonStats {
+
+	/**
+	 * The number of states
+	 */
+	private final int states;
+
+	/**
+	 * The number of transitions
+	 */
+	private final int transitions;
+
+	/**
+	 * The number of distinct non-empty symbols
+	 */
+	private final int alphabetSize;
+
+	/**
+	 * The number of epsilon transitions
+	 */
+	private final int epsilonTransitions;
+
+	/**
+	 * The number of transitions recognizing the top string
+	 */
+	private final int topTransitions;
+
+	/**
+	 * The number of strongly connected components
+	 */
+	private final int sccs;
+
+	/**
+	 * The maximum number of outgoing transitions of a state
+	 */
+	private final int maxOutDegree;
+
+	/**
+	 * Whether or not the automaton is deterministic
+	 */
+	private final boolean deterministic;
+
+	/**
+	 * The number of paths from an initial to a final state
+	 */
+	private final long paths;
+
+	/**
+	 * Computes the statistics of the given automaton.
+	 *
+	 * @param a the automaton
+	 */
+	AutomatonStats(Automaton a) {
+		AutomatonIndex idx = a.getIndex();
+		Set<RegularExpression> alphabet = new HashSet<>();
+		int eps = 0, top = 0, degree = 0;
+		for (int i = 0; i < idx.size(); i++) {
+			Transition[] outgoing = idx.getOutgoing(i);
+			degree = Math.max(degree, outgoing.length);
+			for (Transition t : outgoing)
+				if (t.getInput() == TopAtom.INSTANCE) {
+					top++;
+					alphabet.add(t.getInput());
+				} else if (t.isEpsilonTransition())
+					eps++;
+				else
+					alphabet.add(t.getInput());
+		}
+
+		states = a.getStates().size();
+		transitions = a.getDelta().size();
+		alphabetSize = alphabet.size();
+		epsilonTransitions = eps;
+		topTransitions = top;
+		maxOutDegree = degree;
+		sccs = SCCs.getSCCs(a).size();
+		deterministic = a.isDeterministic();
+		paths = sccs == 0 ? countPaths(idx) : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Counts the paths from an initial to a final state of an acyclic
+	 * automaton, visiting states in reverse topological order. The count
+	 * saturates at {@link Long#MAX_VALUE}.
+	 */
+	private static long countPaths(AutomatonIndex idx) {
+		int n = idx.size();
+		// paths[i] is the number of paths from i to a final state, plus one
+		// so that zero means "not computed yet"
+		long[] paths = new long[n];
+		IntStack nodes = new IntStack();
+		IntStack cursors = new IntStack();
+		long total = 0;
+		for (int root = 0; root < n; root++) {
+			if (!idx.isInitial(root))
+				continue;
+
+			nodes.push(root);
+			cursors.push(0);
+			while (!nodes.isEmpty()) {
+				int v = nodes.peek();
+				int[] targets = idx.getTargets(v);
+				int cursor = cursors.peek();
+				if (cursor < targets.length && paths[targets[cursor]] == 0) {
+					nodes.push(targets[cursor]);
+					cursors.push(0);
+					continue;
+				} else if (cursor < targets.length) {
+					cursors.setPeek(cursor + 1);
+					continue;
+				}
+
+				nodes.pop();
+				cursors.pop();
+				long count = idx.isFinal(v) ? 1 : 0;
+				for (int w : targets)
+					count = saturatedAdd(count, paths[w] - 1);
+				paths[v] = saturatedAdd(count, 1);
+			}
+
+			total = saturatedAdd(total, paths[root] - 1);
+		}
+
+		return total;
+	}
+
+	private static long saturatedAdd(long a, long b) {
+		long r = a + b;
+		return r < 0 ? Long.MAX_VALUE : r;
+	}
+
+	/**
+	 * Yields the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int getStates() {
+		return states;
+	}
+
+	/**
+	 * Yields the number of transitions.
+	 *
+	 * @return the number of transitions
+	 */
+	public int getTransitions() {
+		return transitions;
+	}
+
+	/**
+	 * Yields the number of distinct symbols read by transitions, excluding
+	 * epsilon and including the top string.
+	 *
+	 * @return the size of the alphabet
+	 */
+	public int getAlphabetSize() {
+		return alphabetSize;
+	}
+
+	/**
+	 * Yields the number of epsilon transitions.
+	 *
+	 * @return the number of epsilon transitions
+	 */
+	public int getEpsilonTransitions() {
+		return epsilonTransitions;
+	}
+
+	/**
+	 * Yields the number of transitions recognizing the top string.
+	 *
+	 * @return the number of top transitions
+	 */
+	public int getTopTransitions() {
+		return topTransitions;
+	}
+
+	/**
+	 * Yields the number of strongly connected components, as computed by
+	 * {@link SCCs#getSCCs(Automaton)}: components made of a single state
+	 * without self-loops are not counted.
+	 *
+	 * @return the number of strongly connected components
+	 */
+	public int getSCCs() {
+		return sccs;
+	}
+
+	/**
+	 * Yields the maximum number of outgoing transitions of a state.
+	 *
+	 * @return the maximum out-degree
+	 */
+	public int getMaxOutDegree() {
+		return maxOutDegree;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the automaton is deterministic.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the automaton has at least one cycle.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isCyclic() {
+		return sccs > 0;
+	}
+
+	/**
+	 * Yields the number of paths going from an initial state to a final state.
+	 * This is {@link Long#MAX_VALUE} if the automaton is cyclic or if the
+	 * number of paths does not fit into a {@code long}.
+	 *
+	 * @return the number of paths
+	 */
+	public long getPaths() {
+		return paths;
+	}
+
+	@Override
+	public String toString() {
+		return "states=" + states + ", transitions=" + transitions + ", alphabet=" + alphabetSize + ", epsilon="
+				+ epsilonTransitions + ", top=" + topTransitions + ", sccs=" + sccs + ", maxOutDegree="
+				+ maxOutDegree + ", deterministic=" + deterministic + ", paths="
+				+ (paths == Long.MAX_VALUE ? "∞" : String.valueOf(paths));
+	}
+}
@@ -0,0 +1,288 @@
+package it.unive.tarsis.automata;
+
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntList;
+import it.unive.tarsis.util.IntStack;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy enumeration of the strings recognized by an {@link AutomatonMatcher},
+ * in length-lexicographic order: shorter strings come first, and strings of
+ * the same length are sorted by their characters. Strings of length
+ * {@code n} are produced by a depth-first visit of the matcher that only
+ * follows transitions towards states that can reach an accepting one in
+ * exactly the remaining number of steps, so that no dead end is explored,
+ * and that writes characters in a buffer shared by all strings.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class LanguageEnumerator implements Iterator<String> {
+
+	/**
+	 * The matcher whose language is enumerated
+	 */
+	private final AutomatonMatcher matcher;
+
+	/**
+	 * The length after which the enumeration stops
+	 */
+	private final int maxLength;
+
+	/**
+	 * The i-th element contains the states that reach an accepting state in
+	 * exactly i steps
+	 */
+	private final List<DenseBitSet> exact = new ArrayList<>();
+
+	/**
+	 * The predecessors of each state
+	 */
+	private final int[][] predecessors;
+
+	/**
+	 * The shared prefix of the strings being enumerated
+	 */
+	private char[] buffer = new char[16];
+
+	/**
+	 * The state reached at each depth of the visit
+	 */
+	private int[] states = new int[17];
+
+	/**
+	 * The next class to try at each depth of the visit
+	 */
+	private int[] classes = new int[17];
+
+	/**
+	 * The length of the strings being enumerated
+	 */
+	private int length = -1;
+
+	/**
+	 * The depth of the visit, {@code -1} when strings of the current length
+	 * are over
+	 */
+	private int depth = -1;
+
+	/**
+	 * The next string, if it has been computed
+	 */
+	private String next;
+
+	/**
+	 * Builds the enumeration.
+	 *
+	 * @param matcher   the matcher whose language is enumerated
+	 * @param maxLength the maximum length of the enumerated strings
+	 */
+	LanguageEnumerator(AutomatonMatcher matcher, int maxLength) {
+		this.matcher = matcher;
+		int longest = longest(matcher);
+		this.maxLength = Math.min(maxLength, longest);
+
+		int n = matcher.getStates();
+		IntList[] preds = new IntList[n];
+		for (int i = 0; i < n; i++)
+			preds[i] = new IntList(4);
+		for (int q = 0; q < n; q++)
+			for (int c = 0; c < matcher.getClasses(); c++) {
+				int target = matcher.next(q, c);
+				if (target >= 0 && matcher.isLive(target))
+					preds[target].add(q);
+			}
+		predecessors = new int[n][];
+		for (int i = 0; i < n; i++)
+			predecessors[i] = preds[i].toArray();
+
+		DenseBitSet accepting = new DenseBitSet(n);
+		for (int q = 0; q < n; q++)
+			if (matcher.isAccepting(q))
+				accepting.set(q);
+		exact.add(accepting);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null)
+			next = advance();
+		return next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		String result = next;
+		next = null;
+		return result;
+	}
+
+	private String advance() {
+		// the last class groups characters that are not read by the matcher
+		int symbols = matcher.getClasses() - 1;
+		while (true) {
+			if (depth < 0 && !nextLength())
+				return null;
+
+			if (depth == length) {
+				depth--;
+				Budget.checkpoint();
+				return new String(buffer, 0, length);
+			}
+
+			int c = classes[depth];
+			if (c >= symbols) {
+				depth--;
+				continue;
+			}
+
+			classes[depth] = c + 1;
+			int target = matcher.next(states[depth], c);
+			if (target >= 0 && exact.get(length - depth - 1).get(target)) {
+				buffer[depth] = matcher.getSymbol(c);
+				depth++;
+				states[depth] = target;
+				classes[depth] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Moves to the next length for which there are strings to enumerate,
+	 * yielding {@code false} if there is none.
+	 */
+	private boolean nextLength() {
+		while (length < maxLength) {
+			length++;
+			while (exact.size() <= length)
+				exact.add(predecessorsOf(exact.get(exact.size() - 1)));
+
+			if (exact.get(length).get(0)) {
+				if (buffer.length < length) {
+					buffer = new char[length * 2];
+					states = new int[length * 2 + 1];
+					classes = new int[length * 2 + 1];
+				}
+				depth = 0;
+				states[0] = 0;
+				classes[0] = 0;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private DenseBitSet predecessorsOf(DenseBitSet set) {
+		DenseBitSet result = new DenseBitSet(matcher.getStates());
+		for (int q = set.nextSetBit(0); q >= 0; q = set.nextSetBit(q + 1))
+			for (int pred : predecessors[q])
+				result.set(pred);
+		return result;
+	}
+
+	/**
+	 * Yields the number of strings recognized by the given matcher, saturating
+	 * at {@link Long#MAX_VALUE}, that also stands for infinitely many strings.
+	 *
+	 * @param matcher the matcher
+	 *
+	 * @return the number of strings
+	 */
+	static long size(AutomatonMatcher matcher) {
+		int[] order = postorder(matcher);
+		if (order == null)
+			return Long.MAX_VALUE;
+
+		// successors come before their predecessors in postorder
+		long[] counts = new long[matcher.getStates()];
+		for (int q : order) {
+			long count = matcher.isAccepting(q) ? 1 : 0;
+			for (int c = 0; c < matcher.getClasses(); c++) {
+				int target = matcher.next(q, c);
+				if (target >= 0 && matcher.isLive(target)) {
+					count += counts[target];
+					if (count < 0)
+						count = Long.MAX_VALUE;
+				}
+			}
+			counts[q] = count;
+		}
+		return order.length == 0 ? 0 : counts[0];
+	}
+
+	/**
+	 * Yields the length of the longest string recognized by the given
+	 * matcher, that is {@link Integer#MAX_VALUE} if there are infinitely many
+	 * strings, and {@code -1} if there are none.
+	 */
+	private static int longest(AutomatonMatcher matcher) {
+		int[] order = postorder(matcher);
+		if (order == null)
+			return Integer.MAX_VALUE;
+
+		int[] longest = new int[matcher.getStates()];
+		for (int q : order) {
+			int max = matcher.isAccepting(q) ? 0 : -1;
+			for (int c = 0; c < matcher.getClasses(); c++) {
+				int target = matcher.next(q, c);
+				if (target >= 0 && matcher.isLive(target))
+					max = Math.max(max, longest[target] + 1);
+			}
+			longest[q] = max;
+		}
+		return order.length == 0 ? -1 : longest[0];
+	}
+
+	/**
+	 * Yields the live states reachable from the initial one in postorder, or
+	 * {@code null} if they form a cycle (and thus the language is infinite).
+	 */
+	private static int[] postorder(AutomatonMatcher matcher) {
+		int n = matcher.getStates();
+		if (!matcher.isLive(0))
+			return new int[0];
+
+		// 0 = unvisited, 1 = on the stack, 2 = done
+		byte[] color = new byte[n];
+		int[] order = new int[n];
+		int count = 0;
+		IntStack stack = new IntStack();
+		IntStack nextClass = new IntStack();
+		stack.push(0);
+		nextClass.push(0);
+		color[0] = 1;
+		while (!stack.isEmpty()) {
+			int q = stack.peek();
+			int c = nextClass.peek();
+			if (c == matcher.getClasses()) {
+				stack.pop();
+				nextClass.pop();
+				color[q] = 2;
+				order[count++] = q;
+				continue;
+			}
+
+			nextClass.setPeek(c + 1);
+			int target = matcher.next(q, c);
+			if (target < 0 || !matcher.isLive(target))
+				continue;
+			if (color[target] == 1)
+				return null;
+			if (color[target] == 0) {
+				color[target] = 1;
+				stack.push(target);
+				nextClass.push(0);
+			}
+		}
+
+		int[] result = new int[count];
+		System.arraycopy(order, 0, result, 0, count);
+		return result;
+	}
+}
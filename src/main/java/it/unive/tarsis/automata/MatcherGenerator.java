@@ -0,0 +1,365 @@
+package it.unive.tarsis.automata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A generator of classes specializing an {@link AutomatonMatcher}, where each
+ * state becomes a block of bytecode that reads the next character and jumps to
+ * the block of the next state through a {@code lookupswitch} on the character
+ * itself. The state is thus encoded in the program counter, and no table is
+ * accessed while matching.<br>
+ * <br>
+ * Classes are written with a minimal class-file writer, targeting the class
+ * file version of Java 5 so that no stack map frames are needed, and each of
+ * them is defined by its own class loader, so that it can be unloaded once
+ * the matcher is no longer reachable. Matchers whose methods would exceed
+ * {@link #MAX_CODE_SIZE} bytes are not specialized, as the JIT compiler does
+ * not compile huge methods.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class MatcherGenerator {
+
+	/**
+	 * The maximum size of the bytecode of a generated method, that is the
+	 * default limit of the JIT compiler for huge methods
+	 */
+	static final int MAX_CODE_SIZE = 8000;
+
+	/**
+	 * The counter used to give unique names to generated classes
+	 */
+	private static final AtomicLong COUNTER = new AtomicLong();
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private static final int ICONST_0 = 0x03;
+	private static final int ICONST_1 = 0x04;
+	private static final int ILOAD = 0x15;
+	private static final int ILOAD_3 = 0x1d;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int ISTORE = 0x36;
+	private static final int ISTORE_3 = 0x3e;
+	private static final int IINC = 0x84;
+	private static final int IF_ICMPGE = 0xa2;
+	private static final int LOOKUPSWITCH = 0xab;
+	private static final int IRETURN = 0xac;
+	private static final int RETURN = 0xb1;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int INVOKEINTERFACE = 0xb9;
+
+	private MatcherGenerator() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields a matcher equivalent to the given one, implemented by a
+	 * generated class, or {@code null} if the matcher is too large to be
+	 * specialized.
+	 *
+	 * @param matcher the matcher
+	 *
+	 * @return the specialized matcher, or {@code null}
+	 */
+	static StringMatcher generate(AutomatonMatcher matcher) {
+		// each state needs at least 24 bytes of code
+		if ((long) matcher.getStates() * 24 > MAX_CODE_SIZE)
+			return null;
+
+		String name = "it/unive/tarsis/automata/GeneratedMatcher" + COUNTER.incrementAndGet();
+		ConstantPool pool = new ConstantPool();
+		int thisClass = pool.classRef(name);
+		int superClass = pool.classRef("java/lang/Object");
+		int iface = pool.classRef(StringMatcher.class.getName().replace('.', '/'));
+		int objectInit = pool.methodRef(false, "java/lang/Object", "<init>", "()V");
+		int length = pool.methodRef(true, "java/lang/CharSequence", "length", "()I");
+		int charAt = pool.methodRef(true, "java/lang/CharSequence", "charAt", "(I)C");
+
+		byte[] accepts = matchCode(matcher, false, length, charAt);
+		byte[] acceptsPrefix = matchCode(matcher, true, length, charAt);
+		if (accepts == null || acceptsPrefix == null)
+			return null;
+
+		byte[] init = new byte[] { (byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit,
+				(byte) RETURN };
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			// the constant pool must be complete before being written
+			int code = pool.utf8("Code");
+			int[] methods = new int[] { pool.utf8("<init>"), pool.utf8("()V"), pool.utf8("accepts"),
+					pool.utf8("(Ljava/lang/CharSequence;)Z"), pool.utf8("acceptsPrefix") };
+			pool.write(out);
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(iface);
+			out.writeShort(0);
+			out.writeShort(3);
+			writeMethod(out, methods[0], methods[1], code, 1, 1, init);
+			writeMethod(out, methods[2], methods[3], code, 2, 5, accepts);
+			writeMethod(out, methods[4], methods[3], code, 2, 5, acceptsPrefix);
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		try {
+			Class<?> generated = new Loader().define(name.replace('/', '.'), bytes.toByteArray());
+			return (StringMatcher) generated.getConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to instantiate the generated matcher", e);
+		}
+	}
+
+	private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute, int maxStack,
+			int maxLocals, byte[] code) throws IOException {
+		out.writeShort(ACC_PUBLIC);
+		out.writeShort(name);
+		out.writeShort(descriptor);
+		out.writeShort(1);
+		out.writeShort(codeAttribute);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		// no exception table and no attributes
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	/**
+	 * Yields the bytecode of a matching method, or {@code null} if it is too
+	 * large. Locals are: 0 this, 1 the string, 3 the current index, 4 the
+	 * length of the string.
+	 */
+	private static byte[] matchCode(AutomatonMatcher matcher, boolean prefix, int length, int charAt) {
+		int states = matcher.getStates();
+		int accept = states, reject = states + 1;
+		CodeBuffer code = new CodeBuffer(states + 2);
+
+		code.op(ICONST_0);
+		code.op(ISTORE_3);
+		code.op(ALOAD_1);
+		code.invokeInterface(length, 1);
+		code.op(ISTORE);
+		code.op(4);
+
+		int others = matcher.getClasses() - 1;
+		for (int q = 0; q < states; q++) {
+			code.bind(q);
+			boolean ok = prefix ? matcher.isLive(q) : matcher.isAccepting(q);
+			code.op(ILOAD_3);
+			code.op(ILOAD);
+			code.op(4);
+			code.jump(IF_ICMPGE, ok ? accept : reject);
+			code.op(ALOAD_1);
+			code.op(ILOAD_3);
+			code.invokeInterface(charAt, 2);
+			code.op(IINC);
+			code.op(3);
+			code.op(1);
+
+			int fallback = matcher.next(q, others);
+			int[] keys = new int[others];
+			int[] labels = new int[others];
+			int pairs = 0;
+			for (int c = 0; c < others; c++) {
+				int target = matcher.next(q, c);
+				if (target != fallback) {
+					keys[pairs] = matcher.getSymbol(c);
+					labels[pairs++] = target < 0 ? reject : target;
+				}
+			}
+			code.lookupSwitch(fallback < 0 ? reject : fallback, Arrays.copyOf(keys, pairs),
+					Arrays.copyOf(labels, pairs));
+
+			if (code.size() > MAX_CODE_SIZE)
+				return null;
+		}
+
+		code.bind(accept);
+		code.op(ICONST_1);
+		code.op(IRETURN);
+		code.bind(reject);
+		code.op(ICONST_0);
+		code.op(IRETURN);
+		return code.link();
+	}
+
+	/**
+	 * A buffer of bytecode with labels, whose offsets are patched once all
+	 * labels are bound.
+	 */
+	private static final class CodeBuffer {
+		private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+		private final int[] labels;
+
+		/**
+		 * Triples (position of the offset, position of the instruction,
+		 * label), where the offset is wide if the position is negative
+		 */
+		private int[] fixups = new int[48];
+		private int count;
+
+		private CodeBuffer(int labels) {
+			this.labels = new int[labels];
+		}
+
+		private int size() {
+			return code.size();
+		}
+
+		private void op(int b) {
+			code.write(b);
+		}
+
+		private void short16(int v) {
+			code.write(v >> 8);
+			code.write(v);
+		}
+
+		private void int32(int v) {
+			short16(v >> 16);
+			short16(v);
+		}
+
+		private void bind(int label) {
+			labels[label] = code.size();
+		}
+
+		private void fixup(int at, int instruction, int label) {
+			if (count + 3 > fixups.length)
+				fixups = Arrays.copyOf(fixups, fixups.length * 2);
+			fixups[count++] = at;
+			fixups[count++] = instruction;
+			fixups[count++] = label;
+		}
+
+		private void jump(int opcode, int label) {
+			int instruction = code.size();
+			op(opcode);
+			fixup(code.size(), instruction, label);
+			short16(0);
+		}
+
+		private void invokeInterface(int method, int argsSize) {
+			op(INVOKEINTERFACE);
+			short16(method);
+			op(argsSize);
+			op(0);
+		}
+
+		private void lookupSwitch(int fallback, int[] keys, int[] targets) {
+			int instruction = code.size();
+			op(LOOKUPSWITCH);
+			// operands are aligned to 4 bytes from the start of the code
+			while (code.size() % 4 != 0)
+				op(0);
+			fixup(-code.size() - 1, instruction, fallback);
+			int32(0);
+			int32(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				int32(keys[i]);
+				fixup(-code.size() - 1, instruction, targets[i]);
+				int32(0);
+			}
+		}
+
+		private byte[] link() {
+			byte[] result = code.toByteArray();
+			for (int i = 0; i < count; i += 3) {
+				boolean wide = fixups[i] < 0;
+				int at = wide ? -fixups[i] - 1 : fixups[i];
+				int offset = labels[fixups[i + 2]] - fixups[i + 1];
+				if (wide) {
+					result[at++] = (byte) (offset >> 24);
+					result[at++] = (byte) (offset >> 16);
+				}
+				result[at++] = (byte) (offset >> 8);
+				result[at] = (byte) offset;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The constant pool of a generated class.
+	 */
+	private static final class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> entries = new HashMap<>();
+		private int next = 1;
+
+		private int entry(String key, int tag, int a, int b) {
+			Integer existing = entries.get(key);
+			if (existing != null)
+				return existing;
+
+			try {
+				out.writeByte(tag);
+				if (tag == 1)
+					out.writeUTF(key.substring(2));
+				else {
+					out.writeShort(a);
+					if (b >= 0)
+						out.writeShort(b);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			entries.put(key, next);
+			return next++;
+		}
+
+		private int utf8(String value) {
+			return entry("1:" + value, 1, -1, -1);
+		}
+
+		private int classRef(String internalName) {
+			return entry("7:" + internalName, 7, utf8(internalName), -1);
+		}
+
+		private int methodRef(boolean isInterface, String owner, String name, String descriptor) {
+			int nameAndType = entry("12:" + name + descriptor, 12, utf8(name), utf8(descriptor));
+			int tag = isInterface ? 11 : 10;
+			return entry(tag + ":" + owner + "." + name + descriptor, tag, classRef(owner), nameAndType);
+		}
+
+		private void write(DataOutputStream stream) throws IOException {
+			stream.writeShort(next);
+			out.flush();
+			bytes.writeTo(stream);
+		}
+	}
+
+	/**
+	 * The class loader of a single generated class.
+	 */
+	private static final class Loader extends ClassLoader {
+		private Loader() {
+			super(MatcherGenerator.class.getClassLoader());
+		}
+
+		private Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package it.unive.tarsis.automata;
 
 /**
- * A state of the automaton.
+ * A state of the automaton. States are immutable: use an
+ * {@link AutomatonBuilder} to obtain automata where the initial or final
+ * status of a state has been changed.
  * 
  * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
@@ -16,12 +18,12 @@ public class State {
 	/**
 	 * True if and only if this state is an accepting state
 	 */
-	private boolean isFinalState;
+	private final boolean isFinalState;
 
 	/**
 	 * True if and only if this state is an initial state
 	 */
-	private boolean isInitialState;
+	private final boolean isInitialState;
 
 	/**
 	 * Builds a new state.
@@ -46,17 +48,6 @@ public class State {
 		return isInitialState;
 	}
 
-	/**
-	 * Updates the property of this state of being an initial state according to
-	 * the given boolean.
-	 * 
-	 * @param isInitialState whether or not this state has to be marked as
-	 *                           initial state
-	 */
-	public void setInitialState(boolean isInitialState) {
-		this.isInitialState = isInitialState;
-	}
-
 	/**
 	 * Yields the name of this state.
 	 * 
@@ -75,17 +66,6 @@ public class State {
 		return isFinalState;
 	}
 
-	/**
-	 * Updates the property of this state of being a final state according to
-	 * the given boolean.
-	 * 
-	 * @param isFinalState whether or not this state has to be marked as final
-	 *                         state
-	 */
-	public void setFinalState(boolean isFinalState) {
-		this.isFinalState = isFinalState;
-	}
-
 	@Override
 	public String toString() {
 		return state + (isInitialState ? "[init]" : "") + (isFinalState ? "[final]" : "");
@@ -0,0 +1,34 @@
+package it.unive.tarsis.automata;
+
+/**
+ * A test of whether concrete strings belong to the language of an
+ * {@link Automaton}. Matchers are obtained through
+ * {@link Automaton#compile()}, and possibly specialized through
+ * {@link AutomatonMatcher#specialize()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface StringMatcher {
+
+	/**
+	 * Yields {@code true} if and only if {@code str} is recognized by the
+	 * automaton.
+	 *
+	 * @param str the string
+	 *
+	 * @return {@code true} if {@code str} is recognized
+	 */
+	boolean accepts(CharSequence str);
+
+	/**
+	 * Yields {@code true} if and only if {@code str} is a prefix of at least
+	 * one string recognized by the automaton.
+	 *
+	 * @param str the string
+	 *
+	 * @return {@code true} if {@code str} can be extended to a recognized
+	 *             string
+	 */
+	boolean acceptsPrefix(CharSequence str);
+}
@@ -0,0 +1,250 @@
+package it.unive.tarsis.automata.algorithms;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntList;
+import it.unive.tarsis.util.IntQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A randomized pre-check for language containment, that searches for a
+ * counterexample to {@code a} being contained in {@code b} by sampling words
+ * accepted by {@code a} through random walks from its initial states to its
+ * final ones, and by running them on a matcher compiled from {@code b}. As in
+ * {@link Automaton#isContained(Automaton)}, each distinct regular expression
+ * labeling a transition is treated as a symbol. The check is one-sided: if it
+ * finds a counterexample, {@code a} is surely not contained in {@code b},
+ * while if it does not, nothing can be said.<br>
+ * <br>
+ * Walks are driven by a random generator with a fixed seed, so that the
+ * outcome of the check is reproducible.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ContainmentRefuter {
+
+	/**
+	 * The seed of the random walks
+	 */
+	private static final long SEED = 0x7A25151L;
+
+	/**
+	 * Yields {@code true} if a word accepted by {@code a} but not by
+	 * {@code b} is found within {@code samples} random walks on {@code a}.
+	 *
+	 * @param a       the automaton that should be contained
+	 * @param b       the automaton that should contain {@code a}
+	 * @param samples the number of random walks
+	 *
+	 * @return {@code true} if {@code a} is surely not contained in {@code b}
+	 */
+	public static boolean refutes(Automaton a, Automaton b, int samples) {
+		AutomatonIndex idx = a.getIndex();
+		boolean[] live = coreachable(idx);
+		int[] initials = liveInitials(idx, live);
+		if (initials.length == 0)
+			// a recognizes the empty language
+			return false;
+
+		Matcher matcher = new Matcher(b.getIndex());
+		Random random = new Random(SEED);
+		// long enough to exit the cycles of a, but not endless
+		int maxSteps = 4 * idx.size() + 16;
+		List<RegularExpression> word = new ArrayList<>();
+		for (int i = 0; i < samples; i++) {
+			word.clear();
+			if (walk(idx, live, initials, random, maxSteps, word) && !matcher.accepts(word))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Appends to {@code word} the symbols read by a random walk, yielding
+	 * {@code false} if the walk did not end in a final state within
+	 * {@code maxSteps} steps.
+	 */
+	private static boolean walk(AutomatonIndex idx, boolean[] live, int[] initials, Random random, int maxSteps,
+			List<RegularExpression> word) {
+		int q = initials[random.nextInt(initials.length)];
+		int[] candidates = new int[16];
+		for (int step = 0; step < maxSteps; step++) {
+			Transition[] outgoing = idx.getOutgoing(q);
+			int[] targets = idx.getTargets(q);
+			if (candidates.length < outgoing.length)
+				candidates = new int[outgoing.length];
+			int count = 0;
+			for (int j = 0; j < outgoing.length; j++)
+				if (live[targets[j]])
+					candidates[count++] = j;
+
+			// final states stop the walk as likely as each of their
+			// transitions continues it
+			if (idx.isFinal(q) && random.nextInt(count + 1) == 0)
+				return true;
+
+			int chosen = candidates[random.nextInt(count)];
+			if (!outgoing[chosen].isEpsilonTransition())
+				word.add(outgoing[chosen].getInput());
+			q = targets[chosen];
+		}
+
+		return false;
+	}
+
+	/**
+	 * Yields the states that can reach a final state.
+	 */
+	private static boolean[] coreachable(AutomatonIndex idx) {
+		int n = idx.size();
+		IntList[] predecessors = new IntList[n];
+		for (int i = 0; i < n; i++)
+			predecessors[i] = new IntList(4);
+		for (int i = 0; i < n; i++)
+			for (int target : idx.getTargets(i))
+				predecessors[target].add(i);
+
+		boolean[] live = new boolean[n];
+		IntQueue queue = new IntQueue();
+		DenseBitSet finals = idx.getFinals();
+		for (int i = finals.nextSetBit(0); i >= 0; i = finals.nextSetBit(i + 1)) {
+			live[i] = true;
+			queue.add(i);
+		}
+
+		while (!queue.isEmpty()) {
+			IntList preds = predecessors[queue.poll()];
+			for (int k = 0; k < preds.size(); k++)
+				if (!live[preds.get(k)]) {
+					live[preds.get(k)] = true;
+					queue.add(preds.get(k));
+				}
+		}
+
+		return live;
+	}
+
+	private static int[] liveInitials(AutomatonIndex idx, boolean[] live) {
+		DenseBitSet initials = idx.getInitials();
+		int[] result = new int[idx.size()];
+		int count = 0;
+		for (int i = initials.nextSetBit(0); i >= 0; i = initials.nextSetBit(i + 1))
+			if (live[i])
+				result[count++] = i;
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * A matcher for the words of an automaton, where symbols are numbered and
+	 * the epsilon closures of the states are computed once, when the matcher
+	 * is built.
+	 */
+	private static class Matcher {
+		private final Map<RegularExpression, Integer> symbols = new HashMap<>();
+		private final int[][][] delta;
+		private final int[][] closures;
+		private final boolean[] finals;
+		private final int[] initials;
+
+		private Matcher(AutomatonIndex idx) {
+			int n = idx.size();
+			for (int i = 0; i < n; i++)
+				for (Transition t : idx.getOutgoing(i))
+					if (!t.isEpsilonTransition())
+						symbols.putIfAbsent(t.getInput(), symbols.size());
+
+			// delta[q][s] are the successors of q reading the s-th symbol
+			int k = symbols.size();
+			IntList[][] successors = new IntList[n][k];
+			int[][] epsilon = new int[n][];
+			finals = new boolean[n];
+			for (int i = 0; i < n; i++) {
+				IntList[] row = successors[i];
+				for (int s = 0; s < k; s++)
+					row[s] = new IntList(2);
+				IntList eps = new IntList(2);
+				finals[i] = idx.isFinal(i);
+				Transition[] outgoing = idx.getOutgoing(i);
+				int[] targets = idx.getTargets(i);
+				for (int j = 0; j < outgoing.length; j++)
+					if (outgoing[j].isEpsilonTransition())
+						eps.add(targets[j]);
+					else
+						row[symbols.get(outgoing[j].getInput())].add(targets[j]);
+				epsilon[i] = eps.toArray();
+			}
+
+			delta = new int[n][k][];
+			closures = new int[n][];
+			for (int i = 0; i < n; i++) {
+				for (int s = 0; s < k; s++)
+					delta[i][s] = successors[i][s].toArray();
+				closures[i] = closure(i, epsilon);
+			}
+
+			DenseBitSet init = idx.getInitials();
+			IntList starts = new IntList();
+			for (int i = init.nextSetBit(0); i >= 0; i = init.nextSetBit(i + 1))
+				starts.add(i);
+			initials = starts.toArray();
+		}
+
+		private static int[] closure(int state, int[][] epsilon) {
+			IntList result = new IntList();
+			boolean[] seen = new boolean[epsilon.length];
+			IntQueue queue = new IntQueue();
+			seen[state] = true;
+			queue.add(state);
+			while (!queue.isEmpty()) {
+				int q = queue.poll();
+				result.add(q);
+				for (int next : epsilon[q])
+					if (!seen[next]) {
+						seen[next] = true;
+						queue.add(next);
+					}
+			}
+			return result.toArray();
+		}
+
+		private boolean accepts(List<RegularExpression> word) {
+			int n = finals.length;
+			boolean[] current = new boolean[n];
+			for (int q : initials)
+				for (int c : closures[q])
+					current[c] = true;
+
+			for (RegularExpression symbol : word) {
+				Integer s = symbols.get(symbol);
+				if (s == null)
+					return false;
+
+				boolean[] next = new boolean[n];
+				boolean any = false;
+				for (int q = 0; q < n; q++)
+					if (current[q])
+						for (int target : delta[q][s])
+							for (int c : closures[target])
+								any = next[c] = true;
+				if (!any)
+					return false;
+				current = next;
+			}
+
+			for (int q = 0; q < n; q++)
+				if (current[q] && finals[q])
+					return true;
+			return false;
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package it.unive.tarsis.automata.algorithms;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.util.IntQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hopcroft's partition refinement algorithm for the minimization of
+ * deterministic automata, running in {@code O(k n log n)} time, where
+ * {@code k} is the number of distinct symbols read by transitions. Each
+ * distinct {@link RegularExpression} labeling a transition is treated as a
+ * symbol, as done by the subset construction of {@link Automaton}.<br>
+ * <br>
+ * The states of the minimal automaton are named {@code q0, q1, ...} in
+ * breadth-first order from the initial state, visiting transitions sorted by
+ * their symbol: minimal automata recognizing the same language are thus
+ * always identical, regardless of the algorithm that produced them.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class HopcroftMinimizer {
+
+	/**
+	 * Yields the minimal automaton equivalent to the given one, that must be
+	 * deterministic, without epsilon transitions and with a single initial
+	 * state. States that cannot reach a final state are removed.
+	 *
+	 * @param dfa the deterministic automaton
+	 *
+	 * @return the minimal automaton
+	 */
+	public static Automaton minimize(Automaton dfa) {
+		AutomatonIndex idx = dfa.getIndex();
+		int n = idx.size();
+
+		int init = idx.getInitials().nextSetBit(0);
+		if (init < 0)
+			return Automaton.mkEmptyLanguage();
+
+		// symbols are numbered in a fixed order to name states canonically
+		Set<RegularExpression> alphabet = new HashSet<>();
+		for (int i = 0; i < n; i++)
+			for (Transition t : idx.getOutgoing(i))
+				alphabet.add(t.getInput());
+		RegularExpression[] symbols = alphabet.toArray(new RegularExpression[alphabet.size()]);
+		Arrays.sort(symbols, Comparator.comparing(RegularExpression::toString)
+				.thenComparingInt(RegularExpression::hashCode));
+		Map<RegularExpression, Integer> symbolIds = new HashMap<>();
+		for (int a = 0; a < symbols.length; a++)
+			symbolIds.put(symbols[a], a);
+		int k = symbols.length;
+
+		// complete transition function, where n is the sink state
+		int size = n + 1;
+		int[][] delta = new int[size][k];
+		for (int[] row : delta)
+			Arrays.fill(row, n);
+		for (int i = 0; i < n; i++) {
+			Transition[] outgoing = idx.getOutgoing(i);
+			int[] targets = idx.getTargets(i);
+			for (int j = 0; j < outgoing.length; j++)
+				delta[i][symbolIds.get(outgoing[j].getInput())] = targets[j];
+		}
+
+		// inverse transition function, as a compressed table: the
+		// predecessors of t through a are in inverse[invStart[a * size + t]
+		// ... invStart[a * size + t + 1])
+		int[] invStart = new int[k * size + 1];
+		for (int s = 0; s < size; s++)
+			for (int a = 0; a < k; a++)
+				invStart[a * size + delta[s][a] + 1]++;
+		for (int i = 1; i < invStart.length; i++)
+			invStart[i] += invStart[i - 1];
+		int[] inverse = new int[k * size];
+		int[] fill = Arrays.copyOf(invStart, invStart.length - 1);
+		for (int s = 0; s < size; s++)
+			for (int a = 0; a < k; a++)
+				inverse[fill[a * size + delta[s][a]]++] = s;
+
+		Partition p = new Partition(size, idx);
+		boolean[] inWorklist = new boolean[size * Math.max(k, 1)];
+		IntQueue worklist = new IntQueue();
+		int smaller = p.blocks == 1 || p.size(0) <= p.size(1) ? 0 : 1;
+		for (int a = 0; a < k; a++) {
+			inWorklist[smaller * k + a] = true;
+			worklist.add(smaller * k + a);
+		}
+
+		int[] splitter = new int[size];
+		int[] touched = new int[size];
+		while (!worklist.isEmpty()) {
+			int code = worklist.poll();
+			inWorklist[code] = false;
+			int block = code / k, a = code % k;
+
+			int len = p.end[block] - p.first[block];
+			System.arraycopy(p.elements, p.first[block], splitter, 0, len);
+			int touchedCount = 0;
+			for (int i = 0; i < len; i++) {
+				int key = a * size + splitter[i];
+				for (int j = invStart[key]; j < invStart[key + 1]; j++) {
+					int b = p.blockOf[inverse[j]];
+					if (p.markEnd[b] == p.first[b])
+						touched[touchedCount++] = b;
+					p.mark(inverse[j]);
+				}
+			}
+
+			for (int i = 0; i < touchedCount; i++) {
+				int b = touched[i];
+				int nb = p.split(b);
+				if (nb < 0)
+					continue;
+
+				for (int c = 0; c < k; c++) {
+					int target = inWorklist[b * k + c] || p.size(nb) <= p.size(b) ? nb : b;
+					if (!inWorklist[target * k + c]) {
+						inWorklist[target * k + c] = true;
+						worklist.add(target * k + c);
+					}
+				}
+			}
+		}
+
+		return build(p, delta, symbols, p.blockOf[init], p.blockOf[n], idx);
+	}
+
+	private static Automaton build(Partition p, int[][] delta, RegularExpression[] symbols, int initial,
+			int sink, AutomatonIndex idx) {
+		if (initial == sink)
+			return Automaton.mkEmptyLanguage();
+
+		// breadth-first visit of the quotient automaton
+		int[] names = new int[p.blocks];
+		Arrays.fill(names, -1);
+		List<Integer> order = new ArrayList<>();
+		IntQueue queue = new IntQueue();
+		names[initial] = 0;
+		order.add(initial);
+		queue.add(initial);
+		while (!queue.isEmpty()) {
+			int[] row = delta[p.elements[p.first[queue.poll()]]];
+			for (int target : row) {
+				int b = p.blockOf[target];
+				if (b != sink && names[b] < 0) {
+					names[b] = order.size();
+					order.add(b);
+					queue.add(b);
+				}
+			}
+		}
+
+		State[] states = new State[order.size()];
+		for (int i = 0; i < states.length; i++)
+			states[i] = new State("q" + i, i == 0, idx.isFinal(p.elements[p.first[order.get(i)]]));
+
+		Set<Transition> newDelta = new HashSet<>();
+		for (int i = 0; i < states.length; i++) {
+			int[] row = delta[p.elements[p.first[order.get(i)]]];
+			for (int a = 0; a < row.length; a++) {
+				int b = p.blockOf[row[a]];
+				if (b != sink)
+					newDelta.add(new Transition(states[i], states[names[b]], symbols[a]));
+			}
+		}
+
+		return new Automaton(newDelta, new HashSet<>(Arrays.asList(states)));
+	}
+
+	/**
+	 * A refinable partition of the states, where the elements of each block
+	 * are stored contiguously in {@link #elements}, with the marked ones at
+	 * the beginning of the block.
+	 */
+	private static class Partition {
+		private final int[] elements;
+		private final int[] location;
+		private final int[] blockOf;
+		private final int[] first;
+		private final int[] end;
+		private final int[] markEnd;
+		private int blocks;
+
+		private Partition(int size, AutomatonIndex idx) {
+			elements = new int[size];
+			location = new int[size];
+			blockOf = new int[size];
+			first = new int[size];
+			end = new int[size];
+			markEnd = new int[size];
+
+			// final states first, then the other ones (including the sink)
+			int pos = 0;
+			for (int s = 0; s < size - 1; s++)
+				if (idx.isFinal(s))
+					pos = place(s, pos, 0);
+			int finals = pos;
+			for (int s = 0; s < size; s++)
+				if (s == size - 1 || !idx.isFinal(s))
+					pos = place(s, pos, finals == 0 ? 0 : 1);
+
+			if (finals == 0 || finals == size) {
+				blocks = 1;
+				end[0] = size;
+			} else {
+				blocks = 2;
+				end[0] = first[1] = markEnd[1] = finals;
+				end[1] = size;
+			}
+		}
+
+		private int place(int s, int pos, int block) {
+			elements[pos] = s;
+			location[s] = pos;
+			blockOf[s] = block;
+			return pos + 1;
+		}
+
+		private int size(int b) {
+			return end[b] - first[b];
+		}
+
+		private void mark(int s) {
+			int b = blockOf[s];
+			int pos = location[s];
+			if (pos < markEnd[b])
+				return;
+
+			int swapped = elements[markEnd[b]];
+			elements[pos] = swapped;
+			location[swapped] = pos;
+			elements[markEnd[b]] = s;
+			location[s] = markEnd[b]++;
+		}
+
+		private int split(int b) {
+			if (markEnd[b] == end[b]) {
+				// every element is marked: nothing to split
+				markEnd[b] = first[b];
+				return -1;
+			}
+
+			int nb = blocks++;
+			first[nb] = markEnd[nb] = first[b];
+			end[nb] = markEnd[b];
+			first[b] = markEnd[b];
+			for (int i = first[nb]; i < end[nb]; i++)
+				blockOf[elements[i]] = nb;
+			return nb;
+		}
+	}
+}
@@ -4,6 +4,8 @@ import it.unive.tarsis.automata.Automaton;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
@@ -40,13 +42,16 @@ public class IndexFinder {
 		Automaton exploded = automaton.explode();
 		StringSearcher searcher = new StringSearcher(exploded);
 		Set<List<State>> allPaths = exploded.getPathExtractor().getAllPaths();
-		Set<Transition> topTransitions = exploded.getDelta().parallelStream()
+		Set<Transition> topTransitions = TarsisConfig.current().stream(exploded.getDelta())
 				.filter(t -> t.getInput() == TopAtom.INSTANCE).collect(Collectors.toSet());
 		int min = Integer.MAX_VALUE;
 		int max = -1;
 		boolean maxIsInfinity = true;
 		int index;
-		for (String s : search.getLanguage()) {
+		// strings are enumerated by increasing length: the empty one, if
+		// any, comes first
+		for (Iterator<String> strings = search.enumerateLanguage().iterator(); strings.hasNext();) {
+			String s = strings.next();
 			if (s.isEmpty())
 				// we can directly return 0, len(aut)
 				return Pair.of(0,
@@ -62,7 +67,8 @@ public class IndexFinder {
 					if ((index = p.indexOf(match.firstElement().getFrom())) != -1
 							&& (match.size() < 2 || p.indexOf(match.get(1).getFrom()) == index + 1)) {
 						int i = index;
-						long tops = topTransitions.parallelStream().map(t -> Pair.of(t.getFrom(), t.getTo()))
+						long tops = TarsisConfig.current().stream(topTransitions)
+								.map(t -> Pair.of(t.getFrom(), t.getTo()))
 								.map(pair -> Pair.of(p.indexOf(pair.getLeft()), p.indexOf(pair.getRight())))
 								.filter(pair -> pair.getLeft() == pair.getRight() - 1)
 								.filter(pair -> pair.getLeft() < i).count();
@@ -1,17 +1,19 @@
 package it.unive.tarsis.automata.algorithms;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.IntQueue;
+import it.unive.tarsis.util.OperationCounters;
+import it.unive.tarsis.util.OperationCounters.Counter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import org.apache.commons.lang3.tuple.Triple;
@@ -72,6 +74,7 @@ public class PathExtractor {
 		ws.push(Triple.of(src, new Transition[0], new int[0]));
 
 		do {
+			Budget.checkpoint();
 			Triple<State, Transition[], int[]> current = ws.pop();
 			State node = current.getLeft();
 			Transition[] visited = current.getMiddle();
@@ -99,8 +102,10 @@ public class PathExtractor {
 				copy[len] = t;
 				hashesCopy[len] = thash;
 
-				if (t.getTo().isFinalState())
+				if (t.getTo().isFinalState()) {
 					paths.add(copy);
+					OperationCounters.count(Counter.PATHS, 1);
+				}
 				ws.push(Triple.of(t.getTo(), copy, hashesCopy));
 			}
 		} while (!ws.isEmpty());
@@ -109,8 +114,10 @@ public class PathExtractor {
 	}
 
 	/**
-	 * Finds the minimum path between the two given states using the Dijkstra
-	 * algorithm.
+	 * Finds the minimum path between the two given states. Since all
+	 * transitions have unit weight, the Dijkstra algorithm reduces to a
+	 * breadth-first visit of the automaton. If no path exists, the returned
+	 * list contains only the target.
 	 * 
 	 * @param src    the source node
 	 * @param target the destination node
@@ -118,79 +125,37 @@ public class PathExtractor {
 	 * @return the minimum path
 	 */
 	public List<State> minimumDijkstra(State src, State target) {
-		Set<State> unSettledNodes = new HashSet<>();
-		Map<State, Integer> distance = new HashMap<>();
-		Map<State, State> predecessors = new HashMap<>();
-
-		distance.put(src, 0);
-		unSettledNodes.add(src);
+		AutomatonIndex idx = automaton.getIndex();
+		int source = idx.indexOf(src);
+		int dest = idx.indexOf(target);
 
-		while (unSettledNodes.size() > 0) {
-			State node = getMinimum(unSettledNodes, distance);
-			unSettledNodes.remove(node);
-			findMinimalDistances(node, distance, predecessors, unSettledNodes);
+		List<State> path = new LinkedList<>();
+		if (source == -1 || dest == -1 || source == dest) {
+			path.add(target);
+			return path;
 		}
 
-		return getPath(target, predecessors);
-	}
-
-	private void findMinimalDistances(State node, Map<State, Integer> distance, Map<State, State> predecessors,
-			Set<State> unSettledNodes) {
-		Set<State> adjacentNodes = automaton.getNextStates(node);
-		for (State target : adjacentNodes)
-			if (getShortestDistance(target, distance) > getShortestDistance(node, distance)
-					+ getDistance(node, target)) {
-				distance.put(target, getShortestDistance(node, distance) + getDistance(node, target));
-				predecessors.put(target, node);
-				unSettledNodes.add(target);
-			}
-	}
-
-	private int getDistance(State node, State target) {
-		for (Transition edge : automaton.getDelta())
-			if (edge.getFrom().equals(node) && edge.getTo().equals(target))
-				return 1;
-		// should never happen
-		return -1;
-	}
-
-	private static State getMinimum(Set<State> vertexes, Map<State, Integer> distance) {
-		State minimum = null;
-		for (State vertex : vertexes)
-			if (minimum == null)
-				minimum = vertex;
-			else if (getShortestDistance(vertex, distance) < getShortestDistance(minimum, distance))
-				minimum = vertex;
-
-		return minimum;
-	}
-
-	private static int getShortestDistance(State destination, Map<State, Integer> distance) {
-		Integer d = distance.get(destination);
-		if (d == null)
-			return Integer.MAX_VALUE;
-		else
-			return d;
-	}
-
-	private static List<State> getPath(State target, Map<State, State> predecessors) {
-		List<State> path = new LinkedList<>();
-		State step = target;
+		int[] predecessors = new int[idx.size()];
+		Arrays.fill(predecessors, -1);
+		IntQueue queue = new IntQueue();
+		queue.add(source);
+		while (!queue.isEmpty() && predecessors[dest] == -1) {
+			int node = queue.poll();
+			for (int next : idx.getSuccessors(node))
+				if (next != source && predecessors[next] == -1) {
+					predecessors[next] = node;
+					queue.add(next);
+				}
+		}
 
 		// check if a path exists
-		if (predecessors.get(step) == null) {
+		if (predecessors[dest] == -1) {
 			path.add(target);
 			return path;
 		}
 
-		path.add(step);
-		while (predecessors.get(step) != null) {
-			step = predecessors.get(step);
-			path.add(step);
-		}
-
-		// Put it into the correct order
-		Collections.reverse(path);
+		for (int step = dest; step != -1; step = predecessors[step])
+			path.add(0, idx.getState(step));
 		return path;
 	}
 
@@ -0,0 +1,157 @@
+package it.unive.tarsis.automata.algorithms;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.util.DenseBitSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Glushkov's construction of the position automaton of a
+ * {@link RegularExpression}. Each non-empty {@link Atom} (including
+ * {@link it.unive.tarsis.regex.TopAtom}) of the regular expression is a
+ * position, that becomes a state of the automaton reached by reading the atom
+ * itself, as a single symbol. The automaton has no epsilon transitions, and
+ * it is built in a single visit of the regular expression: it is then
+ * minimized once, instead of building and minimizing an automaton for each
+ * sub-expression.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class PositionAutomaton {
+
+	/**
+	 * The atoms of the positions, where position 0 is the initial state
+	 */
+	private final List<RegularExpression> labels = new ArrayList<>();
+
+	/**
+	 * The positions that can follow each position
+	 */
+	private final DenseBitSet[] follow;
+
+	private PositionAutomaton(int positions) {
+		labels.add(null);
+		follow = new DenseBitSet[positions + 1];
+		for (int i = 0; i <= positions; i++)
+			follow[i] = new DenseBitSet(positions + 1);
+	}
+
+	/**
+	 * Yields the minimal automaton recognizing the given regular expression.
+	 *
+	 * @param r the regular expression
+	 *
+	 * @return the automaton
+	 */
+	public static Automaton build(RegularExpression r) {
+		PositionAutomaton construction = new PositionAutomaton(countPositions(r));
+		Info info = construction.visit(r);
+		construction.follow[0] = info.first;
+
+		int n = construction.labels.size();
+		State[] states = new State[n];
+		Set<State> set = new HashSet<>();
+		states[0] = new State("q0", true, info.nullable);
+		set.add(states[0]);
+		for (int i = 1; i < n; i++) {
+			states[i] = new State("q" + i, false, info.last.get(i));
+			set.add(states[i]);
+		}
+
+		Set<Transition> delta = new HashSet<>();
+		for (int i = 0; i < n; i++)
+			for (int j = construction.follow[i].nextSetBit(0); j >= 0; j = construction.follow[i].nextSetBit(j + 1))
+				delta.add(new Transition(states[i], states[j], construction.labels.get(j)));
+
+		return new Automaton(delta, set).minimize();
+	}
+
+	private static int countPositions(RegularExpression r) {
+		if (r instanceof Atom)
+			return r.isEmpty() ? 0 : 1;
+		if (r instanceof Or)
+			return countPositions(r.asOr().getFirst()) + countPositions(r.asOr().getSecond());
+		if (r instanceof Comp)
+			return countPositions(r.asComp().getFirst()) + countPositions(r.asComp().getSecond());
+		if (r instanceof Star)
+			return countPositions(r.asStar().getOperand());
+		// the empty set
+		return 0;
+	}
+
+	private Info visit(RegularExpression r) {
+		int size = follow.length;
+		if (r instanceof Atom) {
+			Info result = new Info(r.isEmpty(), size);
+			if (!r.isEmpty()) {
+				int position = labels.size();
+				labels.add(r);
+				result.first.set(position);
+				result.last.set(position);
+			}
+			return result;
+		}
+
+		if (r instanceof Or) {
+			Info first = visit(r.asOr().getFirst());
+			Info second = visit(r.asOr().getSecond());
+			first.nullable |= second.nullable;
+			first.first.or(second.first);
+			first.last.or(second.last);
+			return first;
+		}
+
+		if (r instanceof Comp) {
+			Info first = visit(r.asComp().getFirst());
+			Info second = visit(r.asComp().getSecond());
+			link(first.last, second.first);
+			if (first.nullable)
+				first.first.or(second.first);
+			if (second.nullable)
+				second.last.or(first.last);
+			first.last = second.last;
+			first.nullable &= second.nullable;
+			return first;
+		}
+
+		if (r instanceof Star) {
+			Info op = visit(r.asStar().getOperand());
+			link(op.last, op.first);
+			op.nullable = true;
+			return op;
+		}
+
+		// the empty set
+		return new Info(false, size);
+	}
+
+	private void link(DenseBitSet from, DenseBitSet to) {
+		for (int i = from.nextSetBit(0); i >= 0; i = from.nextSetBit(i + 1))
+			follow[i].or(to);
+	}
+
+	/**
+	 * The nullability, first and last positions of a sub-expression.
+	 */
+	private static final class Info {
+		private boolean nullable;
+		private DenseBitSet first;
+		private DenseBitSet last;
+
+		private Info(boolean nullable, int size) {
+			this.nullable = nullable;
+			this.first = new DenseBitSet(size);
+			this.last = new DenseBitSet(size);
+		}
+	}
+}
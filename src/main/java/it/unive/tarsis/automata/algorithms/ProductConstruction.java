@@ -0,0 +1,102 @@
+package it.unive.tarsis.automata.algorithms;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.IntIntHashMap;
+import it.unive.tarsis.util.IntQueue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The product construction for the intersection of two automata, that
+ * explores only the pairs of states reachable from the initial ones. As in
+ * the rest of {@link Automaton}, each distinct regular expression labeling a
+ * transition is treated as a symbol, and the two automata move together only
+ * on equal symbols. Epsilon transitions are followed by each automaton on its
+ * own.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ProductConstruction {
+
+	/**
+	 * Yields the (non-minimized) product automaton of the given automata,
+	 * recognizing the intersection of their languages. The product of the
+	 * number of states of the two automata must fit into an {@code int}.
+	 *
+	 * @param first  the first automaton
+	 * @param second the second automaton
+	 *
+	 * @return the product automaton
+	 */
+	public static Automaton intersection(Automaton first, Automaton second) {
+		AutomatonIndex a = first.getIndex();
+		AutomatonIndex b = second.getIndex();
+		int width = b.size();
+
+		// pair (p, q) is encoded as p * width + q
+		IntIntHashMap ids = new IntIntHashMap(16, -1);
+		List<State> states = new ArrayList<>();
+		IntQueue queue = new IntQueue();
+		Set<Transition> delta = new HashSet<>();
+
+		for (int p = a.getInitials().nextSetBit(0); p >= 0; p = a.getInitials().nextSetBit(p + 1))
+			for (int q = b.getInitials().nextSetBit(0); q >= 0; q = b.getInitials().nextSetBit(q + 1))
+				visit(a, b, p * width + q, true, ids, states, queue);
+
+		if (states.isEmpty())
+			return Automaton.mkEmptyLanguage();
+
+		while (!queue.isEmpty()) {
+			int pair = queue.poll();
+			int p = pair / width, q = pair % width;
+			State source = states.get(ids.get(pair));
+
+			Transition[] outA = a.getOutgoing(p);
+			int[] targetsA = a.getTargets(p);
+			Transition[] outB = b.getOutgoing(q);
+			int[] targetsB = b.getTargets(q);
+
+			for (int i = 0; i < outA.length; i++)
+				if (outA[i].isEpsilonTransition()) {
+					State dest = visit(a, b, targetsA[i] * width + q, false, ids, states, queue);
+					delta.add(new Transition(source, dest, Atom.EPSILON));
+				} else if (!outA[i].getInput().isEmpty())
+					for (int j = 0; j < outB.length; j++)
+						if (outA[i].getInput().equals(outB[j].getInput())) {
+							State dest = visit(a, b, targetsA[i] * width + targetsB[j], false, ids, states, queue);
+							delta.add(new Transition(source, dest, outA[i].getInput()));
+						}
+
+			for (int j = 0; j < outB.length; j++)
+				if (outB[j].isEpsilonTransition()) {
+					State dest = visit(a, b, p * width + targetsB[j], false, ids, states, queue);
+					delta.add(new Transition(source, dest, Atom.EPSILON));
+				}
+		}
+
+		return new Automaton(delta, new HashSet<>(states));
+	}
+
+	private static State visit(AutomatonIndex a, AutomatonIndex b, int pair, boolean initial, IntIntHashMap ids,
+			List<State> states, IntQueue queue) {
+		int id = ids.get(pair);
+		if (id >= 0)
+			return states.get(id);
+
+		Budget.chargeStates(1);
+		int width = b.size();
+		State state = new State("q" + states.size(), initial, a.isFinal(pair / width) && b.isFinal(pair % width));
+		ids.put(pair, states.size());
+		states.add(state);
+		queue.add(pair);
+		return state;
+	}
+}
@@ -1,6 +1,7 @@
 package it.unive.tarsis.automata.algorithms;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.regex.Atom;
@@ -9,6 +10,9 @@ import it.unive.tarsis.regex.EmptySet;
 import it.unive.tarsis.regex.Or;
 import it.unive.tarsis.regex.RegularExpression;
 import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.OperationCounters;
+import it.unive.tarsis.util.OperationCounters.Counter;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -244,6 +248,11 @@ public class RegexExtractor {
 		 * B[n] for j = 1 to n: A[i,j] += A[i,n] . A[n,j]
 		 */
 		for (int n = m - 1; n >= 0; n--) {
+			// each step creates two nodes for B[n], one for each A[n][j],
+			// and two for each B[i] and A[i][j]
+			int nodes = 2 + n + 2 * n * (n + 1);
+			Budget.chargeRegex(nodes);
+			OperationCounters.count(Counter.REGEX_NODES, nodes);
 			Star star_nn = new Star(A[n][n]);
 			B[n] = new Comp(star_nn, B[n]);
 
@@ -274,6 +283,7 @@ public class RegexExtractor {
 		RegularExpression regex, simplified = getBrzozowskiRegex(a);
 
 		do {
+			Budget.checkpoint();
 			regex = simplified;
 			simplified = simplified.simplify();
 		} while (!regex.equals(simplified));
@@ -282,32 +292,31 @@ public class RegexExtractor {
 	}
 
 	private static RegularExpression getSCCRegex(Automaton a, Set<State> scc, State entry, State exit) {
-		Automaton clone = a.copy();
+		AutomatonBuilder clone = new AutomatonBuilder(a);
 		Set<State> statesToRemove = new HashSet<>();
 		Set<Transition> transitionsToRemove = new HashSet<>();
 
-		for (State s : clone.getStates()) {
+		for (State s : a.getStates()) {
 			if (!scc.contains(s)) {
 				statesToRemove.add(s);
 				continue;
 			}
 
 			if (s.getState().equals(entry.getState()))
-				s.setInitialState(true);
+				clone.setInitialState(s, true);
 
 			if (s.getState().equals(exit.getState()))
-				s.setFinalState(true);
+				clone.setFinalState(s, true);
 		}
 
-		clone.getStates().removeAll(statesToRemove);
+		clone.removeStates(statesToRemove);
 
-		for (Transition t : clone.getDelta())
+		for (Transition t : a.getDelta())
 			if (!scc.contains(t.getTo()) || !scc.contains(t.getFrom()))
 				transitionsToRemove.add(t);
 
 		clone.removeTransitions(transitionsToRemove);
-		clone = clone.minimize();
 
-		return getBrzozowskiRegex(clone);
+		return getBrzozowskiRegex(clone.build().minimize());
 	}
 }
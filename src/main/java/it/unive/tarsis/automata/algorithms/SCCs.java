@@ -1,13 +1,12 @@
 package it.unive.tarsis.automata.algorithms;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
 import it.unive.tarsis.automata.State;
-import it.unive.tarsis.automata.Transition;
-import java.util.HashMap;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntStack;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 /**
  * The SCCs of an automaton, represented as a set of sets of states.
@@ -30,106 +29,88 @@ public class SCCs extends HashSet<Set<State>> {
 		return extendedTarjan(a);
 	}
 
+	/**
+	 * Iterative version of Tarjan's algorithm, working on the numbering of
+	 * {@link Automaton#getIndex()}. Singleton components are kept only if
+	 * their state has a self-loop.
+	 */
 	private static SCCs extendedTarjan(Automaton a) {
-		Map<State, Integer> indexes = new HashMap<>();
-		Map<State, Integer> lowlink = new HashMap<>();
-		Set<State> onStack = new HashSet<>();
+		AutomatonIndex idx = a.getIndex();
+		int n = idx.size();
 
-		Stack<State> stack = new Stack<>();
+		// index[v] is the depth index of v plus one, zero if v is unvisited
+		int[] index = new int[n];
+		int[] lowlink = new int[n];
+		DenseBitSet onStack = new DenseBitSet(n);
+		IntStack stack = new IntStack();
 
-		int index = 0;
+		// the explicit recursion stack: the node being visited and the
+		// position of the next successor to consider
+		IntStack nodes = new IntStack();
+		IntStack cursors = new IntStack();
+		int counter = 0;
 
-		SCCs partialResult = new SCCs();
 		SCCs result = new SCCs();
-
-		for (State v : a.getStates())
-			if (!indexes.containsKey(v)) {
-				partialResult.clear();
-				strongConnect(a, v, indexes, lowlink, onStack, stack, index, partialResult);
-				for (Set<State> r : partialResult)
-					if (!(r.isEmpty()))
-						result.add(r);
-			}
-
-		Set<Set<State>> toRemove = new HashSet<>();
-
-		for (Set<State> scc : result) {
-			boolean isSCC = false;
-			if (scc.size() == 1) {
-				for (State v : scc)
-					for (Transition t : a.getOutgoingTransitionsFrom(v))
-						if (t.getTo().equals(v)) {
-							isSCC = true;
-							break;
-						}
-
-				if (!isSCC)
-					toRemove.add(scc);
+		for (int root = 0; root < n; root++) {
+			if (index[root] != 0)
+				continue;
+
+			index[root] = lowlink[root] = ++counter;
+			stack.push(root);
+			onStack.set(root);
+			nodes.push(root);
+			cursors.push(0);
+
+			while (!nodes.isEmpty()) {
+				int v = nodes.peek();
+				int[] successors = idx.getSuccessors(v);
+				int cursor = cursors.peek();
+
+				if (cursor < successors.length) {
+					cursors.setPeek(cursor + 1);
+					int w = successors[cursor];
+					if (index[w] == 0) {
+						// successor w has not yet been visited, recurse on it
+						index[w] = lowlink[w] = ++counter;
+						stack.push(w);
+						onStack.set(w);
+						nodes.push(w);
+						cursors.push(0);
+					} else if (onStack.get(w))
+						// w is in the current SCC: note that this uses the
+						// index of w and not its lowlink, as in the original
+						// paper
+						lowlink[v] = Math.min(lowlink[v], index[w]);
+					continue;
+				}
+
+				nodes.pop();
+				cursors.pop();
+				if (!nodes.isEmpty())
+					lowlink[nodes.peek()] = Math.min(lowlink[nodes.peek()], lowlink[v]);
+
+				if (lowlink[v] == index[v]) {
+					Set<State> scc = new HashSet<>();
+					int w;
+					do {
+						w = stack.pop();
+						onStack.clear(w);
+						scc.add(idx.getState(w));
+					} while (w != v);
+
+					if (scc.size() > 1 || hasSelfLoop(idx, v))
+						result.add(scc);
+				}
 			}
 		}
 
-		SCCs realResult = new SCCs();
-		result.removeAll(toRemove);
-
-		for (Set<State> scc : result)
-			for (State s1 : scc) {
-				Set<State> ns = new HashSet<>(scc);
-				for (State s2 : a.getStates())
-					if (!scc.contains(s2) && !s1.equals(s2) && a.areMutuallyReachable(s1, s2))
-						ns.add(s2);
-
-				realResult.add(ns);
-			}
-
-		return realResult;
+		return result;
 	}
 
-	private static void strongConnect(Automaton a, State v, Map<State, Integer> indexes,
-			Map<State, Integer> lowlink, Set<State> onStack, Stack<State> stack, int index,
-			Set<Set<State>> result) {
-
-		// Set the depth index for v to the smallest unused index
-		indexes.put(v, index);
-		lowlink.put(v, index);
-		index++;
-		stack.push(v);
-		onStack.add(v);
-
-		// Consider successors of v
-		for (Transition t : a.getOutgoingTransitionsFrom(v)) {
-
-			// Reached state from v
-			State w = t.getTo();
-			if (!indexes.containsKey(w)) {
-				// Successor w has not yet visit, recurse on it
-				strongConnect(a, w, indexes, lowlink, onStack, stack, index, result);
-				lowlink.put(v, Math.min(lowlink.get(v), lowlink.get(w)));
-			} else if (onStack.contains(w)) {
-				// Successor w is in stack S and hence in the current SCC
-				// If w is not on stack, then (v, w) is a cross-edge in the DFS
-				// tree and must be
-				// ignored
-				// Note: The next line may look odd - but is correct.
-				// It says w.index not w.lowlink; that is deliberate and from
-				// the original paper
-				lowlink.put(v, Math.min(lowlink.get(v), indexes.get(w)));
-			}
-		}
-
-		if (lowlink.get(v) == indexes.get(v)) {
-			Set<State> scc = new HashSet<>();
-
-			// Start a new strongly connected component
-			State w = null;
-
-			do {
-				w = stack.pop();
-				onStack.remove(w);
-				scc.add(w);
-			} while (!(w.equals(v)));
-
-			result.add(scc);
-		}
-
+	private static boolean hasSelfLoop(AutomatonIndex idx, int v) {
+		for (int w : idx.getSuccessors(v))
+			if (w == v)
+				return true;
+		return false;
 	}
 }
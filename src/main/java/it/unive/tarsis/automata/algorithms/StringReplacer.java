@@ -1,6 +1,7 @@
 package it.unive.tarsis.automata.algorithms;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.regex.Atom;
@@ -21,9 +22,9 @@ import java.util.function.Function;
 public class StringReplacer {
 
 	/**
-	 * The target automaton
+	 * The target automaton, updated after each replacement
 	 */
-	private final Automaton origin;
+	private Automaton origin;
 
 	/**
 	 * The string searching algorithm
@@ -88,8 +89,9 @@ public class StringReplacer {
 					break;
 			}
 
-			origin.removeTransitions(edgesToRemove);
-			origin.removeStates(statesToRemove);
+			AutomatonBuilder builder = new AutomatonBuilder(origin);
+			builder.removeTransitions(edgesToRemove);
+			builder.removeStates(statesToRemove);
 
 			// we add the new automaton
 			Map<State, State> conversion = new HashMap<>();
@@ -107,14 +109,14 @@ public class StringReplacer {
 				}
 			}
 
-			origin.getStates().addAll(states);
-			origin.getDelta().addAll(delta);
+			states.forEach(builder::addState);
+			delta.forEach(builder::addTransition);
 			for (State s : replaced.getInitialStates())
-				origin.addTransition(path.firstElement().getFrom(), conversion.get(s), Atom.EPSILON);
+				builder.addTransition(path.firstElement().getFrom(), conversion.get(s), Atom.EPSILON);
 			for (State f : replaced.getFinalStates())
-				origin.addTransition(conversion.get(f), path.lastElement().getTo(), Atom.EPSILON);
+				builder.addTransition(conversion.get(f), path.lastElement().getTo(), Atom.EPSILON);
 
-			origin.recomputeOutgoingAdjacencyList();
+			origin = builder.build();
 		}
 
 		return origin;
@@ -0,0 +1,330 @@
+package it.unive.tarsis.engine;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.regex.RegularExpression;
+import java.util.function.BiPredicate;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * The backend implementing the automata operations needed by
+ * {@link AutomatonString}. Engines exchange automata through the
+ * {@link Automaton} representation, but are free to use different algorithms
+ * or internal representations to compute their results: this enables
+ * swapping backends and comparing them on the same workloads. The
+ * {@link ReferenceEngine} delegates to the methods of {@link Automaton}, while
+ * other engines can be plugged in through {@link Engines}.<br>
+ * <br>
+ * Engines must be stateless, or at least thread-safe, as a single instance is
+ * shared among all strings using it.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface AutomatonEngine {
+
+	/**
+	 * Yields the name of this engine, used to select it through
+	 * {@link Engines#get(String)}.
+	 * 
+	 * @return the name of this engine
+	 */
+	String getName();
+
+	/**
+	 * Yields an automaton recognizing the union of the languages of the given
+	 * automata.
+	 * 
+	 * @param a the first automaton
+	 * @param b the second automaton
+	 * 
+	 * @return the union automaton
+	 */
+	Automaton union(Automaton a, Automaton b);
+
+	/**
+	 * Yields an automaton recognizing the union of the languages of the given
+	 * automata.
+	 * 
+	 * @param automata the automata
+	 * 
+	 * @return the union automaton
+	 */
+	Automaton union(Automaton... automata);
+
+	/**
+	 * Yields an automaton recognizing the intersection of the languages of the
+	 * given automata.
+	 * 
+	 * @param a the first automaton
+	 * @param b the second automaton
+	 * 
+	 * @return the intersection automaton
+	 */
+	Automaton intersection(Automaton a, Automaton b);
+
+	/**
+	 * Yields an automaton recognizing the concatenation of the languages of
+	 * the given automata.
+	 * 
+	 * @param a the first automaton
+	 * @param b the second automaton
+	 * 
+	 * @return the concatenation automaton
+	 */
+	Automaton concat(Automaton a, Automaton b);
+
+	/**
+	 * Yields the concatenation of the given automata, in order.
+	 * 
+	 * @param automata the automata
+	 * 
+	 * @return the concatenation
+	 */
+	Automaton concat(Automaton... automata);
+
+	/**
+	 * Yields the minimal deterministic automaton recognizing the language of
+	 * the given one.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the minimal automaton
+	 */
+	Automaton minimize(Automaton a);
+
+	/**
+	 * Yields the widening of the given automaton, merging states that
+	 * recognize the same language up to the given length.
+	 * 
+	 * @param a         the automaton
+	 * @param threshold the threshold parameter of the widening
+	 * 
+	 * @return the widened automaton
+	 */
+	Automaton widening(Automaton a, int threshold);
+
+	/**
+	 * Yields an automaton with at most the given number of states recognizing
+	 * a superset of the language of the given one, collapsing its deepest
+	 * portions into a single state.
+	 * 
+	 * @param a         the automaton
+	 * @param maxStates the maximum number of states
+	 * 
+	 * @return the truncated automaton
+	 */
+	Automaton truncate(Automaton a, int maxStates);
+
+	/**
+	 * Yields an automaton keeping exactly only the first {@code k} characters
+	 * of the strings recognized by the given one, abstracting the rest of each
+	 * string with the top string.
+	 * 
+	 * @param a the automaton
+	 * @param k the number of characters to keep
+	 * 
+	 * @return the bounded automaton
+	 */
+	Automaton boundLength(Automaton a, int k);
+
+	/**
+	 * Yields {@code true} if and only if the language of {@code a} is
+	 * contained in the one of {@code b}.
+	 * 
+	 * @param a the first automaton
+	 * @param b the second automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean isContained(Automaton a, Automaton b);
+
+	/**
+	 * Yields {@code true} if and only if the given automata recognize the same
+	 * language.
+	 * 
+	 * @param a the first automaton
+	 * @param b the second automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean isEquivalent(Automaton a, Automaton b);
+
+	/**
+	 * Yields {@code true} if and only if the given automaton recognizes the
+	 * empty language.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean isEmpty(Automaton a);
+
+	/**
+	 * Yields the length of the longest string recognized by the given
+	 * automaton, with {@link Integer#MAX_VALUE} representing infinity.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the length of the longest string
+	 */
+	int maxLength(Automaton a);
+
+	/**
+	 * Yields the number of paths of the given automaton going from an initial
+	 * state to a final state, with {@link Long#MAX_VALUE} representing
+	 * infinity.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the number of paths
+	 */
+	long countPaths(Automaton a);
+
+	/**
+	 * Yields the minimum and maximum indexes where the strings recognized by
+	 * {@code search} first appear in the ones recognized by {@code a}, with
+	 * {@code null} representing infinity. Callers must ensure that neither
+	 * automaton has cycles and that {@code search} has no transition
+	 * recognizing the top string, as done by
+	 * {@link AutomatonString#indexOf(AutomatonString)}.
+	 * 
+	 * @param a      the automaton to search into
+	 * @param search the automaton to search
+	 * 
+	 * @return the minimum and maximum indexes
+	 */
+	Pair<Integer, Integer> findIndexesOf(Automaton a, Automaton search);
+
+	/**
+	 * Replaces all occurrences of the strings recognized by {@code toReplace}
+	 * in the strings recognized by {@code a} with the ones recognized by
+	 * {@code str}. Callers must ensure that neither {@code a} nor
+	 * {@code toReplace} have cycles, as done by
+	 * {@link AutomatonString#replace(AutomatonString, AutomatonString)}.
+	 * 
+	 * @param a         the automaton
+	 * @param toReplace the automaton recognizing the strings to replace
+	 * @param str       the automaton recognizing the replacements
+	 * 
+	 * @return the replaced automaton
+	 */
+	Automaton replace(Automaton a, Automaton toReplace, Automaton str);
+
+	/**
+	 * Yields {@code true} if and only if the given automaton has at least one
+	 * cycle.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean hasCycle(Automaton a);
+
+	/**
+	 * Yields {@code true} if and only if the given automaton has a reachable
+	 * transition recognizing the top string.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean acceptsTopEventually(Automaton a);
+
+	/**
+	 * Yields an automaton equivalent to the given one, where each transition
+	 * recognizes at most one character.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the exploded automaton
+	 */
+	Automaton explode(Automaton a);
+
+	/**
+	 * Yields an automaton recognizing the reversed strings of the given one.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the reversed automaton
+	 */
+	Automaton reverse(Automaton a);
+
+	/**
+	 * Yields an automaton recognizing all prefixes of the strings recognized
+	 * by the given one.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the prefix automaton
+	 */
+	Automaton prefix(Automaton a);
+
+	/**
+	 * Yields an automaton recognizing all suffixes of the strings recognized
+	 * by the given one.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the suffix automaton
+	 */
+	Automaton suffix(Automaton a);
+
+	/**
+	 * Yields an automaton recognizing all substrings of the strings recognized
+	 * by the given one.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the factors automaton
+	 */
+	Automaton factors(Automaton a);
+
+	/**
+	 * Yields {@code true} if and only if the longest string recognized by
+	 * {@code a}, that must have a single path, is contained in every path of
+	 * {@code b}.
+	 * 
+	 * @param a the automaton to search
+	 * @param b the automaton to search into
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean mustBeContained(Automaton a, Automaton b);
+
+	/**
+	 * Yields {@code true} if and only if the given predicate holds for every
+	 * pair of strings recognized by {@code a} and {@code b}, respectively. Both
+	 * automata must recognize finite languages.
+	 * 
+	 * @param a         the first automaton
+	 * @param b         the second automaton
+	 * @param predicate the predicate to check
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean mustLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate);
+
+	/**
+	 * Yields {@code true} if and only if the given predicate holds for at
+	 * least one pair of strings recognized by {@code a} and {@code b},
+	 * respectively. Both automata must recognize finite languages.
+	 * 
+	 * @param a         the first automaton
+	 * @param b         the second automaton
+	 * @param predicate the predicate to check
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean mayLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate);
+
+	/**
+	 * Yields a regular expression recognizing the language of the given
+	 * automaton.
+	 * 
+	 * @param a the automaton
+	 * 
+	 * @return the regular expression
+	 */
+	RegularExpression toRegex(Automaton a);
+}
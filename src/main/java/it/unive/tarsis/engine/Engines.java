@@ -0,0 +1,101 @@
+package it.unive.tarsis.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of the available {@link AutomatonEngine}s. Engines are
+ * discovered through {@link ServiceLoader}, and the {@link ReferenceEngine}
+ * is always available. The default engine, used by every
+ * {@link it.unive.tarsis.AutomatonString} that is not given an explicit one,
+ * is the one named by the {@value #ENGINE_PROPERTY} system property, or the
+ * reference engine if the property is not set.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class Engines {
+
+	/**
+	 * The system property used to select the default engine
+	 */
+	public static final String ENGINE_PROPERTY = "tarsis.engine";
+
+	/**
+	 * The reference engine
+	 */
+	public static final AutomatonEngine REFERENCE = new ReferenceEngine();
+
+	/**
+	 * The available engines, by name
+	 */
+	private static final Map<String, AutomatonEngine> ENGINES = discover();
+
+	/**
+	 * The default engine
+	 */
+	private static volatile AutomatonEngine defaultEngine = get(
+			System.getProperty(ENGINE_PROPERTY, ReferenceEngine.NAME));
+
+	private Engines() {
+		// this class is just a static holder
+	}
+
+	private static Map<String, AutomatonEngine> discover() {
+		Map<String, AutomatonEngine> engines = new LinkedHashMap<>();
+		engines.put(REFERENCE.getName(), REFERENCE);
+		for (AutomatonEngine engine : ServiceLoader.load(AutomatonEngine.class, Engines.class.getClassLoader()))
+			engines.putIfAbsent(engine.getName(), engine);
+		return Collections.unmodifiableMap(engines);
+	}
+
+	/**
+	 * Yields the engine with the given name.
+	 * 
+	 * @param name the name of the engine
+	 * 
+	 * @return the engine
+	 * 
+	 * @throws IllegalArgumentException if no engine with the given name is
+	 *                                      available
+	 */
+	public static AutomatonEngine get(String name) {
+		AutomatonEngine engine = ENGINES.get(name);
+		if (engine == null)
+			throw new IllegalArgumentException("No automaton engine named '" + name + "': available engines are "
+					+ ENGINES.keySet());
+		return engine;
+	}
+
+	/**
+	 * Yields all the available engines, by name.
+	 * 
+	 * @return the available engines
+	 */
+	public static Map<String, AutomatonEngine> getAvailable() {
+		return ENGINES;
+	}
+
+	/**
+	 * Yields the default engine.
+	 * 
+	 * @return the default engine
+	 */
+	public static AutomatonEngine getDefault() {
+		return defaultEngine;
+	}
+
+	/**
+	 * Sets the default engine. Strings that have already been created keep
+	 * using the engine they were created with.
+	 * 
+	 * @param engine the new default engine
+	 */
+	public static void setDefault(AutomatonEngine engine) {
+		if (engine == null)
+			throw new IllegalArgumentException("The default engine cannot be null");
+		defaultEngine = engine;
+	}
+}
@@ -0,0 +1,164 @@
+package it.unive.tarsis.engine;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.IndexFinder;
+import it.unive.tarsis.automata.algorithms.RegexExtractor;
+import it.unive.tarsis.regex.RegularExpression;
+import java.util.function.BiPredicate;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * The reference {@link AutomatonEngine}, delegating each operation to the
+ * corresponding method of {@link Automaton}. Other engines are expected to
+ * produce results that are equivalent to the ones of this engine.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ReferenceEngine implements AutomatonEngine {
+
+	/**
+	 * The name of this engine
+	 */
+	public static final String NAME = "reference";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Automaton union(Automaton a, Automaton b) {
+		return a.union(b);
+	}
+
+	@Override
+	public Automaton union(Automaton... automata) {
+		return Automaton.union(automata);
+	}
+
+	@Override
+	public Automaton intersection(Automaton a, Automaton b) {
+		return a.intersection(b);
+	}
+
+	@Override
+	public Automaton concat(Automaton a, Automaton b) {
+		return a.concat(b);
+	}
+
+	@Override
+	public Automaton concat(Automaton... automata) {
+		return Automaton.concat(automata);
+	}
+
+	@Override
+	public Automaton minimize(Automaton a) {
+		return a.minimize();
+	}
+
+	@Override
+	public Automaton widening(Automaton a, int threshold) {
+		return a.widening(threshold);
+	}
+
+	@Override
+	public Automaton truncate(Automaton a, int maxStates) {
+		return a.truncate(maxStates);
+	}
+
+	@Override
+	public Automaton boundLength(Automaton a, int k) {
+		return a.boundLength(k);
+	}
+
+	@Override
+	public boolean isContained(Automaton a, Automaton b) {
+		return a.isContained(b);
+	}
+
+	@Override
+	public boolean isEquivalent(Automaton a, Automaton b) {
+		return a.equals(b);
+	}
+
+	@Override
+	public boolean isEmpty(Automaton a) {
+		return a.isEmptyLanguageAccepted();
+	}
+
+	@Override
+	public int maxLength(Automaton a) {
+		return a.maxLengthString();
+	}
+
+	@Override
+	public long countPaths(Automaton a) {
+		return a.getStats().getPaths();
+	}
+
+	@Override
+	public Pair<Integer, Integer> findIndexesOf(Automaton a, Automaton search) {
+		return IndexFinder.findIndexesOf(a, search);
+	}
+
+	@Override
+	public Automaton replace(Automaton a, Automaton toReplace, Automaton str) {
+		return a.replace(toReplace, str);
+	}
+
+	@Override
+	public boolean hasCycle(Automaton a) {
+		return a.hasCycle();
+	}
+
+	@Override
+	public boolean acceptsTopEventually(Automaton a) {
+		return a.acceptsTopEventually();
+	}
+
+	@Override
+	public Automaton explode(Automaton a) {
+		return a.explode();
+	}
+
+	@Override
+	public Automaton reverse(Automaton a) {
+		return a.reverse();
+	}
+
+	@Override
+	public Automaton prefix(Automaton a) {
+		return a.prefix();
+	}
+
+	@Override
+	public Automaton suffix(Automaton a) {
+		return a.suffix();
+	}
+
+	@Override
+	public Automaton factors(Automaton a) {
+		return a.factors();
+	}
+
+	@Override
+	public boolean mustBeContained(Automaton a, Automaton b) {
+		return a.mustBeContained(b);
+	}
+
+	@Override
+	public boolean mustLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate) {
+		return a.mustLanguageCheck(b, predicate);
+	}
+
+	@Override
+	public boolean mayLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate) {
+		return a.mayLanguageCheck(b, predicate);
+	}
+
+	@Override
+	public RegularExpression toRegex(Automaton a) {
+		return RegexExtractor.getMinimalBrzozowskiRegex(a);
+	}
+}
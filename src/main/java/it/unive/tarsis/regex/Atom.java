@@ -18,7 +18,7 @@ public class Atom extends RegularExpression {
 	 */
 	public static final Atom EPSILON = new Atom("");
 
-	private String string;
+	private final String string;
 
 	/**
 	 * Builds the atom.
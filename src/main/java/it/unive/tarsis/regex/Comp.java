@@ -1,7 +1,9 @@
 package it.unive.tarsis.regex;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.PositionAutomaton;
 import it.unive.tarsis.strings.ExtString;
+import it.unive.tarsis.util.Budget;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -17,12 +19,12 @@ public class Comp extends RegularExpression {
 	/**
 	 * The first regular expression
 	 */
-	private RegularExpression first;
+	private final RegularExpression first;
 
 	/**
 	 * The second regular expression
 	 */
-	private RegularExpression second;
+	private final RegularExpression second;
 
 	/**
 	 * Builds the comp.
@@ -74,6 +76,8 @@ public class Comp extends RegularExpression {
 
 	@Override
 	public RegularExpression simplify() {
+		// operands can be shared, and simplification visits them as trees
+		Budget.chargeRegex(1);
 
 		RegularExpression first = this.first.simplify();
 		RegularExpression second = this.second.simplify();
@@ -125,7 +129,7 @@ public class Comp extends RegularExpression {
 
 	@Override
 	public Automaton toAutomaton() {
-		return first.toAutomaton().concat(second.toAutomaton());
+		return PositionAutomaton.build(this);
 	}
 
 	@Override
@@ -0,0 +1,324 @@
+package it.unive.tarsis.regex;
+
+import it.unive.tarsis.strings.ExtChar;
+import it.unive.tarsis.strings.ExtString;
+import it.unive.tarsis.strings.TopExtChar;
+import it.unive.tarsis.util.Budget;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An engine computing Antimirov's partial derivatives of
+ * {@link RegularExpression}s, used to test membership of strings and to decide
+ * inclusion and equivalence between regular expressions without building
+ * their automata. The partial derivative of a regular expression {@code r}
+ * with respect to a character {@code c} is a set of regular expressions whose
+ * union recognizes the strings {@code w} such that {@code cw} is recognized by
+ * {@code r}. Here, regular expressions are given their concrete semantics,
+ * that is, each {@link Atom} is a sequence of characters and
+ * {@link TopAtom} recognizes any string.<br>
+ * <br>
+ * Derivatives and nullability are memoized within each engine, so that
+ * repeated queries on the same regular expressions are answered from the
+ * cache. Engines are not thread-safe.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class Derivatives {
+
+	/**
+	 * The memoized derivatives, indexed by regular expression and character
+	 */
+	private final Map<RegularExpression, Map<Character, Set<RegularExpression>>> derivatives = new HashMap<>();
+
+	/**
+	 * The memoized nullability of regular expressions
+	 */
+	private final Map<RegularExpression, Boolean> nullables = new HashMap<>();
+
+	/**
+	 * Yields the partial derivative of {@code r} with respect to {@code c}.
+	 *
+	 * @param r the regular expression
+	 * @param c the character
+	 *
+	 * @return the partial derivative, that must not be modified
+	 */
+	public Set<RegularExpression> derive(RegularExpression r, char c) {
+		Map<Character, Set<RegularExpression>> cached = derivatives.computeIfAbsent(r, k -> new HashMap<>());
+		Set<RegularExpression> result = cached.get(c);
+		if (result == null) {
+			result = compute(r, c);
+			cached.put(c, result);
+		}
+		return result;
+	}
+
+	private Set<RegularExpression> compute(RegularExpression r, char c) {
+		if (r instanceof TopAtom)
+			return Collections.singleton(r);
+
+		if (r instanceof Atom) {
+			String s = r.toString();
+			if (s.isEmpty() || s.charAt(0) != c)
+				return Collections.emptySet();
+			return Collections.singleton(s.length() == 1 ? Atom.EPSILON : new Atom(s.substring(1)));
+		}
+
+		if (r instanceof Or) {
+			Set<RegularExpression> first = derive(r.asOr().getFirst(), c);
+			Set<RegularExpression> second = derive(r.asOr().getSecond(), c);
+			if (first.isEmpty() || second.isEmpty())
+				return first.isEmpty() ? second : first;
+			Set<RegularExpression> result = new HashSet<>(first);
+			result.addAll(second);
+			return result;
+		}
+
+		if (r instanceof Comp) {
+			Comp comp = r.asComp();
+			Set<RegularExpression> result = new HashSet<>();
+			for (RegularExpression d : derive(comp.getFirst(), c))
+				result.add(concat(d, comp.getSecond()));
+			if (isNullable(comp.getFirst()))
+				result.addAll(derive(comp.getSecond(), c));
+			return result;
+		}
+
+		if (r instanceof Star) {
+			Set<RegularExpression> result = new HashSet<>();
+			for (RegularExpression d : derive(r.asStar().getOperand(), c))
+				result.add(concat(d, r));
+			return result;
+		}
+
+		// the empty set
+		return Collections.emptySet();
+	}
+
+	private static RegularExpression concat(RegularExpression first, RegularExpression second) {
+		if (Atom.EPSILON.equals(first))
+			return second;
+		if (Atom.EPSILON.equals(second))
+			return first;
+		return new Comp(first, second);
+	}
+
+	/**
+	 * Yields {@code true} if and only if {@code r} recognizes the empty
+	 * string.
+	 *
+	 * @param r the regular expression
+	 *
+	 * @return {@code true} if {@code r} is nullable
+	 */
+	public boolean isNullable(RegularExpression r) {
+		Boolean cached = nullables.get(r);
+		if (cached != null)
+			return cached;
+
+		boolean result;
+		if (r instanceof TopAtom || r instanceof Star)
+			result = true;
+		else if (r instanceof Atom)
+			result = r.toString().isEmpty();
+		else if (r instanceof Or)
+			result = isNullable(r.asOr().getFirst()) || isNullable(r.asOr().getSecond());
+		else if (r instanceof Comp)
+			result = isNullable(r.asComp().getFirst()) && isNullable(r.asComp().getSecond());
+		else
+			result = false;
+
+		nullables.put(r, result);
+		return result;
+	}
+
+	/**
+	 * Yields {@code true} if and only if {@code str} is recognized by
+	 * {@code r}.
+	 *
+	 * @param r   the regular expression
+	 * @param str the string
+	 *
+	 * @return {@code true} if {@code str} belongs to {@code r}
+	 */
+	public boolean matches(RegularExpression r, String str) {
+		Set<RegularExpression> current = Collections.singleton(r);
+		for (int i = 0; i < str.length() && !current.isEmpty(); i++)
+			current = derive(current, str.charAt(i));
+		return isNullable(current);
+	}
+
+	/**
+	 * Yields {@code true} if and only if at least one of the strings
+	 * represented by {@code str} is recognized by {@code r}, where each
+	 * {@link TopExtChar} stands for any single character.
+	 *
+	 * @param r   the regular expression
+	 * @param str the string
+	 *
+	 * @return {@code true} if {@code str} may belong to {@code r}
+	 */
+	public boolean mayMatch(RegularExpression r, ExtString str) {
+		Set<Character> alphabet = null;
+		Set<RegularExpression> current = Collections.singleton(r);
+		for (ExtChar ch : str) {
+			if (current.isEmpty())
+				return false;
+			if (ch instanceof TopExtChar) {
+				if (alphabet == null)
+					alphabet = alphabet(r);
+				Set<RegularExpression> next = new HashSet<>();
+				for (char c : alphabet)
+					next.addAll(derive(current, c));
+				current = next;
+			} else
+				current = derive(current, ch.asChar());
+		}
+		return isNullable(current);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the language of {@code r} is a subset
+	 * of the one of {@code s}. The check explores the pairs of derivatives of
+	 * the two regular expressions with respect to the same strings, searching
+	 * for one where the first is nullable while the second is not. Each
+	 * explored pair is charged as a state to the current {@link Budget}.
+	 *
+	 * @param r the regular expression that should be included
+	 * @param s the regular expression that should include {@code r}
+	 *
+	 * @return {@code true} if {@code r} is included in {@code s}
+	 */
+	public boolean isIncluded(RegularExpression r, RegularExpression s) {
+		Set<Character> alphabet = alphabet(r, s);
+		Pair start = new Pair(Collections.singleton(r), Collections.singleton(s));
+		Set<Pair> seen = new HashSet<>();
+		Deque<Pair> worklist = new ArrayDeque<>();
+		seen.add(start);
+		worklist.add(start);
+
+		while (!worklist.isEmpty()) {
+			Pair pair = worklist.poll();
+			Budget.chargeStates(1);
+			if (isNullable(pair.left) && !isNullable(pair.right))
+				return false;
+
+			for (char c : alphabet) {
+				Set<RegularExpression> left = derive(pair.left, c);
+				if (left.isEmpty())
+					// nothing left to be included
+					continue;
+				Pair next = new Pair(left, derive(pair.right, c));
+				if (seen.add(next))
+					worklist.add(next);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Yields {@code true} if and only if {@code r} and {@code s} recognize the
+	 * same language.
+	 *
+	 * @param r the first regular expression
+	 * @param s the second regular expression
+	 *
+	 * @return {@code true} if {@code r} and {@code s} are equivalent
+	 */
+	public boolean isEquivalent(RegularExpression r, RegularExpression s) {
+		return r.equals(s) || (isIncluded(r, s) && isIncluded(s, r));
+	}
+
+	private Set<RegularExpression> derive(Set<RegularExpression> terms, char c) {
+		if (terms.size() == 1)
+			return derive(terms.iterator().next(), c);
+
+		Set<RegularExpression> result = new HashSet<>();
+		for (RegularExpression term : terms)
+			result.addAll(derive(term, c));
+		return result;
+	}
+
+	private boolean isNullable(Set<RegularExpression> terms) {
+		for (RegularExpression term : terms)
+			if (isNullable(term))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Yields the characters appearing in the given regular expressions, plus
+	 * one that does not appear in any of them: the derivatives with respect to
+	 * the latter stand for the ones with respect to all characters that are
+	 * not explicitly mentioned, as these can only be read by {@link TopAtom}.
+	 */
+	private static Set<Character> alphabet(RegularExpression... regexes) {
+		Set<Character> result = new TreeSet<>();
+		Deque<RegularExpression> worklist = new ArrayDeque<>();
+		for (RegularExpression r : regexes)
+			worklist.push(r);
+
+		while (!worklist.isEmpty()) {
+			RegularExpression r = worklist.pop();
+			if (r instanceof TopAtom)
+				continue;
+			if (r instanceof Atom)
+				for (char c : r.toString().toCharArray())
+					result.add(c);
+			else if (r instanceof Or) {
+				worklist.push(r.asOr().getFirst());
+				worklist.push(r.asOr().getSecond());
+			} else if (r instanceof Comp) {
+				worklist.push(r.asComp().getFirst());
+				worklist.push(r.asComp().getSecond());
+			} else if (r instanceof Star)
+				worklist.push(r.asStar().getOperand());
+		}
+
+		char fresh = 0;
+		while (result.contains(fresh))
+			fresh++;
+		result.add(fresh);
+		return result;
+	}
+
+	/**
+	 * A pair of sets of derivatives, reached by reading the same string.
+	 */
+	private static final class Pair {
+		private final Set<RegularExpression> left;
+		private final Set<RegularExpression> right;
+		private final int hash;
+
+		private Pair(Set<RegularExpression> left, Set<RegularExpression> right) {
+			this.left = left;
+			this.right = right;
+			this.hash = Objects.hash(left, right);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Pair))
+				return false;
+			Pair other = (Pair) obj;
+			return hash == other.hash && left.equals(other.left) && right.equals(other.right);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package it.unive.tarsis.regex;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.PositionAutomaton;
+import it.unive.tarsis.util.Budget;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,12 +18,12 @@ public class Or extends RegularExpression {
 	/**
 	 * The first regular expression
 	 */
-	private RegularExpression first;
+	private final RegularExpression first;
 
 	/**
 	 * The second regular expression
 	 */
-	private RegularExpression second;
+	private final RegularExpression second;
 
 	/**
 	 * Builds the or.
@@ -84,6 +86,8 @@ public class Or extends RegularExpression {
 
 	@Override
 	public RegularExpression simplify() {
+		// operands can be shared, and simplification visits them as trees
+		Budget.chargeRegex(1);
 
 		RegularExpression first = this.first.simplify();
 		RegularExpression second = this.second.simplify();
@@ -148,7 +152,7 @@ public class Or extends RegularExpression {
 
 	@Override
 	public Automaton toAutomaton() {
-		return first.toAutomaton().union(second.toAutomaton());
+		return PositionAutomaton.build(this);
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package it.unive.tarsis.regex;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.PositionAutomaton;
 import it.unive.tarsis.strings.ExtString;
 import java.util.HashSet;
 import java.util.Set;
@@ -14,7 +15,7 @@ import java.util.Set;
  */
 public class Star extends RegularExpression {
 
-	private RegularExpression op;
+	private final RegularExpression op;
 
 	/**
 	 * Builds the star.
@@ -69,7 +70,7 @@ public class Star extends RegularExpression {
 
 	@Override
 	public Automaton toAutomaton() {
-		return op.toAutomaton().star();
+		return PositionAutomaton.build(this);
 	}
 
 	@Override
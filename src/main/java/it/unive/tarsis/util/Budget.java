@@ -0,0 +1,392 @@
+package it.unive.tarsis.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits on the resources that automata operations can consume: the number of
+ * states created during determinization, the number of regular expression
+ * nodes created during regex extraction, and the wall-clock time. Budgets are
+ * enforced cooperatively: expensive algorithms invoke
+ * {@link #chargeStates(int)}, {@link #chargeRegex(int)} and
+ * {@link #checkpoint()}, that throw a {@link BudgetExceededException} when one
+ * of the active budgets of the current thread is exhausted. When no budget is
+ * active, such calls return immediately.<br>
+ * <br>
+ * A budget can be activated for a single operation through
+ * {@link #run(Supplier)}, or for an arbitrary portion of the execution of a
+ * thread (e.g., a whole analysis task) through {@link #activate()}. Budgets
+ * can be nested: resources are charged to all active budgets, and the first
+ * one that is exhausted causes the exception.
+ * {@link it.unive.tarsis.AutomatonString} catches such exceptions and
+ * returns a sound over-approximation of the result of the interrupted
+ * operation, notifying the {@link Listener} of the exhausted budget.<br>
+ * <br>
+ * Instances of this class are immutable.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class Budget {
+
+	/**
+	 * The resources limited by a budget.
+	 * 
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Resource {
+		/**
+		 * The number of automata states created
+		 */
+		STATES,
+
+		/**
+		 * The number of regular expression nodes created
+		 */
+		REGEX_SIZE,
+
+		/**
+		 * The wall-clock time
+		 */
+		TIME
+	}
+
+	/**
+	 * A listener notified when an operation is interrupted since a budget has
+	 * been exceeded.
+	 * 
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Notifies that the given operation has been interrupted, and that its
+		 * result has been replaced by an over-approximation.
+		 * 
+		 * @param operation the name of the interrupted operation
+		 * @param cause     the exception describing the exceeded budget
+		 */
+		void exceeded(String operation, BudgetExceededException cause);
+	}
+
+	/**
+	 * A budget with no limits
+	 */
+	public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, null);
+
+	/**
+	 * The innermost active budget of each thread
+	 */
+	private static final ThreadLocal<Activation> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The maximum number of states
+	 */
+	private final long maxStates;
+
+	/**
+	 * The maximum number of regular expression nodes
+	 */
+	private final long maxRegexSize;
+
+	/**
+	 * The maximum duration, in nanoseconds
+	 */
+	private final long timeoutNanos;
+
+	/**
+	 * The listener to notify, possibly {@code null}
+	 */
+	private final Listener listener;
+
+	private Budget(long maxStates, long maxRegexSize, long timeoutNanos, Listener listener) {
+		this.maxStates = maxStates;
+		this.maxRegexSize = maxRegexSize;
+		this.timeoutNanos = timeoutNanos;
+		this.listener = listener;
+	}
+
+	/**
+	 * Yields a copy of this budget with the given maximum number of states.
+	 * 
+	 * @param maxStates the maximum number of states
+	 * 
+	 * @return the new budget
+	 */
+	public Budget withMaxStates(long maxStates) {
+		return new Budget(maxStates, maxRegexSize, timeoutNanos, listener);
+	}
+
+	/**
+	 * Yields a copy of this budget with the given maximum number of regular
+	 * expression nodes.
+	 * 
+	 * @param maxRegexSize the maximum number of regular expression nodes
+	 * 
+	 * @return the new budget
+	 */
+	public Budget withMaxRegexSize(long maxRegexSize) {
+		return new Budget(maxStates, maxRegexSize, timeoutNanos, listener);
+	}
+
+	/**
+	 * Yields a copy of this budget with the given timeout. The deadline is
+	 * computed each time the budget is activated.
+	 * 
+	 * @param timeout the timeout
+	 * @param unit    the unit of {@code timeout}
+	 * 
+	 * @return the new budget
+	 */
+	public Budget withTimeout(long timeout, TimeUnit unit) {
+		return new Budget(maxStates, maxRegexSize, unit.toNanos(timeout), listener);
+	}
+
+	/**
+	 * Yields a copy of this budget that notifies the given listener when it is
+	 * exceeded.
+	 * 
+	 * @param listener the listener
+	 * 
+	 * @return the new budget
+	 */
+	public Budget withListener(Listener listener) {
+		return new Budget(maxStates, maxRegexSize, timeoutNanos, listener);
+	}
+
+	/**
+	 * Yields the maximum number of states.
+	 * 
+	 * @return the maximum number of states
+	 */
+	public long getMaxStates() {
+		return maxStates;
+	}
+
+	/**
+	 * Yields the maximum number of regular expression nodes.
+	 * 
+	 * @return the maximum number of regular expression nodes
+	 */
+	public long getMaxRegexSize() {
+		return maxRegexSize;
+	}
+
+	/**
+	 * Yields the timeout, in nanoseconds.
+	 * 
+	 * @return the timeout
+	 */
+	public long getTimeoutNanos() {
+		return timeoutNanos;
+	}
+
+	/**
+	 * Yields the limit of this budget for the given resource.
+	 * 
+	 * @param resource the resource
+	 * 
+	 * @return the limit
+	 */
+	public long getLimit(Resource resource) {
+		switch (resource) {
+		case STATES:
+			return maxStates;
+		case REGEX_SIZE:
+			return maxRegexSize;
+		case TIME:
+		default:
+			return timeoutNanos;
+		}
+	}
+
+	/**
+	 * Yields the listener notified when this budget is exceeded, if any.
+	 * 
+	 * @return the listener, or {@code null}
+	 */
+	public Listener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Activates this budget on the current thread, until the returned
+	 * activation is closed. Activations must be closed in the reverse order
+	 * of their creation, and are meant to be used in try-with-resources
+	 * statements.
+	 * 
+	 * @return the activation
+	 */
+	public Activation activate() {
+		Activation activation = new Activation(this, CURRENT.get());
+		CURRENT.set(activation);
+		return activation;
+	}
+
+	/**
+	 * Runs the given operation with this budget active.
+	 * 
+	 * @param <T>       the type of the result
+	 * @param operation the operation
+	 * 
+	 * @return the result of the operation
+	 * 
+	 * @throws BudgetExceededException if the operation exceeds this budget, or
+	 *                                     any other active budget, without
+	 *                                     handling the exception
+	 */
+	public <T> T run(Supplier<T> operation) {
+		Activation activation = activate();
+		try {
+			return operation.get();
+		} finally {
+			activation.close();
+		}
+	}
+
+	/**
+	 * Yields {@code true} if and only if at least one budget is active on the
+	 * current thread.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public static boolean isActive() {
+		return CURRENT.get() != null;
+	}
+
+	/**
+	 * Charges the creation of the given number of states to the active
+	 * budgets, also checking their deadlines.
+	 * 
+	 * @param states the number of states
+	 * 
+	 * @throws BudgetExceededException if one of the active budgets is
+	 *                                     exhausted
+	 */
+	public static void chargeStates(int states) {
+		for (Activation a = CURRENT.get(); a != null; a = a.parent) {
+			a.states += states;
+			if (a.states > a.budget.maxStates)
+				throw new BudgetExceededException(a.budget, Resource.STATES, a.states);
+			a.checkDeadline();
+		}
+	}
+
+	/**
+	 * Charges the creation of the given number of regular expression nodes to
+	 * the active budgets, also checking their deadlines.
+	 * 
+	 * @param nodes the number of nodes
+	 * 
+	 * @throws BudgetExceededException if one of the active budgets is
+	 *                                     exhausted
+	 */
+	public static void chargeRegex(int nodes) {
+		for (Activation a = CURRENT.get(); a != null; a = a.parent) {
+			a.regexNodes += nodes;
+			if (a.regexNodes > a.budget.maxRegexSize)
+				throw new BudgetExceededException(a.budget, Resource.REGEX_SIZE, a.regexNodes);
+			a.checkDeadline();
+		}
+	}
+
+	/**
+	 * Checks the deadlines of the active budgets.
+	 * 
+	 * @throws BudgetExceededException if one of the deadlines has passed
+	 */
+	public static void checkpoint() {
+		for (Activation a = CURRENT.get(); a != null; a = a.parent)
+			a.checkDeadline();
+	}
+
+	@Override
+	public String toString() {
+		return "budget[states=" + format(maxStates) + ", regex=" + format(maxRegexSize) + ", timeout="
+				+ (timeoutNanos == Long.MAX_VALUE ? "∞" : TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms") + "]";
+	}
+
+	private static String format(long limit) {
+		return limit == Long.MAX_VALUE ? "∞" : String.valueOf(limit);
+	}
+
+	/**
+	 * An activation of a {@link Budget} on a thread, tracking the resources
+	 * consumed since its creation.
+	 * 
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static final class Activation implements AutoCloseable {
+
+		/**
+		 * The activated budget
+		 */
+		private final Budget budget;
+
+		/**
+		 * The enclosing activation, possibly {@code null}
+		 */
+		private final Activation parent;
+
+		/**
+		 * The deadline, with respect to {@link System#nanoTime()}
+		 */
+		private final long deadline;
+
+		/**
+		 * The number of states created so far
+		 */
+		private long states;
+
+		/**
+		 * The number of regular expression nodes created so far
+		 */
+		private long regexNodes;
+
+		private Activation(Budget budget, Activation parent) {
+			this.budget = budget;
+			this.parent = parent;
+			long now = System.nanoTime();
+			// saturate to avoid overflows on unlimited timeouts
+			this.deadline = budget.timeoutNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + budget.timeoutNanos;
+		}
+
+		private void checkDeadline() {
+			if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0)
+				throw new BudgetExceededException(budget, Resource.TIME, budget.timeoutNanos);
+		}
+
+		/**
+		 * Yields the number of states charged to this activation.
+		 * 
+		 * @return the number of states
+		 */
+		public long getStates() {
+			return states;
+		}
+
+		/**
+		 * Yields the number of regular expression nodes charged to this
+		 * activation.
+		 * 
+		 * @return the number of nodes
+		 */
+		public long getRegexNodes() {
+			return regexNodes;
+		}
+
+		@Override
+		public void close() {
+			if (CURRENT.get() != this)
+				throw new IllegalStateException("Budget activations must be closed in reverse order");
+			if (parent == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(parent);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package it.unive.tarsis.util;
+
+/**
+ * An exception thrown when an operation exceeds one of the active
+ * {@link Budget}s of its thread.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class BudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 4215960745364215097L;
+
+	/**
+	 * The exceeded budget
+	 */
+	private final transient Budget budget;
+
+	/**
+	 * The exhausted resource
+	 */
+	private final Budget.Resource resource;
+
+	/**
+	 * The amount of the resource consumed when the budget was exceeded
+	 */
+	private final long consumed;
+
+	/**
+	 * Builds the exception.
+	 * 
+	 * @param budget   the exceeded budget
+	 * @param resource the exhausted resource
+	 * @param consumed the amount of the resource consumed when the budget was
+	 *                     exceeded
+	 */
+	public BudgetExceededException(Budget budget, Budget.Resource resource, long consumed) {
+		super(resource + " budget exceeded: limit " + budget.getLimit(resource) + ", consumed " + consumed, null,
+				false, false);
+		this.budget = budget;
+		this.resource = resource;
+		this.consumed = consumed;
+	}
+
+	/**
+	 * Yields the exceeded budget.
+	 * 
+	 * @return the budget
+	 */
+	public Budget getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Yields the exhausted resource.
+	 * 
+	 * @return the resource
+	 */
+	public Budget.Resource getResource() {
+		return resource;
+	}
+
+	/**
+	 * Yields the amount of the resource consumed when the budget was
+	 * exceeded. For {@link Budget.Resource#TIME}, this is the timeout in
+	 * nanoseconds.
+	 * 
+	 * @return the consumed amount
+	 */
+	public long getConsumed() {
+		return consumed;
+	}
+}
@@ -0,0 +1,199 @@
+package it.unive.tarsis.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative integers, represented as a bit vector. The set grows
+ * automatically when elements beyond its current capacity are added. Since
+ * {@link #equals(Object)} and {@link #hashCode()} only depend on the elements
+ * of the set, bit sets can be used as keys of hash-based collections, as long
+ * as they are not modified afterwards.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class DenseBitSet {
+
+	/**
+	 * The words storing the bits, where bit {@code i} is stored in word
+	 * {@code i >>> 6}
+	 */
+	private long[] words;
+
+	/**
+	 * Builds an empty bit set.
+	 *
+	 * @param capacity the number of bits that the set should be able to hold
+	 *                     without being resized
+	 */
+	public DenseBitSet(int capacity) {
+		words = new long[Math.max(1, (capacity + 63) >>> 6)];
+	}
+
+	/**
+	 * Builds a bit set containing the same elements of the given one.
+	 *
+	 * @param other the bit set to copy
+	 */
+	public DenseBitSet(DenseBitSet other) {
+		words = other.words.clone();
+	}
+
+	/**
+	 * Adds the given element to this set.
+	 *
+	 * @param i the element
+	 *
+	 * @return {@code true} if the element was not already contained in this
+	 *             set
+	 */
+	public boolean set(int i) {
+		int w = i >>> 6;
+		if (w >= words.length)
+			words = Arrays.copyOf(words, Math.max(w + 1, words.length << 1));
+		long mask = 1L << i;
+		if ((words[w] & mask) != 0)
+			return false;
+		words[w] |= mask;
+		return true;
+	}
+
+	/**
+	 * Removes the given element from this set.
+	 *
+	 * @param i the element
+	 */
+	public void clear(int i) {
+		int w = i >>> 6;
+		if (w < words.length)
+			words[w] &= ~(1L << i);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given element is contained in
+	 * this set.
+	 *
+	 * @param i the element
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean get(int i) {
+		int w = i >>> 6;
+		return w < words.length && (words[w] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Adds all elements of the given set to this one.
+	 *
+	 * @param other the other set
+	 */
+	public void or(DenseBitSet other) {
+		if (other.words.length > words.length)
+			words = Arrays.copyOf(words, other.words.length);
+		for (int i = 0; i < other.words.length; i++)
+			words[i] |= other.words[i];
+	}
+
+	/**
+	 * Yields {@code true} if and only if this set and the given one have at
+	 * least one element in common.
+	 *
+	 * @param other the other set
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean intersects(DenseBitSet other) {
+		int len = Math.min(words.length, other.words.length);
+		for (int i = 0; i < len; i++)
+			if ((words[i] & other.words[i]) != 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Yields the smallest element of this set that is greater or equal than
+	 * the given one, or {@code -1} if no such element exists.
+	 *
+	 * @param from the lower bound (inclusive)
+	 *
+	 * @return the next element, or {@code -1}
+	 */
+	public int nextSetBit(int from) {
+		int w = from >>> 6;
+		if (w >= words.length)
+			return -1;
+
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if (++w == words.length)
+				return -1;
+			word = words[w];
+		}
+	}
+
+	/**
+	 * Yields the number of elements in this set.
+	 *
+	 * @return the number of elements
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : words)
+			count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this set contains no elements.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		for (long word : words)
+			if (word != 0)
+				return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		// trailing zero words must not influence the hash
+		long h = 1234;
+		for (int i = words.length; --i >= 0;)
+			h ^= words[i] * (i + 1);
+		return (int) ((h >> 32) ^ h);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DenseBitSet))
+			return false;
+		long[] other = ((DenseBitSet) obj).words;
+		int common = Math.min(words.length, other.length);
+		for (int i = 0; i < common; i++)
+			if (words[i] != other[i])
+				return false;
+		for (int i = common; i < words.length; i++)
+			if (words[i] != 0)
+				return false;
+		for (int i = common; i < other.length; i++)
+			if (other[i] != 0)
+				return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			if (builder.length() > 1)
+				builder.append(", ");
+			builder.append(i);
+		}
+		return builder.append("}").toString();
+	}
+}
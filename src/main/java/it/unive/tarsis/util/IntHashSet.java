@@ -0,0 +1,156 @@
+package it.unive.tarsis.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of integers, implemented through open addressing with linear probing.
+ * Differently from a {@link java.util.HashSet}, elements are not boxed. The
+ * set preserves insertion order when its elements are retrieved through
+ * {@link #toArray()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class IntHashSet {
+
+	/**
+	 * The hash table, where each slot contains an element plus one, or zero
+	 * if it is empty
+	 */
+	private long[] table;
+
+	/**
+	 * The elements, in insertion order
+	 */
+	private int[] elements;
+
+	/**
+	 * The number of elements
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty set.
+	 */
+	public IntHashSet() {
+		this(16);
+	}
+
+	/**
+	 * Builds an empty set.
+	 *
+	 * @param expectedSize the number of elements that the set should be able
+	 *                         to hold without being resized
+	 */
+	public IntHashSet(int expectedSize) {
+		table = new long[Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1];
+		elements = new int[Math.max(4, expectedSize)];
+	}
+
+	/**
+	 * Scrambles the bits of the given integer, so that consecutive integers
+	 * are spread across the whole table.
+	 *
+	 * @param key the integer
+	 *
+	 * @return the scrambled integer
+	 */
+	static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Adds the given element to this set.
+	 *
+	 * @param element the element
+	 *
+	 * @return {@code true} if the element was not already contained in this
+	 *             set
+	 */
+	public boolean add(int element) {
+		int mask = table.length - 1;
+		int slot = mix(element) & mask;
+		long encoded = (element & 0xFFFFFFFFL) + 1;
+		while (table[slot] != 0) {
+			if (table[slot] == encoded)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+
+		table[slot] = encoded;
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = element;
+		if (size * 2 > table.length)
+			rehash(table.length << 1);
+		return true;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given element is contained in
+	 * this set.
+	 *
+	 * @param element the element
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean contains(int element) {
+		int mask = table.length - 1;
+		int slot = mix(element) & mask;
+		long encoded = (element & 0xFFFFFFFFL) + 1;
+		while (table[slot] != 0) {
+			if (table[slot] == encoded)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Yields the number of elements in this set.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this set contains no elements.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all elements from this set, retaining its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		size = 0;
+	}
+
+	/**
+	 * Yields a new array containing the elements of this set, in insertion
+	 * order.
+	 *
+	 * @return the array of elements
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	private void rehash(int capacity) {
+		table = new long[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = mix(elements[i]) & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = (elements[i] & 0xFFFFFFFFL) + 1;
+		}
+	}
+}
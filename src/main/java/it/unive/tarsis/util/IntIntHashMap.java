@@ -0,0 +1,174 @@
+package it.unive.tarsis.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from integers to integers, implemented through open addressing with
+ * linear probing. Differently from a {@link java.util.HashMap}, neither keys
+ * nor values are boxed, and no entry object is allocated on insertion. Absence
+ * of a mapping is signaled by a configurable sentinel value.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class IntIntHashMap {
+
+	/**
+	 * The value returned when a key is not mapped
+	 */
+	private final int missingValue;
+
+	/**
+	 * The keys, indexed by slot
+	 */
+	private int[] keys;
+
+	/**
+	 * The values, indexed by slot
+	 */
+	private int[] values;
+
+	/**
+	 * Whether or not each slot is occupied
+	 */
+	private boolean[] used;
+
+	/**
+	 * The number of mappings
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty map, using {@code -1} as sentinel for missing keys.
+	 */
+	public IntIntHashMap() {
+		this(16, -1);
+	}
+
+	/**
+	 * Builds an empty map.
+	 *
+	 * @param expectedSize the number of mappings that the map should be able
+	 *                         to hold without being resized
+	 * @param missingValue the value returned by {@link #get(int)} and
+	 *                         {@link #put(int, int)} for keys that are not
+	 *                         mapped
+	 */
+	public IntIntHashMap(int expectedSize, int missingValue) {
+		this.missingValue = missingValue;
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+	}
+
+	/**
+	 * Yields the value mapped to the given key, or the sentinel value
+	 * specified at construction time if the key is not mapped.
+	 *
+	 * @param key the key
+	 *
+	 * @return the value mapped to the key
+	 */
+	public int get(int key) {
+		int slot = find(key);
+		return slot < 0 ? missingValue : values[slot];
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given key is mapped to a value.
+	 *
+	 * @param key the key
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean containsKey(int key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Maps the given key to the given value.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 *
+	 * @return the value previously mapped to the key, or the sentinel value if
+	 *             the key was not mapped
+	 */
+	public int put(int key, int value) {
+		int mask = keys.length - 1;
+		int slot = IntHashSet.mix(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				int previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size * 2 > keys.length)
+			rehash(keys.length << 1);
+		return missingValue;
+	}
+
+	/**
+	 * Yields the number of mappings in this map.
+	 *
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this map contains no mappings.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all mappings from this map, retaining its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int slot = IntHashSet.mix(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++)
+			if (oldUsed[i]) {
+				int slot = IntHashSet.mix(oldKeys[i]) & mask;
+				while (used[slot])
+					slot = (slot + 1) & mask;
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+	}
+}
@@ -0,0 +1,101 @@
+package it.unive.tarsis.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of integers, backed by an array, that is used to build
+ * arrays whose length is not known in advance. Differently from a
+ * {@link java.util.ArrayList}, elements are not boxed.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class IntList {
+
+	/**
+	 * The elements, where only the first {@code size} ones are meaningful
+	 */
+	private int[] elements;
+
+	/**
+	 * The number of elements
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty list.
+	 */
+	public IntList() {
+		this(8);
+	}
+
+	/**
+	 * Builds an empty list.
+	 *
+	 * @param capacity the initial capacity of the list
+	 */
+	public IntList(int capacity) {
+		elements = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Appends the given element at the end of this list.
+	 *
+	 * @param element the element
+	 */
+	public void add(int element) {
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = element;
+	}
+
+	/**
+	 * Yields the element at the given position.
+	 *
+	 * @param i the position
+	 *
+	 * @return the element
+	 *
+	 * @throws IndexOutOfBoundsException if {@code i} is not a position of
+	 *                                       this list
+	 */
+	public int get(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+		return elements[i];
+	}
+
+	/**
+	 * Yields the number of elements in this list.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this list contains no elements.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all elements from this list, retaining its capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Yields the elements of this list, in insertion order.
+	 *
+	 * @return a new array containing the elements
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
@@ -0,0 +1,120 @@
+package it.unive.tarsis.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A growable first-in-first-out queue of integers, backed by a circular
+ * array. Differently from a {@link java.util.LinkedList}, elements are not
+ * boxed and no node is allocated on insertion.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class IntQueue {
+
+	/**
+	 * The circular buffer, whose length is always a power of two
+	 */
+	private int[] elements;
+
+	/**
+	 * The position of the first element
+	 */
+	private int head;
+
+	/**
+	 * The number of elements
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty queue.
+	 */
+	public IntQueue() {
+		this(16);
+	}
+
+	/**
+	 * Builds an empty queue.
+	 *
+	 * @param capacity the initial capacity of the queue
+	 */
+	public IntQueue(int capacity) {
+		elements = new int[Integer.highestOneBit(Math.max(2, capacity) - 1) << 1];
+	}
+
+	/**
+	 * Appends the given element at the end of this queue.
+	 *
+	 * @param element the element
+	 */
+	public void add(int element) {
+		if (size == elements.length)
+			grow();
+		elements[(head + size++) & (elements.length - 1)] = element;
+	}
+
+	/**
+	 * Removes and yields the first element of this queue.
+	 *
+	 * @return the removed element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int poll() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int element = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return element;
+	}
+
+	/**
+	 * Yields the first element of this queue, without removing it.
+	 *
+	 * @return the first element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int peek() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return elements[head];
+	}
+
+	/**
+	 * Yields the number of elements in this queue.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this queue contains no elements.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all elements from this queue, retaining its capacity.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	private void grow() {
+		int[] grown = new int[elements.length << 1];
+		int firstChunk = elements.length - head;
+		System.arraycopy(elements, head, grown, 0, firstChunk);
+		System.arraycopy(elements, 0, grown, firstChunk, head);
+		elements = grown;
+		head = 0;
+	}
+}
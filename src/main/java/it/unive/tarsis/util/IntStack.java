@@ -0,0 +1,116 @@
+package it.unive.tarsis.util;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * A growable last-in-first-out stack of integers, backed by an array.
+ * Differently from a {@link java.util.Stack}, elements are not boxed and
+ * operations are not synchronized.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class IntStack {
+
+	/**
+	 * The elements, with the top of the stack at {@code size - 1}
+	 */
+	private int[] elements;
+
+	/**
+	 * The number of elements
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty stack.
+	 */
+	public IntStack() {
+		this(16);
+	}
+
+	/**
+	 * Builds an empty stack.
+	 *
+	 * @param capacity the initial capacity of the stack
+	 */
+	public IntStack(int capacity) {
+		elements = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Pushes the given element on top of this stack.
+	 *
+	 * @param element the element
+	 */
+	public void push(int element) {
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = element;
+	}
+
+	/**
+	 * Removes and yields the element on top of this stack.
+	 *
+	 * @return the removed element
+	 *
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public int pop() {
+		if (size == 0)
+			throw new EmptyStackException();
+		return elements[--size];
+	}
+
+	/**
+	 * Yields the element on top of this stack, without removing it.
+	 *
+	 * @return the top element
+	 *
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public int peek() {
+		if (size == 0)
+			throw new EmptyStackException();
+		return elements[size - 1];
+	}
+
+	/**
+	 * Replaces the element on top of this stack.
+	 *
+	 * @param element the new top element
+	 *
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public void setPeek(int element) {
+		if (size == 0)
+			throw new EmptyStackException();
+		elements[size - 1] = element;
+	}
+
+	/**
+	 * Yields the number of elements in this stack.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields {@code true} if and only if this stack contains no elements.
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all elements from this stack, retaining its capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
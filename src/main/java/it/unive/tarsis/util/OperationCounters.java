@@ -0,0 +1,199 @@
+package it.unive.tarsis.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Counters of the work done by the core algorithms on automata, that do not
+ * depend on the machine or on the JIT compiler, and can thus detect
+ * algorithmic regressions deterministically (e.g., through tests asserting
+ * that the counts of an operation stay within recorded bounds). As
+ * {@link Budget}s, counters are cooperative: algorithms invoke
+ * {@link #count(Counter, long)}, that adds to all the counters started on the
+ * current thread, and returns immediately when none is. Along with the
+ * {@link Counter}s, the bytes allocated by the current thread are tracked
+ * when the JVM supports it.<br>
+ * <br>
+ * Counters are started through {@link #start()}, and are meant to be used in
+ * try-with-resources statements, or through {@link #run(Supplier)}. They can
+ * be nested, and must be closed in the reverse order of their creation.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class OperationCounters implements AutoCloseable {
+
+	/**
+	 * The counted events.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Counter {
+		/**
+		 * The states created by the subset construction during
+		 * determinization
+		 */
+		SUBSET_STATES,
+
+		/**
+		 * The minimizations of automata that are not known to be minimal
+		 */
+		MINIMIZATIONS,
+
+		/**
+		 * The paths enumerated by
+		 * {@link it.unive.tarsis.automata.algorithms.PathExtractor}
+		 */
+		PATHS,
+
+		/**
+		 * The regular expression nodes created by
+		 * {@link it.unive.tarsis.automata.algorithms.RegexExtractor} while
+		 * solving the equations of an automaton
+		 */
+		REGEX_NODES
+	}
+
+	/**
+	 * The innermost started counters of each thread
+	 */
+	private static final ThreadLocal<OperationCounters> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The bean measuring allocations, {@code null} if the JVM does not
+	 * support it
+	 */
+	private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+	/**
+	 * The enclosing counters, possibly {@code null}
+	 */
+	private final OperationCounters parent;
+
+	/**
+	 * The count of each {@link Counter}
+	 */
+	private final long[] counts = new long[Counter.values().length];
+
+	/**
+	 * The bytes allocated by the current thread when these counters have been
+	 * started
+	 */
+	private final long allocatedAtStart;
+
+	/**
+	 * The bytes allocated by the current thread when these counters have been
+	 * closed, {@code -1} if they are still open
+	 */
+	private long allocatedAtClose = -1;
+
+	private OperationCounters(OperationCounters parent) {
+		this.parent = parent;
+		this.allocatedAtStart = allocatedBytes();
+	}
+
+	/**
+	 * Starts new counters on the current thread, that count events until
+	 * they are closed.
+	 *
+	 * @return the counters
+	 */
+	public static OperationCounters start() {
+		OperationCounters counters = new OperationCounters(CURRENT.get());
+		CURRENT.set(counters);
+		return counters;
+	}
+
+	/**
+	 * Runs the given operation, counting its events.
+	 *
+	 * @param operation the operation
+	 *
+	 * @return the counters of the operation, that are already closed
+	 */
+	public static OperationCounters run(Supplier<?> operation) {
+		try (OperationCounters counters = start()) {
+			operation.get();
+			return counters;
+		}
+	}
+
+	/**
+	 * Adds the given amount to the given counter of all the counters started
+	 * on the current thread.
+	 *
+	 * @param counter the counter
+	 * @param amount  the amount
+	 */
+	public static void count(Counter counter, long amount) {
+		for (OperationCounters c = CURRENT.get(); c != null; c = c.parent)
+			c.counts[counter.ordinal()] += amount;
+	}
+
+	/**
+	 * Yields the value of the given counter.
+	 *
+	 * @param counter the counter
+	 *
+	 * @return the value
+	 */
+	public long get(Counter counter) {
+		return counts[counter.ordinal()];
+	}
+
+	/**
+	 * Yields the bytes allocated by the thread that started these counters
+	 * since they have been started, up to their closing or, if they are still
+	 * open, up to now. Unlike {@link Counter}s, allocations depend on the JVM
+	 * and on the JIT compiler (e.g., on escape analysis), and should only be
+	 * compared against generous bounds.
+	 *
+	 * @return the number of bytes, or {@code -1} if the JVM cannot measure
+	 *             them
+	 */
+	public long getAllocatedBytes() {
+		if (allocatedAtStart < 0)
+			return -1;
+		return (allocatedAtClose < 0 ? allocatedBytes() : allocatedAtClose) - allocatedAtStart;
+	}
+
+	@Override
+	public void close() {
+		if (CURRENT.get() != this)
+			throw new IllegalStateException("Operation counters must be closed in reverse order");
+		allocatedAtClose = allocatedBytes();
+		if (parent == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(parent);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("counters[");
+		for (Counter counter : Counter.values())
+			result.append(counter.name().toLowerCase()).append('=').append(get(counter)).append(", ");
+		return result.append("allocated=").append(getAllocatedBytes()).append("B]").toString();
+	}
+
+	private static long allocatedBytes() {
+		return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		try {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+				if (threads.isThreadAllocatedMemorySupported()) {
+					threads.setThreadAllocatedMemoryEnabled(true);
+					return threads;
+				}
+			}
+		} catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+			// allocations are not measured
+		}
+		return null;
+	}
+}
@@ -0,0 +1,633 @@
+package it.unive.tarsis.util;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The performance knobs of the library, trading precision for throughput:
+ * <ul>
+ * <li>the {@link Minimization} policy of the lattice operations of
+ * {@link it.unive.tarsis.AutomatonString}, the size threshold of deferred
+ * minimization and the executor of background minimizations;</li>
+ * <li>the widening cap, that is, the maximum threshold used by widenings
+ * whose threshold is automatically determined;</li>
+ * <li>the state cap, that is, the maximum number of states of the results of
+ * operations;</li>
+ * <li>the length bound, that is, the number of leading characters of each
+ * string that are tracked exactly;</li>
+ * <li>the parallelism threshold, that is, the minimum number of elements for
+ * a collection to be processed through a parallel stream;</li>
+ * <li>the language cache size, that is, the maximum number of strings of a
+ * finite language that an automaton caches once computed;</li>
+ * <li>the number of refutation samples, that is, the number of words sampled
+ * to quickly refute language containment before checking it exactly;</li>
+ * <li>the {@link Budget} activated for each operation of
+ * {@link it.unive.tarsis.AutomatonString}.</li>
+ * </ul>
+ * Three named presets are provided: {@link #FAST}, {@link #BALANCED} and
+ * {@link #PRECISE}, and custom configurations can be derived from them
+ * through the {@code with*} methods. A configuration can be passed explicitly
+ * to an {@link it.unive.tarsis.AutomatonString}, or installed on the current
+ * thread through {@link #install()} or {@link #run(Supplier)}. Strings that are
+ * not given an explicit configuration use the one returned by
+ * {@link #current()} when they are created, and the results of their
+ * operations use the same configuration of their receiver. When no
+ * configuration is installed on the current thread, the default one is used:
+ * that is the preset named by the {@value #PROFILE_PROPERTY} system property,
+ * or {@link #BALANCED} if the property is not set.<br>
+ * <br>
+ * Instances of this class are immutable.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class TarsisConfig {
+
+	/**
+	 * When the lattice operations of {@link it.unive.tarsis.AutomatonString}
+	 * minimize their results. Minimization never affects the language
+	 * recognized by the results, but it affects their size, and thus the
+	 * cost of the operations using them.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Minimization {
+		/**
+		 * The results of least upper bounds, greatest lower bounds, widenings
+		 * and substrings are always minimized
+		 */
+		ALWAYS,
+
+		/**
+		 * The results of least upper bounds, greatest lower bounds, widenings
+		 * with an explicit threshold and substrings are minimized, while the
+		 * ones of widenings with an automatic threshold are not
+		 */
+		STANDARD,
+
+		/**
+		 * Results are minimized only if the underlying automata operations do
+		 * so (e.g., unions and intersections)
+		 */
+		NEVER,
+
+		/**
+		 * Like {@link #NEVER}, but unions and concatenations also skip their
+		 * own minimization as long as their results have at most
+		 * {@link TarsisConfig#getDeferralThreshold()} states. Strings are
+		 * minimized when a query (e.g., an order or equality check) first
+		 * needs them
+		 */
+		DEFERRED,
+
+		/**
+		 * Like {@link #DEFERRED}, but the minimization of each string is also
+		 * scheduled on the {@link TarsisConfig#getExecutor()} as soon as the
+		 * string is created. Operations use the minimized automaton if it is
+		 * already available, and the unminimized one otherwise, while queries
+		 * wait for it (computing it themselves if it has not been started yet)
+		 */
+		BACKGROUND;
+
+		/**
+		 * Yields {@code true} if and only if this policy defers the
+		 * minimization of strings, that is, if it is {@link #DEFERRED} or
+		 * {@link #BACKGROUND}.
+		 *
+		 * @return {@code true} if that condition holds
+		 */
+		public boolean isDeferred() {
+			return this == DEFERRED || this == BACKGROUND;
+		}
+	}
+
+	/**
+	 * The system property used to select the default configuration
+	 */
+	public static final String PROFILE_PROPERTY = "tarsis.profile";
+
+	/**
+	 * The configuration favoring throughput: results are not minimized more
+	 * than needed, widenings are coarse, results have at most 512 states,
+	 * operations run sequentially (leaving parallelism to the caller) and are
+	 * interrupted if they create more than 10.000 states or 1.000.000 regular
+	 * expression nodes
+	 */
+	public static final TarsisConfig FAST = new TarsisConfig("fast", Minimization.NEVER, 64, 3, 512,
+			Integer.MAX_VALUE, Integer.MAX_VALUE, 1024, 16,
+			Budget.UNLIMITED.withMaxStates(10_000).withMaxRegexSize(1_000_000), null);
+
+	/**
+	 * The configuration with the default settings of the library
+	 */
+	public static final TarsisConfig BALANCED = new TarsisConfig("balanced", Minimization.STANDARD, 64, 5,
+			Integer.MAX_VALUE, Integer.MAX_VALUE, 1024, 256, 16, Budget.UNLIMITED, null);
+
+	/**
+	 * The configuration favoring precision: results are always minimized,
+	 * widenings are fine-grained and operations are never interrupted
+	 */
+	public static final TarsisConfig PRECISE = new TarsisConfig("precise", Minimization.ALWAYS, 64, 10,
+			Integer.MAX_VALUE, Integer.MAX_VALUE, 1024, 256, 16, Budget.UNLIMITED, null);
+
+	/**
+	 * The number of minimizations that can wait for a thread of the shared
+	 * executor: further ones are discarded, and performed on demand
+	 */
+	private static final int SHARED_EXECUTOR_QUEUE = 1024;
+
+	/**
+	 * The configuration installed on each thread
+	 */
+	private static final ThreadLocal<TarsisConfig> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The configuration used when none is installed
+	 */
+	private static volatile TarsisConfig defaultConfig = byName(System.getProperty(PROFILE_PROPERTY, "balanced"));
+
+	/**
+	 * The name of this configuration
+	 */
+	private final String name;
+
+	/**
+	 * The minimization policy
+	 */
+	private final Minimization minimization;
+
+	/**
+	 * The maximum size of automata whose minimization is deferred
+	 */
+	private final int deferralThreshold;
+
+	/**
+	 * The maximum threshold of automatic widenings
+	 */
+	private final int wideningCap;
+
+	/**
+	 * The maximum number of states of the results of operations
+	 */
+	private final int stateCap;
+
+	/**
+	 * The number of leading characters tracked exactly
+	 */
+	private final int lengthBound;
+
+	/**
+	 * The minimum size of collections processed in parallel
+	 */
+	private final int parallelThreshold;
+
+	/**
+	 * The maximum size of cached languages
+	 */
+	private final int languageCacheSize;
+
+	/**
+	 * The number of words sampled to refute containment
+	 */
+	private final int refutationSamples;
+
+	/**
+	 * The budget of each operation
+	 */
+	private final Budget budget;
+
+	/**
+	 * The executor of background minimizations, or {@code null} to use the
+	 * shared one
+	 */
+	private final Executor executor;
+
+	private TarsisConfig(String name, Minimization minimization, int deferralThreshold, int wideningCap,
+			int stateCap, int lengthBound, int parallelThreshold, int languageCacheSize, int refutationSamples,
+			Budget budget, Executor executor) {
+		this.name = name;
+		this.minimization = minimization;
+		this.deferralThreshold = deferralThreshold;
+		this.wideningCap = wideningCap;
+		this.stateCap = stateCap;
+		this.lengthBound = lengthBound;
+		this.parallelThreshold = parallelThreshold;
+		this.languageCacheSize = languageCacheSize;
+		this.refutationSamples = refutationSamples;
+		this.budget = budget;
+		this.executor = executor;
+	}
+
+	/**
+	 * Yields the preset with the given name, that is one of {@code fast},
+	 * {@code balanced} and {@code precise}.
+	 *
+	 * @param name the name of the preset
+	 *
+	 * @return the preset
+	 *
+	 * @throws IllegalArgumentException if no preset with the given name exists
+	 */
+	public static TarsisConfig byName(String name) {
+		for (TarsisConfig preset : new TarsisConfig[] { FAST, BALANCED, PRECISE })
+			if (preset.name.equals(name))
+				return preset;
+		throw new IllegalArgumentException(
+				"No configuration named '" + name + "': available configurations are [fast, balanced, precise]");
+	}
+
+	/**
+	 * Yields the configuration installed on the current thread, or the
+	 * default one if no configuration is installed.
+	 *
+	 * @return the current configuration
+	 */
+	public static TarsisConfig current() {
+		TarsisConfig config = CURRENT.get();
+		return config == null ? defaultConfig : config;
+	}
+
+	/**
+	 * Yields the configuration used by threads where no configuration is
+	 * installed.
+	 *
+	 * @return the default configuration
+	 */
+	public static TarsisConfig getDefault() {
+		return defaultConfig;
+	}
+
+	/**
+	 * Sets the configuration used by threads where no configuration is
+	 * installed. Strings that have already been created keep using the
+	 * configuration they were created with.
+	 *
+	 * @param config the new default configuration
+	 */
+	public static void setDefault(TarsisConfig config) {
+		if (config == null)
+			throw new IllegalArgumentException("The default configuration cannot be null");
+		defaultConfig = config;
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given minimization policy.
+	 *
+	 * @param minimization the minimization policy
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withMinimization(Minimization minimization) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given deferral threshold,
+	 * that is relevant only if minimization is {@link Minimization#DEFERRED}.
+	 *
+	 * @param deferralThreshold the deferral threshold
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withDeferralThreshold(int deferralThreshold) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given widening cap.
+	 *
+	 * @param wideningCap the widening cap
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withWideningCap(int wideningCap) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given state cap. Use
+	 * {@link Integer#MAX_VALUE} to leave the size of results unbounded.
+	 *
+	 * @param stateCap the state cap
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withStateCap(int stateCap) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given length bound. Use
+	 * {@link Integer#MAX_VALUE} to track strings of any length exactly.
+	 *
+	 * @param lengthBound the length bound
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withLengthBound(int lengthBound) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given parallelism
+	 * threshold. Use {@link Integer#MAX_VALUE} to always process collections
+	 * sequentially.
+	 *
+	 * @param parallelThreshold the parallelism threshold
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withParallelThreshold(int parallelThreshold) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given language cache
+	 * size. Use {@code 0} to disable language caching.
+	 *
+	 * @param languageCacheSize the language cache size
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withLanguageCacheSize(int languageCacheSize) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given number of
+	 * refutation samples. Use {@code 0} to always check containment exactly.
+	 *
+	 * @param refutationSamples the number of refutation samples
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withRefutationSamples(int refutationSamples) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given per-operation
+	 * budget.
+	 *
+	 * @param budget the budget
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withBudget(Budget budget) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	/**
+	 * Yields a copy of this configuration with the given executor for
+	 * background minimizations, that is relevant only if minimization is
+	 * {@link Minimization#BACKGROUND}.
+	 *
+	 * @param executor the executor
+	 *
+	 * @return the new configuration
+	 */
+	public TarsisConfig withExecutor(Executor executor) {
+		return new TarsisConfig(derivedName(), minimization, deferralThreshold, wideningCap, stateCap,
+				lengthBound, parallelThreshold, languageCacheSize, refutationSamples, budget, executor);
+	}
+
+	private String derivedName() {
+		return name.endsWith("*") ? name : name + "*";
+	}
+
+	/**
+	 * Yields the name of this configuration. Configurations derived from a
+	 * preset are named after it, followed by {@code *}.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Yields the minimization policy.
+	 *
+	 * @return the minimization policy
+	 */
+	public Minimization getMinimization() {
+		return minimization;
+	}
+
+	/**
+	 * Yields the maximum number of states of the results of unions and
+	 * concatenations whose minimization is deferred, if minimization is
+	 * {@link Minimization#DEFERRED}.
+	 *
+	 * @return the deferral threshold
+	 */
+	public int getDeferralThreshold() {
+		return deferralThreshold;
+	}
+
+	/**
+	 * Yields the maximum threshold of widenings whose threshold is
+	 * automatically determined.
+	 *
+	 * @return the widening cap
+	 */
+	public int getWideningCap() {
+		return wideningCap;
+	}
+
+	/**
+	 * Yields the maximum number of states of the automata resulting from the
+	 * operations of {@link it.unive.tarsis.AutomatonString}: larger results
+	 * are soundly over-approximated by smaller ones.
+	 *
+	 * @return the state cap
+	 */
+	public int getStateCap() {
+		return stateCap;
+	}
+
+	/**
+	 * Yields the number of leading characters of each
+	 * {@link it.unive.tarsis.AutomatonString} that are tracked exactly: the
+	 * strings created through constructors, concatenations and replacements
+	 * keep their first characters up to this bound, and abstract the rest
+	 * with the top string.
+	 *
+	 * @return the length bound
+	 */
+	public int getLengthBound() {
+		return lengthBound;
+	}
+
+	/**
+	 * Yields the minimum number of elements for a collection to be processed
+	 * through a parallel stream.
+	 *
+	 * @return the parallelism threshold
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Yields the maximum number of strings of a finite language that an
+	 * automaton caches once computed.
+	 *
+	 * @return the language cache size
+	 */
+	public int getLanguageCacheSize() {
+		return languageCacheSize;
+	}
+
+	/**
+	 * Yields the number of words of an automaton that are sampled through
+	 * random walks, and matched against another automaton, to refute the
+	 * containment of the former into the latter before checking it exactly.
+	 * Sampling never changes the outcome of containment checks, but it makes
+	 * failing ones cheaper.
+	 *
+	 * @return the number of refutation samples
+	 */
+	public int getRefutationSamples() {
+		return refutationSamples;
+	}
+
+	/**
+	 * Yields the budget activated for each operation.
+	 *
+	 * @return the budget
+	 */
+	public Budget getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Yields the executor of background minimizations. Unless one has been
+	 * explicitly provided, this is an executor shared by all configurations,
+	 * whose daemon threads are one less than the available processors (and at
+	 * least one), and that discards minimizations when too many of them are
+	 * waiting: strings whose minimization is discarded are minimized on
+	 * demand.
+	 *
+	 * @return the executor
+	 */
+	public Executor getExecutor() {
+		return executor == null ? SharedExecutor.INSTANCE : executor;
+	}
+
+	/**
+	 * Yields a stream over the given collection, that is parallel only if the
+	 * collection has at least {@link #getParallelThreshold()} elements.
+	 *
+	 * @param <T>        the type of the elements
+	 * @param collection the collection
+	 *
+	 * @return the stream
+	 */
+	public <T> Stream<T> stream(Collection<T> collection) {
+		return collection.size() >= parallelThreshold ? collection.parallelStream() : collection.stream();
+	}
+
+	/**
+	 * Installs this configuration on the current thread, until the returned
+	 * installation is closed. Installations must be closed in the reverse
+	 * order of their creation, and are meant to be used in try-with-resources
+	 * statements.
+	 *
+	 * @return the installation
+	 */
+	public Installation install() {
+		Installation installation = new Installation(CURRENT.get());
+		CURRENT.set(this);
+		return installation;
+	}
+
+	/**
+	 * Runs the given operation with this configuration installed on the
+	 * current thread.
+	 *
+	 * @param <T>       the type of the result
+	 * @param operation the operation
+	 *
+	 * @return the result of the operation
+	 */
+	public <T> T run(Supplier<T> operation) {
+		Installation installation = install();
+		try {
+			return operation.get();
+		} finally {
+			installation.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name + "[minimization=" + minimization
+				+ (minimization == Minimization.DEFERRED ? "(" + deferralThreshold + ")" : "") + ", wideningCap="
+				+ wideningCap + ", stateCap=" + stateCap + ", lengthBound=" + lengthBound + ", parallelThreshold="
+				+ parallelThreshold + ", languageCacheSize=" + languageCacheSize + ", refutationSamples="
+				+ refutationSamples + ", " + budget + "]";
+	}
+
+	/**
+	 * The lazily created executor shared by all configurations.
+	 */
+	private static final class SharedExecutor {
+
+		private static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(SHARED_EXECUTOR_QUEUE), r -> {
+						Thread thread = new Thread(r, "tarsis-minimization");
+						thread.setDaemon(true);
+						return thread;
+					}, new ThreadPoolExecutor.DiscardPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+
+	/**
+	 * An installation of a {@link TarsisConfig} on a thread, restoring the
+	 * previously installed configuration when closed.
+	 *
+	 * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static final class Installation implements AutoCloseable {
+
+		/**
+		 * The configuration that was installed before, possibly {@code null}
+		 */
+		private final TarsisConfig previous;
+
+		private Installation(TarsisConfig previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			if (previous == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(previous);
+		}
+	}
+}
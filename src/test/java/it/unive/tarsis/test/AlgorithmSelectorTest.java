@@ -0,0 +1,110 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.AlgorithmSelector;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.automata.algorithms.HopcroftMinimizer;
+import it.unive.tarsis.automata.algorithms.ProductConstruction;
+import it.unive.tarsis.regex.Atom;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AlgorithmSelectorTest {
+
+	private final Automaton a = Automaton.mkAutomaton("ab").star().concat(Automaton.mkAutomaton("c"))
+			.union(Automaton.mkAutomaton("abd"));
+	private final Automaton b = Automaton.mkAutomaton("ab").concat(Automaton.mkAutomaton("c").star())
+			.union(Automaton.mkAutomaton("d"));
+
+	private int brzozowski, deMorgan, enumeration;
+
+	@Before
+	public void save() {
+		brzozowski = AlgorithmSelector.getBrzozowskiThreshold();
+		deMorgan = AlgorithmSelector.getDeMorganThreshold();
+		enumeration = AlgorithmSelector.getEnumerationThreshold();
+	}
+
+	@After
+	public void restore() {
+		AlgorithmSelector.setThresholds(brzozowski, deMorgan, enumeration);
+	}
+
+	@Test
+	public void minimizationsAreIdentical() {
+		AlgorithmSelector.setThresholds(Integer.MAX_VALUE, 0, 0);
+		Automaton brzozowski = a.minimize();
+		AlgorithmSelector.setThresholds(0, 0, 0);
+		Automaton hopcroft = a.minimize();
+
+		assertEquals(brzozowski, hopcroft);
+		assertEquals(brzozowski.automatonPrint(), hopcroft.automatonPrint());
+		assertEquals(hopcroft, HopcroftMinimizer.minimize(hopcroft));
+	}
+
+	@Test
+	public void intersectionsAreEquivalent() {
+		// De Morgan's laws are only used on deterministic automata
+		Automaton first = a.minimize(), second = b.minimize();
+		AlgorithmSelector.setThresholds(0, Integer.MAX_VALUE, 0);
+		Automaton deMorgan = first.intersection(second);
+		Automaton nonDeterministic = a.intersection(b);
+		AlgorithmSelector.setThresholds(0, 0, 0);
+		Automaton product = a.intersection(b);
+
+		assertEquals(deMorgan, product);
+		assertEquals(nonDeterministic, product);
+		assertEquals(product, ProductConstruction.intersection(a, b));
+		assertEquals(Automaton.mkAutomaton("abc"), product);
+	}
+
+	@Test
+	public void hugeNonDeterministicAutomataAreNotComplemented() {
+		// the product of the sizes does not fit an int
+		Automaton first = padded(46_341), second = padded(46_341);
+		assertEquals(Automaton.mkAutomaton("a"), first.intersection(second));
+	}
+
+	@Test
+	public void enumerationThresholdDoesNotAffectResults() {
+		AutomatonString first = new AutomatonString(Automaton.mkAutomaton("abc").union(Automaton.mkAutomaton("xy")));
+		AutomatonString second = new AutomatonString(Automaton.mkAutomaton("bc"));
+		AutomatonString third = new AutomatonString(Automaton.mkAutomaton("z"));
+
+		for (int threshold : new int[] { 0, Integer.MAX_VALUE }) {
+			AlgorithmSelector.setThresholds(0, 0, threshold);
+			assertTrue(first.mayContain(second));
+			assertTrue(first.mayEndWith(second));
+			assertTrue(!first.mayContain(third));
+			assertTrue(!first.mayStartWith(second));
+		}
+	}
+
+	/**
+	 * Yields a non-deterministic automaton recognizing {@code a}, whose
+	 * complement without determinization would also accept {@code a}, padded
+	 * with unreachable states.
+	 */
+	private static Automaton padded(int size) {
+		State q0 = new State("q0", true, false), q1 = new State("q1", false, true), q2 = new State("q2", false, false);
+		Set<State> states = new HashSet<>();
+		states.add(q0);
+		states.add(q1);
+		states.add(q2);
+		for (int i = 3; i < size; i++)
+			states.add(new State("q" + i, false, false));
+
+		Set<Transition> delta = new HashSet<>();
+		delta.add(new Transition(q0, q1, new Atom("a")));
+		delta.add(new Transition(q0, q2, new Atom("a")));
+		return new Automaton(delta, states);
+	}
+}
@@ -0,0 +1,70 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonMatcher;
+import java.util.Random;
+import org.junit.Test;
+
+public class AutomatonMatcherTest {
+
+	@Test
+	public void multiCharacterAtoms() {
+		Automaton loop = Automaton.mkAutomaton("ab").union(Automaton.mkAutomaton("c")).star();
+		Automaton a = Automaton.mkAutomaton("select ").concat(loop).concat(Automaton.mkAutomaton(" from"));
+		AutomatonMatcher m = a.compile();
+
+		assertTrue(m.accepts("select  from"));
+		assertTrue(m.accepts("select abcab from"));
+		assertFalse(m.accepts("select abb from"));
+		assertFalse(m.accepts("select ab"));
+		assertTrue(m.acceptsPrefix("select ab"));
+		assertTrue(m.acceptsPrefix(""));
+		assertFalse(m.acceptsPrefix("select abb"));
+		assertFalse(m.accepts("s\u00e9lect  from"));
+	}
+
+	@Test
+	public void topTransitionsReadAnyString() {
+		Automaton a = Automaton.mkAutomaton("x").concat(Automaton.mkTopAutomaton()).concat(Automaton.mkAutomaton("y"));
+		AutomatonMatcher m = a.compile();
+
+		assertTrue(m.accepts("xy"));
+		assertTrue(m.accepts("x\u20ac yy"));
+		assertFalse(m.accepts("x"));
+		assertTrue(m.acceptsPrefix("xanything"));
+		assertFalse(m.acceptsPrefix("y"));
+		assertTrue(Automaton.mkTopAutomaton().compile().accepts(""));
+	}
+
+	@Test
+	public void emptyLanguages() {
+		assertFalse(Automaton.mkEmptyLanguage().compile().accepts(""));
+		assertFalse(Automaton.mkEmptyLanguage().compile().acceptsPrefix(""));
+		assertTrue(Automaton.mkEmptyString().compile().accepts(""));
+		assertFalse(Automaton.mkEmptyString().compile().accepts("a"));
+	}
+
+	@Test
+	public void agreesWithTheLanguage() {
+		Random random = new Random(11);
+		for (int i = 0; i < 20; i++) {
+			Automaton a = Automaton.mkEmptyLanguage();
+			for (int j = 0; j < 8; j++) {
+				StringBuilder builder = new StringBuilder();
+				for (int k = random.nextInt(5); k > 0; k--)
+					builder.append((char) ('a' + random.nextInt(3)));
+				a = a.union(Automaton.mkAutomaton(builder.toString()));
+			}
+
+			AutomatonMatcher m = a.compile();
+			for (String s : a.getLanguage())
+				assertTrue(m.accepts(s));
+			for (String s : new String[] { "", "a", "ab", "abc", "cab", "bbbb" })
+				assertEquals(a.getLanguage().contains(s), m.accepts(s));
+		}
+	}
+}
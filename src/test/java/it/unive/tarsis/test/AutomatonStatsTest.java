@@ -0,0 +1,94 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.CostEstimator;
+import it.unive.tarsis.CostEstimator.Operation;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonStats;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class AutomatonStatsTest {
+
+	@Test
+	public void finiteLanguage() {
+		Automaton a = new AutomatonString("ab", "ac", "d").getAutomaton();
+		AutomatonStats stats = a.getStats();
+
+		assertSame(stats, a.getStats());
+		assertEquals(a.getStates().size(), stats.getStates());
+		assertEquals(a.getDelta().size(), stats.getTransitions());
+		assertEquals(0, stats.getSCCs());
+		assertEquals(0, stats.getTopTransitions());
+		assertEquals(0, stats.getEpsilonTransitions());
+		assertFalse(stats.isCyclic());
+		assertTrue(stats.isDeterministic());
+		assertEquals(a.getLanguage().size(), stats.getPaths());
+	}
+
+	@Test
+	public void cyclesAndTop() {
+		Automaton a = Automaton.mkAutomaton("ab").star().concat(Automaton.mkTopAutomaton());
+		AutomatonStats stats = a.getStats();
+
+		assertTrue(stats.isCyclic());
+		assertEquals(Long.MAX_VALUE, stats.getPaths());
+		assertTrue(stats.getTopTransitions() > 0);
+		assertTrue(stats.getAlphabetSize() >= 2);
+	}
+
+	@Test
+	public void estimatesGrowWithShape() {
+		AutomatonString small = new AutomatonString("a");
+		AutomatonString finite = new AutomatonString("abc", "abd", "xyz");
+		AutomatonString loop = new AutomatonString(Automaton.mkAutomaton("ab").star());
+
+		AutomatonString exploded = new AutomatonString(finite.getAutomaton().explode());
+		long finiteLength = CostEstimator.estimate(Operation.LENGTH, finite, null);
+		long explodedLength = CostEstimator.estimate(Operation.LENGTH, exploded, null);
+		assertTrue(finiteLength < explodedLength);
+
+		long finiteMay = CostEstimator.estimate(Operation.MAY_PREDICATE, finite, small);
+		assertEquals(finite.getAutomaton().getLanguage().size(), finiteMay);
+		assertTrue(CostEstimator.estimate(Operation.MAY_PREDICATE, loop, small) > finiteMay);
+		assertEquals(Long.MAX_VALUE, CostEstimator.languageEnumeration(loop.getAutomaton().getStats()));
+
+		for (Operation op : Operation.values())
+			assertTrue(CostEstimator.estimate(op, finite, loop) >= 0);
+	}
+
+	@Test
+	public void intersectionsAreEstimatedAsProducts() {
+		// a non-deterministic automaton with 16 states, whose complement has
+		// 2^16 states
+		State[] states = new State[16];
+		Set<State> all = new HashSet<>();
+		for (int i = 0; i < states.length; i++) {
+			states[i] = new State("q" + i, i == 0, i == states.length - 1);
+			all.add(states[i]);
+		}
+		Set<Transition> delta = new HashSet<>();
+		delta.add(new Transition(states[0], states[0], new Atom("a")));
+		delta.add(new Transition(states[0], states[0], new Atom("b")));
+		for (int i = 0; i + 1 < states.length; i++)
+			delta.add(new Transition(states[i], states[i + 1], new Atom(i == 0 ? "a" : "b")));
+		AutomatonStats nfa = new Automaton(delta, all).getStats();
+		AutomatonStats dfa = new AutomatonString("abc", "abd").getAutomaton().getStats();
+
+		assertFalse(nfa.isDeterministic());
+		assertTrue(CostEstimator.intersection(nfa, nfa) < Long.MAX_VALUE);
+		assertTrue(CostEstimator.intersection(nfa, dfa) < CostEstimator.intersection(nfa, nfa));
+		// the product of deterministic automata is deterministic
+		long pairs = dfa.getStates() * dfa.getStates();
+		assertTrue(CostEstimator.intersection(dfa, dfa) <= pairs * 8);
+	}
+}
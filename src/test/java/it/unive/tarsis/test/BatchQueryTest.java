@@ -0,0 +1,110 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.Query;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.engine.ReferenceEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class BatchQueryTest {
+
+	private static class CountingEngine extends ReferenceEngine {
+		private final AtomicInteger factors = new AtomicInteger();
+
+		@Override
+		public Automaton factors(Automaton a) {
+			factors.incrementAndGet();
+			return super.factors(a);
+		}
+	}
+
+	private static AutomatonString subject() {
+		AutomatonString s = new AutomatonString("select * from ", "delete from ")
+				.concat(new AutomatonString())
+				.concat(new AutomatonString(" where id="));
+		return s.widen(s.concat(new AutomatonString("x")));
+	}
+
+	private static List<Query> queries() {
+		List<Query> queries = new ArrayList<>();
+		for (String pattern : new String[] { "select", "drop", "delete from", " where", "id=", "", "zzz" }) {
+			AutomatonString arg = new AutomatonString(pattern);
+			for (Query.Kind kind : Query.Kind.values())
+				queries.add(new Query(kind, arg));
+		}
+		queries.add(Query.mayContain(new AutomatonString()));
+		return queries;
+	}
+
+	private static boolean[] oneByOne(AutomatonString subject, List<Query> queries) {
+		boolean[] results = new boolean[queries.size()];
+		for (int i = 0; i < results.length; i++) {
+			AutomatonString arg = queries.get(i).getArgument();
+			switch (queries.get(i).getKind()) {
+			case MAY_CONTAIN:
+				results[i] = subject.mayContain(arg);
+				break;
+			case MAY_START_WITH:
+				results[i] = subject.mayStartWith(arg);
+				break;
+			case MAY_END_WITH:
+				results[i] = subject.mayEndWith(arg);
+				break;
+			case MAY_BE_EQUAL_TO:
+				results[i] = subject.mayBeEqualTo(arg);
+				break;
+			case CONTAINS:
+				results[i] = subject.contains(arg);
+				break;
+			case STARTS_WITH:
+				results[i] = subject.startsWith(arg);
+				break;
+			case ENDS_WITH:
+				results[i] = subject.endsWith(arg);
+				break;
+			}
+		}
+		return results;
+	}
+
+	@Test
+	public void batchesMatchSingleQueries() {
+		AutomatonString subject = subject();
+		List<Query> queries = queries();
+		boolean[] expected = oneByOne(subject, queries);
+		assertArrayEquals(expected, subject.evaluate(queries));
+		assertArrayEquals(expected, subject.evaluate(queries, Runnable::run));
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			assertArrayEquals(expected, subject.evaluate(queries, pool));
+		} finally {
+			pool.shutdown();
+		}
+
+		// tasks that are never run by the executor are run by the caller
+		assertArrayEquals(expected, subject.evaluate(queries, task -> {
+		}));
+	}
+
+	@Test
+	public void derivedAutomataAreShared() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString subject = subject().withEngine(engine);
+		List<Query> queries = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			queries.add(Query.mayContain(new AutomatonString("p" + i).concat(new AutomatonString())));
+
+		boolean[] results = subject.evaluate(queries);
+		assertEquals(1, engine.factors.get());
+		assertEquals(20, results.length);
+	}
+}
@@ -0,0 +1,125 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.AutomatonString.Interval;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.BudgetExceededException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class BudgetTest {
+
+	private static final AutomatonString LOOP = new AutomatonString(Automaton.mkAutomaton("ab").star());
+
+	@Test
+	public void noBudgetNoInterruption() {
+		assertFalse(Budget.isActive());
+		Budget.chargeStates(Integer.MAX_VALUE);
+		Budget.chargeRegex(Integer.MAX_VALUE);
+		Budget.checkpoint();
+	}
+
+	@Test
+	public void statesBudgetFallsBackToTop() {
+		List<String> reports = new ArrayList<>();
+		Budget budget = Budget.UNLIMITED.withMaxStates(1)
+				.withListener((op, e) -> reports.add(op + ":" + e.getResource()));
+
+		AutomatonString lub = budget.run(() -> new AutomatonString("a").lub(new AutomatonString("b")));
+		assertTrue(lub.isEqualTo(AutomatonString.mkTop()));
+		assertEquals(1, reports.size());
+		assertEquals("lub:STATES", reports.get(0));
+		assertFalse(Budget.isActive());
+	}
+
+	@Test
+	public void predicatesFallBackSoundly() {
+		Budget budget = Budget.UNLIMITED.withMaxStates(0);
+		AutomatonString a = new AutomatonString("abc");
+		AutomatonString b = new AutomatonString("b");
+		AutomatonString c = new AutomatonString("c");
+
+		// must operations are false, may operations are true
+		assertTrue(LOOP.startsWith(new AutomatonString("ab")));
+		assertFalse(budget.run(() -> LOOP.startsWith(new AutomatonString("ab"))));
+		assertFalse(LOOP.mayContain(c));
+		assertTrue(budget.run(() -> LOOP.mayContain(c)));
+		assertFalse(budget.run(() -> a.lessOrEqual(a)));
+		assertSame(a, budget.run(() -> a.glb(b)));
+
+		Interval length = budget.run(() -> LOOP.length());
+		assertEquals(0, length.getLower());
+		assertTrue(length.topIsInfinity());
+	}
+
+	@Test
+	public void regexBudget() {
+		Budget budget = Budget.UNLIMITED.withMaxRegexSize(1);
+		AutomatonString a = new AutomatonString("a", "bc", "def");
+		assertSame(TopAtom.INSTANCE, budget.run(a::getRegex));
+		// the fallback is not cached
+		assertFalse(a.getRegex() == TopAtom.INSTANCE);
+	}
+
+	@Test
+	public void simplificationIsCharged() {
+		// operands are shared, so that the tree of the expression has 2^40
+		// leaves
+		RegularExpression r = new Atom("a");
+		for (int i = 0; i < 40; i++)
+			r = new Or(new Comp(r, new Atom("b")), new Comp(r, new Atom("c")));
+
+		try {
+			Budget.UNLIMITED.withMaxRegexSize(10_000).run(r::simplify);
+		} catch (BudgetExceededException e) {
+			assertEquals(Budget.Resource.REGEX_SIZE, e.getResource());
+			return;
+		}
+		throw new AssertionError("The simplification has not been charged");
+	}
+
+	@Test
+	public void deadline() throws InterruptedException {
+		Budget budget = Budget.UNLIMITED.withTimeout(1, TimeUnit.MILLISECONDS);
+		try {
+			Budget.Activation activation = budget.activate();
+			try {
+				Thread.sleep(5);
+				Budget.checkpoint();
+			} finally {
+				activation.close();
+			}
+		} catch (BudgetExceededException e) {
+			assertEquals(Budget.Resource.TIME, e.getResource());
+			assertFalse(Budget.isActive());
+			return;
+		}
+		throw new AssertionError("The deadline has not been enforced");
+	}
+
+	@Test
+	public void nestedBudgetsChargeAll() {
+		Budget outer = Budget.UNLIMITED;
+		try (Budget.Activation thread = outer.activate()) {
+			Automaton abc = Automaton.mkAutomaton("abc");
+			Budget.UNLIMITED.withMaxStates(100).run(() -> abc.union(Automaton.mkAutomaton("d")));
+			long first = thread.getStates();
+			assertTrue(first > 0);
+			new AutomatonString("x").lub(new AutomatonString("y"));
+			assertTrue(thread.getStates() > first);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.ContainmentRefuter;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.Random;
+import org.junit.Test;
+
+public class ContainmentRefuterTest {
+
+	private static final TarsisConfig EXACT = TarsisConfig.BALANCED.withRefutationSamples(0);
+
+	@Test
+	public void counterexamplesAreFound() {
+		Automaton ab = new AutomatonString("ab", "abc").getAutomaton();
+		Automaton abc = Automaton.mkAutomaton("abc");
+		assertTrue(ContainmentRefuter.refutes(ab, abc, 16));
+		assertFalse(ContainmentRefuter.refutes(abc, ab, 16));
+		assertFalse(ContainmentRefuter.refutes(Automaton.mkEmptyLanguage(), abc, 16));
+		assertTrue(ContainmentRefuter.refutes(Automaton.mkEmptyString(), abc, 16));
+	}
+
+	@Test
+	public void refutationsAreSound() {
+		Random random = new Random(7);
+		int refuted = 0;
+		for (int i = 0; i < 200; i++) {
+			Automaton a = TestUtil.randomAutomaton(random, 2 + random.nextInt(5), 2, "ab", 1, 8);
+			Automaton b = TestUtil.randomAutomaton(random, 2 + random.nextInt(5), 2, "ab", 1, 8);
+			boolean exact = EXACT.run(() -> a.isContained(b));
+			if (ContainmentRefuter.refutes(a, b, 16)) {
+				assertFalse(exact);
+				refuted++;
+			}
+			assertEquals(exact, a.isContained(b));
+		}
+		assertTrue(refuted > 0);
+	}
+}
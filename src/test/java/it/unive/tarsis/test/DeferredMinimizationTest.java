@@ -0,0 +1,146 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.TarsisConfig;
+import it.unive.tarsis.util.TarsisConfig.Minimization;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+
+public class DeferredMinimizationTest {
+
+	private static final TarsisConfig DEFERRED = TarsisConfig.BALANCED.withMinimization(Minimization.DEFERRED);
+
+	@Test
+	public void minimalityIsTracked() {
+		Automaton ab = Automaton.mkAutomaton("ab");
+		assertTrue(ab.isKnownMinimal());
+		assertSame(ab, ab.minimize());
+		assertFalse(Automaton.mkAutomaton("").isKnownMinimal());
+
+		Automaton union = ab.union(Automaton.mkAutomaton("cd"));
+		assertTrue(union.isKnownMinimal());
+		assertSame(union, union.minimize());
+		assertFalse(union.reverse().isKnownMinimal());
+		assertTrue(union.reverse().minimize().isKnownMinimal());
+	}
+
+	@Test
+	public void unionsAndConcatenationsAreDeferred() {
+		Automaton ab = Automaton.mkAutomaton("ab");
+		Automaton cd = Automaton.mkAutomaton("cd");
+
+		assertFalse(DEFERRED.run(() -> ab.union(cd)).isKnownMinimal());
+		assertFalse(DEFERRED.run(() -> ab.concat(cd)).isKnownMinimal());
+		assertTrue(DEFERRED.withDeferralThreshold(2).run(() -> ab.concat(cd)).isKnownMinimal());
+		assertEquals(ab.union(cd), DEFERRED.run(() -> ab.union(cd)));
+	}
+
+	@Test
+	public void deferredStringsAreNormalizedByQueries() {
+		AutomatonString eager = new AutomatonString("a");
+		AutomatonString deferred = eager.withConfig(DEFERRED);
+		for (String s : new String[] { "b", "c", "d" }) {
+			eager = eager.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+			deferred = deferred.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+		}
+
+		assertTrue(deferred.getAutomaton().isKnownMinimal());
+		assertEquals(eager.getAutomaton().automatonPrint(), deferred.getAutomaton().automatonPrint());
+		assertEquals(eager.size(), deferred.size());
+		assertEquals(eager.hashCode(), deferred.hashCode());
+		assertTrue(deferred.isEqualTo(eager));
+		assertTrue(eager.lessOrEqual(deferred));
+		assertTrue(deferred.mayStartWith(new AutomatonString("ab")));
+		assertFalse(deferred.startsWith(new AutomatonString("ab")));
+		assertEquals(eager.toString(), deferred.toString());
+	}
+
+	@Test
+	public void equalityDoesNotExceedBudgets() {
+		AutomatonString first = new AutomatonString("a").withConfig(DEFERRED);
+		AutomatonString second = new AutomatonString("a").withConfig(DEFERRED);
+		for (String s : new String[] { "b", "c", "d" }) {
+			first = first.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+			second = second.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+		}
+
+		AutomatonString x = first, y = second;
+		Budget exhausted = Budget.UNLIMITED.withMaxStates(0);
+		assertFalse(exhausted.run(() -> x.equals(y)));
+		exhausted.run(x::hashCode);
+		// budgets do not prevent later minimizations
+		assertTrue(x.equals(y));
+		assertEquals(x.hashCode(), y.hashCode());
+	}
+
+	@Test
+	public void backgroundMinimizationsAreAwaitedByQueries() {
+		List<Runnable> scheduled = new ArrayList<>();
+		Executor manual = scheduled::add;
+		TarsisConfig background = TarsisConfig.BALANCED.withMinimization(Minimization.BACKGROUND)
+				.withExecutor(manual);
+
+		AutomatonString eager = new AutomatonString("a");
+		AutomatonString lazy = eager.withConfig(background);
+		for (String s : new String[] { "b", "c" }) {
+			eager = eager.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+			lazy = lazy.concat(new AutomatonString(s)).lub(new AutomatonString(s));
+		}
+		// concatenations are lazy, and materialized by the joins
+		assertEquals(2, scheduled.size());
+
+		// half of the minimizations run in background, the others on demand
+		for (int i = 0; i < scheduled.size(); i += 2)
+			scheduled.get(i).run();
+		assertTrue(lazy.isEqualTo(eager));
+		assertEquals(eager.getAutomaton().automatonPrint(), lazy.getAutomaton().automatonPrint());
+		for (Runnable task : scheduled)
+			task.run();
+		assertTrue(lazy.lub(eager).isEqualTo(eager));
+	}
+
+	@Test
+	public void failedBackgroundMinimizationsAreNotRaised() {
+		List<Runnable> scheduled = new ArrayList<>();
+		Executor manual = scheduled::add;
+		TarsisConfig background = TarsisConfig.BALANCED.withMinimization(Minimization.BACKGROUND)
+				.withExecutor(manual).withBudget(Budget.UNLIMITED.withMaxStates(0));
+
+		AutomatonString eager = new AutomatonString("a").concat(new AutomatonString("b"))
+				.lub(new AutomatonString("c"));
+		AutomatonString lazy = new AutomatonString("a").withConfig(background).concat(new AutomatonString("b"))
+				.lub(new AutomatonString("c"));
+		assertEquals(1, scheduled.size());
+		scheduled.get(0).run();
+
+		// the unminimized automaton is used, at every access
+		for (int i = 0; i < 2; i++) {
+			assertTrue(lazy.size() >= eager.size());
+			assertEquals(eager.getAutomaton(), lazy.getAutomaton());
+			assertEquals(lazy.hashCode(), lazy.hashCode());
+			assertTrue(lazy.equals(lazy));
+		}
+		assertTrue(lazy.withConfig(TarsisConfig.BALANCED).isEqualTo(eager));
+	}
+
+	@Test
+	public void sharedExecutorMinimizesInBackground() {
+		TarsisConfig background = TarsisConfig.BALANCED.withMinimization(Minimization.BACKGROUND);
+		AutomatonString result = new AutomatonString("x").withConfig(background);
+		for (int i = 0; i < 20; i++)
+			result = result.concat(new AutomatonString(String.valueOf(i % 3))).lub(new AutomatonString("y"));
+
+		assertTrue(result.getAutomaton().isKnownMinimal());
+		assertTrue(result.mayContain(new AutomatonString("x012")));
+		assertFalse(result.mayContain(new AutomatonString("3")));
+	}
+}
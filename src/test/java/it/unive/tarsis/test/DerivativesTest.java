@@ -0,0 +1,122 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Derivatives;
+import it.unive.tarsis.regex.EmptySet;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.strings.ExtString;
+import java.util.Random;
+import org.junit.Test;
+
+public class DerivativesTest {
+
+	private static RegularExpression a(String s) {
+		return new Atom(s);
+	}
+
+	private static RegularExpression comp(RegularExpression... rs) {
+		RegularExpression result = rs[0];
+		for (int i = 1; i < rs.length; i++)
+			result = new Comp(result, rs[i]);
+		return result;
+	}
+
+	@Test
+	public void membership() {
+		Derivatives d = new Derivatives();
+		// select (ab|c)* from
+		RegularExpression r = comp(a("select "), new Star(new Or(a("ab"), a("c"))), a(" from"));
+
+		assertTrue(d.matches(r, "select  from"));
+		assertTrue(d.matches(r, "select abcab from"));
+		assertFalse(d.matches(r, "select abb from"));
+		assertFalse(d.matches(r, "select ab"));
+		assertFalse(d.matches(EmptySet.INSTANCE, ""));
+		assertTrue(d.matches(Atom.EPSILON, ""));
+		assertTrue(d.matches(comp(a("x"), TopAtom.INSTANCE, a("y")), "x anything y"));
+		assertFalse(d.matches(comp(a("x"), TopAtom.INSTANCE, a("y")), "x anything"));
+	}
+
+	@Test
+	public void membershipOfExtStrings() {
+		Derivatives d = new Derivatives();
+		RegularExpression r = new Star(new Or(a("ab"), a("c")));
+
+		assertTrue(d.mayMatch(r, ExtString.mkString("a").concat(ExtString.mkTopString(1))));
+		assertFalse(d.mayMatch(r, ExtString.mkString("b").concat(ExtString.mkTopString(1))));
+		ExtString xTop = ExtString.mkString("x").concat(ExtString.mkTopString(3));
+		assertTrue(d.mayMatch(comp(a("x"), TopAtom.INSTANCE), xTop));
+		assertFalse(d.mayMatch(comp(a("y"), TopAtom.INSTANCE), xTop));
+	}
+
+	@Test
+	public void inclusionAndEquivalence() {
+		Derivatives d = new Derivatives();
+		RegularExpression ab = new Star(new Or(a("a"), a("b")));
+		RegularExpression abStar = new Star(comp(new Star(a("a")), new Star(a("b"))));
+		RegularExpression aStar = new Star(a("a"));
+
+		assertTrue(d.isEquivalent(ab, abStar));
+		assertTrue(d.isIncluded(aStar, ab));
+		assertFalse(d.isIncluded(ab, aStar));
+		assertTrue(d.isEquivalent(comp(a("ab"), a("c")), a("abc")));
+		assertFalse(d.isEquivalent(new Or(a("ab"), a("abc")), a("abc")));
+
+		// top recognizes any string, including those made of other characters
+		assertTrue(d.isIncluded(ab, TopAtom.INSTANCE));
+		assertFalse(d.isIncluded(TopAtom.INSTANCE, ab));
+		assertTrue(d.isEquivalent(comp(TopAtom.INSTANCE, TopAtom.INSTANCE), TopAtom.INSTANCE));
+		assertTrue(d.isIncluded(EmptySet.INSTANCE, a("x")));
+	}
+
+	@Test
+	public void agreesWithAutomata() {
+		Random random = new Random(42);
+		Derivatives d = new Derivatives();
+		String[] words = { "", "a", "b", "ab", "ba", "aab", "abab", "bbb" };
+		for (int i = 0; i < 100; i++) {
+			RegularExpression r = TestUtil.randomRegex(random, 3, false, false, "a", "b", "ab");
+			RegularExpression s = TestUtil.randomRegex(random, 3, false, false, "a", "b", "ab");
+			Automaton first = r.toAutomaton().explode();
+			Automaton second = s.toAutomaton().explode();
+
+			// without top, exploded automata and derivatives share the same
+			// semantics
+			for (String w : words)
+				assertEquals(r + " on " + w, Automaton.mkAutomaton(w).explode().isContained(first), d.matches(r, w));
+			assertEquals(r + " <= " + s, first.isContained(second), d.isIncluded(r, s));
+		}
+	}
+
+	@Test
+	public void stringsGiveTheSameAnswersWithDerivatives() {
+		Random random = new Random(42);
+		String[] words = { "", "a", "ab", "abab", "bb" };
+		for (int i = 0; i < 50; i++) {
+			Automaton first = TestUtil.randomRegex(random, 3, false, false, "a", "b", "ab").toAutomaton();
+			Automaton second = TestUtil.randomRegex(random, 3, false, false, "a", "b", "ab").toAutomaton();
+
+			// the first strings never compute their regular expressions,
+			// while the second ones have them at hand
+			AutomatonString x = new AutomatonString(first), y = new AutomatonString(second);
+			AutomatonString rx = new AutomatonString(first), ry = new AutomatonString(second);
+			rx.getRegex();
+			ry.getRegex();
+
+			assertEquals(x.lessOrEqual(y), rx.lessOrEqual(ry));
+			assertEquals(x.isEqualTo(y), rx.isEqualTo(ry));
+			for (String w : words)
+				assertEquals(x.mayBeEqualTo(new AutomatonString(w)), rx.mayBeEqualTo(new AutomatonString(w)));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.engine.AutomatonEngine;
+import it.unive.tarsis.engine.Engines;
+import it.unive.tarsis.engine.ReferenceEngine;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+public class EngineTest {
+
+	private static class CountingEngine extends ReferenceEngine {
+
+		private final AtomicInteger unions = new AtomicInteger();
+
+		@Override
+		public String getName() {
+			return "counting";
+		}
+
+		@Override
+		public Automaton union(Automaton a, Automaton b) {
+			unions.incrementAndGet();
+			return super.union(a, b);
+		}
+	}
+
+	private static class RecordingEngine extends ReferenceEngine {
+
+		private final Set<String> calls = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public String getName() {
+			return "recording";
+		}
+
+		@Override
+		public Automaton union(Automaton... automata) {
+			calls.add("union");
+			return super.union(automata);
+		}
+
+		@Override
+		public long countPaths(Automaton a) {
+			calls.add("countPaths");
+			return super.countPaths(a);
+		}
+
+		@Override
+		public Pair<Integer, Integer> findIndexesOf(Automaton a, Automaton search) {
+			calls.add("findIndexesOf");
+			return super.findIndexesOf(a, search);
+		}
+	}
+
+	@Test
+	public void referenceEngineIsTheDefault() {
+		assertSame(Engines.REFERENCE, Engines.getDefault());
+		assertSame(Engines.REFERENCE, Engines.get(ReferenceEngine.NAME));
+		assertTrue(Engines.getAvailable().containsKey(ReferenceEngine.NAME));
+		assertSame(Engines.REFERENCE, new AutomatonString("a").getEngine());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownEngine() {
+		Engines.get("unknown");
+	}
+
+	@Test
+	public void resultsKeepTheEngine() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString a = new AutomatonString("a").withEngine(engine);
+		AutomatonString b = new AutomatonString("b");
+
+		AutomatonString lub = a.lub(b);
+		AutomatonString widened = lub.widen(a);
+		assertSame(engine, lub.getEngine());
+		assertSame(engine, widened.getEngine());
+		assertEquals(2, engine.unions.get());
+
+		AutomatonEngine reference = Engines.REFERENCE;
+		assertTrue(lub.isEqualTo(b.lub(new AutomatonString("a"))));
+		assertTrue(widened.withEngine(reference).lessOrEqual(widened));
+	}
+
+	@Test
+	public void stringOperationsGoThroughTheEngine() {
+		RecordingEngine engine = new RecordingEngine();
+		AutomatonString a = new AutomatonString("abc").lub(new AutomatonString("bcd")).withEngine(engine);
+		AutomatonString c = new AutomatonString("c");
+
+		assertTrue(a.substring(1, 2).isEqualTo(new AutomatonString("b").lub(c)));
+		assertEquals(new AutomatonString.Interval(1, 2, false), a.indexOf(c));
+		// a non-literal argument is not answered on regular expressions
+		assertTrue(a.mayContain(new AutomatonString("cd").lub(new AutomatonString("x"))));
+		assertEquals(new HashSet<>(Arrays.asList("union", "findIndexesOf", "countPaths")), engine.calls);
+	}
+}
@@ -0,0 +1,98 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.Atom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class ImmutabilityTest {
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void statesCannotBeModified() {
+		Automaton.mkAutomaton("abc").getStates().clear();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void transitionsCannotBeModified() {
+		Automaton.mkAutomaton("abc").getDelta().clear();
+	}
+
+	@Test
+	public void operationsDoNotModifyOperands() {
+		Automaton a = Automaton.mkAutomaton("abc");
+		String before = a.automatonPrint();
+
+		a.star();
+		a.prefix();
+		a.suffix();
+		a.factors();
+		a.acceptsTopEventually();
+		a.getOutgoingTransitionsFrom(new State("unknown", false, false));
+
+		assertEquals(before, a.automatonPrint());
+		assertEquals(2, a.getStates().size());
+		assertEquals(1, a.getFinalStates().size());
+	}
+
+	@Test
+	public void builderDoesNotModifyItsSource() {
+		State q0 = new State("q0", true, false);
+		State q1 = new State("q1", false, true);
+		Automaton a = new AutomatonBuilder().addState(q0).addState(q1).addTransition(q0, q1, new Atom("a")).build();
+
+		Automaton b = new AutomatonBuilder(a).setFinalState(q0, true).build();
+
+		assertFalse(a.getInitialState().isFinalState());
+		assertTrue(b.getInitialState().isFinalState());
+		for (Transition t : b.getDelta())
+			assertTrue(t.getFrom().isFinalState());
+	}
+
+	@Test
+	public void builderRemovesUnreachableStates() {
+		State q0 = new State("q0", true, false);
+		State q1 = new State("q1", false, true);
+		State q2 = new State("q2", false, true);
+		Automaton a = new AutomatonBuilder().addState(q0).addState(q1).addState(q2)
+				.addTransition(q0, q1, new Atom("a")).addTransition(q2, q1, new Atom("b")).build();
+
+		assertEquals(3, a.getStates().size());
+		assertEquals(2, a.removeUnreachableStates().getStates().size());
+		assertEquals(2, new AutomatonBuilder(a).removeUnreachableStates().build().getStates().size());
+		assertEquals(3, a.getStates().size());
+	}
+
+	@Test
+	public void sharedStringsAcrossThreads() throws Exception {
+		AutomatonString shared = new AutomatonString("ab").concat(new AutomatonString()).lub(new AutomatonString("c"));
+		AutomatonString other = new AutomatonString("abc");
+		boolean expected = other.lessOrEqual(shared);
+		String expectedRepr = shared.toString();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 16; i++)
+				results.add(executor.submit(() -> other.lessOrEqual(shared)
+						&& shared.mayContain(new AutomatonString("b"))
+						&& shared.toString().equals(expectedRepr)));
+
+			for (Future<Boolean> f : results)
+				assertEquals(expected, f.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
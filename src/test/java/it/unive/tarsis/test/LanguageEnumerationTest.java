@@ -0,0 +1,77 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.regex.TopAtom;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class LanguageEnumerationTest {
+
+	private static final Comparator<String> LENGTH_LEX = Comparator.comparingInt(String::length)
+			.thenComparing(Comparator.naturalOrder());
+
+	private static Automaton strings(String... strings) {
+		Automaton result = Automaton.mkEmptyLanguage();
+		for (String s : strings)
+			result = result.union(Automaton.mkAutomaton(s));
+		return result;
+	}
+
+	@Test
+	public void finiteLanguagesInLengthLexicographicOrder() {
+		Automaton a = strings("ba", "abc", "", "b", "ab", "aa");
+		assertEquals(Arrays.asList("", "b", "aa", "ab", "ba", "abc"),
+				a.enumerateLanguage().collect(Collectors.toList()));
+		assertEquals(Arrays.asList("", "b", "aa", "ab", "ba"), a.enumerateLanguage(2).collect(Collectors.toList()));
+		assertEquals(6, a.languageSize());
+	}
+
+	@Test
+	public void agreesWithGetLanguage() {
+		Random random = new Random(13);
+		for (int i = 0; i < 30; i++) {
+			String[] strings = new String[1 + random.nextInt(10)];
+			for (int j = 0; j < strings.length; j++) {
+				StringBuilder builder = new StringBuilder();
+				for (int k = random.nextInt(5); k > 0; k--)
+					builder.append((char) ('a' + random.nextInt(3)));
+				strings[j] = builder.toString();
+			}
+
+			// atoms of different lengths make paths ambiguous
+			Automaton a = strings(strings).concat(strings("x", "xy").union(strings("")))
+					.concat(strings("yz", "z"));
+			List<String> expected = a.getLanguage().stream().sorted(LENGTH_LEX).collect(Collectors.toList());
+			assertEquals(expected, a.enumerateLanguage().collect(Collectors.toList()));
+			assertEquals(expected.size(), a.languageSize());
+		}
+	}
+
+	@Test
+	public void infiniteLanguagesAreEnumeratedLazily() {
+		Automaton a = Automaton.mkAutomaton("ab").star().concat(Automaton.mkAutomaton("c"));
+		assertEquals(Arrays.asList("c", "abc", "ababc"), a.enumerateLanguage().limit(3).collect(Collectors.toList()));
+		assertEquals(Long.MAX_VALUE, a.languageSize());
+		assertEquals(2, a.enumerateLanguage(4).count());
+	}
+
+	@Test
+	public void topIsASingleCharacter() {
+		Automaton a = Automaton.mkAutomaton("a").concat(Automaton.mkTopAutomaton());
+		assertEquals(Arrays.asList("a" + TopAtom.STRING), a.enumerateLanguage().collect(Collectors.toList()));
+		assertEquals(a.getLanguage().size(), a.languageSize());
+	}
+
+	@Test
+	public void emptyLanguage() {
+		assertEquals(0, Automaton.mkEmptyLanguage().enumerateLanguage().count());
+		assertEquals(0, Automaton.mkEmptyLanguage().languageSize());
+		assertEquals(1, Automaton.mkEmptyString().languageSize());
+	}
+}
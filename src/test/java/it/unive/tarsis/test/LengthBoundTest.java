@@ -0,0 +1,60 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.engine.Engines;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.regex.TopAtom;
+import it.unive.tarsis.util.TarsisConfig;
+import org.junit.Test;
+
+public class LengthBoundTest {
+
+	private static final TarsisConfig BOUNDED = TarsisConfig.BALANCED.withLengthBound(4);
+
+	@Test
+	public void shortStringsAreKept() {
+		Automaton a = Automaton.mkAutomaton("abcd");
+		assertSame(a, a.boundLength(4));
+		Automaton top = Automaton.mkTopAutomaton();
+		assertSame(top, top.boundLength(0));
+	}
+
+	@Test
+	public void longStringsAreCut() {
+		Automaton expected = Automaton.concat(Automaton.mkAutomaton("abcd"), Automaton.mkTopAutomaton())
+				.minimize();
+		assertEquals(expected, Automaton.mkAutomaton("abcdefg").boundLength(4).minimize());
+		assertEquals(expected, new AutomatonString(Automaton.mkAutomaton("abcdefg"), Engines.getDefault(), BOUNDED)
+				.getAutomaton());
+	}
+
+	@Test
+	public void loopsAreCut() {
+		// ab(cd)*
+		Automaton loop = new Atom("ab").toAutomaton()
+				.concat(new Star(new Atom("cd")).toAutomaton()).minimize();
+		Automaton bounded = loop.boundLength(4).minimize();
+		assertFalse(bounded.hasCycle());
+		assertTrue(bounded.acceptsTopEventually());
+		assertTrue(bounded.getDelta().stream().anyMatch(t -> t.getInput() == TopAtom.INSTANCE));
+	}
+
+	@Test
+	public void concatenationsAreBounded() {
+		AutomatonString s = new AutomatonString("").withConfig(BOUNDED);
+		for (int i = 0; i < 100; i++)
+			s = s.concat(new AutomatonString("xy"));
+
+		assertTrue(s.size() <= 6);
+		assertTrue(s.mayStartWith(new AutomatonString("xyxy")));
+		assertFalse(s.startsWith(new AutomatonString("xyxyxy")));
+		assertTrue(s.getAutomaton().acceptsTopEventually());
+	}
+}
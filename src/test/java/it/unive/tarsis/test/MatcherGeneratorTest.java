@@ -0,0 +1,60 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonMatcher;
+import it.unive.tarsis.automata.StringMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class MatcherGeneratorTest {
+
+	private static List<String> strings(Random random, int count) {
+		List<String> result = new ArrayList<>();
+		result.add("");
+		for (int i = 0; i < count; i++) {
+			StringBuilder builder = new StringBuilder();
+			for (int k = random.nextInt(8); k > 0; k--)
+				builder.append(random.nextInt(10) == 0 ? '\u20ac' : (char) ('a' + random.nextInt(4)));
+			result.add(builder.toString());
+		}
+		return result;
+	}
+
+	@Test
+	public void agreesWithTheTableMatcher() {
+		Random random = new Random(3);
+		for (int i = 0; i < 30; i++) {
+			Automaton a = TestUtil.randomAutomaton(random, random.nextInt(4) + 2, 3, "abcd", 2, 0);
+			if (random.nextBoolean())
+				a = a.concat(Automaton.mkTopAutomaton()).concat(Automaton.mkAutomaton("d"));
+			AutomatonMatcher table = a.compile();
+			StringMatcher generated = table.specialize();
+			assertNotSame(table, generated);
+			for (String s : strings(random, 200)) {
+				assertEquals(a + " on " + s, table.accepts(s), generated.accepts(s));
+				assertEquals(a + " on " + s, table.acceptsPrefix(s), generated.acceptsPrefix(s));
+			}
+		}
+	}
+
+	@Test
+	public void largeMatchersAreNotSpecialized() {
+		Automaton a = Automaton.mkEmptyLanguage();
+		Random random = new Random(5);
+		for (int i = 0; i < 200; i++) {
+			StringBuilder builder = new StringBuilder();
+			for (int k = 0; k < 12; k++)
+				builder.append((char) ('a' + random.nextInt(26)));
+			a = a.union(Automaton.mkAutomaton(builder.toString()));
+		}
+
+		AutomatonMatcher table = a.compile();
+		assertSame(table, table.specialize());
+	}
+}
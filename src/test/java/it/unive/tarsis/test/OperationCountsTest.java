@@ -0,0 +1,226 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.automata.AlgorithmSelector;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.automata.algorithms.RegexExtractor;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.util.OperationCounters;
+import it.unive.tarsis.util.OperationCounters.Counter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the work done by the core algorithms on a seeded corpus stays
+ * within the recorded budgets, so that algorithmic regressions (e.g., an
+ * additional minimization) make these tests fail deterministically. When an
+ * improvement lowers a count, the corresponding budget should be lowered as
+ * well.
+ */
+public class OperationCountsTest {
+
+	private static final int CORPUS_SIZE = 24;
+
+	private int brzozowski, deMorgan, enumeration;
+
+	@Before
+	public void fixThresholds() {
+		brzozowski = AlgorithmSelector.getBrzozowskiThreshold();
+		deMorgan = AlgorithmSelector.getDeMorganThreshold();
+		enumeration = AlgorithmSelector.getEnumerationThreshold();
+		// calibrated thresholds would select different algorithms on
+		// different machines
+		AlgorithmSelector.setThresholds(AlgorithmSelector.DEFAULT_BRZOZOWSKI_THRESHOLD,
+				AlgorithmSelector.DEFAULT_DE_MORGAN_THRESHOLD, AlgorithmSelector.DEFAULT_ENUMERATION_THRESHOLD);
+	}
+
+	@After
+	public void restoreThresholds() {
+		AlgorithmSelector.setThresholds(brzozowski, deMorgan, enumeration);
+	}
+
+	@Test
+	public void minimization() {
+		List<Automaton> corpus = corpus(true);
+		OperationCounters counters = OperationCounters.run(() -> {
+			corpus.forEach(Automaton::minimize);
+			return null;
+		});
+
+		assertEquals(CORPUS_SIZE, counters.get(Counter.MINIMIZATIONS));
+		assertWithin(Counter.SUBSET_STATES, 290, counters);
+	}
+
+	@Test
+	public void minimalAutomataAreNotMinimizedAgain() {
+		List<Automaton> minimal = new ArrayList<>();
+		for (Automaton a : corpus(true))
+			minimal.add(a.minimize());
+
+		OperationCounters counters = OperationCounters.run(() -> {
+			minimal.forEach(Automaton::minimize);
+			return null;
+		});
+
+		assertWithin(Counter.MINIMIZATIONS, 0, counters);
+	}
+
+	@Test
+	public void binaryOperations() {
+		List<Automaton> corpus = minimal(corpus(true));
+		OperationCounters counters = OperationCounters.run(() -> {
+			for (int i = 0; i + 1 < corpus.size(); i++) {
+				corpus.get(i).union(corpus.get(i + 1));
+				corpus.get(i).concat(corpus.get(i + 1));
+				corpus.get(i).intersection(corpus.get(i + 1));
+			}
+			return null;
+		});
+
+		// one minimization for each operation
+		assertWithin(Counter.MINIMIZATIONS, 69, counters);
+		assertWithin(Counter.SUBSET_STATES, 966, counters);
+	}
+
+	@Test
+	public void containment() {
+		List<Automaton> corpus = minimal(corpus(true));
+		OperationCounters counters = OperationCounters.run(() -> {
+			for (int i = 0; i + 1 < corpus.size(); i++)
+				corpus.get(i).isContained(corpus.get(i).union(corpus.get(i + 1)));
+			return null;
+		});
+
+		assertWithin(Counter.MINIMIZATIONS, 69, counters);
+		assertWithin(Counter.SUBSET_STATES, 472, counters);
+	}
+
+	@Test
+	public void widening() {
+		List<Automaton> corpus = minimal(corpus(true));
+		OperationCounters counters = OperationCounters.run(() -> {
+			corpus.forEach(a -> a.widening(3));
+			return null;
+		});
+
+		assertWithin(Counter.MINIMIZATIONS, 0, counters);
+		assertWithin(Counter.SUBSET_STATES, 0, counters);
+	}
+
+	@Test
+	public void paths() {
+		// paths can visit cycles, thus they are exponentially many in the
+		// size of cyclic automata
+		List<Automaton> corpus = minimal(corpus(false));
+		OperationCounters counters = OperationCounters.run(() -> {
+			corpus.forEach(a -> a.getPathExtractor().getAllPaths());
+			return null;
+		});
+
+		assertWithin(Counter.PATHS, 151, counters);
+	}
+
+	@Test
+	public void regexExtraction() {
+		List<Automaton> corpus = minimal(corpus(false));
+		OperationCounters counters = OperationCounters.run(() -> {
+			corpus.forEach(RegexExtractor::getMinimalRegex);
+			return null;
+		});
+
+		assertWithin(Counter.REGEX_NODES, 2816, counters);
+	}
+
+	@Test
+	public void allocations() {
+		List<Automaton> corpus = corpus(true);
+		OperationCounters counters = OperationCounters.run(() -> {
+			corpus.forEach(Automaton::minimize);
+			return null;
+		});
+
+		long allocated = counters.getAllocatedBytes();
+		if (allocated >= 0) {
+			// allocations depend on the JIT compiler, thus the bound is loose
+			assertTrue(counters.toString(), allocated > 0);
+			assertTrue(counters.toString(), allocated <= 8_000_000);
+		}
+	}
+
+	@Test
+	public void nestedCounters() {
+		try (OperationCounters outer = OperationCounters.start()) {
+			OperationCounters inner = OperationCounters.run(() -> corpus(true).get(0).minimize());
+			corpus(true).get(1).minimize();
+
+			assertEquals(1, inner.get(Counter.MINIMIZATIONS));
+			assertEquals(2, outer.get(Counter.MINIMIZATIONS));
+		}
+
+		// no counter is started anymore
+		OperationCounters.count(Counter.MINIMIZATIONS, 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void countersMustBeClosedInReverseOrder() {
+		OperationCounters outer = OperationCounters.start();
+		OperationCounters inner = OperationCounters.start();
+		try {
+			outer.close();
+		} finally {
+			inner.close();
+			outer.close();
+		}
+	}
+
+	private static void assertWithin(Counter counter, long budget, OperationCounters counters) {
+		long count = counters.get(counter);
+		assertTrue(counter + " exceeded its budget of " + budget + ": " + counters, count <= budget);
+	}
+
+	private static List<Automaton> minimal(List<Automaton> automata) {
+		List<Automaton> result = new ArrayList<>();
+		for (Automaton a : automata)
+			result.add(a.minimize());
+		return result;
+	}
+
+	/**
+	 * Yields random non-deterministic automata, from 4 to 11 states with two
+	 * transitions leaving each state, always built from the same seed.
+	 */
+	private static List<Automaton> corpus(boolean cyclic) {
+		Random random = new Random(42);
+		List<Automaton> result = new ArrayList<>();
+		for (int i = 0; i < CORPUS_SIZE; i++) {
+			int size = 4 + i % 8;
+			State[] states = new State[size];
+			for (int j = 0; j < size; j++)
+				states[j] = new State("q" + j, j == 0, j == size - 1 || random.nextInt(4) == 0);
+
+			Set<Transition> delta = new HashSet<>();
+			for (int j = 0; j < size - 1; j++)
+				for (int k = 0; k < 2; k++) {
+					int target = cyclic ? random.nextInt(size) : j + 1 + random.nextInt(size - j - 1);
+					Atom label = new Atom(String.valueOf("abc".charAt(random.nextInt(3))));
+					delta.add(new Transition(states[j], states[target], label));
+				}
+
+			Set<State> all = new HashSet<>();
+			for (State s : states)
+				all.add(s);
+			result.add(new Automaton(delta, all));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,70 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.algorithms.PositionAutomaton;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Derivatives;
+import it.unive.tarsis.regex.EmptySet;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.regex.TopAtom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class PositionAutomatonTest {
+
+	private static boolean accepts(Automaton a, String str) {
+		Automaton[] chars = new Automaton[str.length() + 1];
+		chars[0] = Automaton.mkEmptyString();
+		for (int i = 0; i < str.length(); i++)
+			chars[i + 1] = Automaton.mkAutomaton(String.valueOf(str.charAt(i)));
+		return !a.intersection(Automaton.concat(chars)).isEmptyLanguageAccepted();
+	}
+
+	@Test
+	public void recognizesTheSameStringsAsDerivatives() {
+		Random random = new Random(7);
+		Derivatives derivatives = new Derivatives();
+		List<String> strings = new ArrayList<>();
+		strings.add("");
+		for (int i = 0; i < strings.size() && strings.get(i).length() < 4; i++)
+			for (char c = 'a'; c <= 'c'; c++)
+				strings.add(strings.get(i) + c);
+
+		for (int i = 0; i < 100; i++) {
+			RegularExpression r = TestUtil.randomRegex(random, 1 + random.nextInt(4), true, true, "a", "b", "c");
+			Automaton a = PositionAutomaton.build(r);
+			for (String str : strings)
+				assertEquals(r + " on " + str, derivatives.matches(r, str), accepts(a, str));
+		}
+	}
+
+	@Test
+	public void starsOfAutomataWithLoopsOnTheInitialState() {
+		// (a*b*c)* does not recognize a
+		RegularExpression r = new Star(new Comp(new Comp(new Star(new Atom("a")), new Star(new Atom("b"))),
+				new Atom("c")));
+		assertFalse(accepts(r.toAutomaton(), "a"));
+		assertTrue(accepts(r.toAutomaton(), "abcc"));
+		assertTrue(accepts(r.toAutomaton(), ""));
+	}
+
+	@Test
+	public void starOfTheEmptyLanguage() {
+		assertEquals(Automaton.mkEmptyString(), new Star(EmptySet.INSTANCE).toAutomaton());
+	}
+
+	@Test
+	public void topAtomsArePositions() {
+		RegularExpression r = new Comp(new Atom("x"), new Comp(TopAtom.INSTANCE, new Atom("y")));
+		assertEquals(Automaton.mkAutomaton("x").concat(Automaton.mkTopAutomaton()).concat(Automaton.mkAutomaton("y")),
+				r.toAutomaton());
+	}
+}
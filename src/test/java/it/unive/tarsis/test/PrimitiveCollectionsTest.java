@@ -0,0 +1,129 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonIndex;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.algorithms.SCCs;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.util.DenseBitSet;
+import it.unive.tarsis.util.IntHashSet;
+import it.unive.tarsis.util.IntIntHashMap;
+import it.unive.tarsis.util.IntList;
+import it.unive.tarsis.util.IntQueue;
+import it.unive.tarsis.util.IntStack;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class PrimitiveCollectionsTest {
+
+	@Test
+	public void bitSetGrowsAndCompares() {
+		DenseBitSet small = new DenseBitSet(1);
+		DenseBitSet large = new DenseBitSet(1000);
+		assertTrue(small.set(3));
+		assertFalse(small.set(3));
+		assertTrue(small.set(200));
+		large.set(3);
+		large.set(200);
+
+		assertEquals(small, large);
+		assertEquals(small.hashCode(), large.hashCode());
+		assertEquals(2, small.cardinality());
+		assertEquals(200, small.nextSetBit(4));
+		assertEquals(-1, small.nextSetBit(201));
+
+		small.clear(200);
+		assertFalse(small.equals(large));
+		assertTrue(small.intersects(large));
+	}
+
+	@Test
+	public void hashSetKeepsInsertionOrder() {
+		IntHashSet set = new IntHashSet(2);
+		for (int i = 100; i >= -100; i--)
+			set.add(i);
+		assertFalse(set.add(0));
+		assertTrue(set.contains(-100));
+		assertFalse(set.contains(101));
+		assertEquals(201, set.size());
+		assertEquals(100, set.toArray()[0]);
+		assertEquals(-100, set.toArray()[200]);
+	}
+
+	@Test
+	public void hashMapStoresValues() {
+		IntIntHashMap map = new IntIntHashMap(4, -1);
+		for (int i = 0; i < 1000; i++)
+			map.put(i * 7, i);
+		map.put(7, 42);
+		assertEquals(1000, map.size());
+		assertEquals(42, map.get(7));
+		assertEquals(999, map.get(6993));
+		assertEquals(-1, map.get(1));
+		assertFalse(map.containsKey(1));
+	}
+
+	@Test
+	public void stackAndQueueWrapAround() {
+		IntStack stack = new IntStack(1);
+		IntQueue queue = new IntQueue(2);
+		for (int i = 0; i < 50; i++) {
+			stack.push(i);
+			queue.add(i);
+			if (i % 3 == 0)
+				queue.poll();
+		}
+
+		assertEquals(49, stack.pop());
+		stack.setPeek(-1);
+		assertEquals(-1, stack.peek());
+		assertEquals(33, queue.size());
+		assertEquals(17, queue.poll());
+	}
+
+	@Test
+	public void listGrowsInOrder() {
+		IntList list = new IntList(1);
+		for (int i = 0; i < 50; i++)
+			list.add(i * i);
+
+		assertEquals(50, list.size());
+		assertEquals(49 * 49, list.get(49));
+		int[] array = list.toArray();
+		assertEquals(50, array.length);
+		assertEquals(9, array[3]);
+		list.clear();
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void exactSCCs() {
+		// the minimal automaton loops on ab, while c is not part of any cycle
+		Automaton a = Automaton.mkAutomaton("ab").star().concat(Automaton.mkAutomaton("c"));
+		SCCs sccs = SCCs.getSCCs(a.minimize());
+
+		assertEquals(1, sccs.size());
+		Set<State> scc = sccs.iterator().next();
+		assertEquals(1, scc.size());
+		for (State s : scc)
+			assertFalse(s.isFinalState());
+	}
+
+	@Test
+	public void indexNumbersSymbols() {
+		Automaton a = Automaton.mkAutomaton("a").union(Automaton.mkAutomaton("b")).concat(Automaton.mkAutomaton("a"));
+		AutomatonIndex idx = a.getIndex();
+
+		Set<RegularExpression> symbols = new HashSet<>();
+		for (int i = 0; i < idx.getSymbolCount(); i++)
+			assertTrue(symbols.add(idx.getSymbol(i)));
+		for (int i = 0; i < idx.size(); i++)
+			for (int j = 0; j < idx.getOutgoing(i).length; j++)
+				assertEquals(idx.getOutgoing(i)[j].getInput(), idx.getSymbol(idx.getLabels(i)[j]));
+	}
+}
@@ -5,6 +5,7 @@ import static it.unive.tarsis.test.TestUtil.randomChar;
 import static org.junit.Assert.assertTrue;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.automata.algorithms.RegexExtractor;
@@ -80,11 +81,11 @@ public class RandomPathsTest {
 		int sizeOfChar = 2;
 
 		for (int k = 0; k < numberOfGeneratedAutomaton; k++) {
-			Automaton gen = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			Automaton generated = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			AutomatonBuilder gen = new AutomatonBuilder(generated);
 			for (State s : states)
 				gen.addTransition(new Transition(s, s, randomChar(sizeOfChar)));
-			gen.recomputeOutgoingAdjacencyList();
-			check(gen);
+			check(gen.build());
 		}
 	}
 
@@ -130,10 +131,10 @@ public class RandomPathsTest {
 					+ (1 + initials) + " initials, " + (1 + finals) + " finals)... ");
 			long start = System.nanoTime();
 
-			Automaton gen = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			Automaton generated = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			AutomatonBuilder gen = new AutomatonBuilder(generated);
 			for (State s : states)
 				gen.addTransition(new Transition(s, s, randomChar(sizeOfChar)));
-			gen.recomputeOutgoingAdjacencyList();
 
 			long elapsed = System.nanoTime() - start;
 			System.out.println("Done in " + formatInterval(elapsed));
@@ -141,7 +142,7 @@ public class RandomPathsTest {
 			System.out.print("Checking automaton " + (k + 1) + "/" + numberOfGeneratedAutomata + "... ");
 			start = System.nanoTime();
 
-			check(gen);
+			check(gen.build());
 
 			elapsed = System.nanoTime() - start;
 			System.out.println("Done in " + formatInterval(elapsed));
@@ -5,6 +5,7 @@ import static it.unive.tarsis.test.TestUtil.randomChar;
 import static org.junit.Assert.assertEquals;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.automata.algorithms.RegexExtractor;
@@ -88,11 +89,11 @@ public class RandomToRegexTest {
 		int sizeOfChar = 2;
 
 		for (int k = 0; k < numberOfGeneratedAutomata; k++) {
-			Automaton gen = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			Automaton generated = generateAutomaton(states, mapping, numberOfTransitionsForEachState, sizeOfChar);
+			AutomatonBuilder gen = new AutomatonBuilder(generated);
 			for (State s : states)
 				gen.addTransition(new Transition(s, s, randomChar(sizeOfChar)));
-			gen.recomputeOutgoingAdjacencyList();
-			check(gen);
+			check(gen.build());
 		}
 	}
 
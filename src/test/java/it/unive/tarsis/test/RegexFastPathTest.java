@@ -0,0 +1,96 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.engine.ReferenceEngine;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import org.junit.Test;
+
+public class RegexFastPathTest {
+
+	private static class CountingEngine extends ReferenceEngine {
+		private final AtomicInteger checks = new AtomicInteger();
+
+		@Override
+		public Automaton intersection(Automaton a, Automaton b) {
+			checks.incrementAndGet();
+			return super.intersection(a, b);
+		}
+
+		@Override
+		public boolean mustLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate) {
+			checks.incrementAndGet();
+			return super.mustLanguageCheck(a, b, predicate);
+		}
+
+		@Override
+		public boolean mayLanguageCheck(Automaton a, Automaton b, BiPredicate<String, String> predicate) {
+			checks.incrementAndGet();
+			return super.mayLanguageCheck(a, b, predicate);
+		}
+
+		@Override
+		public boolean mustBeContained(Automaton a, Automaton b) {
+			checks.incrementAndGet();
+			return super.mustBeContained(a, b);
+		}
+	}
+
+	private static AutomatonString s(String... literals) {
+		return new AutomatonString(literals);
+	}
+
+	@Test
+	public void literalSetsAreDecidedByTheRegex() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString set = s("select x", "select y", "delete z").withEngine(engine);
+
+		assertTrue(set.mayContain(s("ect")));
+		assertTrue(set.contains(s("e")));
+		assertFalse(set.contains(s("ect")));
+		assertTrue(set.mayStartWith(s("sel")));
+		assertFalse(set.startsWith(s("sel")));
+		assertTrue(set.mayEndWith(s("z")));
+		assertFalse(set.endsWith(s("z")));
+		assertTrue(set.mayBeEqualTo(s("select y")));
+		assertFalse(set.mayBeEqualTo(s("select")));
+		assertEquals(0, engine.checks.get());
+	}
+
+	@Test
+	public void boundariesAreDecidedByTheRegex() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString loop = new AutomatonString(Automaton.mkAutomaton("x").star());
+		AutomatonString query = s("select ").concat(loop).concat(s(" from t")).withEngine(engine);
+
+		assertTrue(query.startsWith(s("sel")));
+		assertTrue(query.mayStartWith(s("select ")));
+		assertFalse(query.mayStartWith(s("delete")));
+		assertTrue(query.endsWith(s("from t")));
+		assertFalse(query.mayEndWith(s("from u")));
+		assertTrue(query.contains(s("lect")));
+		assertTrue(query.mayContain(s(" from")));
+		assertEquals(0, engine.checks.get());
+
+		// inconclusive answers fall back to the automaton
+		assertTrue(query.mayContain(s("xxx")));
+		assertFalse(query.contains(s("xxx")));
+		assertTrue(engine.checks.get() > 0);
+	}
+
+	@Test
+	public void lengthsRefuteFiniteLanguages() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString set = s("ab", "cd").concat(s("e", "fg")).withEngine(engine);
+
+		assertFalse(set.mayContain(s("abcdefg")));
+		assertFalse(set.mayBeEqualTo(s("a")));
+		assertFalse(set.contains(s("abfg")));
+		assertEquals(0, engine.checks.get());
+	}
+}
@@ -0,0 +1,81 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.AutomatonString.Interval;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.engine.ReferenceEngine;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class RopeTest {
+
+	private static class CountingEngine extends ReferenceEngine {
+		private final AtomicInteger concats = new AtomicInteger();
+
+		@Override
+		public Automaton concat(Automaton a, Automaton b) {
+			concats.incrementAndGet();
+			return super.concat(a, b);
+		}
+
+		@Override
+		public Automaton concat(Automaton... automata) {
+			concats.incrementAndGet();
+			return super.concat(automata);
+		}
+	}
+
+	@Test
+	public void concatenationsAreMaterializedOnce() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString rope = new AutomatonString("").withEngine(engine);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			rope = rope.concat(new AutomatonString("p" + i));
+			expected.append("p" + i);
+		}
+		assertEquals(0, engine.concats.get());
+
+		assertTrue(rope.isEqualTo(new AutomatonString(expected.toString())));
+		assertEquals(1, engine.concats.get());
+		assertEquals(new AutomatonString(expected.toString()).getAutomaton(), rope.getAutomaton());
+		assertEquals(1, engine.concats.get());
+	}
+
+	@Test
+	public void cheapQueriesDoNotMaterialize() {
+		CountingEngine engine = new CountingEngine();
+		AutomatonString rope = new AutomatonString("ab").withEngine(engine)
+				.concat(new AutomatonString("cd"))
+				.concat(new AutomatonString("x", "yy"))
+				.concat(new AutomatonString());
+
+		assertEquals(new Interval(5, Integer.MAX_VALUE, true), rope.length());
+		assertTrue(rope.startsWith(new AutomatonString("abc")));
+		assertTrue(rope.mayStartWith(new AutomatonString("abcd")));
+		assertFalse(rope.startsWith(new AutomatonString("abd")));
+		assertFalse(rope.mayStartWith(new AutomatonString("b")));
+		assertEquals(0, engine.concats.get());
+
+		assertTrue(rope.mayStartWith(new AutomatonString("abcdyy")));
+		assertFalse(rope.startsWith(new AutomatonString("abcdyy")));
+		assertEquals(1, engine.concats.get());
+	}
+
+	@Test
+	public void largeRopesAreMaterializedEagerly() {
+		CountingEngine engine = new CountingEngine();
+		TarsisConfig capped = TarsisConfig.BALANCED.withStateCap(16);
+		AutomatonString rope = new AutomatonString("").withEngine(engine).withConfig(capped);
+		for (int i = 0; i < 20; i++)
+			rope = rope.concat(new AutomatonString("a", "b"));
+
+		assertTrue(engine.concats.get() > 0);
+		assertTrue(rope.size() <= 16);
+	}
+}
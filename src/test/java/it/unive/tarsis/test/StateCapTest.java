@@ -0,0 +1,103 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
+import it.unive.tarsis.util.TarsisConfig;
+import org.junit.Test;
+
+public class StateCapTest {
+
+	private static AutomatonString chain(TarsisConfig config, int length) {
+		AutomatonString result = new AutomatonString("").withConfig(config);
+		for (int i = 0; i < length; i++)
+			result = result.concat(new AutomatonString(String.valueOf((char) ('a' + i % 26))));
+		return result;
+	}
+
+	@Test
+	public void truncationKeepsPrefixes() {
+		Automaton chain = chain(TarsisConfig.BALANCED, 10).getAutomaton().explode();
+		assertSame(chain, chain.truncate(100));
+
+		Automaton truncated = chain.truncate(6);
+		assertTrue(truncated.getStates().size() <= 6);
+		assertTrue(chain.isContained(truncated));
+		assertTrue(truncated.hasCycle());
+		assertEquals(1, chain.truncate(0).getStates().size());
+		assertTrue(chain.isContained(chain.truncate(0)));
+	}
+
+	@Test
+	public void truncationContainsWordsLeavingTheKeptStates() {
+		Automaton loop = Automaton.mkAutomaton("abc").star().explode();
+		Automaton truncated = loop.truncate(2);
+		assertTrue(truncated.getStates().size() <= 2);
+		assertTrue(loop.isContained(truncated));
+		assertTrue(Automaton.mkAutomaton("abcabc").explode().isContained(truncated));
+	}
+
+	@Test
+	public void cappedResultsContainTheirInputs() {
+		// widening is disabled, so that results are truncated
+		TarsisConfig capped = TarsisConfig.BALANCED.withWideningCap(0);
+
+		AutomatonString loop = new AutomatonString(Automaton.mkAutomaton("abc").star().explode());
+		assertCappedContains(loop, capped.withStateCap(2), "abcabc");
+
+		// ε + ac(bbac)*bb + abbb, over single characters
+		RegularExpression regex = new Or(Atom.EPSILON,
+				new Or(new Comp(new Atom("ac"), new Comp(new Star(new Atom("bbac")), new Atom("bb"))),
+						new Atom("abbb")));
+		AutomatonString language = new AutomatonString(regex.toAutomaton().explode());
+		assertCappedContains(language, TarsisConfig.BALANCED.withStateCap(4), "acbbacbb");
+		assertCappedContains(language, capped.withStateCap(4), "acbbacbb");
+	}
+
+	private static void assertCappedContains(AutomatonString precise, TarsisConfig config, String word) {
+		// the lub with a string of the language makes the result capped
+		AutomatonString coarse = precise.withConfig(config).lub(new AutomatonString(""));
+
+		assertTrue(precise.size() > config.getStateCap());
+		assertTrue(coarse.size() <= config.getStateCap());
+		assertTrue(precise.lessOrEqual(coarse));
+		assertTrue(new AutomatonString(Automaton.mkAutomaton(word).explode()).lessOrEqual(coarse));
+	}
+
+	@Test
+	public void resultsRespectTheCap() {
+		TarsisConfig capped = TarsisConfig.BALANCED.withStateCap(8);
+		AutomatonString precise = chain(TarsisConfig.BALANCED, 20);
+		AutomatonString coarse = chain(capped, 20);
+
+		assertEquals(21, precise.size());
+		assertTrue(coarse.size() <= 8);
+		assertTrue(precise.lessOrEqual(coarse));
+		assertFalse(coarse.lessOrEqual(precise));
+		assertTrue(coarse.mayStartWith(new AutomatonString("abcd")));
+	}
+
+	@Test
+	public void joinsRespectTheCap() {
+		TarsisConfig capped = TarsisConfig.BALANCED.withStateCap(5);
+		AutomatonString precise = null;
+		AutomatonString coarse = null;
+		for (int i = 0; i < 10; i++) {
+			AutomatonString s = new AutomatonString("s" + i + "x" + (i * 7));
+			precise = precise == null ? s : precise.lub(s);
+			coarse = coarse == null ? s.withConfig(capped) : coarse.lub(s);
+		}
+
+		assertTrue(coarse.size() <= 5);
+		assertTrue(precise.lessOrEqual(coarse));
+	}
+}
@@ -0,0 +1,100 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.util.Budget;
+import it.unive.tarsis.util.TarsisConfig;
+import it.unive.tarsis.util.TarsisConfig.Minimization;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Test;
+
+public class TarsisConfigTest {
+
+	@Test
+	public void presetsAreNamed() {
+		assertSame(TarsisConfig.BALANCED, TarsisConfig.getDefault());
+		assertSame(TarsisConfig.FAST, TarsisConfig.byName("fast"));
+		assertSame(TarsisConfig.PRECISE, TarsisConfig.byName("precise"));
+		assertEquals("fast*", TarsisConfig.FAST.withWideningCap(2).withParallelThreshold(1).getName());
+		assertEquals(AutomatonString.WIDENING_CAP, TarsisConfig.BALANCED.getWideningCap());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownPreset() {
+		TarsisConfig.byName("unknown");
+	}
+
+	@Test
+	public void installationsAreScoped() {
+		assertSame(TarsisConfig.BALANCED, TarsisConfig.current());
+		TarsisConfig.Installation installation = TarsisConfig.FAST.install();
+		try {
+			assertSame(TarsisConfig.FAST, TarsisConfig.current());
+			assertSame(TarsisConfig.FAST, new AutomatonString("a").getConfig());
+			assertSame(TarsisConfig.PRECISE, TarsisConfig.PRECISE.run(TarsisConfig::current));
+			assertSame(TarsisConfig.FAST, TarsisConfig.current());
+		} finally {
+			installation.close();
+		}
+		assertSame(TarsisConfig.BALANCED, TarsisConfig.current());
+	}
+
+	@Test
+	public void resultsKeepTheConfiguration() {
+		TarsisConfig config = TarsisConfig.PRECISE.withMinimization(Minimization.NEVER);
+		AutomatonString a = new AutomatonString("a").withConfig(config);
+		AutomatonString lub = a.lub(new AutomatonString("b"));
+		assertSame(config, lub.getConfig());
+		assertSame(config, lub.widen(a).getConfig());
+		assertSame(config, lub.concat(a).getConfig());
+	}
+
+	@Test
+	public void wideningCapIsConfigurable() {
+		AutomatonString abc = new AutomatonString("abc");
+		AutomatonString abcd = new AutomatonString("abcd");
+		AutomatonString coarse = abc.withConfig(TarsisConfig.BALANCED.withWideningCap(1)).widen(abcd);
+		AutomatonString fine = abc.withConfig(TarsisConfig.BALANCED.withWideningCap(10)).widen(abcd);
+
+		assertTrue(fine.lessOrEqual(coarse));
+		assertTrue(abcd.lessOrEqual(fine));
+	}
+
+	@Test
+	public void budgetIsAppliedPerOperation() {
+		TarsisConfig config = TarsisConfig.BALANCED.withBudget(Budget.UNLIMITED.withMaxStates(0));
+		AutomatonString loop = new AutomatonString(Automaton.mkAutomaton("ab").star()).withConfig(config);
+		assertFalse(Budget.isActive());
+		assertTrue(loop.mayContain(new AutomatonString("c")));
+		assertFalse(Budget.isActive());
+		assertFalse(new AutomatonString(Automaton.mkAutomaton("ab").star()).mayContain(new AutomatonString("c")));
+	}
+
+	@Test
+	public void smallLanguagesAreCached() {
+		Automaton small = Automaton.mkAutomaton("a").union(Automaton.mkAutomaton("b"));
+		Set<String> language = small.getLanguage();
+		assertEquals(2, language.size());
+		assertSame(language, small.getLanguage());
+
+		Automaton uncached = Automaton.mkAutomaton("a").union(Automaton.mkAutomaton("b"));
+		Set<String> first = TarsisConfig.BALANCED.withLanguageCacheSize(1).run(uncached::getLanguage);
+		assertEquals(first, uncached.getLanguage());
+		assertFalse(first == uncached.getLanguage());
+	}
+
+	@Test
+	public void streamsAreParallelAboveThreshold() {
+		TarsisConfig config = TarsisConfig.BALANCED.withParallelThreshold(3);
+		assertFalse(config.stream(Arrays.asList(1, 2)).isParallel());
+		assertTrue(config.stream(Arrays.asList(1, 2, 3)).isParallel());
+		assertFalse(TarsisConfig.FAST.stream(Collections.nCopies(100_000, 1)).isParallel());
+	}
+}
@@ -1,9 +1,15 @@
 package it.unive.tarsis.test;
 
 import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.AutomatonBuilder;
 import it.unive.tarsis.automata.State;
 import it.unive.tarsis.automata.Transition;
 import it.unive.tarsis.regex.Atom;
+import it.unive.tarsis.regex.Comp;
+import it.unive.tarsis.regex.EmptySet;
+import it.unive.tarsis.regex.Or;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.regex.Star;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
@@ -21,11 +27,11 @@ public class TestUtil {
 	}
 
 	public static Automaton addEdges(Automaton a, Transition... transitions) {
+		AutomatonBuilder builder = new AutomatonBuilder(a);
 		for (Transition t : transitions)
-			a.addTransition(t);
+			builder.addTransition(t);
 
-		a.recomputeOutgoingAdjacencyList();
-		return a;
+		return builder.build();
 	}
 
 	public static Atom randomChar(int count) {
@@ -55,4 +61,54 @@ public class TestUtil {
 
 		return a;
 	}
+
+	public static Automaton randomAutomaton(Random random, int size, int transitionsForEachState, String alphabet,
+			int maxLabelLength, int epsilonOneIn) {
+		State[] states = new State[size];
+		Set<State> set = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			states[i] = new State("q" + i, i == 0, random.nextInt(3) == 0);
+			set.add(states[i]);
+		}
+
+		Set<Transition> delta = new HashSet<>();
+		for (int i = 0; i < size; i++)
+			for (int j = 0; j < transitionsForEachState; j++) {
+				Atom label;
+				if (epsilonOneIn > 0 && random.nextInt(epsilonOneIn) == 0)
+					label = Atom.EPSILON;
+				else {
+					StringBuilder builder = new StringBuilder();
+					for (int k = 1 + random.nextInt(maxLabelLength); k > 0; k--)
+						builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+					label = new Atom(builder.toString());
+				}
+				delta.add(new Transition(states[i], states[random.nextInt(size)], label));
+			}
+
+		return new Automaton(delta, set);
+	}
+
+	public static RegularExpression randomRegex(Random random, int depth, boolean epsilon, boolean emptySet,
+			String... atoms) {
+		if (depth == 0) {
+			int leaf = random.nextInt(6);
+			if (leaf == 0 && epsilon)
+				return Atom.EPSILON;
+			if (leaf == 1 && emptySet)
+				return EmptySet.INSTANCE;
+			return new Atom(atoms[random.nextInt(atoms.length)]);
+		}
+
+		switch (random.nextInt(4)) {
+		case 0:
+			return new Or(randomRegex(random, depth - 1, epsilon, emptySet, atoms),
+					randomRegex(random, depth - 1, epsilon, emptySet, atoms));
+		case 1:
+			return new Star(randomRegex(random, depth - 1, epsilon, emptySet, atoms));
+		default:
+			return new Comp(randomRegex(random, depth - 1, epsilon, emptySet, atoms),
+					randomRegex(random, depth - 1, epsilon, emptySet, atoms));
+		}
+	}
 }
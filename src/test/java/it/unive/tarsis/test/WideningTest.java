@@ -0,0 +1,98 @@
+package it.unive.tarsis.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.tarsis.AutomatonString;
+import it.unive.tarsis.automata.Automaton;
+import it.unive.tarsis.automata.State;
+import it.unive.tarsis.automata.Transition;
+import it.unive.tarsis.regex.RegularExpression;
+import it.unive.tarsis.util.OperationCounters;
+import it.unive.tarsis.util.OperationCounters.Counter;
+import it.unive.tarsis.util.TarsisConfig;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class WideningTest {
+
+	@Test
+	public void refinementMatchesEnumeration() {
+		Random random = new Random(42);
+		for (int i = 0; i < 50; i++) {
+			Automaton a = TestUtil.randomAutomaton(random, 3 + i % 8, 3, "ab", 2, 0).minimize();
+			for (int n = 0; n <= 4; n++)
+				assertEquals(a.automatonPrint() + " with n = " + n, enumerationWidening(a, n), a.widening(n));
+		}
+	}
+
+	@Test
+	public void cappedConcatenationsAreWidenedByRefinement() {
+		// truncated automata end with a state looping on all their symbols,
+		// where the sequences of symbols grow exponentially with the widening
+		// parameter
+		TarsisConfig capped = TarsisConfig.BALANCED.withStateCap(8);
+		AutomatonString result = new AutomatonString("").withConfig(capped);
+		for (int i = 0; i < 26; i++)
+			result = result.concat(new AutomatonString(String.valueOf((char) ('a' + i))));
+
+		assertTrue(result.size() <= 8);
+		String word = "abcdefghijklmnopqrstuvwxyz";
+		assertTrue(new AutomatonString(Automaton.mkAutomaton(word).explode()).lessOrEqual(result));
+
+		Automaton truncated = result.getAutomaton();
+		Automaton[] widened = new Automaton[1];
+		OperationCounters counters = OperationCounters.run(() -> widened[0] = truncated.widening(5));
+		assertTrue(widened[0].getStates().size() <= truncated.getStates().size());
+		assertTrue(truncated.isContained(widened[0]));
+		assertEquals(0, counters.get(Counter.MINIMIZATIONS));
+		assertEquals(0, counters.get(Counter.SUBSET_STATES));
+	}
+
+	/**
+	 * The widening as defined on the sequences of at most {@code n} symbols
+	 * leaving each state, which are enumerated.
+	 */
+	private static Automaton enumerationWidening(Automaton a, int n) {
+		Map<Set<RegularExpression>, State> partitions = new HashMap<>();
+		Map<State, Set<RegularExpression>> languages = new HashMap<>();
+		for (State s : a.getStates())
+			languages.put(s, sequences(a, s, n));
+
+		Map<Set<RegularExpression>, boolean[]> flags = new HashMap<>();
+		for (State s : a.getStates()) {
+			boolean[] f = flags.computeIfAbsent(languages.get(s), l -> new boolean[2]);
+			f[0] |= s.isInitialState();
+			f[1] |= s.isFinalState();
+		}
+		for (Map.Entry<Set<RegularExpression>, boolean[]> entry : flags.entrySet())
+			partitions.put(entry.getKey(),
+					new State("p" + partitions.size(), entry.getValue()[0], entry.getValue()[1]));
+
+		Set<Transition> delta = new HashSet<>();
+		for (Transition t : a.getDelta())
+			delta.add(new Transition(partitions.get(languages.get(t.getFrom())),
+					partitions.get(languages.get(t.getTo())), t.getInput()));
+		return new Automaton(delta, new HashSet<>(partitions.values()));
+	}
+
+	private static Set<RegularExpression> sequences(Automaton a, State s, int n) {
+		Set<RegularExpression> result = new HashSet<>();
+		if (n == 0)
+			return result;
+
+		for (Transition t : a.getOutgoingTransitionsFrom(s)) {
+			Set<RegularExpression> next = sequences(a, t.getTo(), n - 1);
+			if (next.isEmpty())
+				result.add(t.getInput());
+			else
+				for (RegularExpression r : next)
+					result.add(t.getInput().concat(r));
+		}
+		return result;
+	}
+}